@@ -74,6 +74,11 @@ class PagedChannelRandomAccessSource extends GroupedRandomAccessSource implement
      */
     private final MRU<RandomAccessSource> mru;
 
+    /**
+     * Whether closing this source closes the channel
+     */
+    private final boolean closeChannel;
+
     /**
      * Constructs a new {@link PagedChannelRandomAccessSource} based on the specified FileChannel, with a default buffer configuration.
      * The default buffer configuration is currently 2^26 total paged bytes, spread across a maximum of 16 active buffers. This arrangement
@@ -92,10 +97,23 @@ class PagedChannelRandomAccessSource extends GroupedRandomAccessSource implement
      * @throws IOException if the channel cannot be opened or mapped
      */
 	public PagedChannelRandomAccessSource(final FileChannel channel, final int totalBufferSize, final int maxOpenBuffers) throws IOException {
+		this(channel, totalBufferSize, maxOpenBuffers, true);
+	}
+
+    /**
+     * Constructs a new {@link PagedChannelRandomAccessSource} based on the specified FileChannel, with a specific buffer size
+     * @param channel the channel to use as the backing store
+     * @param bufferSize the size of the buffers to use
+     * @param closeChannel whether closing this source closes the channel, or only the mapped pages
+     * @throws IOException if the channel cannot be opened or mapped
+     * @since 5.5.6
+     */
+	PagedChannelRandomAccessSource(final FileChannel channel, final int totalBufferSize, final int maxOpenBuffers, final boolean closeChannel) throws IOException {
         super(buildSources(channel, totalBufferSize/maxOpenBuffers));
 		this.channel = channel;
         this.bufferSize = totalBufferSize/maxOpenBuffers;
         this.mru = new MRU<RandomAccessSource>(maxOpenBuffers);
+        this.closeChannel = closeChannel;
 	}
 
 	/**
@@ -153,11 +171,12 @@ class PagedChannelRandomAccessSource extends GroupedRandomAccessSource implement
 	@Override
     /**
      * {@inheritDoc}
-     * Cleans the mapped bytebuffers and closes the channel
+     * Cleans the mapped bytebuffers and closes the channel, unless it was created to leave it open
      */
     public void close() throws IOException {
     	super.close();
-        channel.close();
+    	if (closeChannel)
+    		channel.close();
     }
 
 	private static class MRU<E>{
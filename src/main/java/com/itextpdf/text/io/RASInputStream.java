@@ -74,7 +74,8 @@ public class RASInputStream extends InputStream {
 	 */
 	public int read(byte[] b, int off, int len) throws IOException {
 		int count = source.get(position, b, off, len);
-		position += count;
+		if (count > 0)
+			position += count;
 		return count;
 	}
 	
@@ -83,7 +84,10 @@ public class RASInputStream extends InputStream {
 	 * {@inheritDoc}
 	 */
 	public int read() throws IOException {
-		return source.get(position++);
+		int b = source.get(position);
+		if (b >= 0)
+			++position;
+		return b;
 	}
 
 }
@@ -236,10 +236,31 @@ public final class RandomAccessSourceFactory {
 	 * @return the newly created {@link RandomAccessSource}
 	 */
 	public RandomAccessSource createBestSource(FileChannel channel) throws IOException{
+		return createBestSource(channel, true);
+	}
+
+	/**
+	 * Creates a {@link RandomAccessSource} based on memory mapping a file channel.
+	 * Closing the source frees the mapped buffers; it closes the channel only if
+	 * <CODE>closeChannel</CODE> is true, so a channel owned by someone else can stay open.
+	 * If the file is large, it will be opened using a paging strategy.
+	 * @param channel the channel to map
+	 * @param closeChannel whether closing the source closes the channel
+	 * @return the newly created {@link RandomAccessSource}
+	 * @since 5.5.6
+	 */
+	public RandomAccessSource createBestSource(FileChannel channel, boolean closeChannel) throws IOException{
 		if (channel.size() <= PagedChannelRandomAccessSource.DEFAULT_TOTAL_BUFSIZE){ // if less than the fully mapped usage of PagedFileChannelRandomAccessSource, just map the whole thing and be done with it
-			return new GetBufferedRandomAccessSource(new FileChannelRandomAccessSource(channel));
+			if (closeChannel)
+				return new GetBufferedRandomAccessSource(new FileChannelRandomAccessSource(channel));
+			if (channel.size() == 0)
+				throw new IOException("File size is 0 bytes");
+			MappedChannelRandomAccessSource source = new MappedChannelRandomAccessSource(channel, 0, channel.size());
+			source.open();
+			return new GetBufferedRandomAccessSource(source);
 		} else {
-			return new GetBufferedRandomAccessSource(new PagedChannelRandomAccessSource(channel));
+			return new GetBufferedRandomAccessSource(new PagedChannelRandomAccessSource(channel,
+					PagedChannelRandomAccessSource.DEFAULT_TOTAL_BUFSIZE, PagedChannelRandomAccessSource.DEFAULT_MAX_OPEN_BUFFERS, closeChannel));
 		}
 	}
 	
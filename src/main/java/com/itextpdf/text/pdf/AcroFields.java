@@ -47,6 +47,7 @@ package com.itextpdf.text.pdf;
 import com.itextpdf.text.*;
 import com.itextpdf.text.error_messages.MessageLocalization;
 import com.itextpdf.text.io.RASInputStream;
+import com.itextpdf.text.io.RandomAccessSource;
 import com.itextpdf.text.io.RandomAccessSourceFactory;
 import com.itextpdf.text.io.WindowRandomAccessSource;
 import com.itextpdf.text.pdf.PRTokeniser.TokenType;
@@ -2357,6 +2358,57 @@ public class AcroFields {
         PdfDictionary v = getSignatureDictionary(name);
         if (v == null)
             return null;
+        PdfPKCS7 pk = createPdfPKCS7(v, provider);
+        updateByteRange(pk, v);
+        return pk;
+    }
+
+    /**
+     * Verifies all the signatures of the document.
+     * @return a map from the signature field names to the <CODE>PdfPKCS7</CODE> classes to continue the verification
+     * @see #verifySignatures(Collection, String)
+     * @since 5.5.6
+     */
+    public Map<String, PdfPKCS7> verifySignatures() {
+        return verifySignatures(getSignatureNames(), null);
+    }
+
+    /**
+     * Verifies several signatures reading the document only once. The result is the same
+     * as calling {@link #verifySignature(String, String)} for each name but the byte ranges
+     * of all the signatures are fed to their digests in a single sequential pass over the
+     * file instead of one pass per signature.
+     * @param names the signature field names
+     * @param provider the provider or <code>null</code> for the default provider
+     * @return a map from the signature field names to the <CODE>PdfPKCS7</CODE> classes to continue
+     * the verification, in the order of <CODE>names</CODE>. Names that are not signatures are left out
+     * @since 5.5.6
+     */
+    public Map<String, PdfPKCS7> verifySignatures(Collection<String> names, String provider) {
+        LinkedHashMap<String, PdfPKCS7> result = new LinkedHashMap<String, PdfPKCS7>();
+        ArrayList<PdfPKCS7> pks = new ArrayList<PdfPKCS7>();
+        ArrayList<long[]> ranges = new ArrayList<long[]>();
+        for (String name : names) {
+            PdfDictionary v = getSignatureDictionary(name);
+            if (v == null || result.containsKey(name))
+                continue;
+            PdfPKCS7 pk = createPdfPKCS7(v, provider);
+            result.put(name, pk);
+            PdfArray b = v.getAsArray(PdfName.BYTERANGE);
+            long range[] = b == null ? null : b.asLongArray();
+            if (isSequentialByteRange(range)) {
+                pks.add(pk);
+                ranges.add(range);
+            }
+            else
+                updateByteRange(pk, v);
+        }
+        if (!pks.isEmpty())
+            updateByteRanges(pks, ranges);
+        return result;
+    }
+
+    private PdfPKCS7 createPdfPKCS7(PdfDictionary v, String provider) {
         try {
             PdfName sub = v.getAsName(PdfName.SUBFILTER);
             PdfString contents = v.getAsString(PdfName.CONTENTS);
@@ -2369,7 +2421,6 @@ public class AcroFields {
             }
             else
                 pk = new PdfPKCS7(contents.getOriginalBytes(), sub, provider);
-            updateByteRange(pk, v);
             PdfString str = v.getAsString(PdfName.M);
             if (str != null)
                 pk.setSignDate(PdfDate.decode(str.toString()));
@@ -2417,6 +2468,87 @@ public class AcroFields {
         }
     }
 
+    /**
+     * Checks if a /ByteRange lists its pieces in file order without overlaps, the only
+     * case where the pieces can be digested while reading the file sequentially.
+     */
+    private static boolean isSequentialByteRange(long range[]) {
+        if (range == null || range.length % 2 != 0)
+            return false;
+        long end = 0;
+        for (int k = 0; k < range.length; k += 2) {
+            if (range[k] < end || range[k + 1] < 0)
+                return false;
+            end = range[k] + range[k + 1];
+        }
+        return true;
+    }
+
+    /**
+     * Digests the byte ranges of several signatures in one sequential pass over the file.
+     * Each chunk read is handed to every signature whose ranges cover part of it and the
+     * parts no signature covers are skipped.
+     * @param pks the signatures
+     * @param ranges the /ByteRange of each signature, sequential as checked by {@link #isSequentialByteRange(long[])}
+     */
+    private void updateByteRanges(List<PdfPKCS7> pks, List<long[]> ranges) {
+        int next[] = new int[pks.size()];
+        long pos = nextByteRangeOffset(ranges, next, 0);
+        RandomAccessSource source = reader.getSafeFile().createSourceView();
+        try {
+            byte buf[] = new byte[65536];
+            while (pos < Long.MAX_VALUE) {
+                int rd = source.get(pos, buf, 0, buf.length);
+                if (rd <= 0)
+                    break;
+                long chunkEnd = pos + rd;
+                for (int i = 0; i < next.length; ++i) {
+                    long range[] = ranges.get(i);
+                    int k = next[i];
+                    for (; k < range.length; k += 2) {
+                        long from = Math.max(pos, range[k]);
+                        long to = Math.min(chunkEnd, range[k] + range[k + 1]);
+                        if (from < to)
+                            pks.get(i).update(buf, (int)(from - pos), (int)(to - from));
+                        if (range[k] + range[k + 1] > chunkEnd)
+                            break;
+                    }
+                    next[i] = k;
+                }
+                pos = nextByteRangeOffset(ranges, next, chunkEnd);
+            }
+        }
+        catch (Exception e) {
+            throw new ExceptionConverter(e);
+        }
+        finally {
+            try {
+                source.close();
+            } catch (IOException e) {
+                // this really shouldn't ever happen - the source view we use is based on a Safe view, which is a no-op anyway
+                throw new ExceptionConverter(e);
+            }
+        }
+    }
+
+    /**
+     * Gets the first offset at or after <CODE>pos</CODE> that still has to be digested
+     * or <CODE>Long.MAX_VALUE</CODE> if all the ranges are done.
+     */
+    private static long nextByteRangeOffset(List<long[]> ranges, int next[], long pos) {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < next.length; ++i) {
+            long range[] = ranges.get(i);
+            int k = next[i];
+            while (k < range.length && range[k + 1] == 0)
+                k += 2;
+            next[i] = k;
+            if (k < range.length)
+                min = Math.min(min, Math.max(pos, range[k]));
+        }
+        return min;
+    }
+
     private void markUsed(PdfObject obj) {
         if (!append)
             return;
@@ -48,7 +48,10 @@ import com.itextpdf.text.error_messages.MessageLocalization;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
 
 /**
@@ -291,7 +294,16 @@ public abstract class BaseFont {
     protected boolean fontSpecific = true;
 
     /** cache for the fonts already used. */
-    protected static HashMap<String, BaseFont> fontCache = new HashMap<String, BaseFont>();
+    private static volatile FontCache cache = new LruFontCache();
+
+    /**
+     * Cache for the fonts already used, seen as a map.
+     * @deprecated since 5.5.6, use {@link #getFontCache()}. The map reads a copy
+     * of the current <CODE>FontCache</CODE>; only <CODE>put</CODE>, <CODE>putAll</CODE>,
+     * <CODE>remove</CODE> and <CODE>clear</CODE> change the cache.
+     */
+    @Deprecated
+    protected static HashMap<String, BaseFont> fontCache = new FontCacheMap();
 
     /** list of the 14 built in fonts. */
     protected static final HashMap<String, PdfName> BuiltinFonts14 = new HashMap<String, PdfName>();
@@ -676,25 +688,34 @@ public abstract class BaseFont {
      * @throws IOException the font file could not be read
      * @since	2.1.5
      */
-    public static BaseFont createFont(String name, String encoding, boolean embedded, boolean cached, byte ttfAfm[], byte pfb[], boolean noThrow, boolean forceRead) throws DocumentException, IOException {
-        String nameBase = getBaseName(name);
+    public static BaseFont createFont(final String name, String encoding, boolean embedded, boolean cached, final byte ttfAfm[], final byte pfb[], final boolean noThrow, final boolean forceRead) throws DocumentException, IOException {
+        final String nameBase = getBaseName(name);
         encoding = normalizeEncoding(encoding);
-        boolean isBuiltinFonts14 = BuiltinFonts14.containsKey(name);
-        boolean isCJKFont = isBuiltinFonts14 ? false : CJKFont.isCJKFont(nameBase, encoding);
+        final boolean isBuiltinFonts14 = BuiltinFonts14.containsKey(name);
+        final boolean isCJKFont = isBuiltinFonts14 ? false : CJKFont.isCJKFont(nameBase, encoding);
         if (isBuiltinFonts14 || isCJKFont)
             embedded = false;
         else if (encoding.equals(IDENTITY_H) || encoding.equals(IDENTITY_V))
             embedded = true;
-        BaseFont fontFound = null;
-        BaseFont fontBuilt = null;
+        if (!cached)
+            return buildFont(name, nameBase, encoding, embedded, ttfAfm, pfb, noThrow, forceRead, isBuiltinFonts14, isCJKFont);
+        final String fontEncoding = encoding;
+        final boolean fontEmbedded = embedded;
         String key = name + "\n" + encoding + "\n" + embedded;
-        if (cached) {
-            synchronized (fontCache) {
-                fontFound = fontCache.get(key);
+        return cache.get(key, new FontCache.FontLoader() {
+            public BaseFont load() throws DocumentException, IOException {
+                return buildFont(name, nameBase, fontEncoding, fontEmbedded, ttfAfm, pfb, noThrow, forceRead, isBuiltinFonts14, isCJKFont);
             }
-            if (fontFound != null)
-                return fontFound;
-        }
+        });
+    }
+
+    /**
+     * Creates a new font, not using the cache.
+     * @return the font or <CODE>null</CODE> if <CODE>noThrow</CODE> is true and the font is not recognized
+     * @since 5.5.6
+     */
+    private static BaseFont buildFont(String name, String nameBase, String encoding, boolean embedded, byte ttfAfm[], byte pfb[], boolean noThrow, boolean forceRead, boolean isBuiltinFonts14, boolean isCJKFont) throws DocumentException, IOException {
+        BaseFont fontBuilt = null;
         if (isBuiltinFonts14 || name.toLowerCase().endsWith(".afm") || name.toLowerCase().endsWith(".pfm")) {
             fontBuilt = new Type1Font(name, encoding, embedded, ttfAfm, pfb, forceRead);
             fontBuilt.fastWinansi = encoding.equals(CP1252);
@@ -713,17 +734,132 @@ public abstract class BaseFont {
             return null;
         else
             throw new DocumentException(MessageLocalization.getComposedMessage("font.1.with.2.is.not.recognized", name, encoding));
-        if (cached) {
-            synchronized (fontCache) {
-                fontFound = fontCache.get(key);
-                if (fontFound != null)
-                    return fontFound;
-                fontCache.put(key, fontBuilt);
-            }
-        }
         return fontBuilt;
     }
 
+    /**
+     * Sets the cache used by <CODE>createFont</CODE> for the cached fonts. The
+     * default is an {@link LruFontCache} without a size limit.
+     * @param cache the font cache
+     * @since 5.5.6
+     */
+    public static void setFontCache(FontCache cache) {
+        if (cache == null)
+            throw new NullPointerException();
+        BaseFont.cache = cache;
+    }
+
+    /**
+     * Gets the cache used by <CODE>createFont</CODE> for the cached fonts.
+     * @return the font cache
+     * @since 5.5.6
+     */
+    public static FontCache getFontCache() {
+        return cache;
+    }
+
+    /**
+     * The map behind the deprecated <CODE>fontCache</CODE> field. Its entries are
+     * a copy of the current <CODE>FontCache</CODE>, taken again by every read
+     * through the <CODE>Map</CODE> methods it overrides. <CODE>put</CODE>,
+     * <CODE>putAll</CODE>, <CODE>remove</CODE> and <CODE>clear</CODE> change the
+     * cache too; the other changes, like those made through the views or the
+     * methods added in Java 8, only change the copy.
+     * @since 5.5.6
+     */
+    private static class FontCacheMap extends HashMap<String, BaseFont> {
+
+        private static final long serialVersionUID = 3530960394512458405L;
+
+        /**
+         * Replaces the entries with a copy of the cache.
+         */
+        private void copyCache() {
+            super.clear();
+            // not super.putAll, it calls put before Java 7
+            for (Map.Entry<String, BaseFont> e : cache.getFonts().entrySet())
+                super.put(e.getKey(), e.getValue());
+        }
+
+        @Override
+        public synchronized BaseFont get(final Object key) {
+            copyCache();
+            return super.get(key);
+        }
+
+        @Override
+        public synchronized boolean containsKey(final Object key) {
+            copyCache();
+            return super.containsKey(key);
+        }
+
+        @Override
+        public synchronized boolean containsValue(final Object value) {
+            copyCache();
+            return super.containsValue(value);
+        }
+
+        @Override
+        public synchronized int size() {
+            copyCache();
+            return super.size();
+        }
+
+        @Override
+        public synchronized boolean isEmpty() {
+            copyCache();
+            return super.isEmpty();
+        }
+
+        @Override
+        public synchronized Set<String> keySet() {
+            copyCache();
+            return super.keySet();
+        }
+
+        @Override
+        public synchronized Collection<BaseFont> values() {
+            copyCache();
+            return super.values();
+        }
+
+        @Override
+        public synchronized Set<Map.Entry<String, BaseFont>> entrySet() {
+            copyCache();
+            return super.entrySet();
+        }
+
+        @Override
+        public synchronized BaseFont put(final String key, final BaseFont value) {
+            super.put(key, value);
+            return cache.put(key, value);
+        }
+
+        @Override
+        public synchronized void putAll(final Map<? extends String, ? extends BaseFont> m) {
+            for (Map.Entry<? extends String, ? extends BaseFont> e : m.entrySet())
+                put(e.getKey(), e.getValue());
+        }
+
+        @Override
+        public synchronized BaseFont remove(final Object key) {
+            super.remove(key);
+            return key instanceof String ? cache.remove((String)key) : null;
+        }
+
+        @Override
+        public synchronized void clear() {
+            super.clear();
+            cache.clear();
+        }
+
+        @Override
+        public synchronized Object clone() {
+            copyCache();
+            return super.clone();
+        }
+    }
+
     /**
      * Creates a font based on an existing document font. The created font font may not
      * behave as expected, depending on the encoding or subset.
@@ -0,0 +1,512 @@
+/*
+ * $Id$
+ *
+ * This file is part of the iText (R) project.
+ * Copyright (c) 1998-2014 iText Group NV
+ * Authors: Bruno Lowagie, Paulo Soares, et al.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+ * OF THIRD PARTY RIGHTS
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * http://itextpdf.com/terms-of-use/
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * In accordance with Section 7(b) of the GNU Affero General Public License,
+ * a covered work must retain the producer line in every PDF that is created
+ * or manipulated using iText.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the iText software without
+ * disclosing the source code of your own applications.
+ * These activities include: offering paid services to customers as an ASP,
+ * serving PDFs on the fly in a web application, shipping iText with a closed
+ * source product.
+ *
+ * For more information, please contact iText Software Corp. at this
+ * address: sales@itextpdf.com
+ */
+package com.itextpdf.text.pdf;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The map behind a {@link PdfDictionary} read with
+ * {@link PdfReader#compactDictionaries}. The keys and values are kept in two
+ * arrays in insertion order, which is also the iteration order. Most dictionaries
+ * have only a handful of keys, so up to {@link #LINEAR_LIMIT} entries they are
+ * looked up with a linear scan, which is cheap because read names are canonical
+ * and compare by identity. Bigger maps add an open addressing table with linear
+ * probing that holds the positions of the keys. Neither form allocates an object
+ * per entry.
+ * <P>
+ * The map doesn't accept <CODE>null</CODE> keys.
+ * @since 5.5.6
+ */
+final class CompactNameMap extends AbstractMap<PdfName, PdfObject> {
+
+    /** The maximum number of entries kept in the linear form. */
+    static final int LINEAR_LIMIT = 8;
+
+    /** Marks a removed slot in the hashed form. */
+    private static final Object DELETED = new Object();
+
+    /** The keys in insertion order, {@link #DELETED} for a removed key in the hashed form. */
+    private Object[] keys;
+    private PdfObject[] values;
+    /** The number of slots of <CODE>keys</CODE> in use, including the removed keys. */
+    private int end;
+    private int size;
+    /** The positions in <CODE>keys</CODE> plus one by hash slot, or <CODE>null</CODE> in the linear form. */
+    private int[] index;
+    /** The shift giving the slot of a hash code in the hashed form. */
+    private int shift;
+    private int modCount;
+    private Set<Map.Entry<PdfName, PdfObject>> entrySet;
+    private Set<PdfName> keySet;
+    private Collection<PdfObject> valueCollection;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public PdfObject get(Object key) {
+        int idx = indexOf(key);
+        return idx < 0 ? null : values[idx];
+    }
+
+    public PdfObject getOrDefault(Object key, PdfObject defaultValue) {
+        int idx = indexOf(key);
+        return idx < 0 ? defaultValue : values[idx];
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (PdfObject v : values()) {
+            if (value == null ? v == null : value.equals(v))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public PdfObject put(PdfName key, PdfObject value) {
+        if (key == null)
+            throw new NullPointerException();
+        int found = indexOf(key);
+        if (found >= 0) {
+            PdfObject old = values[found];
+            values[found] = value;
+            return old;
+        }
+        ++modCount;
+        if (keys == null) {
+            keys = new Object[4];
+            values = new PdfObject[4];
+        }
+        else if (end == keys.length) {
+            resize(size + 1);
+        }
+        int idx = end++;
+        keys[idx] = key;
+        values[idx] = value;
+        ++size;
+        if (index != null)
+            addToIndex(key, idx);
+        return null;
+    }
+
+    @Override
+    public void putAll(Map<? extends PdfName, ? extends PdfObject> m) {
+        for (Map.Entry<? extends PdfName, ? extends PdfObject> e : m.entrySet())
+            put(e.getKey(), e.getValue());
+    }
+
+    public PdfObject putIfAbsent(PdfName key, PdfObject value) {
+        int idx = indexOf(key);
+        if (idx >= 0 && values[idx] != null)
+            return values[idx];
+        put(key, value);
+        return null;
+    }
+
+    public PdfObject replace(PdfName key, PdfObject value) {
+        int idx = indexOf(key);
+        if (idx < 0)
+            return null;
+        PdfObject old = values[idx];
+        values[idx] = value;
+        return old;
+    }
+
+    public boolean replace(PdfName key, PdfObject oldValue, PdfObject newValue) {
+        int idx = indexOf(key);
+        if (idx < 0 || !(oldValue == null ? values[idx] == null : oldValue.equals(values[idx])))
+            return false;
+        values[idx] = newValue;
+        return true;
+    }
+
+    @Override
+    public PdfObject remove(Object key) {
+        int idx = indexOf(key);
+        if (idx < 0)
+            return null;
+        PdfObject old = values[idx];
+        removeAt(idx);
+        return old;
+    }
+
+    public boolean remove(Object key, Object value) {
+        int idx = indexOf(key);
+        if (idx < 0 || !(value == null ? values[idx] == null : value.equals(values[idx])))
+            return false;
+        removeAt(idx);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        ++modCount;
+        keys = null;
+        values = null;
+        end = 0;
+        size = 0;
+        index = null;
+        shift = 0;
+    }
+
+    @Override
+    public Set<Map.Entry<PdfName, PdfObject>> entrySet() {
+        Set<Map.Entry<PdfName, PdfObject>> es = entrySet;
+        if (es == null) {
+            es = new AbstractSet<Map.Entry<PdfName, PdfObject>>() {
+                @Override
+                public Iterator<Map.Entry<PdfName, PdfObject>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    CompactNameMap.this.clear();
+                }
+            };
+            entrySet = es;
+        }
+        return es;
+    }
+
+    @Override
+    public Set<PdfName> keySet() {
+        Set<PdfName> ks = keySet;
+        if (ks == null) {
+            ks = new AbstractSet<PdfName>() {
+                @Override
+                public Iterator<PdfName> iterator() {
+                    final Iterator<Map.Entry<PdfName, PdfObject>> it = new EntryIterator();
+                    return new Iterator<PdfName>() {
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        public PdfName next() {
+                            return it.next().getKey();
+                        }
+
+                        public void remove() {
+                            it.remove();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsKey(o);
+                }
+
+                @Override
+                public boolean remove(Object o) {
+                    int idx = indexOf(o);
+                    if (idx < 0)
+                        return false;
+                    removeAt(idx);
+                    return true;
+                }
+
+                @Override
+                public void clear() {
+                    CompactNameMap.this.clear();
+                }
+            };
+            keySet = ks;
+        }
+        return ks;
+    }
+
+    @Override
+    public Collection<PdfObject> values() {
+        Collection<PdfObject> vs = valueCollection;
+        if (vs == null) {
+            vs = new AbstractCollection<PdfObject>() {
+                @Override
+                public Iterator<PdfObject> iterator() {
+                    final Iterator<Map.Entry<PdfName, PdfObject>> it = new EntryIterator();
+                    return new Iterator<PdfObject>() {
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        public PdfObject next() {
+                            return it.next().getValue();
+                        }
+
+                        public void remove() {
+                            it.remove();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    CompactNameMap.this.clear();
+                }
+            };
+            valueCollection = vs;
+        }
+        return vs;
+    }
+
+    private int indexOf(Object key) {
+        if (key == null || size == 0)
+            return -1;
+        Object[] k = keys;
+        if (index == null) {
+            for (int i = 0; i < end; ++i) {
+                Object o = k[i];
+                if (o == key || o.equals(key))
+                    return i;
+            }
+            return -1;
+        }
+        int[] t = index;
+        int mask = t.length - 1;
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            int p = t[i];
+            if (p == 0)
+                return -1;
+            Object o = k[p - 1];
+            if (o == key || (o != DELETED && o.equals(key)))
+                return p - 1;
+        }
+    }
+
+    private int slot(Object key) {
+        return (key.hashCode() * 0x9E3779B9) >>> shift;
+    }
+
+    private void addToIndex(Object key, int idx) {
+        int[] t = index;
+        int mask = t.length - 1;
+        int i = slot(key);
+        while (t[i] != 0)
+            i = (i + 1) & mask;
+        t[i] = idx + 1;
+    }
+
+    /**
+     * Makes room for <CODE>needed</CODE> entries, dropping the removed keys. Past
+     * {@link #LINEAR_LIMIT} entries the positions are indexed in a table twice as
+     * big as the arrays, so that its load factor is at most one half.
+     */
+    private void resize(int needed) {
+        int capacity = keys.length;
+        while (capacity < needed)
+            capacity *= 2;
+        Object[] k = new Object[capacity];
+        PdfObject[] v = new PdfObject[capacity];
+        int n = 0;
+        for (int i = 0; i < end; ++i) {
+            if (keys[i] != DELETED) {
+                k[n] = keys[i];
+                v[n] = values[i];
+                ++n;
+            }
+        }
+        keys = k;
+        values = v;
+        end = n;
+        if (capacity <= LINEAR_LIMIT) {
+            index = null;
+            return;
+        }
+        index = new int[capacity * 2];
+        shift = 32 - Integer.numberOfTrailingZeros(capacity * 2);
+        for (int i = 0; i < n; ++i)
+            addToIndex(k[i], i);
+    }
+
+    private void removeAt(int idx) {
+        ++modCount;
+        --size;
+        if (index == null) {
+            --end;
+            int moved = end - idx;
+            if (moved > 0) {
+                System.arraycopy(keys, idx + 1, keys, idx, moved);
+                System.arraycopy(values, idx + 1, values, idx, moved);
+            }
+            keys[end] = null;
+            values[end] = null;
+        }
+        else {
+            keys[idx] = DELETED;
+            values[idx] = null;
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<PdfName, PdfObject>> {
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            while (next < end && keys[next] == DELETED)
+                ++next;
+        }
+
+        public boolean hasNext() {
+            return next < end;
+        }
+
+        public Map.Entry<PdfName, PdfObject> next() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (!hasNext())
+                throw new NoSuchElementException();
+            last = next++;
+            advance();
+            return new Entry(last);
+        }
+
+        public void remove() {
+            if (last < 0)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            removeAt(last);
+            // in the linear form the next entry has moved into the removed slot
+            if (index == null)
+                next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    private final class Entry implements Map.Entry<PdfName, PdfObject> {
+        private final int idx;
+        private final PdfName key;
+
+        Entry(int idx) {
+            this.idx = idx;
+            this.key = (PdfName)keys[idx];
+        }
+
+        public PdfName getKey() {
+            return key;
+        }
+
+        /** Checks whether the entry is still in its slot. */
+        private boolean inPlace() {
+            Object[] k = keys;
+            return k != null && idx < end && k[idx] == key;
+        }
+
+        public PdfObject getValue() {
+            return inPlace() ? values[idx] : get(key);
+        }
+
+        public PdfObject setValue(PdfObject value) {
+            if (inPlace()) {
+                PdfObject old = values[idx];
+                values[idx] = value;
+                return old;
+            }
+            return put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Map.Entry))
+                return false;
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>)obj;
+            Object value = getValue();
+            return key.equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
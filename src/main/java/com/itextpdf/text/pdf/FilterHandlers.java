@@ -46,10 +46,16 @@
 package com.itextpdf.text.pdf;
 
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
 
 import com.itextpdf.text.error_messages.MessageLocalization;
 import com.itextpdf.text.exceptions.UnsupportedPdfException;
@@ -73,6 +79,15 @@ public final class FilterHandlers {
     public static interface FilterHandler{
         public byte[] decode(byte[] b, PdfName filterName, PdfObject decodeParams, final PdfDictionary streamDictionary) throws IOException;
     }
+
+    /**
+     * Decodes a filter incrementally. Each handler wraps the <CODE>InputStream</CODE>
+     * of the previous filter, so a chain of filters never needs the whole stream in memory.
+     * @since 5.5.6
+     */
+    public static interface StreamFilterHandler{
+        public InputStream decode(InputStream in, PdfName filterName, PdfObject decodeParams, final PdfDictionary streamDictionary) throws IOException;
+    }
     
     /** The default {@link FilterHandler}s used by iText */
     private static final Map<PdfName, FilterHandler> defaults;
@@ -92,6 +107,24 @@ public final class FilterHandlers {
         
         defaults = Collections.unmodifiableMap(map);
     }
+
+    /** The default {@link StreamFilterHandler}s used by iText */
+    private static final Map<PdfName, StreamFilterHandler> streamDefaults;
+    static {
+        HashMap<PdfName, StreamFilterHandler> map = new HashMap<PdfName, StreamFilterHandler>();
+
+        map.put(PdfName.FLATEDECODE, new StreamFilter_FLATEDECODE());
+        map.put(PdfName.FL, new StreamFilter_FLATEDECODE());
+        map.put(PdfName.ASCIIHEXDECODE, new StreamFilter_ASCIIHEXDECODE());
+        map.put(PdfName.AHX, new StreamFilter_ASCIIHEXDECODE());
+        map.put(PdfName.ASCII85DECODE, new StreamFilter_ASCII85DECODE());
+        map.put(PdfName.A85, new StreamFilter_ASCII85DECODE());
+        map.put(PdfName.LZWDECODE, new StreamFilter_LZWDECODE());
+        map.put(PdfName.CRYPT, new StreamFilter_DoNothing());
+        map.put(PdfName.RUNLENGTHDECODE, new StreamFilter_RUNLENGTHDECODE());
+
+        streamDefaults = Collections.unmodifiableMap(map);
+    }
     
     /**
      * @return the default {@link FilterHandler}s used by iText
@@ -99,6 +132,14 @@ public final class FilterHandlers {
     public static Map<PdfName, FilterHandler> getDefaultFilterHandlers(){
         return defaults;
     }
+
+    /**
+     * @return the default {@link StreamFilterHandler}s used by iText
+     * @since 5.5.6
+     */
+    public static Map<PdfName, StreamFilterHandler> getDefaultStreamFilterHandlers(){
+        return streamDefaults;
+    }
     
     /**
      * Handles FLATEDECODE filter
@@ -226,7 +267,7 @@ public final class FilterHandlers {
                 
                 if (dupCount >= 0 && dupCount <= 127){
                     int bytesToCopy = dupCount+1;
-                    baos.write(b, i, bytesToCopy);
+                    baos.write(b, i + 1, bytesToCopy);
                     i+=bytesToCopy;
                 } else {
                     // make dupcount copies of the next byte
@@ -241,4 +282,612 @@ public final class FilterHandlers {
         }
     }
     
+    /**
+     * Handles FLATEDECODE filter incrementally
+     */
+    private static class StreamFilter_FLATEDECODE implements StreamFilterHandler{
+        public InputStream decode(InputStream in, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) throws IOException {
+            return decodePredictor(new LenientInflaterInputStream(in), decodeParams);
+        }
+    }
+
+    /**
+     * Handles ASCIIHEXDECODE filter incrementally
+     */
+    private static class StreamFilter_ASCIIHEXDECODE implements StreamFilterHandler{
+        public InputStream decode(InputStream in, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) throws IOException {
+            return new ASCIIHexInputStream(in);
+        }
+    }
+
+    /**
+     * Handles ASCII85DECODE filter incrementally
+     */
+    private static class StreamFilter_ASCII85DECODE implements StreamFilterHandler{
+        public InputStream decode(InputStream in, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) throws IOException {
+            return new ASCII85InputStream(in);
+        }
+    }
+
+    /**
+     * Handles LZWDECODE filter incrementally
+     */
+    private static class StreamFilter_LZWDECODE implements StreamFilterHandler{
+        public InputStream decode(InputStream in, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) throws IOException {
+            return decodePredictor(new LZWInputStream(in), decodeParams);
+        }
+    }
+
+    /**
+     * Handles RUNLENGTHDECODE filter incrementally
+     */
+    private static class StreamFilter_RUNLENGTHDECODE implements StreamFilterHandler{
+        public InputStream decode(InputStream in, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) throws IOException {
+            return new RunLengthInputStream(in);
+        }
+    }
+
+    /**
+     * A stream filter that doesn't modify the stream at all
+     */
+    private static class StreamFilter_DoNothing implements StreamFilterHandler{
+        public InputStream decode(InputStream in, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) throws IOException {
+            return in;
+        }
+    }
+
+    /**
+     * Wraps <CODE>in</CODE> with a stream that undoes the predictor, the incremental
+     * version of {@link PdfReader#decodePredictor(byte[], PdfObject)}.
+     */
+    private static InputStream decodePredictor(final InputStream in, final PdfObject dicPar) {
+        if (dicPar == null || !dicPar.isDictionary())
+            return in;
+        PdfDictionary dic = (PdfDictionary)dicPar;
+        PdfObject obj = PdfReader.getPdfObject(dic.get(PdfName.PREDICTOR));
+        if (obj == null || !obj.isNumber())
+            return in;
+        int predictor = ((PdfNumber)obj).intValue();
+        if (predictor < 10 && predictor != 2)
+            return in;
+        int width = 1;
+        obj = PdfReader.getPdfObject(dic.get(PdfName.COLUMNS));
+        if (obj != null && obj.isNumber())
+            width = ((PdfNumber)obj).intValue();
+        int colors = 1;
+        obj = PdfReader.getPdfObject(dic.get(PdfName.COLORS));
+        if (obj != null && obj.isNumber())
+            colors = ((PdfNumber)obj).intValue();
+        int bpc = 8;
+        obj = PdfReader.getPdfObject(dic.get(PdfName.BITSPERCOMPONENT));
+        if (obj != null && obj.isNumber())
+            bpc = ((PdfNumber)obj).intValue();
+        if (predictor == 2 && bpc != 8)
+            return in;
+        return new PredictorInputStream(in, predictor == 2, colors * bpc / 8, (colors * width * bpc + 7) / 8);
+    }
+
+    /**
+     * Base of the decoding streams. Each call to <CODE>fill</CODE> decodes the next
+     * piece of the input into <CODE>buf</CODE>.
+     */
+    private static abstract class DecodeInputStream extends FilterInputStream {
+        protected byte[] buf;
+        protected int pos;
+        protected int count;
+
+        protected DecodeInputStream(final InputStream in, final int size) {
+            super(in);
+            buf = new byte[size];
+        }
+
+        /**
+         * Decodes more data setting <CODE>buf</CODE>, <CODE>pos</CODE> and <CODE>count</CODE>.
+         * @return <CODE>false</CODE> at the end of the data
+         */
+        protected abstract boolean fill() throws IOException;
+
+        @Override
+        public int read() throws IOException {
+            while (pos >= count) {
+                if (!fill())
+                    return -1;
+            }
+            return buf[pos++] & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0)
+                return 0;
+            while (pos >= count) {
+                if (!fill())
+                    return -1;
+            }
+            int n = Math.min(len, count - pos);
+            System.arraycopy(buf, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            long skipped = 0;
+            while (skipped < n) {
+                if (pos >= count && !fill())
+                    break;
+                int k = (int)Math.min(n - skipped, count - pos);
+                pos += k;
+                skipped += k;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return count - pos;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public synchronized void mark(final int readlimit) {
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            throw new IOException("mark/reset not supported");
+        }
+    }
+
+    /**
+     * An inflater that, like {@link PdfReader#FlateDecode(byte[])}, ends the data at the
+     * first error in a corrupted stream instead of failing. What the previous reads
+     * returned is kept; the output of the read that finds the error is lost, so the
+     * decoded data can be shorter than the one of <CODE>FlateDecode</CODE>, which
+     * inflates the whole stream a byte at a time to keep it.
+     */
+    private static class LenientInflaterInputStream extends InflaterInputStream {
+        private boolean broken;
+        private boolean closed;
+
+        LenientInflaterInputStream(final InputStream in) {
+            super(in, ZlibPool.acquireInflater());
+        }
+
+        /**
+         * Closes the stream and gives the inflater back to the pool, unless it failed.
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed)
+                return;
+            closed = true;
+            if (broken)
+                inf.end();
+            else
+                ZlibPool.releaseInflater(inf);
+            super.close();
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (broken)
+                return -1;
+            try {
+                return super.read(b, off, len);
+            }
+            catch (ZipException e) {
+                broken = true;
+                return -1;
+            }
+            catch (EOFException e) {
+                broken = true;
+                return -1;
+            }
+        }
+    }
+
+    private static class PredictorInputStream extends DecodeInputStream {
+        private final boolean tiff;
+        private final int bytesPerPixel;
+        private byte[] prior;
+        private boolean ended;
+
+        PredictorInputStream(final InputStream in, final boolean tiff, final int bytesPerPixel, final int bytesPerRow) {
+            super(in, checkBytesPerRow(bytesPerRow));
+            this.tiff = tiff;
+            this.bytesPerPixel = bytesPerPixel;
+            prior = new byte[bytesPerRow];
+        }
+
+        @Override
+        protected boolean fill() throws IOException {
+            if (ended)
+                return false;
+            // buf was already read, reuse it for the next row
+            byte[] curr = tiff ? buf : prior;
+            int bytesPerRow = curr.length;
+            pos = 0;
+            count = 0;
+            if (tiff) {
+                int n = readRow(curr);
+                if (n < bytesPerRow) {
+                    // an incomplete row is left as it is
+                    ended = true;
+                    count = n;
+                    return n > 0;
+                }
+                for (int col = bytesPerPixel; col < bytesPerRow; col++)
+                    curr[col] = (byte)(curr[col] + curr[col - bytesPerPixel]);
+                count = bytesPerRow;
+                return true;
+            }
+            byte[] prev = buf;
+            int filter = in.read();
+            if (filter < 0 || readRow(curr) < bytesPerRow) {
+                ended = true;
+                return false;
+            }
+            switch (filter) {
+                case 0: //PNG_FILTER_NONE
+                    break;
+                case 1: //PNG_FILTER_SUB
+                    for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                        curr[i] += curr[i - bytesPerPixel];
+                    }
+                    break;
+                case 2: //PNG_FILTER_UP
+                    for (int i = 0; i < bytesPerRow; i++) {
+                        curr[i] += prev[i];
+                    }
+                    break;
+                case 3: //PNG_FILTER_AVERAGE
+                    for (int i = 0; i < bytesPerPixel; i++) {
+                        curr[i] += prev[i] / 2;
+                    }
+                    for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                        curr[i] += ((curr[i - bytesPerPixel] & 0xff) + (prev[i] & 0xff))/2;
+                    }
+                    break;
+                case 4: //PNG_FILTER_PAETH
+                    for (int i = 0; i < bytesPerPixel; i++) {
+                        curr[i] += prev[i];
+                    }
+                    for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                        int a = curr[i - bytesPerPixel] & 0xff;
+                        int b = prev[i] & 0xff;
+                        int c = prev[i - bytesPerPixel] & 0xff;
+
+                        int p = a + b - c;
+                        int pa = Math.abs(p - a);
+                        int pb = Math.abs(p - b);
+                        int pc = Math.abs(p - c);
+
+                        int ret;
+
+                        if (pa <= pb && pa <= pc) {
+                            ret = a;
+                        } else if (pb <= pc) {
+                            ret = b;
+                        } else {
+                            ret = c;
+                        }
+                        curr[i] += (byte)ret;
+                    }
+                    break;
+                default:
+                    // Error -- unknown filter type
+                    throw new RuntimeException(MessageLocalization.getComposedMessage("png.filter.unknown"));
+            }
+            // the decoded row becomes buf and the prior row for the next one
+            prior = prev;
+            buf = curr;
+            count = bytesPerRow;
+            return true;
+        }
+
+        private static int checkBytesPerRow(final int bytesPerRow) {
+            if (bytesPerRow <= 0)
+                throw new IllegalArgumentException(MessageLocalization.getComposedMessage("wrong.number.of.columns"));
+            return bytesPerRow;
+        }
+
+        private int readRow(final byte[] row) throws IOException {
+            int n = 0;
+            while (n < row.length) {
+                int k = in.read(row, n, row.length - n);
+                if (k < 0)
+                    break;
+                n += k;
+            }
+            return n;
+        }
+    }
+
+    private static class ASCIIHexInputStream extends DecodeInputStream {
+        private final byte[] inBuf = new byte[4096];
+        private boolean first = true;
+        private int n1;
+        private boolean ended;
+
+        ASCIIHexInputStream(final InputStream in) {
+            super(in, 2049);
+        }
+
+        @Override
+        protected boolean fill() throws IOException {
+            if (ended)
+                return false;
+            pos = 0;
+            count = 0;
+            int len = in.read(inBuf);
+            if (len < 0) {
+                end();
+                return count > 0;
+            }
+            for (int k = 0; k < len; ++k) {
+                int ch = inBuf[k] & 0xff;
+                if (ch == '>') {
+                    end();
+                    break;
+                }
+                if (PRTokeniser.isWhitespace(ch))
+                    continue;
+                int n = PRTokeniser.getHex(ch);
+                if (n == -1)
+                    throw new RuntimeException(MessageLocalization.getComposedMessage("illegal.character.in.asciihexdecode"));
+                if (first)
+                    n1 = n;
+                else
+                    buf[count++] = (byte)((n1 << 4) + n);
+                first = !first;
+            }
+            return true;
+        }
+
+        private void end() {
+            ended = true;
+            if (!first)
+                buf[count++] = (byte)(n1 << 4);
+        }
+    }
+
+    private static class ASCII85InputStream extends DecodeInputStream {
+        private final byte[] inBuf = new byte[4096];
+        private final int chn[] = new int[5];
+        private int state;
+        private boolean ended;
+
+        ASCII85InputStream(final InputStream in) {
+            super(in, 4 * 4096 + 4);
+        }
+
+        @Override
+        protected boolean fill() throws IOException {
+            if (ended)
+                return false;
+            pos = 0;
+            count = 0;
+            int len = in.read(inBuf);
+            if (len < 0) {
+                end();
+                return count > 0;
+            }
+            for (int k = 0; k < len; ++k) {
+                int ch = inBuf[k] & 0xff;
+                if (ch == '~') {
+                    end();
+                    break;
+                }
+                if (PRTokeniser.isWhitespace(ch))
+                    continue;
+                if (ch == 'z' && state == 0) {
+                    buf[count++] = 0;
+                    buf[count++] = 0;
+                    buf[count++] = 0;
+                    buf[count++] = 0;
+                    continue;
+                }
+                if (ch < '!' || ch > 'u')
+                    throw new RuntimeException(MessageLocalization.getComposedMessage("illegal.character.in.ascii85decode"));
+                chn[state] = ch - '!';
+                ++state;
+                if (state == 5) {
+                    state = 0;
+                    int r = 0;
+                    for (int j = 0; j < 5; ++j)
+                        r = r * 85 + chn[j];
+                    buf[count++] = (byte)(r >> 24);
+                    buf[count++] = (byte)(r >> 16);
+                    buf[count++] = (byte)(r >> 8);
+                    buf[count++] = (byte)r;
+                }
+            }
+            return true;
+        }
+
+        private void end() {
+            ended = true;
+            int r;
+            if (state == 2) {
+                r = chn[0] * 85 * 85 * 85 * 85 + chn[1] * 85 * 85 * 85 + 85 * 85 * 85  + 85 * 85 + 85;
+                buf[count++] = (byte)(r >> 24);
+            }
+            else if (state == 3) {
+                r = chn[0] * 85 * 85 * 85 * 85 + chn[1] * 85 * 85 * 85  + chn[2] * 85 * 85 + 85 * 85 + 85;
+                buf[count++] = (byte)(r >> 24);
+                buf[count++] = (byte)(r >> 16);
+            }
+            else if (state == 4) {
+                r = chn[0] * 85 * 85 * 85 * 85 + chn[1] * 85 * 85 * 85  + chn[2] * 85 * 85  + chn[3] * 85 + 85;
+                buf[count++] = (byte)(r >> 24);
+                buf[count++] = (byte)(r >> 16);
+                buf[count++] = (byte)(r >> 8);
+            }
+        }
+    }
+
+    private static class RunLengthInputStream extends DecodeInputStream {
+        private boolean ended;
+
+        RunLengthInputStream(final InputStream in) {
+            super(in, 128);
+        }
+
+        @Override
+        protected boolean fill() throws IOException {
+            if (ended)
+                return false;
+            pos = 0;
+            count = 0;
+            int dupCount = in.read();
+            if (dupCount < 0 || dupCount == 128) {
+                // 128 is the implicit end of data
+                ended = true;
+                return false;
+            }
+            if (dupCount < 128) {
+                int bytesToCopy = dupCount + 1;
+                while (count < bytesToCopy) {
+                    int n = in.read(buf, count, bytesToCopy - count);
+                    if (n < 0) {
+                        ended = true;
+                        break;
+                    }
+                    count += n;
+                }
+            }
+            else {
+                // make copies of the next byte
+                int b = in.read();
+                if (b < 0) {
+                    ended = true;
+                    return false;
+                }
+                count = 257 - dupCount;
+                for (int j = 0; j < count; j++)
+                    buf[j] = (byte)b;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The incremental version of {@link LZWDecoder}. The strings of the table are
+     * handed out as <CODE>buf</CODE> without copying.
+     */
+    private static class LZWInputStream extends DecodeInputStream {
+        private static final int andTable[] = {511, 1023, 2047, 4095};
+        private byte stringTable[][];
+        private int tableIndex;
+        private int bitsToGet = 9;
+        private int nextData;
+        private int nextBits;
+        private int oldCode;
+        private boolean started;
+        private boolean ended;
+
+        LZWInputStream(final InputStream in) {
+            super(new PushbackInputStream(in, 2), 0);
+        }
+
+        @Override
+        protected boolean fill() throws IOException {
+            if (ended)
+                return false;
+            if (!started) {
+                started = true;
+                int b0 = in.read();
+                int b1 = b0 < 0 ? -1 : in.read();
+                if (b0 == 0x00 && b1 == 0x01)
+                    throw new RuntimeException(MessageLocalization.getComposedMessage("lzw.flavour.not.supported"));
+                if (b1 >= 0)
+                    ((PushbackInputStream)in).unread(b1);
+                if (b0 >= 0)
+                    ((PushbackInputStream)in).unread(b0);
+                initializeStringTable();
+            }
+            pos = 0;
+            int code = getNextCode();
+            if (code == 257) {
+                ended = true;
+                return false;
+            }
+            byte string[];
+            if (code == 256) {
+                initializeStringTable();
+                code = getNextCode();
+                if (code == 257) {
+                    ended = true;
+                    return false;
+                }
+                string = stringTable[code];
+            }
+            else if (code < tableIndex) {
+                string = stringTable[code];
+                addStringToTable(composeString(stringTable[oldCode], string[0]));
+            }
+            else {
+                string = stringTable[oldCode];
+                string = composeString(string, string[0]);
+                addStringToTable(string);
+            }
+            oldCode = code;
+            buf = string;
+            count = string.length;
+            return true;
+        }
+
+        private void initializeStringTable() {
+            stringTable = new byte[8192][];
+            for (int i = 0; i < 256; i++) {
+                stringTable[i] = new byte[1];
+                stringTable[i][0] = (byte)i;
+            }
+            tableIndex = 258;
+            bitsToGet = 9;
+        }
+
+        private void addStringToTable(final byte string[]) {
+            stringTable[tableIndex++] = string;
+            if (tableIndex == 511) {
+                bitsToGet = 10;
+            } else if (tableIndex == 1023) {
+                bitsToGet = 11;
+            } else if (tableIndex == 2047) {
+                bitsToGet = 12;
+            }
+        }
+
+        private static byte[] composeString(final byte oldString[], final byte newString) {
+            int length = oldString.length;
+            byte string[] = new byte[length + 1];
+            System.arraycopy(oldString, 0, string, 0, length);
+            string[length] = newString;
+            return string;
+        }
+
+        // Returns the next 9, 10, 11 or 12 bits, or EndOfInformation when the data ends
+        private int getNextCode() throws IOException {
+            int b = in.read();
+            if (b < 0)
+                return 257;
+            nextData = (nextData << 8) | b;
+            nextBits += 8;
+            if (nextBits < bitsToGet) {
+                b = in.read();
+                if (b < 0)
+                    return 257;
+                nextData = (nextData << 8) | b;
+                nextBits += 8;
+            }
+            int code = (nextData >> (nextBits - bitsToGet)) & andTable[bitsToGet - 9];
+            nextBits -= bitsToGet;
+            return code;
+        }
+    }
 }
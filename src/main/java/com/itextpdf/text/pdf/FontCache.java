@@ -0,0 +1,124 @@
+/*
+ * $Id$
+ *
+ * This file is part of the iText (R) project.
+ * Copyright (c) 1998-2014 iText Group NV
+ * Authors: Bruno Lowagie, Paulo Soares, et al.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+ * OF THIRD PARTY RIGHTS
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * http://itextpdf.com/terms-of-use/
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * In accordance with Section 7(b) of the GNU Affero General Public License,
+ * a covered work must retain the producer line in every PDF that is created
+ * or manipulated using iText.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the iText software without
+ * disclosing the source code of your own applications.
+ * These activities include: offering paid services to customers as an ASP,
+ * serving PDFs on the fly in a web application, shipping iText with a closed
+ * source product.
+ *
+ * For more information, please contact iText Software Corp. at this
+ * address: sales@itextpdf.com
+ */
+package com.itextpdf.text.pdf;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.itextpdf.text.DocumentException;
+
+/**
+ * A cache for the fonts created with <CODE>BaseFont.createFont</CODE>.
+ * The cache in use is set with {@link BaseFont#setFontCache(FontCache)} and is
+ * shared by everything that creates cached fonts, like <CODE>FontFactory</CODE>
+ * and <CODE>FontSelector</CODE>. Implementations must be thread safe.
+ * @since 5.5.6
+ */
+public interface FontCache {
+
+    /**
+     * Creates a font for a cache miss.
+     */
+    public interface FontLoader {
+        /**
+         * Creates the font.
+         * @return the font or <CODE>null</CODE> if the font is not recognized
+         * @throws DocumentException the font is invalid
+         * @throws IOException the font file could not be read
+         */
+        BaseFont load() throws DocumentException, IOException;
+    }
+
+    /**
+     * Gets a font from the cache.
+     * @param key the key of the font
+     * @return the font or <CODE>null</CODE> if it's not in the cache
+     */
+    BaseFont get(String key);
+
+    /**
+     * Gets a font from the cache, creating it with <CODE>loader</CODE> if it's not there.
+     * When several threads ask for the same missing font only one of them creates it.
+     * A <CODE>null</CODE> font is returned but not cached.
+     * @param key the key of the font
+     * @param loader creates the font if it's not in the cache
+     * @return the font
+     * @throws DocumentException the font is invalid
+     * @throws IOException the font file could not be read
+     */
+    BaseFont get(String key, FontLoader loader) throws DocumentException, IOException;
+
+    /**
+     * Puts a font in the cache, replacing any font with the same key.
+     * @param key the key of the font
+     * @param font the font
+     * @return the font that had the same key or <CODE>null</CODE>
+     */
+    BaseFont put(String key, BaseFont font);
+
+    /**
+     * Removes a font from the cache.
+     * @param key the key of the font
+     * @return the font removed or <CODE>null</CODE> if it wasn't in the cache
+     */
+    BaseFont remove(String key);
+
+    /**
+     * Removes all the fonts from the cache.
+     */
+    void clear();
+
+    /**
+     * Gets the number of fonts in the cache.
+     * @return the number of fonts
+     */
+    int size();
+
+    /**
+     * Gets a copy of the fonts in the cache. Changing the copy doesn't change the cache.
+     * @return the fonts by key
+     */
+    Map<String, BaseFont> getFonts();
+}
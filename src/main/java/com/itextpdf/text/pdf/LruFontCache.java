@@ -0,0 +1,304 @@
+/*
+ * $Id$
+ *
+ * This file is part of the iText (R) project.
+ * Copyright (c) 1998-2014 iText Group NV
+ * Authors: Bruno Lowagie, Paulo Soares, et al.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+ * OF THIRD PARTY RIGHTS
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * http://itextpdf.com/terms-of-use/
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * In accordance with Section 7(b) of the GNU Affero General Public License,
+ * a covered work must retain the producer line in every PDF that is created
+ * or manipulated using iText.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the iText software without
+ * disclosing the source code of your own applications.
+ * These activities include: offering paid services to customers as an ASP,
+ * serving PDFs on the fly in a web application, shipping iText with a closed
+ * source product.
+ *
+ * For more information, please contact iText Software Corp. at this
+ * address: sales@itextpdf.com
+ */
+package com.itextpdf.text.pdf;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.ExceptionConverter;
+
+/**
+ * A thread safe {@link FontCache} without global locks. The number of fonts
+ * can be limited, in which case the least recently used fonts are evicted.
+ * The cache keeps count of the hits, misses and evictions.
+ * @since 5.5.6
+ */
+public class LruFontCache implements FontCache {
+
+    private static class Entry {
+        final FutureTask<BaseFont> task;
+        volatile long lastAccess;
+
+        Entry(final FutureTask<BaseFont> task, final long lastAccess) {
+            this.task = task;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> fonts = new ConcurrentHashMap<String, Entry>();
+
+    private final int maxSize;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a cache without a size limit.
+     */
+    public LruFontCache() {
+        this(0);
+    }
+
+    /**
+     * Creates a cache that keeps at most <CODE>maxSize</CODE> fonts.
+     * @param maxSize the maximum number of fonts, 0 for no limit
+     */
+    public LruFontCache(final int maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+    }
+
+    /**
+     * @see com.itextpdf.text.pdf.FontCache#get(java.lang.String)
+     */
+    public BaseFont get(final String key) {
+        Entry entry = fonts.get(key);
+        if (entry == null || !entry.task.isDone()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        BaseFont font = getFont(entry);
+        if (font == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        entry.lastAccess = clock.incrementAndGet();
+        hits.incrementAndGet();
+        return font;
+    }
+
+    /**
+     * @see com.itextpdf.text.pdf.FontCache#get(java.lang.String, com.itextpdf.text.pdf.FontCache.FontLoader)
+     */
+    public BaseFont get(final String key, final FontLoader loader) throws DocumentException, IOException {
+        Entry entry = fonts.get(key);
+        if (entry == null) {
+            Entry created = new Entry(new FutureTask<BaseFont>(new Callable<BaseFont>() {
+                public BaseFont call() throws Exception {
+                    return loader.load();
+                }
+            }), clock.incrementAndGet());
+            entry = fonts.putIfAbsent(key, created);
+            if (entry == null) {
+                misses.incrementAndGet();
+                created.task.run();
+                BaseFont font = null;
+                try {
+                    font = waitForFont(created);
+                }
+                finally {
+                    if (font == null)
+                        fonts.remove(key, created);
+                }
+                evict();
+                return font;
+            }
+        }
+        hits.incrementAndGet();
+        entry.lastAccess = clock.incrementAndGet();
+        BaseFont font = waitForFont(entry);
+        if (font == null) {
+            // the font was not recognized by the other loader, try with this one
+            fonts.remove(key, entry);
+            return get(key, loader);
+        }
+        return font;
+    }
+
+    /**
+     * @see com.itextpdf.text.pdf.FontCache#put(java.lang.String, com.itextpdf.text.pdf.BaseFont)
+     */
+    public BaseFont put(final String key, final BaseFont font) {
+        if (font == null)
+            throw new NullPointerException();
+        FutureTask<BaseFont> task = new FutureTask<BaseFont>(new Callable<BaseFont>() {
+            public BaseFont call() {
+                return font;
+            }
+        });
+        task.run();
+        Entry old = fonts.put(key, new Entry(task, clock.incrementAndGet()));
+        evict();
+        return old == null || !old.task.isDone() ? null : getFont(old);
+    }
+
+    /**
+     * @see com.itextpdf.text.pdf.FontCache#remove(java.lang.String)
+     */
+    public BaseFont remove(final String key) {
+        Entry old = fonts.remove(key);
+        return old == null || !old.task.isDone() ? null : getFont(old);
+    }
+
+    /**
+     * @see com.itextpdf.text.pdf.FontCache#clear()
+     */
+    public void clear() {
+        fonts.clear();
+    }
+
+    /**
+     * @see com.itextpdf.text.pdf.FontCache#size()
+     */
+    public int size() {
+        return fonts.size();
+    }
+
+    /**
+     * Gets a copy of the fonts that are loaded. It doesn't count as an access
+     * to the fonts.
+     * @see com.itextpdf.text.pdf.FontCache#getFonts()
+     */
+    public Map<String, BaseFont> getFonts() {
+        HashMap<String, BaseFont> copy = new HashMap<String, BaseFont>();
+        for (Map.Entry<String, Entry> e : fonts.entrySet()) {
+            if (!e.getValue().task.isDone())
+                continue;
+            BaseFont font = getFont(e.getValue());
+            if (font != null)
+                copy.put(e.getKey(), font);
+        }
+        return copy;
+    }
+
+    /**
+     * Gets the maximum number of fonts kept.
+     * @return the maximum number of fonts, 0 if there's no limit
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the number of requests that found the font in the cache.
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of requests that didn't find the font in the cache.
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of fonts removed to keep the cache within its size.
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Removes the least recently used fonts while there are too many.
+     */
+    private void evict() {
+        if (maxSize == 0)
+            return;
+        while (fonts.size() > maxSize) {
+            Map.Entry<String, Entry> eldest = null;
+            for (Map.Entry<String, Entry> e : fonts.entrySet()) {
+                if (!e.getValue().task.isDone())
+                    continue;
+                if (eldest == null || e.getValue().lastAccess < eldest.getValue().lastAccess)
+                    eldest = e;
+            }
+            if (eldest == null)
+                return;
+            if (fonts.remove(eldest.getKey(), eldest.getValue()))
+                evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the font of a completed entry.
+     * @return the font or <CODE>null</CODE> if the font could not be created
+     */
+    private static BaseFont getFont(final Entry entry) {
+        try {
+            return entry.task.get();
+        }
+        catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static BaseFont waitForFont(final Entry entry) throws DocumentException, IOException {
+        try {
+            return entry.task.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExceptionConverter(e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DocumentException)
+                throw (DocumentException)cause;
+            if (cause instanceof IOException)
+                throw (IOException)cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException)cause;
+            if (cause instanceof Error)
+                throw (Error)cause;
+            throw new ExceptionConverter(e);
+        }
+    }
+}
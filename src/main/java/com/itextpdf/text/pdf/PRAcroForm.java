@@ -146,7 +146,7 @@ public class PRAcroForm extends PdfDictionary {
     public void readAcroForm(PdfDictionary root) {
         if (root == null)
             return;
-        hashMap = root.hashMap;
+        shareMap(root);
         pushAttrib(root);
         PdfArray fieldlist = (PdfArray)PdfReader.getPdfObjectRelease(root.get(PdfName.FIELDS));
         if (fieldlist != null) {
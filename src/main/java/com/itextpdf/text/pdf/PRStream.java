@@ -47,8 +47,6 @@ package com.itextpdf.text.pdf;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.zip.Deflater;
-import java.util.zip.DeflaterOutputStream;
 
 import com.itextpdf.text.Document;
 import com.itextpdf.text.ExceptionConverter;
@@ -76,7 +74,7 @@ public class PRStream extends PdfStream {
         if (newDic != null)
             putAll(newDic);
         else
-            hashMap.putAll(stream.hashMap);
+            getMap().putAll(stream.getMap());
     }
 
     public PRStream(PRStream stream, PdfDictionary newDic, PdfReader reader) {
@@ -107,11 +105,9 @@ public class PRStream extends PdfStream {
         if (Document.compress) {
             try {
                 ByteArrayOutputStream stream = new ByteArrayOutputStream();
-                Deflater deflater = new Deflater(compressionLevel);
-                DeflaterOutputStream zip = new DeflaterOutputStream(stream, deflater);
+                OutputStream zip = getFlateCompressor().createCompressionStream(stream, compressionLevel);
                 zip.write(conts);
                 zip.close();
-                deflater.end();
                 bytes = stream.toByteArray();
             }
             catch (IOException ioe) {
@@ -153,11 +149,9 @@ public class PRStream extends PdfStream {
         if (Document.compress && compress) {
             try {
                 ByteArrayOutputStream stream = new ByteArrayOutputStream();
-                Deflater deflater = new Deflater(compressionLevel);
-                DeflaterOutputStream zip = new DeflaterOutputStream(stream, deflater);
+                OutputStream zip = getFlateCompressor().createCompressionStream(stream, compressionLevel);
                 zip.write(data);
                 zip.close();
-                deflater.end();
                 bytes = stream.toByteArray();
                 this.compressionLevel = compressionLevel;
             }
@@ -103,15 +103,41 @@ public class PRTokeniser {
     
     static final String EMPTY = "";
 
-    
+    /**
+     * Size of the read-ahead window the tokeniser scans through.
+     */
+    private static final int READ_AHEAD_SIZE = 4096;
+
+    /**
+     * Integer tokens with more digits than this are left to {@link Long#parseLong(String)}.
+     */
+    private static final int MAX_LONG_DIGITS = 18;
+
     private final RandomAccessFileOrArray file;
     
     protected TokenType type;
+    /**
+     * The value of the current token. It is built from the token bytes the first time
+     * {@link #getStringValue()} is called, so tokens that are only compared, or parsed
+     * as numbers, never allocate a String.
+     * @deprecated since 5.5.6, the field is <CODE>null</CODE> until
+     * {@link #getStringValue()} is called for the current token; use that method
+     */
+    @Deprecated
     protected String stringValue;
     protected int reference;
     protected int generation;
     protected boolean hexString;
 
+    /** The bytes of the current token, reused for every token. */
+    private ByteBuffer outBuf = new ByteBuffer(64);
+    /** Holds the first number of a possible indirect reference while looking ahead for "R". */
+    private ByteBuffer spareBuf = new ByteBuffer(64);
+    /** The value of the current number token, valid if {@link #integerToken} is true. */
+    private long integerValue;
+    /** Whether the current token is a plain integer that fits in {@link #integerValue}. */
+    private boolean integerToken;
+
     /**
      * Creates a PRTokeniser for the specified {@link RandomAccessFileOrArray}.
      * The beginning of the file is read to determine the location of the header, and the data source is adjusted
@@ -120,6 +146,7 @@ public class PRTokeniser {
      */
     public PRTokeniser(RandomAccessFileOrArray file) {
     	this.file = file;
+    	file.setReadAheadSize(READ_AHEAD_SIZE);
 	}
     
     public void seek(long pos) throws IOException {
@@ -198,8 +225,63 @@ public class PRTokeniser {
     }
     
     public String getStringValue() {
+        if (stringValue == null)
+            stringValue = toStringValue(outBuf);
         return stringValue;
     }
+
+    /**
+     * Checks the current token value against a string without creating a String
+     * from the token bytes.
+     * @param value the value to compare with
+     * @return true if the current token value equals <CODE>value</CODE>
+     * @since 5.5.6
+     */
+    public boolean isStringValue(String value) {
+        if (stringValue != null)
+            return stringValue.equals(value);
+        int len = outBuf.size();
+        if (len != value.length())
+            return false;
+        byte[] b = outBuf.getBuffer();
+        for (int k = 0; k < len; ++k) {
+            if ((b[k] & 0xff) != value.charAt(k))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the bytes of the current token. Names are returned with their #xx
+     * escapes resolved, strings with their escapes and hex digits decoded.
+     * The returned array is only valid up to {@link #getByteValueLength()}
+     * and is reused by the next call to {@link #nextToken()}.
+     * @return the token bytes
+     * @since 5.5.6
+     */
+    public byte[] getByteValue() {
+        return outBuf.getBuffer();
+    }
+
+    /**
+     * Gets the number of valid bytes in {@link #getByteValue()}.
+     * @return the token length in bytes
+     * @since 5.5.6
+     */
+    public int getByteValueLength() {
+        return outBuf.size();
+    }
+
+    private static String toStringValue(ByteBuffer buf) {
+        int len = buf.size();
+        if (len == 0)
+            return EMPTY;
+        byte[] b = buf.getBuffer();
+        char[] c = new char[len];
+        for (int k = 0; k < len; ++k)
+            c[k] = (char)(b[k] & 0xff);
+        return new String(c);
+    }
     
     public int getReference() {
         return reference;
@@ -275,7 +357,10 @@ public class PRTokeniser {
     public void nextValidToken() throws IOException {
         int level = 0;
         String n1 = null;
+        long v1 = 0;
+        boolean i1 = false;
         String n2 = null;
+        long v2 = 0;
         long ptr = 0;
         while (nextToken()) {
             if (type == TokenType.COMMENT)
@@ -286,7 +371,13 @@ public class PRTokeniser {
                     if (type != TokenType.NUMBER)
                         return;
                     ptr = file.getFilePointer();
+                    // keep the bytes of the first number while looking ahead
                     n1 = stringValue;
+                    v1 = integerValue;
+                    i1 = integerToken;
+                    ByteBuffer t = spareBuf;
+                    spareBuf = outBuf;
+                    outBuf = t;
                     ++level;
                     break;
                 }
@@ -294,38 +385,55 @@ public class PRTokeniser {
                 {
                     if (type != TokenType.NUMBER) {
                         file.seek(ptr);
-                        type = TokenType.NUMBER;
-                        stringValue = n1;
+                        restoreNumber(n1, v1, i1);
                         return;
                     }
-                    n2 = stringValue;
+                    if (integerToken && integerValue >= Integer.MIN_VALUE && integerValue <= Integer.MAX_VALUE)
+                        v2 = integerValue;
+                    else
+                        n2 = getStringValue();
                     ++level;
                     break;
                 }
                 default:
                 {
-                    if (type != TokenType.OTHER || !stringValue.equals("R")) {
+                    if (type != TokenType.OTHER || !isStringValue("R")) {
                         file.seek(ptr);
-                        type = TokenType.NUMBER;
-                        stringValue = n1;
+                        restoreNumber(n1, v1, i1);
                         return;
                     }
                     type = TokenType.REF;
-                    reference = Integer.parseInt(n1);
-                    generation = Integer.parseInt(n2);
+                    if (i1 && v1 >= Integer.MIN_VALUE && v1 <= Integer.MAX_VALUE)
+                        reference = (int)v1;
+                    else
+                        reference = Integer.parseInt(n1 != null ? n1 : toStringValue(spareBuf));
+                    generation = n2 == null ? (int)v2 : Integer.parseInt(n2);
                     return;
                 }
             }
         }
         
         if (level == 1){ // if the level 1 check returns EOF, then we are still looking at a number - set the type back to NUMBER
-        	type = TokenType.NUMBER;
+        	restoreNumber(n1, v1, i1);
         }
         // if we hit here, the file is either corrupt (stream ended unexpectedly),
         // or the last token ended exactly at the end of a stream.  This last
         // case can occur inside an Object Stream.
     }
     
+    /**
+     * Makes the number saved by {@link #nextValidToken()} the current token again.
+     */
+    private void restoreNumber(String value, long v, boolean isInteger) {
+        ByteBuffer t = spareBuf;
+        spareBuf = outBuf;
+        outBuf = t;
+        type = TokenType.NUMBER;
+        stringValue = value;
+        integerValue = v;
+        integerToken = isInteger;
+    }
+
     public boolean nextToken() throws IOException {
         int ch = 0;
         do {
@@ -339,8 +447,10 @@ public class PRTokeniser {
         // Note:  We have to initialize stringValue here, after we've looked for the end of the stream,
         // to ensure that we don't lose the value of a token that might end exactly at the end
         // of the stream
-        final StringBuilder outBuf = new StringBuilder();
-        stringValue = EMPTY;
+        final ByteBuffer outBuf = this.outBuf;
+        outBuf.reset();
+        stringValue = null;
+        integerToken = false;
 
         switch (ch) {
             case '[':
@@ -351,7 +461,6 @@ public class PRTokeniser {
                 break;
             case '/':
             {
-                outBuf.setLength(0);
                 type = TokenType.NAME;
                 while (true) {
                     ch = file.read();
@@ -360,7 +469,7 @@ public class PRTokeniser {
                     if (ch == '#') {
                         ch = (getHex(file.read()) << 4) + getHex(file.read());
                     }
-                    outBuf.append((char)ch);
+                    outBuf.append_i(ch);
                 }
                 backOnePosition(ch);
                 break;
@@ -378,7 +487,6 @@ public class PRTokeniser {
                     type = TokenType.START_DIC;
                     break;
                 }
-                outBuf.setLength(0);
                 type = TokenType.STRING;
                 hexString = true;
                 int v2 = 0;
@@ -395,14 +503,14 @@ public class PRTokeniser {
                         v2 = file.read();
                     if (v2 == '>') {
                         ch = v1 << 4;
-                        outBuf.append((char)ch);
+                        outBuf.append_i(ch);
                         break;
                     }
                     v2 = getHex(v2);
                     if (v2 < 0)
                         break;
                     ch = (v1 << 4) + v2;
-                    outBuf.append((char)ch);
+                    outBuf.append_i(ch);
                     v1 = file.read();
                 }
                 if (v1 < 0 || v2 < 0)
@@ -417,7 +525,6 @@ public class PRTokeniser {
                 break;
             case '(':
             {
-                outBuf.setLength(0);
                 type = TokenType.STRING;
                 hexString = false;
                 int nesting = 0;
@@ -503,7 +610,7 @@ public class PRTokeniser {
                     }
                     if (nesting == -1)
                         break;
-                    outBuf.append((char)ch);
+                    outBuf.append_i(ch);
                 }
                 if (ch == -1)
                     throwError(MessageLocalization.getComposedMessage("error.reading.string"));
@@ -511,32 +618,50 @@ public class PRTokeniser {
             }
             default:
             {
-                outBuf.setLength(0);
                 if (ch == '-' || ch == '+' || ch == '.' || (ch >= '0' && ch <= '9')) {
                     type = TokenType.NUMBER;
+                    boolean minus = false;
+                    long value = 0;
+                    int digits = 0;
+                    boolean isInteger = true;
                     if (ch == '-') {
                         // Take care of number like "--234". If Acrobat can read them so must we.
-                        boolean minus = false;
                         do {
                             minus = !minus;
                             ch = file.read();
                         } while (ch == '-');
                         if (minus)
-                            outBuf.append('-');
+                            outBuf.append_i('-');
                     }
                     else {
-                        outBuf.append((char)ch);
+                        outBuf.append_i(ch);
+                        if (ch == '.')
+                            isInteger = false;
+                        else if (ch != '+') {
+                            value = ch - '0';
+                            ++digits;
+                        }
                         ch = file.read();
                     }
                     while (ch != -1 && ((ch >= '0' && ch <= '9') || ch == '.')) {
-                        outBuf.append((char)ch);
+                        outBuf.append_i(ch);
+                        if (ch == '.')
+                            isInteger = false;
+                        else {
+                            value = value * 10 + ch - '0';
+                            ++digits;
+                        }
                         ch = file.read();
                     }
+                    if (isInteger && digits > 0 && digits <= MAX_LONG_DIGITS) {
+                        integerToken = true;
+                        integerValue = minus ? -value : value;
+                    }
                 }
                 else {
                     type = TokenType.OTHER;
                     do {
-                        outBuf.append((char)ch);
+                        outBuf.append_i(ch);
                         ch = file.read();
                     } while (!delims[ch + 1]);
                 }
@@ -545,17 +670,19 @@ public class PRTokeniser {
                 break;
             }
         }
-        if (outBuf != null)
-            stringValue = outBuf.toString();
         return true;
     }
     
     public long longValue() {
-        return Long.parseLong(stringValue);
+        if (integerToken)
+            return integerValue;
+        return Long.parseLong(getStringValue());
     }
     
     public int intValue() {
-        return Integer.parseInt(stringValue);
+        if (integerToken && integerValue >= Integer.MIN_VALUE && integerValue <= Integer.MAX_VALUE)
+            return (int)integerValue;
+        return Integer.parseInt(getStringValue());
     }
 
     /**
@@ -663,7 +790,7 @@ public class PRTokeniser {
             gen = tk.intValue();
             if (!tk.nextToken())
                 return null;
-            if (!tk.getStringValue().equals("obj"))
+            if (!tk.isStringValue("obj"))
                 return null;
             return new long[]{num, gen};
         }
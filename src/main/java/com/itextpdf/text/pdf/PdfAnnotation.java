@@ -856,7 +856,7 @@ public class PdfAnnotation extends PdfDictionary implements IAccessibleElement {
         PdfArray rect;
 
     	PdfImportedLink(PdfDictionary annotation) {
-    		parameters.putAll(annotation.hashMap);
+    		parameters.putAll(annotation.getMap());
     		try {
     			destination = (PdfArray) parameters.remove(PdfName.DEST);
     		} catch (ClassCastException ex) {
@@ -937,7 +937,7 @@ public class PdfAnnotation extends PdfDictionary implements IAccessibleElement {
     	        destination.set(0, ref);
     		}
     		if (destination != null) annotation.put(PdfName.DEST, destination);
-    		annotation.hashMap.putAll(parameters);
+    		annotation.getMap().putAll(parameters);
     		return annotation;
     	}
 
@@ -967,13 +967,13 @@ public class PdfAnnotation extends PdfDictionary implements IAccessibleElement {
     		return buf.toString();
     	}
 
-        private void appendDictionary(StringBuffer buf, HashMap<PdfName, PdfObject> dict) {
+        private void appendDictionary(StringBuffer buf, Map<PdfName, PdfObject> dict) {
             buf.append(" <<");
             for(Map.Entry<PdfName, PdfObject> entry : dict.entrySet()) {
                 buf.append(entry.getKey());
                 buf.append(":");
                 if (entry.getValue() instanceof PdfDictionary)
-                    appendDictionary(buf, ((PdfDictionary)entry.getValue()).hashMap);
+                    appendDictionary(buf, ((PdfDictionary)entry.getValue()).getMap());
                 else
                     buf.append(entry.getValue());
                 buf.append(" ");
@@ -123,11 +123,11 @@ public class PdfContentParser {
                 throw new IOException(MessageLocalization.getComposedMessage("unexpected.end.of.file"));
                 if (tokeniser.getTokenType() == TokenType.END_DIC)
                     break;
-                if (tokeniser.getTokenType() == TokenType.OTHER && "def".equals(tokeniser.getStringValue()))
+                if (tokeniser.getTokenType() == TokenType.OTHER && tokeniser.isStringValue("def"))
                     continue;
                 if (tokeniser.getTokenType() != TokenType.NAME)
                     throw new IOException(MessageLocalization.getComposedMessage("dictionary.key.1.is.not.a.name", tokeniser.getStringValue()));
-                PdfName name = new PdfName(tokeniser.getStringValue(), false);
+                PdfName name = PdfName.intern(tokeniser.getByteValue(), 0, tokeniser.getByteValueLength());
                 PdfObject obj = readPRObject();
                 int type = obj.type();
                 if (-type == TokenType.END_DIC.ordinal())
@@ -178,7 +178,7 @@ public class PdfContentParser {
                 PdfString str = new PdfString(tokeniser.getStringValue(), null).setHexWriting(tokeniser.isHexString());
                 return str;
             case NAME:
-                return new PdfName(tokeniser.getStringValue(), false);
+                return PdfName.intern(tokeniser.getByteValue(), 0, tokeniser.getByteValueLength());
             case NUMBER:
                 return new PdfNumber(tokeniser.getStringValue());
             case OTHER:
@@ -46,8 +46,6 @@ package com.itextpdf.text.pdf;
 
 import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
-import java.util.zip.Deflater;
-import java.util.zip.DeflaterOutputStream;
 
 import com.itextpdf.text.DocWriter;
 import com.itextpdf.text.Document;
@@ -81,17 +79,23 @@ class PdfContents extends PdfStream {
         super();
         try {
             OutputStream out = null;
-            Deflater deflater = null;
             streamBytes = new ByteArrayOutputStream();
-            if (Document.compress)
+            PdfWriter writer = null;
+            if (text != null)
+                writer = text.getPdfWriter();
+            else if (content != null)
+                writer = content.getPdfWriter();
+            if (writer != null)
+                compressionLevel = writer.getCompressionLevel();
+            if (Document.compress && writer != null && writer.getCompressionExecutor() != null) {
+                // the writer compresses the contents on its executor
+                compressionDeferred = true;
+                out = streamBytes;
+            }
+            else if (Document.compress)
             {
                 compressed = true;
-                if (text != null)
-                    compressionLevel = text.getPdfWriter().getCompressionLevel();
-                else if (content != null)
-                    compressionLevel = content.getPdfWriter().getCompressionLevel();
-                deflater = new Deflater(compressionLevel);
-                out = new DeflaterOutputStream(streamBytes, deflater);
+                out = PdfStream.getFlateCompressor().createCompressionStream(streamBytes, compressionLevel);
             }
             else
                 out = streamBytes;
@@ -138,9 +142,6 @@ class PdfContents extends PdfStream {
                 secondContent.getInternalBuffer().writeTo(out);
             }
             out.close();
-            if (deflater != null) {
-                deflater.end();
-            }
         }
         catch (Exception e) {
             throw new BadPdfFormatException(e.getMessage());
@@ -56,6 +56,11 @@ import com.itextpdf.text.log.CounterFactory;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Make copies of PDF documents. Documents can be edited after reading and
@@ -133,6 +138,9 @@ public class PdfCopy extends PdfWriter {
     private HashMap<Integer, PdfIndirectObject> mergedMap;
     private HashSet<PdfIndirectObject> mergedSet;
     private boolean mergeFieldsInternalCall = false;
+
+    /** The raw stream content read ahead by {@link #addDocuments(List, ExecutorService, int)} for the document being copied. */
+    private Map<PRStream, byte[]> preloadedStreams;
     private static final PdfName iTextTag = new PdfName("_iTextTag_");
     private static final Integer zero = Integer.valueOf(0);
     private HashSet<Object> mergedRadioButtons = new HashSet<Object>();
@@ -519,11 +527,24 @@ public class PdfCopy extends PdfWriter {
         return copyDictionary(in, false, false);
     }
 
+    /**
+     * Gets the raw content of the streams read ahead by
+     * {@link #addDocuments(List, ExecutorService, int)} for the document being copied.
+     * @return the raw content by stream, or <CODE>null</CODE> if nothing was read ahead
+     * @since 5.5.6
+     */
+    Map<PRStream, byte[]> getPreloadedStreams() {
+        return preloadedStreams;
+    }
+
     /**
      * Translate a PRStream to a PdfStream. The data part copies itself.
      */
     protected PdfStream copyStream(PRStream in) throws IOException, BadPdfFormatException {
         PRStream out = new PRStream(in, null);
+        byte[] raw = preloadedStreams == null ? null : preloadedStreams.remove(in);
+        if (raw != null)
+            out.setDataRaw(raw);
 
         for (Object element : in.getKeys()) {
             PdfName key = (PdfName) element;
@@ -816,6 +837,96 @@ public class PdfCopy extends PdfWriter {
         mergeFieldsInternalCall = false;
     }
 
+    /**
+     * Adds all the pages of several documents, in the order of the list.
+     * The raw content of the streams of each document is read, and decrypted
+     * if needed, on the <CODE>executor</CODE> while the pages of the previous
+     * documents are being copied. The pages themselves are copied on the
+     * calling thread, so the object numbers and the cross-reference table
+     * are the same as with a call to {@link #addDocument(PdfReader)} for
+     * each reader. A reader is never used by two threads at the same time,
+     * but it must not be used elsewhere until this method returns.
+     * Readers opened in partial mode are read on the calling thread only.
+     * <p>
+     * The readers are not modified. A <CODE>PdfSmartCopy</CODE> also compares
+     * the streams using the content read ahead. The content read ahead is kept by this
+     * PdfCopy only until its document is copied, so at most
+     * <CODE>lookAhead + 1</CODE> documents are in memory at the same time.
+     * If a document fails, the exception is thrown once the documents
+     * being prepared are done, and the documents not started yet are skipped.
+     * @param readers the documents to add
+     * @param executor the threads that prepare the documents
+     * @param lookAhead the maximum number of documents prepared ahead of the one being copied
+     * @throws DocumentException on error
+     * @throws IOException on error
+     * @since 5.5.6
+     */
+    public void addDocuments(List<PdfReader> readers, ExecutorService executor, int lookAhead) throws DocumentException, IOException {
+        if (lookAhead < 1)
+            throw new IllegalArgumentException("lookAhead");
+        ArrayList<Future<Map<PRStream, byte[]>>> prepared = new ArrayList<Future<Map<PRStream, byte[]>>>(readers.size());
+        final AtomicBoolean abandoned = new AtomicBoolean();
+        int submitted = 0;
+        try {
+            for (int k = 0; k < readers.size(); ++k) {
+                while (submitted < readers.size() && submitted <= k + lookAhead) {
+                    final PdfReader r = readers.get(submitted++);
+                    prepared.add(executor.submit(new Callable<Map<PRStream, byte[]>>() {
+                        public Map<PRStream, byte[]> call() throws IOException {
+                            if (abandoned.get())
+                                return null;
+                            return r.readStreamBytesRaw();
+                        }
+                    }));
+                }
+                Map<PRStream, byte[]> raw;
+                try {
+                    raw = prepared.get(k).get();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ExceptionConverter(e);
+                }
+                catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException)
+                        throw (IOException)cause;
+                    if (cause instanceof RuntimeException)
+                        throw (RuntimeException)cause;
+                    if (cause instanceof Error)
+                        throw (Error)cause;
+                    throw new ExceptionConverter((Exception)cause);
+                }
+                prepared.set(k, null);
+                preloadedStreams = raw;
+                try {
+                    addDocument(readers.get(k));
+                }
+                finally {
+                    preloadedStreams = null;
+                }
+            }
+        }
+        finally {
+            // the tasks still hold their readers, wait for them before returning
+            abandoned.set(true);
+            for (Future<Map<PRStream, byte[]>> f : prepared) {
+                if (f == null)
+                    continue;
+                try {
+                    f.get();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                catch (ExecutionException e) {
+                    // already failing, the first exception is the one thrown
+                }
+            }
+        }
+    }
+
     @Override
     public PdfIndirectObject addToBody(final PdfObject object, final PdfIndirectReference ref) throws IOException {
         return this.addToBody(object, ref, false);
@@ -1153,11 +1264,9 @@ public class PdfCopy extends PdfWriter {
             else
                 inactives.add(entry.getKey());
         }
-        ArrayList<PdfBody.PdfCrossReference> pdfCrossReferences = new ArrayList<PdfBody.PdfCrossReference>(body.xrefs);
-        for (PdfBody.PdfCrossReference cr : pdfCrossReferences) {
-            RefKey key = new RefKey(cr.getRefnum(), 0);
-            if (inactives.contains(key))
-                body.xrefs.remove(cr);
+        for (RefKey key : inactives) {
+            if (key.gen == 0)
+                body.xrefTable.remove(key.num);
         }
         indirectObjects = null;
     }
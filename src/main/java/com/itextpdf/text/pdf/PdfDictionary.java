@@ -49,6 +49,7 @@ import com.itextpdf.text.pdf.internal.PdfIsoKeys;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
@@ -98,9 +99,19 @@ public class PdfDictionary extends PdfObject {
     /** This is the type of this dictionary */
     private PdfName dictionaryType = null;
 
-    /** This is the hashmap that contains all the values and keys of the dictionary */
+    /**
+     * This is the hashmap that contains all the values and keys of the dictionary,
+     * <CODE>null</CODE> in a dictionary read with {@link PdfReader#compactDictionaries}
+     */
     protected HashMap<PdfName, PdfObject> hashMap;
 
+    /**
+     * The entries of a dictionary read with {@link PdfReader#compactDictionaries},
+     * kept in place of <CODE>hashMap</CODE>, which is then <CODE>null</CODE>.
+     * @since 5.5.6
+     */
+    private CompactNameMap compactMap;
+
     // CONSTRUCTORS
 
     /**
@@ -140,7 +151,7 @@ public class PdfDictionary extends PdfObject {
         // loop over all the object-pairs in the HashMap
         PdfObject value;
         int type = 0;
-        for (Entry<PdfName, PdfObject> e: hashMap.entrySet()) {
+        for (Entry<PdfName, PdfObject> e: getMap().entrySet()) {
         	e.getKey().toPdf(writer, os);
         	value = e.getValue();
 			type = value.type();
@@ -185,9 +196,9 @@ public class PdfDictionary extends PdfObject {
      */
     public void put(final PdfName key, final PdfObject object) {
         if (object == null || object.isNull())
-            hashMap.remove(key);
+            getMap().remove(key);
         else
-            hashMap.put(key, object);
+            getMap().put(key, object);
     }
 
     /**
@@ -219,7 +230,7 @@ public class PdfDictionary extends PdfObject {
      *   copied over
      */
     public void putAll(final PdfDictionary dic) {
-        hashMap.putAll(dic.hashMap);
+        getMap().putAll(dic.getMap());
     }
 
     /**
@@ -229,7 +240,7 @@ public class PdfDictionary extends PdfObject {
      * @param key a <CODE>PdfName</CODE>
      */
     public void remove(final PdfName key) {
-        hashMap.remove(key);
+        getMap().remove(key);
     }
 
     /**
@@ -238,7 +249,7 @@ public class PdfDictionary extends PdfObject {
      * @since 5.0.2
      */
     public void clear() {
-        hashMap.clear();
+        getMap().clear();
     }
 
     /**
@@ -250,7 +261,7 @@ public class PdfDictionary extends PdfObject {
      *   <VAR>key</VAR>
      */
     public PdfObject get(final PdfName key) {
-        return hashMap.get(key);
+        return getMap().get(key);
     }
 
     /**
@@ -274,7 +285,7 @@ public class PdfDictionary extends PdfObject {
      * @return <CODE>true</CODE> if it is, otherwise <CODE>false</CODE>.
      */
     public Set<PdfName> getKeys() {
-        return hashMap.keySet();
+        return getMap().keySet();
     }
 
     /**
@@ -285,7 +296,7 @@ public class PdfDictionary extends PdfObject {
      *   <CODE>PdfDictionary</CODE>.
      */
     public int size() {
-        return hashMap.size();
+        return getMap().size();
     }
 
     /**
@@ -295,7 +306,7 @@ public class PdfDictionary extends PdfObject {
      * @return <CODE>true</CODE> if the key is set, otherwise <CODE>false</CODE>.
      */
     public boolean contains(final PdfName key) {
-        return hashMap.containsKey(key);
+        return getMap().containsKey(key);
     }
 
     // DICTIONARY TYPE METHODS
@@ -361,16 +372,51 @@ public class PdfDictionary extends PdfObject {
     // OTHER METHODS
 
     public void merge(final PdfDictionary other) {
-        hashMap.putAll(other.hashMap);
+        getMap().putAll(other.getMap());
     }
 
     public void mergeDifferent(final PdfDictionary other) {
-        for (PdfName key : other.hashMap.keySet()) {
-            if (!hashMap.containsKey(key))
-                hashMap.put(key, other.hashMap.get(key));
+        Map<PdfName, PdfObject> map = getMap();
+        for (Entry<PdfName, PdfObject> e : other.getMap().entrySet()) {
+            if (!map.containsKey(e.getKey()))
+                map.put(e.getKey(), e.getValue());
         }
     }
 
+    /**
+     * Gets the map with the entries of this dictionary: <CODE>hashMap</CODE>,
+     * or the compact map of a dictionary read with
+     * {@link PdfReader#compactDictionaries}.
+     * @return the map with the entries
+     * @since 5.5.6
+     */
+    Map<PdfName, PdfObject> getMap() {
+        return hashMap != null ? hashMap : compactMap;
+    }
+
+    /**
+     * Moves the entries to a compact map that keeps them in insertion order
+     * and sets <CODE>hashMap</CODE> to <CODE>null</CODE>.
+     * @since 5.5.6
+     */
+    void useCompactMap() {
+        if (compactMap != null)
+            return;
+        compactMap = new CompactNameMap();
+        compactMap.putAll(hashMap);
+        hashMap = null;
+    }
+
+    /**
+     * Makes this dictionary share the entries of another dictionary.
+     * @param dic the dictionary with the entries
+     * @since 5.5.6
+     */
+    void shareMap(final PdfDictionary dic) {
+        hashMap = dic.hashMap;
+        compactMap = dic.compactMap;
+    }
+
      // DOWNCASTING GETTERS
      // @author Mark A Storer (2/17/06)
 
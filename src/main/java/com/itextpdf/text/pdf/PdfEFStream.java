@@ -47,8 +47,6 @@ package com.itextpdf.text.pdf;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.zip.Deflater;
-import java.util.zip.DeflaterOutputStream;
 
 /**
  * Extends PdfStream and should be used to create Streams for Embedded Files
@@ -123,17 +121,14 @@ public class PdfEFStream extends PdfStream {
         os.write(STARTSTREAM);
         if (inputStream != null) {
             rawLength = 0;
-            DeflaterOutputStream def = null;
+            OutputStream def = null;
             OutputStreamCounter osc = new OutputStreamCounter(os);
             OutputStreamEncryption ose = null;
             OutputStream fout = osc;
             if (crypto != null)
                 fout = ose = crypto.getEncryptionStream(fout);
-            Deflater deflater = null;
-            if (compressed) {
-                deflater = new Deflater(compressionLevel);
-                fout = def = new DeflaterOutputStream(fout, deflater, 0x8000);
-            }
+            if (compressed)
+                fout = def = getFlateCompressor().createCompressionStream(fout, compressionLevel);
             
             byte buf[] = new byte[4192];
             while (true) {
@@ -143,10 +138,8 @@ public class PdfEFStream extends PdfStream {
                 fout.write(buf, 0, n);
                 rawLength += n;
             }
-            if (def != null) {
-                def.finish();
-                deflater.end();
-            }
+            if (def != null)
+                def.close();
             if (ose != null)
                 ose.finish();
             inputStreamLength = (int)osc.getCounter();
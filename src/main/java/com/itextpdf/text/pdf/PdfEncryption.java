@@ -48,6 +48,7 @@ import com.itextpdf.text.pdf.crypto.ARCFOUREncryption;
 import com.itextpdf.text.error_messages.MessageLocalization;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.ByteArrayOutputStream;
 import java.security.MessageDigest;
@@ -766,6 +767,14 @@ public class PdfEncryption {
 		return new StandardDecryption(key, 0, keySize, revision);
 	}
 
+	/**
+	 * Gets a stream that decrypts the data read from <CODE>is</CODE>.
+	 * @since 5.5.6
+	 */
+	public InputStreamDecryption getDecryptionStream(InputStream is) {
+		return new InputStreamDecryption(is, getDecryptor());
+	}
+
 	public byte[] decryptByteArray(byte[] b) {
 		try {
 			ByteArrayOutputStream ba = new ByteArrayOutputStream();
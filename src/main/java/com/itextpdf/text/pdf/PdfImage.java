@@ -77,6 +77,20 @@ public class PdfImage extends PdfStream {
      */
     
     public PdfImage(Image image, String name, PdfIndirectReference maskRef) throws BadPdfFormatException {
+        this(image, name, maskRef, false);
+    }
+
+    /**
+     * Constructs a <CODE>PdfImage</CODE>-object.
+     *
+     * @param image the <CODE>Image</CODE>-object
+     * @param name the <CODE>PdfName</CODE> for this image
+     * @param maskRef the reference to the image mask, if any
+     * @param deferCompression leave the compression of the image data to the compression executor of the writer
+     * @throws BadPdfFormatException on error
+     * @since 5.5.6
+     */
+    PdfImage(Image image, String name, PdfIndirectReference maskRef, boolean deferCompression) throws BadPdfFormatException {
         super();
         this.image = image;
         if (name == null) 
@@ -166,6 +180,9 @@ public class PdfImage extends PdfStream {
                     put(PdfName.BITSPERCOMPONENT, new PdfNumber(image.getBpc()));
                     if (image.isDeflated())
                         put(PdfName.FILTER, PdfName.FLATEDECODE);
+                    else if (deferCompression) {
+                        deferFlateCompress(image.getCompressionLevel());
+                    }
                     else {
                         flateCompress(image.getCompressionLevel());
                     }
@@ -250,8 +267,12 @@ public class PdfImage extends PdfStream {
                 default:
                     throw new BadPdfFormatException(MessageLocalization.getComposedMessage("1.is.an.unknown.image.format", errorID));
             }
-            if (image.getCompressionLevel() > NO_COMPRESSION)
-            	flateCompress(image.getCompressionLevel());
+            if (image.getCompressionLevel() > NO_COMPRESSION) {
+                if (deferCompression)
+                    deferFlateCompress(image.getCompressionLevel());
+                else
+                    flateCompress(image.getCompressionLevel());
+            }
             put(PdfName.LENGTH, new PdfNumber(streamBytes.size()));
         }
         catch(IOException ioe) {
@@ -303,7 +324,7 @@ public class PdfImage extends PdfStream {
         compressionLevel = dup.compressionLevel;
         streamBytes = dup.streamBytes;
         bytes = dup.bytes;
-        hashMap = dup.hashMap;
+        shareMap(dup);
     }
     
     /**
@@ -46,6 +46,8 @@ package com.itextpdf.text.pdf;
 
 import com.itextpdf.text.error_messages.MessageLocalization;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.HashMap;
@@ -2410,6 +2412,12 @@ public class
      */
     public static Map<String, PdfName> staticNames;
 
+    /**
+     * The canonical instances of the names read from documents.
+     * @since 5.5.6
+     */
+    private static final NamePool namePool = new NamePool();
+
     /**
      * Use reflection to cache all the static public final names so
      * future <code>PdfName</code> additions don't have to be "added twice".
@@ -2431,6 +2439,8 @@ public class
                     staticNames.put( decodeName( name.toString() ), name );
                 }
             }
+            for (Map.Entry<String, PdfName> entry : staticNames.entrySet())
+                namePool.add(PdfEncodings.convertToBytes(entry.getKey(), null), entry.getValue());
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -2439,6 +2449,9 @@ public class
 
     private int hash = 0;
 
+    /** Whether this is the canonical instance of its name in the intern pool. */
+    private boolean interned = false;
+
     // CONSTRUCTORS
 
     /**
@@ -2476,6 +2489,35 @@ public class
 
     // CLASS METHODS
 
+    /**
+     * Gets the canonical instance of a name. All the calls with the same name
+     * return the same instance for as long as it is referenced, and the static
+     * names of this class are their own canonical instances. The instance is
+     * shared, so it must not be modified or used as an indirect object.
+     *
+     * @param name the bytes of the name in the unescaped form, without the leading '/'
+     * @param off the offset of the name in <CODE>name</CODE>
+     * @param len the number of bytes of the name
+     * @return the canonical <CODE>PdfName</CODE>
+     * @since 5.5.6
+     */
+    public static PdfName intern(byte[] name, int off, int len) {
+        return namePool.get(name, off, len);
+    }
+
+    /**
+     * Gets the canonical instance of a name given in the unescaped form "AB CD".
+     *
+     * @param name the name
+     * @return the canonical <CODE>PdfName</CODE>
+     * @see #intern(byte[], int, int)
+     * @since 5.5.6
+     */
+    public static PdfName intern(String name) {
+        byte[] b = PdfEncodings.convertToBytes(name, null);
+        return namePool.get(b, 0, b.length);
+    }
+
     /**
      * Compares this object with the specified object for order.
      * Returns a negative integer, zero, or a positive integer as this object
@@ -2515,8 +2557,13 @@ public class
     public boolean equals(Object obj) {
         if (this == obj)
             return true;
-        if (obj instanceof PdfName)
-            return compareTo((PdfName)obj) == 0;
+        if (obj instanceof PdfName) {
+            PdfName name = (PdfName)obj;
+            // two different canonical instances can't have the same name
+            if (interned && name.interned)
+                return false;
+            return compareTo(name) == 0;
+        }
         return false;
     }
 
@@ -2548,13 +2595,23 @@ public class
      * @since	2.1.5
      */
     public static byte[] encodeName(String name) {
-    	int length = name.length();
+    	return encodeName(PdfEncodings.convertToBytes(name, null), 0, name.length());
+    }
+
+    /**
+     * Encodes a plain name given as bytes in the unescaped form "AB CD" into "/AB#20CD".
+     *
+     * @param name the bytes of the name to encode
+     * @param off the offset of the name in <CODE>name</CODE>
+     * @param length the number of bytes of the name
+     * @return the encoded name
+     */
+    private static byte[] encodeName(byte[] name, int off, int length) {
     	ByteBuffer buf = new ByteBuffer(length + 20);
     	buf.append('/');
     	char c;
-    	char chars[] = name.toCharArray();
     	for (int k = 0; k < length; k++) {
-    		c = (char)(chars[k] & 0xff);
+    		c = (char)(name[off + k] & 0xff);
     		// Escape special characters
     		switch (c) {
     			case ' ':
@@ -2613,4 +2670,132 @@ public class
         }
         return buf.toString();
     }
+
+    /**
+     * A concurrent pool of weakly referenced names, keyed on the unescaped name bytes.
+     * The pool is split in segments with their own lock; a lookup of a name already
+     * in the pool doesn't allocate.
+     */
+    private static final class NamePool {
+        private static final int SEGMENTS = 16;
+
+        private final Segment[] segments = new Segment[SEGMENTS];
+
+        NamePool() {
+            for (int k = 0; k < SEGMENTS; ++k)
+                segments[k] = new Segment();
+        }
+
+        PdfName get(byte[] name, int off, int len) {
+            int h = hash(name, off, len);
+            return segmentFor(h).get(h, name, off, len, null);
+        }
+
+        void add(byte[] name, PdfName pdfName) {
+            int h = hash(name, 0, name.length);
+            segmentFor(h).get(h, name, 0, name.length, pdfName);
+        }
+
+        private Segment segmentFor(int h) {
+            return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+        }
+
+        private static int hash(byte[] name, int off, int len) {
+            int h = 0;
+            for (int k = 0; k < len; ++k)
+                h = 31 * h + (name[off + k] & 0xff);
+            return h;
+        }
+    }
+
+    private static final class Segment {
+        private final ReferenceQueue<PdfName> queue = new ReferenceQueue<PdfName>();
+        private NameRef[] table = new NameRef[64];
+        private int count;
+
+        /**
+         * Gets the name from the segment, adding it if needed.
+         * @param pdfName the instance to add, or <CODE>null</CODE> to create one
+         */
+        synchronized PdfName get(int h, byte[] name, int off, int len, PdfName pdfName) {
+            expunge();
+            NameRef[] tab = table;
+            int idx = h & (tab.length - 1);
+            for (NameRef ref = tab[idx]; ref != null; ref = ref.next) {
+                if (ref.hash == h && ref.matches(name, off, len)) {
+                    PdfName found = ref.get();
+                    if (found != null)
+                        return found;
+                }
+            }
+            if (pdfName == null)
+                pdfName = new PdfName(encodeName(name, off, len));
+            pdfName.interned = true;
+            byte[] key = new byte[len];
+            System.arraycopy(name, off, key, 0, len);
+            tab[idx] = new NameRef(pdfName, queue, h, key, tab[idx]);
+            if (++count > tab.length * 3 / 4)
+                rehash();
+            return pdfName;
+        }
+
+        private void rehash() {
+            NameRef[] old = table;
+            NameRef[] tab = new NameRef[old.length * 2];
+            for (int k = 0; k < old.length; ++k) {
+                NameRef ref = old[k];
+                while (ref != null) {
+                    NameRef next = ref.next;
+                    int idx = ref.hash & (tab.length - 1);
+                    ref.next = tab[idx];
+                    tab[idx] = ref;
+                    ref = next;
+                }
+            }
+            table = tab;
+        }
+
+        /** Removes the names that are no longer referenced. */
+        private void expunge() {
+            Object cleared;
+            while ((cleared = queue.poll()) != null) {
+                NameRef ref = (NameRef)cleared;
+                int idx = ref.hash & (table.length - 1);
+                NameRef prev = null;
+                for (NameRef r = table[idx]; r != null; prev = r, r = r.next) {
+                    if (r == ref) {
+                        if (prev == null)
+                            table[idx] = r.next;
+                        else
+                            prev.next = r.next;
+                        --count;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class NameRef extends WeakReference<PdfName> {
+        final int hash;
+        final byte[] key;
+        NameRef next;
+
+        NameRef(PdfName name, ReferenceQueue<PdfName> queue, int hash, byte[] key, NameRef next) {
+            super(name, queue);
+            this.hash = hash;
+            this.key = key;
+            this.next = next;
+        }
+
+        boolean matches(byte[] name, int off, int len) {
+            if (key.length != len)
+                return false;
+            for (int k = 0; k < len; ++k) {
+                if (key[k] != name[off + k])
+                    return false;
+            }
+            return true;
+        }
+    }
 }
@@ -52,6 +52,8 @@ import com.itextpdf.text.error_messages.MessageLocalization;
 import com.itextpdf.text.exceptions.BadPasswordException;
 import com.itextpdf.text.exceptions.InvalidPdfException;
 import com.itextpdf.text.exceptions.UnsupportedPdfException;
+import com.itextpdf.text.io.IndependentRandomAccessSource;
+import com.itextpdf.text.io.RASInputStream;
 import com.itextpdf.text.io.RandomAccessSource;
 import com.itextpdf.text.io.RandomAccessSourceFactory;
 import com.itextpdf.text.io.WindowRandomAccessSource;
@@ -71,6 +73,7 @@ import java.security.MessageDigest;
 import java.security.PrivateKey;
 import java.security.cert.Certificate;
 import java.util.*;
+import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
 
 /**
@@ -86,6 +89,17 @@ public class PdfReader implements PdfViewerPreferences {
 	 * @since 5.0.2
 	 */
 	public static boolean unethicalreading = false;
+
+	/**
+	 * Set to <CODE>true</CODE> to keep the entries of the dictionaries and
+	 * streams read from a document in compact maps instead of a
+	 * <CODE>HashMap</CODE> each. This saves much of the memory of a document
+	 * read in full, but the protected <CODE>PdfDictionary.hashMap</CODE> field
+	 * of these objects is <CODE>null</CODE>, so it must only be used if no
+	 * subclass reads that field, and their keys are written in insertion order.
+	 * @since 5.5.6
+	 */
+	public static boolean compactDictionaries = false;
 	
 	public static boolean debugmode = false;
 	private static final Logger LOGGER = LoggerFactory.getLogger(PdfReader.class);
@@ -138,6 +152,25 @@ public class PdfReader implements PdfViewerPreferences {
     private boolean hybridXref;
     private int lastXrefPartial = -1;
     private boolean partial;
+    /** The objects read in partial mode when their number is limited, <CODE>null</CODE> otherwise. */
+    private PartialObjectCache partialCache;
+    /** The maximum number of decoded object streams kept in partial mode. */
+    private int objStmCacheSize = 1;
+    /** The decoded object streams in partial mode, by object number and in least recently used order. */
+    private final LinkedHashMap<Integer, ObjStmIndex> objStmCache = new LinkedHashMap<Integer, ObjStmIndex>(16, 0.75f, true) {
+        private static final long serialVersionUID = 4384613442347227018L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ObjStmIndex> eldest) {
+            return size() > objStmCacheSize;
+        }
+    };
+
+    /** The source shared by the duplicates created with <CODE>createConcurrentView</CODE>. */
+    private RandomAccessSource concurrentSource;
+    /** The fonts decoded for text extraction, <CODE>null</CODE> until they're asked for. */
+    private DocumentFontCache documentFontCache;
+    private boolean documentFontCacheSet;
 
     private PRIndirectReference cryptoRef;
 	private final PdfViewerPreferencesImp viewerPreferences = new PdfViewerPreferencesImp();
@@ -396,6 +429,10 @@ public class PdfReader implements PdfViewerPreferences {
      * @param reader the <CODE>PdfReader</CODE> to duplicate
      */
     public PdfReader(final PdfReader reader) {
+        this(reader, reader.tokens.getSafeFile());
+    }
+
+    private PdfReader(final PdfReader reader, final RandomAccessFileOrArray file) {
         this.appendable = reader.appendable;
         this.consolidateNamedDestinations = reader.consolidateNamedDestinations;
         this.encrypted = reader.encrypted;
@@ -408,7 +445,7 @@ public class PdfReader implements PdfViewerPreferences {
         this.freeXref = reader.freeXref;
         this.lastXref = reader.lastXref;
         this.newXrefType = reader.newXrefType;
-        this.tokens = new PRTokeniser(reader.tokens.getSafeFile()); 
+        this.tokens = new PRTokeniser(file);
         if (reader.decrypt != null)
             this.decrypt = new PdfEncryption(reader.decrypt);
         this.pValue = reader.pValue;
@@ -430,6 +467,56 @@ public class PdfReader implements PdfViewerPreferences {
         this.ownerPasswordUsed = reader.ownerPasswordUsed;
     }
 
+    /**
+     * Creates an independent duplicate that can be used on another thread.
+     * The duplicates created by this method read the document through a
+     * shared source that serializes the reads, so each one can be used by
+     * its own thread at the same time as the others. This reader must not
+     * be used while the duplicates are in use. The duplicates share the
+     * document font cache of this reader. A duplicate of a reader in
+     * partial mode reads the objects as needed, with the same limit on the
+     * objects kept in memory.
+     * @return the duplicate
+     * @since 5.5.6
+     */
+    public PdfReader createConcurrentView() {
+        PdfReader view;
+        synchronized (this) {
+            if (concurrentSource == null)
+                concurrentSource = new SynchronizedRandomAccessSource(tokens.getFile().getByteSource());
+            view = new PdfReader(this, new RandomAccessFileOrArray(new IndependentRandomAccessSource(concurrentSource)));
+        }
+        view.setDocumentFontCache(getDocumentFontCache());
+        view.setPartialCacheSize(getPartialCacheSize());
+        view.setObjStmCacheSize(objStmCacheSize);
+        return view;
+    }
+
+    /**
+     * Gets the cache of the fonts decoded from this document for text extraction,
+     * shared by all the content parsers of this reader. A cache with the default
+     * size is created the first time, unless another one was set.
+     * @return the font cache, or <CODE>null</CODE> if the fonts are not cached across pages
+     * @since 5.5.6
+     */
+    public synchronized DocumentFontCache getDocumentFontCache() {
+        if (!documentFontCacheSet) {
+            documentFontCache = new DocumentFontCache();
+            documentFontCacheSet = true;
+        }
+        return documentFontCache;
+    }
+
+    /**
+     * Sets the cache of the fonts decoded from this document for text extraction.
+     * @param cache the font cache, or <CODE>null</CODE> to decode the fonts again for each page
+     * @since 5.5.6
+     */
+    public synchronized void setDocumentFontCache(final DocumentFontCache cache) {
+        documentFontCache = cache;
+        documentFontCacheSet = true;
+    }
+
     /**
      * Utility method that checks the provided byte source to see if it has junk bytes at the beginning.  If junk bytes
      * are found, construct a tokeniser that ignores the junk.  Otherwise, construct a tokeniser for the byte source as it is
@@ -1124,8 +1211,11 @@ public class PdfReader implements PdfViewerPreferences {
             if (idx < 0 || idx >= xrefObj.size())
                 return null;
             PdfObject obj = xrefObj.get(idx);
-            if (!partial || obj != null)
+            if (!partial || obj != null) {
+                if (partialCache != null && obj != null)
+                    partialCache.touch(idx, obj);
                 return obj;
+            }
             if (idx * 2 >= xref.length)
                 return null;
             obj = readSingleObject(idx);
@@ -1151,7 +1241,7 @@ public class PdfReader implements PdfViewerPreferences {
      */
     public void releaseLastXrefPartial() {
         if (partial && lastXrefPartial != -1) {
-            xrefObj.set(lastXrefPartial, null);
+            releasePartialObject(lastXrefPartial);
             lastXrefPartial = -1;
         }
     }
@@ -1170,7 +1260,7 @@ public class PdfReader implements PdfViewerPreferences {
         PRIndirectReference ref = (PRIndirectReference)obj;
         PdfReader reader = ref.getReader();
         if (reader.partial && reader.lastXrefPartial != -1 && reader.lastXrefPartial == ref.getNumber()) {
-            reader.xrefObj.set(reader.lastXrefPartial, null);
+            reader.releasePartialObject(reader.lastXrefPartial);
         }
         reader.lastXrefPartial = -1;
     }
@@ -1179,6 +1269,64 @@ public class PdfReader implements PdfViewerPreferences {
         if (!partial || idx < 0)
             return;
         xrefObj.set(idx, obj);
+        // a changed object must stay in memory
+        if (partialCache != null)
+            partialCache.remove(idx);
+    }
+
+    private void releasePartialObject(final int idx) {
+        xrefObj.set(idx, null);
+        if (partialCache != null)
+            partialCache.remove(idx);
+    }
+
+    /**
+     * Limits the number of objects kept in memory in partial mode. Once the limit is reached
+     * reading a new object releases the least recently used one, that will be read again
+     * from the document if it's needed later. This keeps the memory bounded when
+     * processing large documents, for example to extract the text, without calling
+     * <CODE>releasePage</CODE>.
+     * <p>
+     * A released object is read again as a new instance, so changes made directly to
+     * an object are lost once it's released. Objects changed by the reader itself are
+     * never released. Only use a limit when the document is read without being modified.
+     * The limit has no effect if the reader is not in partial mode.
+     * @param maxObjects the maximum number of objects, 0 for no limit
+     * @since 5.5.6
+     */
+    public void setPartialCacheSize(final int maxObjects) {
+        if (!partial)
+            return;
+        if (maxObjects <= 0) {
+            partialCache = null;
+            return;
+        }
+        if (partialCache == null)
+            partialCache = new PartialObjectCache(xrefObj.size());
+        partialCache.maxSize = maxObjects;
+        evictPartialObjects();
+    }
+
+    /**
+     * Gets the maximum number of objects kept in memory in partial mode.
+     * @return the maximum number of objects, 0 if there's no limit
+     * @since 5.5.6
+     */
+    public int getPartialCacheSize() {
+        return partialCache == null ? 0 : partialCache.maxSize;
+    }
+
+    private void evictPartialObjects() {
+        while (partialCache.size > partialCache.maxSize) {
+            int idx = partialCache.eldest;
+            PdfObject obj = partialCache.remove(idx);
+            // the object may have been replaced in the meantime
+            if (idx < xrefObj.size() && xrefObj.get(idx) == obj) {
+                xrefObj.set(idx, null);
+                if (lastXrefPartial == idx)
+                    lastXrefPartial = -1;
+            }
+        }
     }
 
     /**
@@ -1222,10 +1370,30 @@ public class PdfReader implements PdfViewerPreferences {
         long pos = xref[k2];
         if (pos < 0)
             return null;
-        if (xref[k2 + 1] > 0)
-            pos = objStmToOffset.get(xref[k2 + 1]);
-        if (pos == 0)
-            return null;
+        PdfObject obj;
+        if (xref[k2 + 1] > 0) {
+            ObjStmIndex index = getObjStmIndex((int)xref[k2 + 1]);
+            if (index == null)
+                return null;
+            obj = readObjStmObject(index, (int)pos);
+        }
+        else {
+            if (pos == 0)
+                return null;
+            obj = readObjectAt(pos);
+        }
+        xrefObj.set(k, obj);
+        if (partialCache != null && obj != null) {
+            partialCache.add(k, obj);
+            evictPartialObjects();
+        }
+        return obj;
+    }
+
+    /**
+     * Reads the indirect object that starts at <CODE>pos</CODE>.
+     */
+    private PdfObject readObjectAt(final long pos) throws IOException {
         tokens.seek(pos);
         tokens.nextValidToken();
         if (tokens.getTokenType() != TokenType.NUMBER)
@@ -1236,7 +1404,7 @@ public class PdfReader implements PdfViewerPreferences {
             tokens.throwError(MessageLocalization.getComposedMessage("invalid.generation.number"));
         objGen = tokens.intValue();
         tokens.nextValidToken();
-        if (!tokens.getStringValue().equals("obj"))
+        if (!tokens.isStringValue("obj"))
             tokens.throwError(MessageLocalization.getComposedMessage("token.obj.expected"));
         PdfObject obj;
         try {
@@ -1258,41 +1426,95 @@ public class PdfReader implements PdfViewerPreferences {
         	else
         		throw e;
         }
-        if (xref[k2 + 1] > 0) {
-            obj = readOneObjStm((PRStream)obj, (int)xref[k2]);
-        }
-        xrefObj.set(k, obj);
         return obj;
     }
 
+    /**
+     * Gets a decoded object stream in partial mode, from the cache if possible.
+     * @param stmNum the object number of the object stream
+     * @return the decoded object stream or <CODE>null</CODE> if it doesn't exist
+     */
+    private ObjStmIndex getObjStmIndex(final int stmNum) throws IOException {
+        Integer key = Integer.valueOf(stmNum);
+        ObjStmIndex index = objStmCache.get(key);
+        if (index != null)
+            return index;
+        long pos = objStmToOffset.get(stmNum);
+        if (pos == 0)
+            return null;
+        index = createObjStmIndex((PRStream)readObjectAt(pos));
+        if (objStmCacheSize > 0)
+            objStmCache.put(key, index);
+        return index;
+    }
+
     protected PdfObject readOneObjStm(final PRStream stream, int idx) throws IOException {
+        return readObjStmObject(createObjStmIndex(stream), idx);
+    }
+
+    /**
+     * Sets the maximum number of decoded object streams kept in partial mode. Reading an
+     * object from an object stream requires decoding the whole object stream, so keeping
+     * the most recently used ones avoids decoding them again for the other objects they hold.
+     * The default is 1.
+     * @param size the maximum number of decoded object streams, 0 to keep none
+     * @since 5.5.6
+     */
+    public void setObjStmCacheSize(final int size) {
+        objStmCacheSize = Math.max(0, size);
+        if (objStmCacheSize == 0) {
+            objStmCache.clear();
+        }
+        else {
+            Iterator<Integer> it = objStmCache.keySet().iterator();
+            for (int k = objStmCache.size() - objStmCacheSize; k > 0; --k) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Gets the maximum number of decoded object streams kept in partial mode.
+     * @return the maximum number of decoded object streams
+     * @since 5.5.6
+     */
+    public int getObjStmCacheSize() {
+        return objStmCacheSize;
+    }
+
+    /**
+     * Decodes an object stream and reads the object numbers and offsets at its start.
+     * If the offsets can't be read only the ones before the error are kept.
+     */
+    private ObjStmIndex createObjStmIndex(final PRStream stream) throws IOException {
         int first = stream.getAsNumber(PdfName.FIRST).intValue();
-        byte b[] = getStreamBytes(stream, tokens.getFile());
+        int n = stream.getAsNumber(PdfName.N).intValue();
+        ObjStmIndex index = new ObjStmIndex(getStreamBytes(stream, tokens.getFile()), n);
+        PRTokeniser tk = new PRTokeniser(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(index.body)));
+        for (int k = 0; k < n; ++k) {
+            if (!tk.nextToken() || tk.getTokenType() != TokenType.NUMBER)
+                break;
+            int objNumber = tk.intValue();
+            if (!tk.nextToken() || tk.getTokenType() != TokenType.NUMBER)
+                break;
+            index.objNumber[k] = objNumber;
+            index.address[k] = tk.intValue() + first;
+            ++index.count;
+        }
+        return index;
+    }
+
+    /**
+     * Reads the object at position <CODE>idx</CODE> of a decoded object stream.
+     */
+    private PdfObject readObjStmObject(final ObjStmIndex index, final int idx) throws IOException {
+        if (idx < 0 || idx >= index.count)
+            throw new InvalidPdfException(MessageLocalization.getComposedMessage("error.reading.objstm"));
         PRTokeniser saveTokens = tokens;
-        tokens = new PRTokeniser(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(b)));
+        tokens = new PRTokeniser(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(index.body)));
         try {
-            int address = 0;
-            boolean ok = true;
-            ++idx;
-            for (int k = 0; k < idx; ++k) {
-                ok = tokens.nextToken();
-                if (!ok)
-                    break;
-                if (tokens.getTokenType() != TokenType.NUMBER) {
-                    ok = false;
-                    break;
-                }
-                ok = tokens.nextToken();
-                if (!ok)
-                    break;
-                if (tokens.getTokenType() != TokenType.NUMBER) {
-                    ok = false;
-                    break;
-                }
-                address = tokens.intValue() + first;
-            }
-            if (!ok)
-                throw new InvalidPdfException(MessageLocalization.getComposedMessage("error.reading.objstm"));
+            int address = index.address[idx];
             tokens.seek(address);
             tokens.nextToken();
             PdfObject obj;
@@ -1304,13 +1526,248 @@ public class PdfReader implements PdfViewerPreferences {
                 obj = readPRObject();
             }
             return obj;
-            //return readPRObject();
         }
         finally {
             tokens = saveTokens;
         }
     }
 
+    /**
+     * Checks if the objects of this reader can be copied with {@link #getRawObject(int, int)}.
+     * This requires a document read in partial mode, where the objects nobody asked for
+     * are still untouched in the file, and that isn't encrypted.
+     * @return <CODE>true</CODE> if the objects can be copied as they are in the file
+     * @since 5.5.6
+     */
+    boolean canCopyRawObjects() {
+        return partial && !encrypted;
+    }
+
+    /**
+     * Gets an object exactly as it's written in the file, so that a writer that keeps the
+     * object numbers of this reader can copy it without parsing and serializing it again.
+     * Only the objects that aren't held in memory are copied, since the ones that are may
+     * have been changed. An object is not copied either if it refers to a generation other
+     * than 0 or to an object number the writer doesn't keep, because a full rewrite changes
+     * those references, or if its syntax or its stream length would need repairing.
+     * @param idx the object number
+     * @param xrefSize the writer keeps the object numbers below this value
+     * @return the bytes of the object as a literal of the same type, or <CODE>null</CODE>
+     * if the object has to be read and written normally
+     * @throws IOException on error
+     * @since 5.5.6
+     */
+    PdfLiteral getRawObject(final int idx, final int xrefSize) throws IOException {
+        if (!canCopyRawObjects() || idx <= 0 || idx >= xrefObj.size() || xrefObj.get(idx) != null || idx * 2 >= xref.length)
+            return null;
+        int k2 = idx * 2;
+        long pos = xref[k2];
+        if (pos < 0)
+            return null;
+        if (xref[k2 + 1] > 0) {
+            ObjStmIndex index = getObjStmIndex((int)xref[k2 + 1]);
+            if (index == null || pos >= index.count)
+                return null;
+            PRTokeniser tk = new PRTokeniser(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(index.body)));
+            tk.seek(index.address[(int)pos]);
+            return readRawObject(tk, true, xrefSize);
+        }
+        if (pos == 0)
+            return null;
+        tokens.seek(pos);
+        if (!nextRawToken(tokens) || tokens.getTokenType() != TokenType.NUMBER
+                || !nextRawToken(tokens) || tokens.getTokenType() != TokenType.NUMBER
+                || !nextRawToken(tokens) || !tokens.isStringValue("obj"))
+            return null;
+        return readRawObject(tokens, false, xrefSize);
+    }
+
+    /**
+     * Reads the next token that isn't a comment.
+     */
+    private static boolean nextRawToken(final PRTokeniser tk) throws IOException {
+        boolean hasNext;
+        do {
+            hasNext = tk.nextToken();
+        } while (hasNext && tk.getTokenType() == TokenType.COMMENT);
+        return hasNext;
+    }
+
+    /**
+     * Finds the end of the object at the current position of a tokeniser without building
+     * it, checking its references and reading the length of its stream, and copies its bytes.
+     * @param tk the tokeniser, positioned after the <CODE>obj</CODE> keyword or at the start
+     * of an object in an object stream
+     * @param inObjStm <CODE>true</CODE> if the object is in an object stream
+     * @param xrefSize the writer keeps the object numbers below this value
+     * @return the bytes of the object or <CODE>null</CODE> if it can't be copied
+     */
+    private PdfLiteral readRawObject(final PRTokeniser tk, final boolean inObjStm, final int xrefSize) throws IOException {
+        int ch;
+        do {
+            ch = tk.read();
+        } while (ch != -1 && PRTokeniser.isWhitespace(ch));
+        if (ch == -1)
+            return null;
+        tk.backOnePosition(ch);
+        long start = tk.getFilePointer();
+        int type = -1;
+        int depth = 0;
+        // one bit per nesting level, set for dictionaries
+        long dictionaries = 0;
+        // in the dictionary of the object, true if the next token is a key
+        boolean key = false;
+        boolean lengthValue = false;
+        long length = -1;
+        int lengthRef = 0;
+        long lengthRefStart = 0;
+        long lengthRefEnd = 0;
+        do {
+            if (inObjStm && type == -1) {
+                // as in readObjStmObject, a number is not the start of a reference
+                if (!tk.nextToken())
+                    return null;
+                if (tk.getTokenType() == TokenType.NUMBER) {
+                    type = PdfObject.NUMBER;
+                    break;
+                }
+                tk.seek(start);
+            }
+            long tokenStart = tk.getFilePointer();
+            tk.nextValidToken();
+            boolean topLevel = depth == 1 && (dictionaries & 1) != 0;
+            switch (tk.getTokenType()) {
+                case START_DIC:
+                case START_ARRAY:
+                    if (type == -1)
+                        type = tk.getTokenType() == TokenType.START_DIC ? PdfObject.DICTIONARY : PdfObject.ARRAY;
+                    else if (topLevel && key)
+                        return null;
+                    if (depth == 63)
+                        return null;
+                    if (tk.getTokenType() == TokenType.START_DIC)
+                        dictionaries |= 1L << depth;
+                    ++depth;
+                    if (depth == 1)
+                        key = true;
+                    break;
+                case END_DIC:
+                case END_ARRAY:
+                    if (depth == 0 || ((dictionaries >>> (depth - 1) & 1) != 0) != (tk.getTokenType() == TokenType.END_DIC))
+                        return null;
+                    if (topLevel && !key)
+                        return null;
+                    --depth;
+                    dictionaries &= ~(1L << depth);
+                    if (depth == 1)
+                        key = true;
+                    break;
+                case REF:
+                    if (type == -1 || tk.getGeneration() != 0 || tk.getReference() <= 0 || tk.getReference() >= xrefSize)
+                        return null;
+                    if (topLevel) {
+                        if (key)
+                            return null;
+                        if (lengthValue) {
+                            lengthRef = tk.getReference();
+                            lengthRefStart = tokenStart;
+                            lengthRefEnd = tk.getFilePointer();
+                        }
+                        lengthValue = false;
+                        key = true;
+                    }
+                    break;
+                case NUMBER:
+                case STRING:
+                case NAME:
+                case OTHER:
+                    int valueType;
+                    if (tk.getTokenType() == TokenType.NUMBER)
+                        valueType = PdfObject.NUMBER;
+                    else if (tk.getTokenType() == TokenType.STRING)
+                        valueType = PdfObject.STRING;
+                    else if (tk.getTokenType() == TokenType.NAME)
+                        valueType = PdfObject.NAME;
+                    else if (tk.isStringValue("true") || tk.isStringValue("false"))
+                        valueType = PdfObject.BOOLEAN;
+                    else if (tk.isStringValue("null"))
+                        valueType = PdfObject.NULL;
+                    else
+                        return null;
+                    if (type == -1)
+                        type = valueType;
+                    else if (topLevel) {
+                        if (key) {
+                            if (valueType != PdfObject.NAME)
+                                return null;
+                            lengthValue = tk.isStringValue("Length");
+                            key = false;
+                        }
+                        else {
+                            if (lengthValue && valueType == PdfObject.NUMBER) {
+                                try {
+                                    length = tk.intValue();
+                                }
+                                catch (NumberFormatException e) {
+                                    return null;
+                                }
+                            }
+                            lengthValue = false;
+                            key = true;
+                        }
+                    }
+                    break;
+                default:
+                    return null;
+            }
+        } while (depth > 0);
+        long end = tk.getFilePointer();
+        if (!inObjStm && type == PdfObject.DICTIONARY && nextRawToken(tk) && tk.isStringValue("stream")) {
+            // skip the end of line the same way as readPRObject
+            do {
+                ch = tk.read();
+            } while (ch == 32 || ch == 9 || ch == 0 || ch == 12);
+            if (ch != '\n')
+                ch = tk.read();
+            if (ch != '\n')
+                tk.backOnePosition(ch);
+            long streamStart = tk.getFilePointer();
+            if (lengthRef != 0) {
+                PdfObject obj = getPdfObjectRelease(lengthRef);
+                tk.seek(streamStart);
+                if (obj != null && obj.type() == PdfObject.NUMBER)
+                    length = ((PdfNumber)obj).intValue();
+            }
+            // accept the same stream ends as checkPRStreamLength, which repairs the others
+            if (length < 0 || streamStart + length > tk.length() - 20)
+                return null;
+            tk.seek(streamStart + length);
+            String line = tk.readString(20);
+            if (!line.startsWith("\nendstream") &&
+            !line.startsWith("\r\nendstream") &&
+            !line.startsWith("\rendstream") &&
+            !line.startsWith("endstream"))
+                return null;
+            end = streamStart + length + line.indexOf("endstream") + 9;
+            type = PdfObject.STREAM;
+        }
+        if (type != PdfObject.STREAM || lengthRef == 0)
+            return new PdfLiteral(type, readRawBytes(tk, start, end));
+        // write the length as a direct object, as PRStream does, so the stream doesn't depend on another object
+        ByteBuffer buf = new ByteBuffer((int)(end - start));
+        buf.append(readRawBytes(tk, start, lengthRefStart));
+        buf.append(' ').append(length);
+        buf.append(readRawBytes(tk, lengthRefEnd, end));
+        return new PdfLiteral(type, buf.toByteArray());
+    }
+
+    private static byte[] readRawBytes(final PRTokeniser tk, final long start, final long end) throws IOException {
+        byte b[] = new byte[(int)(end - start)];
+        tk.seek(start);
+        tk.getFile().readFully(b);
+        return b;
+    }
+
     /**
      * @return the percentage of the cross reference table that has been read
      */
@@ -1341,7 +1798,7 @@ public class PdfReader implements PdfViewerPreferences {
                 tokens.throwError(MessageLocalization.getComposedMessage("invalid.generation.number"));
             objGen = tokens.intValue();
             tokens.nextValidToken();
-            if (!tokens.getStringValue().equals("obj"))
+            if (!tokens.isStringValue("obj"))
                 tokens.throwError(MessageLocalization.getComposedMessage("token.obj.expected"));
             PdfObject obj;
             try {
@@ -1437,53 +1894,12 @@ public class PdfReader implements PdfViewerPreferences {
 
     protected void readObjStm(final PRStream stream, final IntHashtable map) throws IOException {
         if (stream == null) return;
-        int first = stream.getAsNumber(PdfName.FIRST).intValue();
-        int n = stream.getAsNumber(PdfName.N).intValue();
-        byte b[] = getStreamBytes(stream, tokens.getFile());
-        PRTokeniser saveTokens = tokens;
-        tokens = new PRTokeniser(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(b)));
-        try {
-            int address[] = new int[n];
-            int objNumber[] = new int[n];
-            boolean ok = true;
-            for (int k = 0; k < n; ++k) {
-                ok = tokens.nextToken();
-                if (!ok)
-                    break;
-                if (tokens.getTokenType() != TokenType.NUMBER) {
-                    ok = false;
-                    break;
-                }
-                objNumber[k] = tokens.intValue();
-                ok = tokens.nextToken();
-                if (!ok)
-                    break;
-                if (tokens.getTokenType() != TokenType.NUMBER) {
-                    ok = false;
-                    break;
-                }
-                address[k] = tokens.intValue() + first;
-            }
-            if (!ok)
-                throw new InvalidPdfException(MessageLocalization.getComposedMessage("error.reading.objstm"));
-            for (int k = 0; k < n; ++k) {
-                if (map.containsKey(k)) {
-                    tokens.seek(address[k]);
-                    tokens.nextToken();
-                    PdfObject obj;
-                    if (tokens.getTokenType() == PRTokeniser.TokenType.NUMBER) {
-                    	obj = new PdfNumber(tokens.getStringValue());
-                    }
-                    else {
-                    	tokens.seek(address[k]);
-                    	obj = readPRObject();
-                    }
-                    xrefObj.set(objNumber[k], obj);
-                }
-            }
-        }
-        finally {
-            tokens = saveTokens;
+        ObjStmIndex index = createObjStmIndex(stream);
+        if (index.count < index.objNumber.length)
+            throw new InvalidPdfException(MessageLocalization.getComposedMessage("error.reading.objstm"));
+        for (int k = 0; k < index.count; ++k) {
+            if (map.containsKey(k))
+                xrefObj.set(index.objNumber[k], readObjStmObject(index, k));
         }
     }
 
@@ -1527,7 +1943,7 @@ public class PdfReader implements PdfViewerPreferences {
         newXrefType = false;
         tokens.seek(tokens.getStartxref());
         tokens.nextToken();
-        if (!tokens.getStringValue().equals("startxref"))
+        if (!tokens.isStringValue("startxref"))
             throw new InvalidPdfException(MessageLocalization.getComposedMessage("startxref.not.found"));
         tokens.nextToken();
         if (tokens.getTokenType() != TokenType.NUMBER)
@@ -1557,7 +1973,7 @@ public class PdfReader implements PdfViewerPreferences {
 
     protected PdfDictionary readXrefSection() throws IOException {
         tokens.nextValidToken();
-        if (!tokens.getStringValue().equals("xref"))
+        if (!tokens.isStringValue("xref"))
             tokens.throwError(MessageLocalization.getComposedMessage("xref.subsection.not.found"));
         int start = 0;
         int end = 0;
@@ -1565,7 +1981,7 @@ public class PdfReader implements PdfViewerPreferences {
         int gen = 0;
         while (true) {
             tokens.nextValidToken();
-            if (tokens.getStringValue().equals("trailer"))
+            if (tokens.isStringValue("trailer"))
                 break;
             if (tokens.getTokenType() != TokenType.NUMBER)
                 tokens.throwError(MessageLocalization.getComposedMessage("object.number.of.the.first.object.in.this.xref.subsection.not.found"));
@@ -1594,14 +2010,14 @@ public class PdfReader implements PdfViewerPreferences {
                 gen = tokens.intValue();
                 tokens.nextValidToken();
                 int p = k * 2;
-                if (tokens.getStringValue().equals("n")) {
+                if (tokens.isStringValue("n")) {
                     if (xref[p] == 0 && xref[p + 1] == 0) {
 //                        if (pos == 0)
 //                            tokens.throwError(MessageLocalization.getComposedMessage("file.position.0.cross.reference.entry.in.this.xref.subsection"));
                         xref[p] = pos;
                     }
                 }
-                else if (tokens.getStringValue().equals("f")) {
+                else if (tokens.isStringValue("f")) {
                     if (xref[p] == 0 && xref[p + 1] == 0)
                         xref[p] = -1;
                 }
@@ -1638,7 +2054,7 @@ public class PdfReader implements PdfViewerPreferences {
         thisStream = tokens.intValue();
         if (!tokens.nextToken() || tokens.getTokenType() != TokenType.NUMBER)
             return false;
-        if (!tokens.nextToken() || !tokens.getStringValue().equals("obj"))
+        if (!tokens.nextToken() || !tokens.isStringValue("obj"))
             return false;
         PdfObject object = readPRObject();
         PRStream stm = null;
@@ -1801,13 +2217,15 @@ public class PdfReader implements PdfViewerPreferences {
 
     protected PdfDictionary readDictionary() throws IOException {
         PdfDictionary dic = new PdfDictionary();
+        if (compactDictionaries)
+            dic.useCompactMap();
         while (true) {
             tokens.nextValidToken();
             if (tokens.getTokenType() == TokenType.END_DIC)
                 break;
             if (tokens.getTokenType() != TokenType.NAME)
                 tokens.throwError(MessageLocalization.getComposedMessage("dictionary.key.1.is.not.a.name", tokens.getStringValue()));
-            PdfName name = new PdfName(tokens.getStringValue(), false);
+            PdfName name = PdfName.intern(tokens.getByteValue(), 0, tokens.getByteValueLength());
             PdfObject obj = readPRObject();
             int type = obj.type();
             if (-type == TokenType.END_DIC.ordinal())
@@ -1853,7 +2271,7 @@ public class PdfReader implements PdfViewerPreferences {
                     hasNext = tokens.nextToken();
                 } while (hasNext && tokens.getTokenType() == TokenType.COMMENT);
 
-                if (hasNext && tokens.getStringValue().equals("stream")) {
+                if (hasNext && tokens.isStringValue("stream")) {
                     //skip whitespaces
                     int ch;
                     do {
@@ -1864,6 +2282,8 @@ public class PdfReader implements PdfViewerPreferences {
                     if (ch != '\n')
                         tokens.backOnePosition(ch);
                     PRStream stream = new PRStream(this, tokens.getFilePointer());
+                    if (compactDictionaries)
+                        stream.useCompactMap();
                     stream.putAll(dic);
                     // crypto handling
                     stream.setObjNum(objNum, objGen);
@@ -1892,11 +2312,10 @@ public class PdfReader implements PdfViewerPreferences {
 
                 return str;
             case NAME: {
-                PdfName cachedName = PdfName.staticNames.get( tokens.getStringValue() );
-                if (readDepth > 0 && cachedName != null) {
-                    return cachedName;
+                if (readDepth > 0) {
+                    return PdfName.intern(tokens.getByteValue(), 0, tokens.getByteValueLength());
                 } else {
-                    // an indirect name (how odd...), or a non-standard one
+                    // an indirect name (how odd...) gets its own instance
                     return new PdfName(tokens.getStringValue(), false);
                 }
             }
@@ -2074,7 +2493,8 @@ public class PdfReader implements PdfViewerPreferences {
      */
     public static byte[] FlateDecode(final byte in[], final boolean strict) {
         ByteArrayInputStream stream = new ByteArrayInputStream(in);
-        InflaterInputStream zip = new InflaterInputStream(stream);
+        Inflater inflater = ZlibPool.acquireInflater();
+        InflaterInputStream zip = new InflaterInputStream(stream, inflater);
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         byte b[] = new byte[strict ? 4092 : 1];
         try {
@@ -2084,15 +2504,78 @@ public class PdfReader implements PdfViewerPreferences {
             }
             zip.close();
             out.close();
+            ZlibPool.releaseInflater(inflater);
             return out.toByteArray();
         }
         catch (Exception e) {
+            inflater.end();
             if (strict)
                 return null;
             return out.toByteArray();
         }
     }
 
+    /** Decodes a stream that has the FlateDecode filter reading the compressed data directly
+     * from <CODE>source</CODE>, without copying it first to an array.
+     * @param source the compressed data
+     * @param expectedLength the expected length of the decoded data or 0 if it's not known
+     * @return the decoded data
+     * @since 5.5.6
+     */
+    public static byte[] FlateDecode(final RandomAccessSource source, final int expectedLength) {
+        byte b[] = FlateDecode(source, expectedLength, true);
+        if (b == null)
+            return FlateDecode(source, expectedLength, false);
+        return b;
+    }
+
+    /** The largest buffer allocated up front from an expected length, which comes from the document and can't be trusted. */
+    private static final int MAX_EXPECTED_INFLATE_LENGTH = 4 * 1024 * 1024;
+
+    /** A helper to FlateDecode. The data is inflated into an array of <CODE>expectedLength</CODE>
+     * bytes, at most 4 MB, that only grows and is copied if the guess was wrong.
+     * @param source the compressed data
+     * @param expectedLength the expected length of the decoded data or 0 if it's not known
+     * @param strict <CODE>true</CODE> to read a correct stream. <CODE>false</CODE>
+     * to try to read a corrupted stream
+     * @return the decoded data
+     */
+    private static byte[] FlateDecode(final RandomAccessSource source, final int expectedLength, final boolean strict) {
+        Inflater inflater = ZlibPool.acquireInflater();
+        InflaterInputStream zip = new InflaterInputStream(new RASInputStream(source), inflater);
+        byte b[] = new byte[Math.min(Math.max(expectedLength, 32), MAX_EXPECTED_INFLATE_LENGTH)];
+        int count = 0;
+        try {
+            while (true) {
+                if (count == b.length) {
+                    int c = zip.read();
+                    if (c < 0)
+                        break;
+                    byte grown[] = new byte[b.length * 2];
+                    System.arraycopy(b, 0, grown, 0, count);
+                    b = grown;
+                    b[count++] = (byte)c;
+                }
+                int n = zip.read(b, count, strict ? b.length - count : 1);
+                if (n < 0)
+                    break;
+                count += n;
+            }
+            zip.close();
+            ZlibPool.releaseInflater(inflater);
+        }
+        catch (Exception e) {
+            inflater.end();
+            if (strict)
+                return null;
+        }
+        if (count == b.length)
+            return b;
+        byte decoded[] = new byte[count];
+        System.arraycopy(b, 0, decoded, 0, count);
+        return decoded;
+    }
+
     /** Decodes a stream that has the ASCIIHexDecode filter.
      * @param in the input data
      * @return the decoded data
@@ -2373,7 +2856,7 @@ public class PdfReader implements PdfViewerPreferences {
             case PdfObject.INDIRECT: {
                 int xr = ((PRIndirectReference)obj).getNumber();
                 obj = xrefObj.get(xr);
-                xrefObj.set(xr, null);
+                releasePartialObject(xr);
                 freeXref = xr;
                 killXref(obj);
                 break;
@@ -2446,8 +2929,26 @@ public class PdfReader implements PdfViewerPreferences {
      * @since 5.0.4
      */
     public static byte[] decodeBytes(byte[] b, final PdfDictionary streamDictionary, Map<PdfName, FilterHandlers.FilterHandler> filterHandlers) throws IOException {
-        PdfObject filter = getPdfObjectRelease(streamDictionary.get(PdfName.FILTER));
+        return decodeBytes(b, streamDictionary, getFilters(streamDictionary), 0, filterHandlers);
+    }
 
+    /**
+     * Decode a byte[] applying the filters from <CODE>firstFilter</CODE> onwards.
+     */
+    private static byte[] decodeBytes(byte[] b, final PdfDictionary streamDictionary, final ArrayList<PdfObject> filters, final int firstFilter, Map<PdfName, FilterHandlers.FilterHandler> filterHandlers) throws IOException {
+        ArrayList<PdfObject> dp = getDecodeParmsList(streamDictionary);
+        for (int j = firstFilter; j < filters.size(); ++j) {
+            PdfName filterName = (PdfName)filters.get(j);
+            FilterHandlers.FilterHandler filterHandler = filterHandlers.get(filterName);
+            if (filterHandler == null)
+                throw new UnsupportedPdfException(MessageLocalization.getComposedMessage("the.filter.1.is.not.supported", filterName));
+            b = filterHandler.decode(b, filterName, getDecodeParams(dp, j), streamDictionary);
+        }
+        return b;
+    }
+
+    private static ArrayList<PdfObject> getFilters(final PdfDictionary streamDictionary) {
+        PdfObject filter = getPdfObjectRelease(streamDictionary.get(PdfName.FILTER));
         ArrayList<PdfObject> filters = new ArrayList<PdfObject>();
         if (filter != null) {
             if (filter.isName())
@@ -2455,6 +2956,10 @@ public class PdfReader implements PdfViewerPreferences {
             else if (filter.isArray())
                 filters = ((PdfArray)filter).getArrayList();
         }
+        return filters;
+    }
+
+    private static ArrayList<PdfObject> getDecodeParmsList(final PdfDictionary streamDictionary) {
         ArrayList<PdfObject> dp = new ArrayList<PdfObject>();
         PdfObject dpo = getPdfObjectRelease(streamDictionary.get(PdfName.DECODEPARMS));
         if (dpo == null || !dpo.isDictionary() && !dpo.isArray())
@@ -2465,29 +2970,18 @@ public class PdfReader implements PdfViewerPreferences {
             else if (dpo.isArray())
                 dp = ((PdfArray)dpo).getArrayList();
         }
-        for (int j = 0; j < filters.size(); ++j) {
-            PdfName filterName = (PdfName)filters.get(j);
-            FilterHandlers.FilterHandler filterHandler = filterHandlers.get(filterName);
-            if (filterHandler == null)
-                throw new UnsupportedPdfException(MessageLocalization.getComposedMessage("the.filter.1.is.not.supported", filterName));
-            
-            PdfDictionary decodeParams;
-            if (j < dp.size()){
-                PdfObject dpEntry = getPdfObject(dp.get(j));
-                if (dpEntry instanceof PdfDictionary){
-                    decodeParams = (PdfDictionary)dpEntry;
-                } else if (dpEntry == null || dpEntry instanceof PdfNull) {
-                    decodeParams = null;
-                } else {
-                    throw new UnsupportedPdfException(MessageLocalization.getComposedMessage("the.decode.parameter.type.1.is.not.supported", dpEntry.getClass().toString()));
-                }
-                
-            } else {
-                decodeParams = null;
-            }
-            b = filterHandler.decode(b, filterName, decodeParams, streamDictionary);
-        }
-        return b;
+        return dp;
+    }
+
+    private static PdfDictionary getDecodeParams(final ArrayList<PdfObject> dp, final int j) throws IOException {
+        if (j >= dp.size())
+            return null;
+        PdfObject dpEntry = getPdfObject(dp.get(j));
+        if (dpEntry instanceof PdfDictionary)
+            return (PdfDictionary)dpEntry;
+        if (dpEntry == null || dpEntry instanceof PdfNull)
+            return null;
+        throw new UnsupportedPdfException(MessageLocalization.getComposedMessage("the.decode.parameter.type.1.is.not.supported", dpEntry.getClass().toString()));
     }
 
     /** Get the content from a stream applying the required filters.
@@ -2497,6 +2991,22 @@ public class PdfReader implements PdfViewerPreferences {
      * @return the stream content
      */
     public static byte[] getStreamBytes(final PRStream stream, final RandomAccessFileOrArray file) throws IOException {
+        if (stream.getOffset() >= 0 && stream.getReader().getDecrypt() == null) {
+            ArrayList<PdfObject> filters = getFilters(stream);
+            if (!filters.isEmpty() && (PdfName.FLATEDECODE.equals(filters.get(0)) || PdfName.FL.equals(filters.get(0)))) {
+                // inflate straight from the file, the raw bytes are never copied to an array
+                RandomAccessSource source = new WindowRandomAccessSource(file.createSourceView(), stream.getOffset(), stream.getLength());
+                int expectedLength = 0;
+                PdfObject dl = getPdfObjectRelease(stream.get(PdfName.DL));
+                if (dl != null && dl.isNumber())
+                    expectedLength = ((PdfNumber)dl).intValue();
+                if (expectedLength <= 0)
+                    expectedLength = stream.getLength() * 2;
+                byte[] b = FlateDecode(source, expectedLength);
+                b = decodePredictor(b, getDecodeParams(getDecodeParmsList(stream), 0));
+                return decodeBytes(b, stream, filters, 1, FilterHandlers.getDefaultFilterHandlers());
+            }
+        }
         byte[] b = getStreamBytesRaw(stream, file);
         return decodeBytes(b, stream);
     }
@@ -2533,38 +3043,37 @@ public class PdfReader implements PdfViewerPreferences {
             file.seek(stream.getOffset());
             file.readFully(b);
             PdfEncryption decrypt = reader.getDecrypt();
-            if (decrypt != null) {
-                PdfObject filter = getPdfObjectRelease(stream.get(PdfName.FILTER));
-                ArrayList<PdfObject> filters = new ArrayList<PdfObject>();
-                if (filter != null) {
-                    if (filter.isName())
-                        filters.add(filter);
-                    else if (filter.isArray())
-                        filters = ((PdfArray)filter).getArrayList();
-                }
-                boolean skip = false;
-                for (int k = 0; k < filters.size(); ++k) {
-                    PdfObject obj = getPdfObjectRelease(filters.get(k));
-                    if (obj != null && obj.toString().equals("/Crypt")) {
-                        skip = true;
-                        break;
-                    }
-                }
-                if (!skip) {
-                    decrypt.setHashKey(stream.getObjNum(), stream.getObjGen());
-                    b = decrypt.decryptByteArray(b);
-                }
+            if (decrypt != null && !hasCryptFilter(stream)) {
+                decrypt.setHashKey(stream.getObjNum(), stream.getObjGen());
+                b = decrypt.decryptByteArray(b);
             }
         }
         return b;
     }
 
+    /**
+     * Checks if the stream has a /Crypt filter, in which case the document
+     * encryption doesn't apply.
+     */
+    private static boolean hasCryptFilter(final PRStream stream) {
+        ArrayList<PdfObject> filters = getFilters(stream);
+        for (int k = 0; k < filters.size(); ++k) {
+            PdfObject obj = getPdfObjectRelease(filters.get(k));
+            if (obj != null && obj.toString().equals("/Crypt"))
+                return true;
+        }
+        return false;
+    }
+
     /** Get the content from a stream as it is without applying any filter.
      * @param stream the stream
      * @throws IOException on error
      * @return the stream content
      */
     public static byte[] getStreamBytesRaw(final PRStream stream) throws IOException {
+        // the content is in memory, like the streams preloaded by PdfCopy.addDocuments
+        if (stream.getOffset() < 0)
+            return getStreamBytesRaw(stream, null);
         RandomAccessFileOrArray rf = stream.getReader().getSafeFile();
         try {
             rf.reOpen();
@@ -2575,6 +3084,118 @@ public class PdfReader implements PdfViewerPreferences {
         }
     }
 
+    /** Gets a stream that reads the content of a PDF stream as it is, without applying
+     * any filter. The content is decrypted as it is read.
+     * @param stream the stream
+     * @param file the location where the stream is
+     * @throws IOException on error
+     * @return the raw content
+     * @since 5.5.6
+     */
+    public static InputStream getStreamInputStreamRaw(final PRStream stream, final RandomAccessFileOrArray file) throws IOException {
+        if (stream.getOffset() < 0)
+            return new ByteArrayInputStream(stream.getBytes());
+        InputStream in = new RASInputStream(new WindowRandomAccessSource(file.createSourceView(), stream.getOffset(), stream.getLength()));
+        PdfEncryption decrypt = stream.getReader().getDecrypt();
+        if (decrypt != null && !hasCryptFilter(stream)) {
+            decrypt.setHashKey(stream.getObjNum(), stream.getObjGen());
+            in = decrypt.getDecryptionStream(in);
+        }
+        return in;
+    }
+
+    /** Gets a stream that reads the content of a PDF stream as it is, without applying
+     * any filter.
+     * @param stream the stream
+     * @throws IOException on error
+     * @return the raw content
+     * @since 5.5.6
+     */
+    public static InputStream getStreamInputStreamRaw(final PRStream stream) throws IOException {
+        return getStreamInputStreamRaw(stream, stream.getReader().getSafeFile());
+    }
+
+    /** Gets a stream that decodes the content of a PDF stream as it is read, applying
+     * the required filters with the default {@link FilterHandlers.StreamFilterHandler}s.
+     * Only a small part of the content is kept in memory at any time.
+     * @param stream the stream
+     * @param file the location where the stream is
+     * @throws IOException on error
+     * @return the decoded content
+     * @since 5.5.6
+     */
+    public static InputStream getStreamInputStream(final PRStream stream, final RandomAccessFileOrArray file) throws IOException {
+        return decodeInputStream(getStreamInputStreamRaw(stream, file), stream, FilterHandlers.getDefaultStreamFilterHandlers());
+    }
+
+    /** Gets a stream that decodes the content of a PDF stream as it is read.
+     * @param stream the stream
+     * @throws IOException on error
+     * @return the decoded content
+     * @since 5.5.6
+     */
+    public static InputStream getStreamInputStream(final PRStream stream) throws IOException {
+        return getStreamInputStream(stream, stream.getReader().getSafeFile());
+    }
+
+    /**
+     * Chains the stream filters specified in the provided dictionary on top of <CODE>in</CODE>.
+     * @param in the encoded data
+     * @param streamDictionary the dictionary that contains filter information
+     * @param filterHandlers the map used to look up a handler for each type of filter
+     * @return a stream with the decoded data
+     * @throws IOException if a filter is not supported
+     * @since 5.5.6
+     */
+    public static InputStream decodeInputStream(InputStream in, final PdfDictionary streamDictionary, Map<PdfName, FilterHandlers.StreamFilterHandler> filterHandlers) throws IOException {
+        ArrayList<PdfObject> filters = getFilters(streamDictionary);
+        ArrayList<PdfObject> dp = getDecodeParmsList(streamDictionary);
+        for (int j = 0; j < filters.size(); ++j) {
+            PdfName filterName = (PdfName)filters.get(j);
+            FilterHandlers.StreamFilterHandler filterHandler = filterHandlers.get(filterName);
+            if (filterHandler == null)
+                throw new UnsupportedPdfException(MessageLocalization.getComposedMessage("the.filter.1.is.not.supported", filterName));
+            in = filterHandler.decode(in, filterName, getDecodeParams(dp, j), streamDictionary);
+        }
+        return in;
+    }
+
+    /**
+     * Reads the raw content of all the streams of the document into memory,
+     * decrypting it if needed. The reader and its streams are not modified:
+     * the content is returned keyed by the stream object so that it can be
+     * copied without going back to the source. Nothing is read for a reader
+     * opened in partial mode.
+     * @return the raw content of the streams
+     * @throws IOException on error
+     * @since 5.5.6
+     */
+    Map<PRStream, byte[]> readStreamBytesRaw() throws IOException {
+        IdentityHashMap<PRStream, byte[]> raw = new IdentityHashMap<PRStream, byte[]>();
+        if (partial)
+            return raw;
+        RandomAccessFileOrArray rf = getSafeFile();
+        try {
+            rf.reOpen();
+            for (int k = 1; k < xrefObj.size(); ++k) {
+                PdfObject obj = xrefObj.get(k);
+                if (obj == null || !obj.isStream())
+                    continue;
+                PRStream stream = (PRStream)obj;
+                if (stream.getOffset() < 0)
+                    continue;
+                PdfName type = stream.getAsName(PdfName.TYPE);
+                if (PdfName.OBJSTM.equals(type) || PdfName.XREF.equals(type))
+                    continue;
+                raw.put(stream, getStreamBytesRaw(stream, rf));
+            }
+        }
+        finally {
+            try{rf.close();}catch(Exception e){}
+        }
+        return raw;
+    }
+
     /** Eliminates shared streams if they exist. */
     public void eliminateSharedStreams() {
         if (!sharedStreams)
@@ -3374,7 +3995,7 @@ public class PdfReader implements PdfViewerPreferences {
                 if (!hits[k]) {
                     xref[k * 2] = -1;
                     xref[k * 2 + 1] = 0;
-                    xrefObj.set(k, null);
+                    releasePartialObject(k);
                     ++total;
                 }
             }
@@ -3558,6 +4179,134 @@ public class PdfReader implements PdfViewerPreferences {
         return hybridXref;
     }
 
+    /**
+     * A source that serializes the reads of the source it wraps, shared by the
+     * readers created with <CODE>createConcurrentView</CODE>.
+     */
+    private static class SynchronizedRandomAccessSource implements RandomAccessSource {
+        private final RandomAccessSource source;
+
+        SynchronizedRandomAccessSource(final RandomAccessSource source) {
+            this.source = source;
+        }
+
+        public synchronized int get(final long position) throws IOException {
+            return source.get(position);
+        }
+
+        public synchronized int get(final long position, final byte[] bytes, final int off, final int len) throws IOException {
+            return source.get(position, bytes, off, len);
+        }
+
+        public synchronized long length() {
+            return source.length();
+        }
+
+        public synchronized void close() throws IOException {
+            source.close();
+        }
+    }
+
+    /**
+     * A decoded object stream with the numbers and offsets of its objects.
+     */
+    private static class ObjStmIndex {
+        final byte body[];
+        final int objNumber[];
+        final int address[];
+        /** The number of objects whose offset could be read. */
+        int count;
+
+        ObjStmIndex(final byte body[], final int n) {
+            this.body = body;
+            objNumber = new int[n];
+            address = new int[n];
+        }
+    }
+
+    /**
+     * The objects read in partial mode, in least recently used order. The list is
+     * linked with arrays indexed by the object number.
+     */
+    private static class PartialObjectCache {
+        int maxSize;
+        int size;
+        /** The least recently used object number, -1 if empty. */
+        int eldest = -1;
+        private int newest = -1;
+        private int prev[];
+        private int next[];
+        private PdfObject objs[];
+
+        PartialObjectCache(final int capacity) {
+            prev = new int[capacity];
+            next = new int[capacity];
+            objs = new PdfObject[capacity];
+        }
+
+        /**
+         * Adds a newly read object as the most recently used.
+         */
+        void add(final int idx, final PdfObject obj) {
+            if (idx >= objs.length) {
+                int n = Math.max(idx + 1, objs.length * 2);
+                int[] p = new int[n];
+                System.arraycopy(prev, 0, p, 0, prev.length);
+                prev = p;
+                int[] q = new int[n];
+                System.arraycopy(next, 0, q, 0, next.length);
+                next = q;
+                PdfObject[] o = new PdfObject[n];
+                System.arraycopy(objs, 0, o, 0, objs.length);
+                objs = o;
+            }
+            remove(idx);
+            objs[idx] = obj;
+            prev[idx] = newest;
+            next[idx] = -1;
+            if (newest == -1)
+                eldest = idx;
+            else
+                next[newest] = idx;
+            newest = idx;
+            ++size;
+        }
+
+        /**
+         * Marks an object as the most recently used if it's in the list.
+         */
+        void touch(final int idx, final PdfObject obj) {
+            if (idx < objs.length && objs[idx] == obj && idx != newest)
+                add(idx, obj);
+        }
+
+        /**
+         * Removes an object from the list.
+         * @return the object removed or <CODE>null</CODE> if it was not in the list
+         */
+        PdfObject remove(final int idx) {
+            if (idx >= objs.length)
+                return null;
+            PdfObject obj = objs[idx];
+            if (obj == null)
+                return null;
+            int p = prev[idx];
+            int n = next[idx];
+            if (p == -1)
+                eldest = n;
+            else
+                next[p] = n;
+            if (n == -1)
+                newest = p;
+            else
+                prev[n] = p;
+            objs[idx] = null;
+            --size;
+            return obj;
+        }
+    }
+
+
     static class PageRefs {
         private final PdfReader reader;
         /** ArrayList with the indirect references to every page. Element 0 = page 1; 1 = page 2;... Not used for partial reading. */
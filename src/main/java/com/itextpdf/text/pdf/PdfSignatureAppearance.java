@@ -68,6 +68,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 import java.text.SimpleDateFormat;
@@ -278,9 +279,26 @@ public class PdfSignatureAppearance {
     private RandomAccessSource getUnderlyingSource() throws IOException {
     	//TODO: get rid of separate byte[] and RandomAccessFile objects and just store a RandomAccessSource
     	RandomAccessSourceFactory fac = new RandomAccessSourceFactory();
+    	if (channel != null) {
+    	    releaseMappedSource();
+    	    // the channel belongs to the caller, closing the source only unmaps it
+    	    mappedSource = fac.createBestSource(channel, false);
+    	    return mappedSource;
+    	}
     	return raf == null ? fac.createSource(bout) : fac.createSource(raf);
     }
 
+    /**
+     * Frees the mapped buffers of the channel read by the last range stream.
+     * @throws IOException
+     */
+    private void releaseMappedSource() throws IOException {
+        RandomAccessSource source = mappedSource;
+        mappedSource = null;
+        if (source != null)
+            source.close();
+    }
+
     /** The signing certificate */
     private Certificate signCertificate;
 
@@ -1207,6 +1225,20 @@ public class PdfSignatureAppearance {
         this.tempFile = tempFile;
     }
 
+    /** Channel of the output file when the document is signed in place. */
+    private FileChannel channel;
+
+    /** The mapped channel read by the range stream, freed once the range was hashed. */
+    private RandomAccessSource mappedSource;
+
+    /**
+     * Setter for the channel the document is written to and signed in place.
+     * @param channel the channel of the output file
+     */
+    void setChannel(FileChannel channel) {
+        this.channel = channel;
+    }
+
     /** Name and content of keys that can only be added in the close() method. */
     private HashMap<PdfName, PdfLiteral> exclusionLocations;
 
@@ -1328,7 +1360,16 @@ public class PdfSignatureAppearance {
         for (int k = 3; k < range.length - 2; k += 2)
             range[k] -= range[k - 1];
 
-        if (tempFile == null) {
+        if (channel != null) {
+            range[range.length - 1] = channel.size() - range[range.length - 2];
+            ByteBuffer bf = new ByteBuffer();
+            bf.append('[');
+            for (int k = 0; k < range.length; ++k)
+                bf.append(range[k]).append(' ');
+            bf.append(']');
+            write(channel, bf, byteRangePosition);
+        }
+        else if (tempFile == null) {
             bout = sigout.getBuffer();
             boutLen = sigout.size();
             range[range.length - 1] = boutLen - range[range.length - 2];
@@ -1431,6 +1472,8 @@ public class PdfSignatureAppearance {
      */
     public void close(PdfDictionary update) throws IOException, DocumentException {
         try {
+            // the range stream was read to compute the signature
+            releaseMappedSource();
             if (!preClosed)
                 throw new DocumentException(MessageLocalization.getComposedMessage("preclose.must.be.called.first"));
             ByteBuffer bf = new ByteBuffer();
@@ -1443,7 +1486,9 @@ public class PdfSignatureAppearance {
                 obj.toPdf(null, bf);
                 if (bf.size() > lit.getPosLength())
                     throw new IllegalArgumentException(MessageLocalization.getComposedMessage("the.key.1.is.too.big.is.2.reserved.3", key.toString(), String.valueOf(bf.size()), String.valueOf(lit.getPosLength())));
-                if (tempFile == null)
+                if (channel != null)
+                    write(channel, bf, lit.getPosition());
+                else if (tempFile == null)
                     System.arraycopy(bf.getBuffer(), 0, bout, (int)lit.getPosition(), bf.size());
                 else {
                     raf.seek(lit.getPosition());
@@ -1453,7 +1498,9 @@ public class PdfSignatureAppearance {
             if (update.size() != exclusionLocations.size())
                 throw new IllegalArgumentException(MessageLocalization.getComposedMessage("the.update.dictionary.has.less.keys.than.required"));
             if (tempFile == null) {
-                originalout.write(bout, 0, boutLen);
+                // a document signed in place is already complete in the channel
+                if (channel == null)
+                    originalout.write(bout, 0, boutLen);
             }
             else {
                 if (originalout != null) {
@@ -1481,4 +1528,13 @@ public class PdfSignatureAppearance {
                 try{originalout.close();}catch(Exception e){}
         }
     }
+
+    /**
+     * Writes the bytes at a position of the channel.
+     */
+    private static void write(FileChannel channel, ByteBuffer bf, long position) throws IOException {
+        java.nio.ByteBuffer buf = java.nio.ByteBuffer.wrap(bf.getBuffer(), 0, bf.size());
+        while (buf.hasRemaining())
+            position += channel.write(buf, position);
+    }
 }
\ No newline at end of file
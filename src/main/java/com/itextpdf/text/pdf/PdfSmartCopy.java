@@ -47,9 +47,14 @@ package com.itextpdf.text.pdf;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import com.itextpdf.text.DocWriter;
 import com.itextpdf.text.Document;
 import com.itextpdf.text.DocumentException;
 import com.itextpdf.text.ExceptionConverter;
@@ -69,7 +74,16 @@ public class PdfSmartCopy extends PdfCopy {
 
 	/** the cache with the streams and references. */
     private HashMap<ByteStore, PdfIndirectReference> streamMap = null;
-    private final HashMap<RefKey, Integer> serialized = new HashMap<RefKey, Integer>();
+    /** the digests of the indirect objects of the current reader, keyed by their reference. */
+    private final HashMap<RefKey, byte[]> serialized = new HashMap<RefKey, byte[]>();
+    /** the number of the reader the digests in <CODE>serialized</CODE> belong to. */
+    private int serializedReader = 0;
+    /** the maximum number of entries in the stream cache, 0 for no limit. */
+    private int streamMapCapacity = 0;
+    /** the number of objects that were replaced by a reference to an object already copied. */
+    private long cacheHits = 0;
+    /** the number of objects that were looked up in the cache and copied. */
+    private long cacheMisses = 0;
 
     protected Counter COUNTER = CounterFactory.getCounter(PdfSmartCopy.class);
     protected Counter getCounter() {
@@ -79,8 +93,75 @@ public class PdfSmartCopy extends PdfCopy {
     /** Creates a PdfSmartCopy instance. */
     public PdfSmartCopy(Document document, OutputStream os) throws DocumentException {
         super(document, os);
-        this.streamMap = new HashMap<ByteStore, PdfIndirectReference>();
+        this.streamMap = new LinkedHashMap<ByteStore, PdfIndirectReference>(16, 0.75f, true) {
+            private static final long serialVersionUID = -1460312484930618484L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteStore, PdfIndirectReference> eldest) {
+                return streamMapCapacity > 0 && size() > streamMapCapacity;
+            }
+        };
+    }
+
+    /**
+     * Limits the number of distinct streams and dictionaries that are
+     * remembered for reuse. When the limit is reached the least recently
+     * used entry is forgotten; an object identical to a forgotten one is
+     * copied again instead of being shared.
+     * @param capacity the maximum number of entries, 0 for no limit (the default)
+     * @since 5.5.6
+     */
+    public void setStreamCacheCapacity(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("capacity");
+        streamMapCapacity = capacity;
+        if (capacity > 0) {
+            Iterator<ByteStore> it = streamMap.keySet().iterator();
+            while (streamMap.size() > capacity && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
     }
+
+    /**
+     * Gets the maximum number of entries in the stream cache.
+     * @return the maximum number of entries, 0 if there is no limit
+     * @since 5.5.6
+     */
+    public int getStreamCacheCapacity() {
+        return streamMapCapacity;
+    }
+
+    /**
+     * Gets the number of entries currently in the stream cache.
+     * @return the number of entries
+     * @since 5.5.6
+     */
+    public int getStreamCacheSize() {
+        return streamMap.size();
+    }
+
+    /**
+     * Gets the number of streams and dictionaries that were found in
+     * the cache and replaced by a reference to an object already written.
+     * @return the number of cache hits
+     * @since 5.5.6
+     */
+    public long getStreamCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * Gets the number of streams and dictionaries that were not found in
+     * the cache and had to be copied.
+     * @return the number of cache misses
+     * @since 5.5.6
+     */
+    public long getStreamCacheMisses() {
+        return cacheMisses;
+    }
+
     /**
      * Translate a PRIndirectReference to a PdfIndirectReference
      * In addition, translates the object numbers, and copies the
@@ -98,19 +179,12 @@ public class PdfSmartCopy extends PdfCopy {
         PdfObject srcObj = PdfReader.getPdfObjectRelease(in);
         ByteStore streamKey = null;
         boolean validStream = false;
-        if (srcObj.isStream()) {
-            streamKey = new ByteStore((PRStream)srcObj, serialized);
-            validStream = true;
-            PdfIndirectReference streamRef = streamMap.get(streamKey);
-            if (streamRef != null) {
-                return streamRef;
-            }
-        }
-        else if (srcObj.isDictionary()) {
-            streamKey = new ByteStore((PdfDictionary)srcObj, serialized);
+        if (srcObj.isStream() || srcObj.isDictionary()) {
+            streamKey = new ByteStore(in, srcObj, serialized, serializedReader, getPreloadedStreams());
             validStream = true;
             PdfIndirectReference streamRef = streamMap.get(streamKey);
             if (streamRef != null) {
+                ++cacheHits;
                 return streamRef;
             }
         }
@@ -137,6 +211,7 @@ public class PdfSmartCopy extends PdfCopy {
         iRef.setCopied();
 
         if (validStream) {
+            ++cacheMisses;
             streamMap.put(streamKey, theRef);
         }
 
@@ -148,124 +223,188 @@ public class PdfSmartCopy extends PdfCopy {
     @Override
     public void freeReader(PdfReader reader) throws IOException {
         serialized.clear();
+        ++serializedReader;
         super.freeReader(reader);
     }
 
     @Override
     public void addPage(PdfImportedPage iPage) throws IOException, BadPdfFormatException {
-        if (currentPdfReaderInstance.getReader() != reader)
+        if (currentPdfReaderInstance.getReader() != reader) {
             serialized.clear();
+            ++serializedReader;
+        }
         super.addPage(iPage);
     }
 
+    /**
+     * The key of the stream cache. The object is serialized straight into
+     * an MD5 digest, only the 16 bytes of the digest are kept. The digest
+     * of every indirect object met on the way is remembered by reference
+     * so that shared resources are only serialized once per reader.
+     * A reference back to an object still being serialized is recorded by the
+     * object number, with the number of the reader, so that the digest doesn't
+     * depend on where the object was met; such a digest never matches an object
+     * of another reader. A digest whose serialization was cut at the maximum
+     * depth is not remembered.
+     */
     static class ByteStore {
+        private static final int MAX_LEVEL = 100;
+
         private final byte[] b;
         private final int hash;
-        private MessageDigest md5;
+        private ArrayList<MessageDigest> digests;
+        private ArrayList<RefKey> path;
+        /** the number of the reader the objects come from */
+        private int reader;
+        /** true if the serialization of the object being serialized was cut at the maximum depth */
+        private boolean truncated;
+        /** the raw stream content read ahead by <CODE>addDocuments</CODE>, or <CODE>null</CODE> */
+        private Map<PRStream, byte[]> preloaded;
 
-        private void serObject(PdfObject obj, int level, ByteBuffer bb, HashMap<RefKey, Integer> serialized) throws IOException {
-            if (level <= 0)
+        private void serObject(PdfObject obj, int level, MessageDigest md, HashMap<RefKey, byte[]> serialized) throws IOException {
+            if (level <= 0) {
+                truncated = true;
                 return;
+            }
             if (obj == null) {
-                bb.append("$Lnull");
+                update(md, "$Lnull");
                 return;
             }
-            PdfIndirectReference ref = null;
-            ByteBuffer savedBb = null;
-
             if (obj.isIndirect()) {
-                ref = (PdfIndirectReference)obj;
-                RefKey key = new RefKey(ref);
-                if (serialized.containsKey(key)) {
-                    bb.append(serialized.get(key));
-                    return;
-                }
-                else {
-                    savedBb = bb;
-                    bb = new ByteBuffer();
+                RefKey key = new RefKey((PdfIndirectReference)obj);
+                byte[] digest = serialized.get(key);
+                if (digest == null) {
+                    int idx = path.indexOf(key);
+                    if (idx >= 0) {
+                        // a reference back to an object still being serialized
+                        update(md, "$P");
+                        update(md, key.toString() + '/' + reader);
+                        return;
+                    }
+                    digest = serIndirect(key, PdfReader.getPdfObject(obj), level, serialized);
                 }
+                update(md, "$R");
+                md.update(digest);
+                return;
             }
-            obj = PdfReader.getPdfObject(obj);
             if (obj.isStream()) {
-                bb.append("$B");
-                serDic((PdfDictionary) obj, level - 1, bb, serialized);
+                update(md, "$B");
+                serDic((PdfDictionary) obj, level - 1, md, serialized);
                 if (level > 0) {
-                    md5.reset();
-                    bb.append(md5.digest(PdfReader.getStreamBytesRaw((PRStream)obj)));
+                    byte[] raw = preloaded == null ? null : preloaded.get(obj);
+                    md.update(raw != null ? raw : PdfReader.getStreamBytesRaw((PRStream)obj));
                 }
             }
             else if (obj.isDictionary()) {
-                serDic((PdfDictionary)obj, level - 1, bb, serialized);
+                serDic((PdfDictionary)obj, level - 1, md, serialized);
             }
             else if (obj.isArray()) {
-                serArray((PdfArray)obj, level - 1, bb, serialized);
+                serArray((PdfArray)obj, level - 1, md, serialized);
             }
             else if (obj.isString()) {
-                bb.append("$S").append(obj.toString());
+                update(md, "$S");
+                update(md, obj.toString());
             }
             else if (obj.isName()) {
-                bb.append("$N").append(obj.toString());
+                update(md, "$N");
+                update(md, obj.toString());
+            }
+            else {
+                update(md, "$L");
+                update(md, obj.toString());
             }
-            else
-                bb.append("$L").append(obj.toString());
+        }
 
-            if (savedBb != null) {
-                RefKey key = new RefKey(ref);
-                if (!serialized.containsKey(key))
-                    serialized.put(key, calculateHash(bb.getBuffer()));
-                savedBb.append(bb);
+        private byte[] serIndirect(RefKey key, PdfObject obj, int level, HashMap<RefKey, byte[]> serialized) throws IOException {
+            int depth = path.size();
+            MessageDigest md;
+            if (depth < digests.size()) {
+                md = digests.get(depth);
+                md.reset();
             }
+            else {
+                md = newDigest();
+                digests.add(md);
+            }
+            boolean outerTruncated = truncated;
+            truncated = false;
+            path.add(key);
+            try {
+                serObject(obj, level, md, serialized);
+            }
+            finally {
+                path.remove(depth);
+            }
+            byte[] digest = md.digest();
+            // a cut serialization depends on the depth the object was met at
+            if (!truncated)
+                serialized.put(key, digest);
+            truncated |= outerTruncated;
+            return digest;
         }
 
-        private void serDic(PdfDictionary dic, int level, ByteBuffer bb, HashMap<RefKey, Integer> serialized) throws IOException {
-            bb.append("$D");
-            if (level <= 0)
+        private void serDic(PdfDictionary dic, int level, MessageDigest md, HashMap<RefKey, byte[]> serialized) throws IOException {
+            update(md, "$D");
+            if (level <= 0) {
+                truncated = true;
                 return;
+            }
             Object[] keys = dic.getKeys().toArray();
             Arrays.sort(keys);
             for (int k = 0; k < keys.length; ++k) {
-                serObject((PdfObject)keys[k], level, bb, serialized);
-                serObject(dic.get((PdfName)keys[k]), level, bb, serialized);
+                serObject((PdfObject)keys[k], level, md, serialized);
+                serObject(dic.get((PdfName)keys[k]), level, md, serialized);
             }
         }
 
-        private void serArray(PdfArray array, int level, ByteBuffer bb, HashMap<RefKey, Integer> serialized) throws IOException {
-            bb.append("$A");
-            if (level <= 0)
+        private void serArray(PdfArray array, int level, MessageDigest md, HashMap<RefKey, byte[]> serialized) throws IOException {
+            update(md, "$A");
+            if (level <= 0) {
+                truncated = true;
                 return;
+            }
             for (int k = 0; k < array.size(); ++k) {
-                serObject(array.getPdfObject(k), level, bb, serialized);
+                serObject(array.getPdfObject(k), level, md, serialized);
             }
         }
 
-        ByteStore(PRStream str, HashMap<RefKey, Integer> serialized) throws IOException {
+        private static void update(MessageDigest md, String s) {
+            md.update(DocWriter.getISOBytes(s));
+        }
+
+        private static MessageDigest newDigest() {
             try {
-                md5 = MessageDigest.getInstance("MD5");
+                return MessageDigest.getInstance("MD5");
             }
             catch (Exception e) {
                 throw new ExceptionConverter(e);
             }
-            ByteBuffer bb = new ByteBuffer();
-            int level = 100;
-            serObject(str, level, bb, serialized);
-            this.b = bb.toByteArray();
-            hash = calculateHash(this.b);
-            md5 = null;
         }
 
-        ByteStore(PdfDictionary dict, HashMap<RefKey, Integer> serialized) throws IOException {
-            try {
-                md5 = MessageDigest.getInstance("MD5");
-            }
-            catch (Exception e) {
-                throw new ExceptionConverter(e);
+        /**
+         * Creates the key for an indirect object.
+         * @param ref the reference to the object in its reader
+         * @param obj the resolved object
+         * @param serialized the digests already calculated for the reader of <CODE>ref</CODE>
+         * @param reader the number of the reader of <CODE>ref</CODE>, different for every <CODE>serialized</CODE>
+         * @param preloaded the raw stream content read ahead for the reader of <CODE>ref</CODE>, or <CODE>null</CODE>
+         * @throws IOException on error
+         */
+        ByteStore(PRIndirectReference ref, PdfObject obj, HashMap<RefKey, byte[]> serialized, int reader, Map<PRStream, byte[]> preloaded) throws IOException {
+            RefKey key = new RefKey(ref);
+            byte[] digest = serialized.get(key);
+            if (digest == null) {
+                digests = new ArrayList<MessageDigest>();
+                path = new ArrayList<RefKey>();
+                this.reader = reader;
+                this.preloaded = preloaded;
+                digest = serIndirect(key, obj, MAX_LEVEL, serialized);
+                digests = null;
+                path = null;
+                this.preloaded = null;
             }
-            ByteBuffer bb = new ByteBuffer();
-            int level = 100;
-            serObject(dict, level, bb, serialized);
-            this.b = bb.toByteArray();
+            this.b = digest;
             hash = calculateHash(this.b);
-            md5 = null;
         }
 
         private static int calculateHash(byte[] b) {
@@ -290,4 +429,4 @@ public class PdfSmartCopy extends PdfCopy {
             return hash;
         }
     }
-}
\ No newline at end of file
+}
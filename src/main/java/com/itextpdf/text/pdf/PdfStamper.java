@@ -55,10 +55,12 @@ import com.itextpdf.text.pdf.interfaces.PdfViewerPreferences;
 import com.itextpdf.text.pdf.security.LtvVerification;
 import com.itextpdf.text.xml.xmp.XmpWriter;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.security.cert.Certificate;
 import java.util.HashMap;
 import java.util.List;
@@ -89,6 +91,10 @@ public class PdfStamper
      * document.
      * <p>
      * The reader will be closed when this PdfStamper is closed
+     * <p>
+     * If the reader was opened in partial mode and isn't encrypted, the objects
+     * that are never read keep their object numbers and are copied from the
+     * original file without being parsed.
      * @param reader the original document. It cannot be reused
      * @param os the output stream
      * @throws DocumentException on error
@@ -684,15 +690,76 @@ public class PdfStamper
             stp.sigApp.setTempFile(tempFile);
         }
         stp.sigApp.setOriginalout(os);
-        stp.sigApp.setStamper(stp);
-        stp.hasSignature = true;
+        stp.initSignature();
+        return stp;
+    }
+
+    /**
+     * Applies a digital signature to a document, writing it directly to a file channel.
+     * The returned PdfStamper can be used normally as the signature is only applied when closing.
+     * <p>
+     * The document is written only once, to <CODE>channel</CODE>. The bytes to be signed are read
+     * back from a memory map of the channel and the signature is written in place, so
+     * there is neither a copy of the whole document in memory nor a copy from a temporary file
+     * to the output as with {@link #createSignature(PdfReader, OutputStream, char, File, boolean)}.
+     * <p>
+     * The channel must be open for reading and writing. It is truncated before writing and it
+     * is left open when the signature is applied.
+     * @param reader the original document
+     * @param channel the channel of the output file
+     * @param pdfVersion the new pdf version or '\0' to keep the same version as the original
+     * document
+     * @param append if <CODE>true</CODE> the signature and all the other content will be added as a
+     * new revision thus not invalidating existing signatures
+     * @return a <CODE>PdfStamper</CODE>
+     * @throws DocumentException on error
+     * @throws IOException on error
+     * @since 5.5.6
+     */
+    public static PdfStamper createSignature(final PdfReader reader, final FileChannel channel, final char pdfVersion, final boolean append) throws DocumentException, IOException {
+        channel.truncate(0);
+        PdfStamper stp = new PdfStamper(reader, new BufferedOutputStream(new ChannelOutputStream(channel), 0x10000), pdfVersion, append);
+        stp.sigApp = new PdfSignatureAppearance(stp.stamper);
+        stp.sigApp.setChannel(channel);
+        stp.initSignature();
+        return stp;
+    }
+
+    private void initSignature() {
+        sigApp.setStamper(this);
+        hasSignature = true;
+        PdfReader reader = stamper.reader;
         PdfDictionary catalog = reader.getCatalog();
         PdfDictionary acroForm = (PdfDictionary)PdfReader.getPdfObject(catalog.get(PdfName.ACROFORM), catalog);
         if (acroForm != null) {
             acroForm.remove(PdfName.NEEDAPPEARANCES);
-            stp.stamper.markUsed(acroForm);
+            stamper.markUsed(acroForm);
+        }
+    }
+
+    /**
+     * Writes to a file channel from its start, with positional writes. Closing
+     * the stream leaves the channel open.
+     */
+    private static class ChannelOutputStream extends OutputStream {
+        private final FileChannel channel;
+        private long position;
+
+        ChannelOutputStream(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte)b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            java.nio.ByteBuffer buf = java.nio.ByteBuffer.wrap(b, off, len);
+            while (buf.hasRemaining())
+                position += channel.write(buf, position);
         }
-        return stp;
     }
 
     /**
@@ -100,6 +100,12 @@ class PdfStamperImp extends PdfWriter {
     protected boolean append;
     protected IntHashtable marked;
     protected int initialXrefSize;
+    /**
+     * In a full rewrite, <CODE>true</CODE> if the objects of the reader keep their numbers,
+     * so that the ones never read can be copied straight from the original file.
+     * @since 5.5.6
+     */
+    protected boolean keepObjectNumbers = false;
     protected PdfAction openAction;
 
     protected Counter COUNTER = CounterFactory.getCounter(PdfStamper.class);
@@ -161,6 +167,10 @@ class PdfStamperImp extends PdfWriter {
             if (reader.isHybridXref())
                 fullCompression = false;
         }
+        else if (reader.canCopyRawObjects()) {
+            keepObjectNumbers = true;
+            body.reserveRefnums(reader.getXrefSize());
+        }
         initialXrefSize = reader.getXrefSize();
         readColorProfile();
     }
@@ -406,8 +416,14 @@ class PdfStamperImp extends PdfWriter {
             }
         }
         else {
+            // the objects that were never read are copied as they are, unless they must be encrypted or checked
+            boolean copyRaw = keepObjectNumbers && crypto == null && !isPdfIso();
             for (int k = 1; k < reader.getXrefSize(); ++k) {
-                PdfObject obj = reader.getPdfObjectRelease(k);
+                PdfObject obj = null;
+                if (copyRaw && skipInfo != k && k < initialXrefSize)
+                    obj = reader.getRawObject(k, initialXrefSize);
+                if (obj == null)
+                    obj = reader.getPdfObjectRelease(k);
                 if (obj != null && skipInfo != k) {
                     addToBody(obj, getNewObjectNumber(reader, k, 0), k != rootN);
                 }
@@ -557,7 +573,7 @@ class PdfStamperImp extends PdfWriter {
             return n;
         }
         if (currentPdfReaderInstance == null) {
-            if (append && number < initialXrefSize)
+            if ((append || keepObjectNumbers) && number < initialXrefSize)
                 return number;
             int n = myXref.get(number);
             if (n == 0) {
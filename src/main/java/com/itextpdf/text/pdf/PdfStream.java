@@ -48,8 +48,6 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.zip.Deflater;
-import java.util.zip.DeflaterOutputStream;
 import com.itextpdf.text.error_messages.MessageLocalization;
 
 import com.itextpdf.text.DocWriter;
@@ -111,6 +109,11 @@ public class PdfStream extends PdfDictionary {
      * @since	2.1.3
      */
     protected int compressionLevel = NO_COMPRESSION;
+    /**
+     * Is the compression left to the compression executor of the writer?
+     * @since 5.5.6
+     */
+    boolean compressionDeferred = false;
     
     protected ByteArrayOutputStream streamBytes = null;
     protected InputStream inputStream;
@@ -119,6 +122,12 @@ public class PdfStream extends PdfDictionary {
     protected PdfWriter writer;
     protected int rawLength;
         
+    /**
+     * The compressor used for all the streams that are written compressed.
+     * @since 5.5.6
+     */
+    private static volatile FlateCompressor flateCompressor = ZlibPool.getPooledCompressor();
+
     static final byte STARTSTREAM[] = DocWriter.getISOBytes("stream\n");
     static final byte ENDSTREAM[] = DocWriter.getISOBytes("\nendstream");
     static final int SIZESTREAM = STARTSTREAM.length + ENDSTREAM.length;
@@ -195,6 +204,25 @@ public class PdfStream extends PdfDictionary {
     public int getRawLength() {
         return rawLength;
     }
+
+    /**
+     * Sets the compressor used for all the streams that are written compressed.
+     * @param compressor the compressor, or <CODE>null</CODE> to go back to the default
+     * one, that uses the <CODE>Deflater</CODE> instances of {@link ZlibPool}
+     * @since 5.5.6
+     */
+    public static void setFlateCompressor(FlateCompressor compressor) {
+        flateCompressor = compressor == null ? ZlibPool.getPooledCompressor() : compressor;
+    }
+
+    /**
+     * Gets the compressor used for all the streams that are written compressed.
+     * @return the compressor
+     * @since 5.5.6
+     */
+    public static FlateCompressor getFlateCompressor() {
+        return flateCompressor;
+    }
     
     /**
      * Compresses the stream.
@@ -238,14 +266,12 @@ public class PdfStream extends PdfDictionary {
         try {
             // compress
             ByteArrayOutputStream stream = new ByteArrayOutputStream();
-            Deflater deflater = new Deflater(compressionLevel);
-            DeflaterOutputStream zip = new DeflaterOutputStream(stream, deflater);
+            OutputStream zip = flateCompressor.createCompressionStream(stream, compressionLevel);
             if (streamBytes != null)
                 streamBytes.writeTo(zip);
             else
                 zip.write(bytes);
             zip.close();
-            deflater.end();
             // update the object
             streamBytes = stream;
             bytes = null;
@@ -265,6 +291,30 @@ public class PdfStream extends PdfDictionary {
         }
     }
 
+    /**
+     * Marks the stream to be compressed later with {@link #flateCompressDeferred()},
+     * usually on a thread of the compression executor of the writer.
+     * @param compressionLevel the compression level (0 = best speed, 9 = best compression, -1 is default)
+     * @since 5.5.6
+     */
+    void deferFlateCompress(int compressionLevel) {
+        if (!Document.compress || compressed)
+            return;
+        this.compressionLevel = compressionLevel;
+        compressionDeferred = true;
+    }
+
+    /**
+     * Does the compression marked with {@link #deferFlateCompress(int)}.
+     * @since 5.5.6
+     */
+    void flateCompressDeferred() {
+        if (!compressionDeferred)
+            return;
+        compressionDeferred = false;
+        flateCompress(compressionLevel);
+    }
+
 //    public int getStreamLength(PdfWriter writer) {
 //        if (dicBytes == null)
 //            toPdf(writer);
@@ -312,17 +362,14 @@ public class PdfStream extends PdfDictionary {
         os.write(STARTSTREAM);
         if (inputStream != null) {
             rawLength = 0;
-            DeflaterOutputStream def = null;
+            OutputStream def = null;
             OutputStreamCounter osc = new OutputStreamCounter(os);
             OutputStreamEncryption ose = null;
             OutputStream fout = osc;
             if (crypto != null && !crypto.isEmbeddedFilesOnly())
                 fout = ose = crypto.getEncryptionStream(fout);
-            Deflater deflater = null;
-            if (compressed) {
-                deflater = new Deflater(compressionLevel);
-                fout = def = new DeflaterOutputStream(fout, deflater, 0x8000);
-            }
+            if (compressed)
+                fout = def = flateCompressor.createCompressionStream(fout, compressionLevel);
             
             byte buf[] = new byte[4192];
             while (true) {
@@ -332,10 +379,8 @@ public class PdfStream extends PdfDictionary {
                 fout.write(buf, 0, n);
                 rawLength += n;
             }
-            if (def != null) {
-                def.finish();
-                deflater.end();
-            }
+            if (def != null)
+                def.close();
             if (ose != null)
                 ose.finish();
             inputStreamLength = (int)osc.getCounter();
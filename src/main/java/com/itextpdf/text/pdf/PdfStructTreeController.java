@@ -288,7 +288,7 @@ public class PdfStructTreeController {
 
     private static PdfDictionary getDirectDict(PdfDictionary in) {
         PdfDictionary out = new PdfDictionary();
-        for (Map.Entry<PdfName, PdfObject> entry : in.hashMap.entrySet()) {
+        for (Map.Entry<PdfName, PdfObject> entry : in.getMap().entrySet()) {
             PdfObject value = getDirectObject(entry.getValue());
             if (value == null)
                 continue;
@@ -356,7 +356,7 @@ public class PdfStructTreeController {
             PdfDictionary second = (PdfDictionary) value2;
             if (first.size() != second.size())
                 return false;
-            for (PdfName name : first.hashMap.keySet()) {
+            for (PdfName name : first.getMap().keySet()) {
                 if (!compareObjects(first.get(name), second.get(name)))
                     return false;
             }
@@ -72,6 +72,7 @@ import com.itextpdf.xmp.options.PropertyOptions;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.security.cert.Certificate;
 import java.util.ArrayList;
@@ -80,10 +81,16 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * A <CODE>DocWriter</CODE> class for PDF.
@@ -181,6 +188,18 @@ public class PdfWriter extends DocWriter implements
                 return refnum;
             }
 
+            int getType() {
+                return type;
+            }
+
+            long getOffset() {
+                return offset;
+            }
+
+            int getGeneration() {
+                return generation;
+            }
+
             /**
              * Returns the PDF representation of this <CODE>PdfObject</CODE>.
              * @param os
@@ -241,12 +260,210 @@ public class PdfWriter extends DocWriter implements
 
         }
 
+        /**
+         * The cross-reference table of the body, kept in primitive arrays indexed
+         * by the object number. The arrays grow in chunks so that large documents
+         * never copy the whole table.
+         * @since 5.5.6
+         */
+        static class CrossReferenceTable {
+
+            private static final int CHUNK_SHIFT = 10;
+            private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+            private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+            private long[][] offsets = new long[16][];
+            private int[][] generations = new int[16][];
+            /** the type of the entry plus one, 0 if there's no entry */
+            private byte[][] types = new byte[16][];
+            /** the highest object number with an entry, -1 if empty */
+            private int last = -1;
+            private int count;
+
+            /**
+             * Sets the entry for an object, replacing any previous one.
+             * @param refnum the object number
+             * @param type the type of the entry in a cross-reference stream
+             * @param offset the offset or the number of the object stream
+             * @param generation the generation or the index in the object stream
+             */
+            void set(final int refnum, final int type, final long offset, final int generation) {
+                int c = refnum >>> CHUNK_SHIFT;
+                if (c >= types.length) {
+                    int n = Math.max(c + 1, types.length * 2);
+                    long[][] o = new long[n][];
+                    System.arraycopy(offsets, 0, o, 0, offsets.length);
+                    offsets = o;
+                    int[][] g = new int[n][];
+                    System.arraycopy(generations, 0, g, 0, generations.length);
+                    generations = g;
+                    byte[][] t = new byte[n][];
+                    System.arraycopy(types, 0, t, 0, types.length);
+                    types = t;
+                }
+                if (types[c] == null) {
+                    offsets[c] = new long[CHUNK_SIZE];
+                    generations[c] = new int[CHUNK_SIZE];
+                    types[c] = new byte[CHUNK_SIZE];
+                }
+                int k = refnum & CHUNK_MASK;
+                if (types[c][k] == 0)
+                    ++count;
+                offsets[c][k] = offset;
+                generations[c][k] = generation;
+                types[c][k] = (byte)(type + 1);
+                if (refnum > last)
+                    last = refnum;
+            }
+
+            /**
+             * Removes the entry for an object.
+             * @param refnum the object number
+             */
+            void remove(final int refnum) {
+                if (!contains(refnum))
+                    return;
+                types[refnum >>> CHUNK_SHIFT][refnum & CHUNK_MASK] = 0;
+                --count;
+                while (last >= 0 && !contains(last))
+                    --last;
+            }
+
+            boolean contains(final int refnum) {
+                if (refnum < 0 || refnum > last)
+                    return false;
+                byte[] t = types[refnum >>> CHUNK_SHIFT];
+                return t != null && t[refnum & CHUNK_MASK] != 0;
+            }
+
+            int getType(final int refnum) {
+                return types[refnum >>> CHUNK_SHIFT][refnum & CHUNK_MASK] - 1;
+            }
+
+            long getOffset(final int refnum) {
+                return offsets[refnum >>> CHUNK_SHIFT][refnum & CHUNK_MASK];
+            }
+
+            int getGeneration(final int refnum) {
+                return generations[refnum >>> CHUNK_SHIFT][refnum & CHUNK_MASK];
+            }
+
+            /**
+             * Gets the highest object number with an entry.
+             * @return the object number or -1 if the table is empty
+             */
+            int last() {
+                return last;
+            }
+
+            /**
+             * Gets the number of entries.
+             * @return the number of entries
+             */
+            int size() {
+                return count;
+            }
+
+            /**
+             * Gets the subsections of the table as pairs of first object number and
+             * number of entries.
+             * @return the subsections
+             */
+            int[] getSections() {
+                int[] sections = new int[16];
+                int n = 0;
+                int k = 0;
+                while (k <= last) {
+                    if (!contains(k)) {
+                        ++k;
+                        continue;
+                    }
+                    int first = k;
+                    while (k <= last && contains(k))
+                        ++k;
+                    if (n + 2 > sections.length) {
+                        int[] s = new int[sections.length * 2];
+                        System.arraycopy(sections, 0, s, 0, n);
+                        sections = s;
+                    }
+                    sections[n++] = first;
+                    sections[n++] = k - first;
+                }
+                int[] s = new int[n];
+                System.arraycopy(sections, 0, s, 0, n);
+                return s;
+            }
+
+            /**
+             * Writes an entry of a classic cross-reference table.
+             * @param refnum the object number
+             * @param buf a work buffer of 20 bytes
+             * @param os the output
+             * @throws IOException
+             */
+            void writeEntry(final int refnum, final byte[] buf, final OutputStream os) throws IOException {
+                long offset = getOffset(refnum);
+                int generation = getGeneration(refnum);
+                for (int k = 9; k >= 0; --k) {
+                    buf[k] = (byte)('0' + offset % 10);
+                    offset /= 10;
+                }
+                buf[10] = ' ';
+                int g = generation;
+                for (int k = 15; k >= 11; --k) {
+                    buf[k] = (byte)('0' + g % 10);
+                    g /= 10;
+                }
+                buf[16] = ' ';
+                buf[17] = (byte)(generation == GENERATION_MAX ? 'f' : 'n');
+                buf[18] = ' ';
+                buf[19] = '\n';
+                os.write(buf, 0, 20);
+            }
+
+            /**
+             * Writes an entry of a cross-reference stream.
+             * @param refnum the object number
+             * @param midSize the number of bytes of the offset field
+             * @param buf the output
+             */
+            void writeEntry(final int refnum, int midSize, final ByteBuffer buf) {
+                long offset = getOffset(refnum);
+                int generation = getGeneration(refnum);
+                buf.append((byte)getType(refnum));
+                while (--midSize >= 0)
+                    buf.append((byte)(offset >>> 8 * midSize & 0xff));
+                buf.append((byte)(generation >>> 8 & 0xff));
+                buf.append((byte)(generation & 0xff));
+            }
+        }
+
+        /**
+         * An object waiting for its turn to be written: either an object that is still
+         * being compressed by the compression executor or an object that was already
+         * serialized but has to follow an object that is still being compressed.
+         * @since 5.5.6
+         */
+        private static class PendingObject {
+            final int refNumber;
+            final int generation;
+            final Future<? extends PdfObject> future;
+            final byte[] bytes;
+
+            PendingObject(final int refNumber, final int generation, final Future<? extends PdfObject> future, final byte[] bytes) {
+                this.refNumber = refNumber;
+                this.generation = generation;
+                this.future = future;
+                this.bytes = bytes;
+            }
+        }
+
         private static final int OBJSINSTREAM = 200;
 
         // membervariables
 
-        /** array containing the cross-reference table of the normal objects. */
-        protected final TreeSet<PdfCrossReference> xrefs;
+        /** the cross-reference table of the normal objects. */
+        final CrossReferenceTable xrefTable;
         protected int refnum;
         /** the current byte position in the body. */
         protected long position;
@@ -255,6 +472,8 @@ public class PdfWriter extends DocWriter implements
         protected ByteBuffer streamObjects;
         protected int currentObjNum;
         protected int numObj = 0;
+        /** the objects that are not written yet, in the order they were added */
+        private final LinkedList<PendingObject> pending = new LinkedList<PendingObject>();
 
         // constructors
 
@@ -263,8 +482,8 @@ public class PdfWriter extends DocWriter implements
          * @param writer
          */
         protected PdfBody(final PdfWriter writer) {
-            xrefs = new TreeSet<PdfCrossReference>();
-            xrefs.add(new PdfCrossReference(0, 0, GENERATION_MAX));
+            xrefTable = new CrossReferenceTable();
+            xrefTable.set(0, 0, 0, GENERATION_MAX);
             position = writer.getOs().getCounter();
             refnum = 1;
             this.writer = writer;
@@ -276,6 +495,20 @@ public class PdfWriter extends DocWriter implements
             this.refnum = refnum;
         }
 
+        /**
+         * Reserves the object numbers below <CODE>refnum</CODE> for objects added with an
+         * explicit number. The reserved numbers that are never used are listed as free objects.
+         * @param refnum the first number given to new objects
+         * @since 5.5.6
+         */
+        void reserveRefnums(final int refnum) {
+            for (int k = this.refnum; k < refnum; ++k) {
+                if (!xrefTable.contains(k))
+                    xrefTable.set(k, 0, 0, GENERATION_MAX);
+            }
+            setRefnum(Math.max(this.refnum, refnum));
+        }
+
         protected PdfWriter.PdfBody.PdfCrossReference addToObjStm(final PdfObject obj, final int nObj) throws IOException {
             if (numObj >= OBJSINSTREAM)
                 flushObjStm();
@@ -345,7 +578,8 @@ public class PdfWriter extends DocWriter implements
 
         protected int getIndirectReferenceNumber() {
             int n = refnum++;
-            xrefs.add(new PdfCrossReference(n, 0, GENERATION_MAX));
+            if (!xrefTable.contains(n))
+                xrefTable.set(n, 0, 0, GENERATION_MAX);
             return n;
         }
 
@@ -381,10 +615,20 @@ public class PdfWriter extends DocWriter implements
             if (inObjStm && object.canBeInObjStm() && writer.isFullCompression()) {
                 PdfCrossReference pxref = addToObjStm(object, refNumber);
                 PdfIndirectObject indirect = new PdfIndirectObject(refNumber, object, writer);
-                if (!xrefs.add(pxref)) {
-                    xrefs.remove(pxref);
-                    xrefs.add(pxref);
-                }
+                xrefTable.set(refNumber, pxref.getType(), pxref.getOffset(), pxref.getGeneration());
+                return indirect;
+            }
+            else if (!pending.isEmpty()) {
+                // keep the order of the objects behind the ones being compressed
+                PdfIndirectObject indirect;
+                if (writer.isFullCompression())
+                    indirect = new PdfIndirectObject(refNumber, object, writer);
+                else
+                    indirect = new PdfIndirectObject(refNumber, generation, object, writer);
+                ByteBuffer buf = new ByteBuffer();
+                indirect.writeTo(buf);
+                pending.add(new PendingObject(refNumber, generation, null, buf.toByteArray()));
+                writePending(false);
                 return indirect;
             }
             else {
@@ -401,22 +645,76 @@ public class PdfWriter extends DocWriter implements
             }
         }
 
-        protected void write(final PdfIndirectObject indirect, final int refNumber) throws IOException {
-            PdfCrossReference pxref = new PdfCrossReference(refNumber, position);
-            if (!xrefs.add(pxref)) {
-                xrefs.remove(pxref);
-                xrefs.add(pxref);
+        /**
+         * Adds an object that is still being prepared by the compression executor.
+         * The object is written as soon as it is ready and all the objects added before
+         * it are written; the objects added after it wait for their turn.
+         * @param object the object being prepared
+         * @param refNumber the object number
+         * @param generation the generation number
+         * @throws IOException
+         * @since 5.5.6
+         */
+        void add(final Future<? extends PdfObject> object, final int refNumber, final int generation) throws IOException {
+            pending.add(new PendingObject(refNumber, generation, object, null));
+            writePending(false);
+        }
+
+        /**
+         * Writes the pending objects that are ready, keeping their order.
+         * @param all if <CODE>true</CODE> waits for all the pending objects, otherwise
+         * it only waits when there are more pending objects than allowed by the writer
+         * @throws IOException
+         * @since 5.5.6
+         */
+        void writePending(final boolean all) throws IOException {
+            while (!pending.isEmpty()) {
+                PendingObject p = pending.getFirst();
+                if (p.future != null && !all && !p.future.isDone() && pending.size() <= writer.maxPendingCompressions)
+                    return;
+                pending.removeFirst();
+                if (p.future == null) {
+                    if (writer.isFullCompression())
+                        xrefTable.set(p.refNumber, 1, position, 0);
+                    else
+                        xrefTable.set(p.refNumber, 0, position, p.generation);
+                    writer.getOs().write(p.bytes);
+                    position = writer.getOs().getCounter();
+                    continue;
+                }
+                PdfObject object;
+                try {
+                    object = p.future.get();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException(e.getMessage());
+                }
+                catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException)
+                        throw (IOException)cause;
+                    if (cause instanceof RuntimeException)
+                        throw (RuntimeException)cause;
+                    if (cause instanceof Error)
+                        throw (Error)cause;
+                    throw new ExceptionConverter(e);
+                }
+                if (writer.isFullCompression())
+                    write(new PdfIndirectObject(p.refNumber, object, writer), p.refNumber);
+                else
+                    write(new PdfIndirectObject(p.refNumber, p.generation, object, writer), p.refNumber, p.generation);
             }
+        }
+
+        protected void write(final PdfIndirectObject indirect, final int refNumber) throws IOException {
+            xrefTable.set(refNumber, 1, position, 0);
             indirect.writeTo(writer.getOs());
             position = writer.getOs().getCounter();
         }
 
         protected void write(final PdfIndirectObject indirect, final int refNumber, final int generation) throws IOException {
-            PdfCrossReference pxref = new PdfCrossReference(refNumber, position, generation);
-            if (!xrefs.add(pxref)) {
-                xrefs.remove(pxref);
-                xrefs.add(pxref);
-            }
+            xrefTable.set(refNumber, 0, position, generation);
             indirect.writeTo(writer.getOs());
             position = writer.getOs().getCounter();
         }
@@ -428,9 +726,33 @@ public class PdfWriter extends DocWriter implements
          */
 
         public long offset() {
+            try {
+                writePending(true);
+            }
+            catch (IOException ioe) {
+                throw new ExceptionConverter(ioe);
+            }
             return position;
         }
 
+        /**
+         * Gets a copy of the cross-reference table as the sorted set of
+         * <CODE>PdfCrossReference</CODE> that was kept in the <CODE>xrefs</CODE>
+         * field before 5.5.6. Changing the copy doesn't change the table.
+         * @return a new set with the entries of the table
+         * @deprecated since 5.5.6, the entries are no longer kept as
+         * <CODE>PdfCrossReference</CODE> objects
+         */
+        @Deprecated
+        protected TreeSet<PdfCrossReference> getXrefs() {
+            TreeSet<PdfCrossReference> xrefs = new TreeSet<PdfCrossReference>();
+            for (int k = 0; k <= xrefTable.last(); ++k) {
+                if (xrefTable.contains(k))
+                    xrefs.add(new PdfCrossReference(xrefTable.getType(k), k, xrefTable.getOffset(k), xrefTable.getGeneration(k)));
+            }
+            return xrefs;
+        }
+
         /**
          * Returns the total number of objects contained in the CrossReferenceTable of this <CODE>Body</CODE>.
          *
@@ -438,7 +760,7 @@ public class PdfWriter extends DocWriter implements
          */
 
         public int size() {
-            return Math.max(xrefs.last().getRefnum() + 1, refnum);
+            return Math.max(xrefTable.last() + 1, refnum);
         }
 
         /**
@@ -453,29 +775,14 @@ public class PdfWriter extends DocWriter implements
          */
 
         public void writeCrossReferenceTable(final OutputStream os, final PdfIndirectReference root, final PdfIndirectReference info, final PdfIndirectReference encryption, final PdfObject fileID, final long prevxref) throws IOException {
+            writePending(true);
             int refNumber = 0;
             if (writer.isFullCompression()) {
                 flushObjStm();
                 refNumber = getIndirectReferenceNumber();
-                xrefs.add(new PdfCrossReference(refNumber, position));
-            }
-            PdfCrossReference entry = xrefs.first();
-            int first = entry.getRefnum();
-            int len = 0;
-            ArrayList<Integer> sections = new ArrayList<Integer>();
-            for (PdfCrossReference pdfCrossReference : xrefs) {
-                entry = pdfCrossReference;
-                if (first + len == entry.getRefnum())
-                    ++len;
-                else {
-                    sections.add(Integer.valueOf(first));
-                    sections.add(Integer.valueOf(len));
-                    first = entry.getRefnum();
-                    len = 1;
-                }
+                xrefTable.set(refNumber, 1, position, 0);
             }
-            sections.add(Integer.valueOf(first));
-            sections.add(Integer.valueOf(len));
+            int[] sections = xrefTable.getSections();
             if (writer.isFullCompression()) {
                 int mid = 5;
                 long mask = 0xff00000000L;
@@ -484,11 +791,12 @@ public class PdfWriter extends DocWriter implements
                         break;
                     mask >>>= 8;
                 }
-                ByteBuffer buf = new ByteBuffer();
-
-                for (Object element : xrefs) {
-                    entry = (PdfCrossReference) element;
-                    entry.toPdf(mid, buf);
+                ByteBuffer buf = new ByteBuffer(xrefTable.size() * (mid + 3));
+                for (int k = 0; k < sections.length; k += 2) {
+                    int first = sections[k];
+                    int end = first + sections[k + 1];
+                    for (int n = first; n < end; ++n)
+                        xrefTable.writeEntry(n, mid, buf);
                 }
                 PdfStream xr = new PdfStream(buf.toByteArray());
                 buf = null;
@@ -504,9 +812,7 @@ public class PdfWriter extends DocWriter implements
                     xr.put(PdfName.ID, fileID);
                 xr.put(PdfName.W, new PdfArray(new int[]{1, mid, 2}));
                 xr.put(PdfName.TYPE, PdfName.XREF);
-                PdfArray idx = new PdfArray();
-                for (int k = 0; k < sections.size(); ++k)
-                    idx.add(new PdfNumber(sections.get(k).intValue()));
+                PdfArray idx = new PdfArray(sections);
                 xr.put(PdfName.INDEX, idx);
                 if (prevxref > 0)
                     xr.put(PdfName.PREV, new PdfNumber(prevxref));
@@ -518,18 +824,16 @@ public class PdfWriter extends DocWriter implements
             }
             else {
                 os.write(getISOBytes("xref\n"));
-                Iterator<PdfCrossReference> i = xrefs.iterator();
-                for (int k = 0; k < sections.size(); k += 2) {
-                    first = sections.get(k).intValue();
-                    len = sections.get(k + 1).intValue();
+                byte[] entry = new byte[20];
+                for (int k = 0; k < sections.length; k += 2) {
+                    int first = sections[k];
+                    int len = sections[k + 1];
                     os.write(getISOBytes(String.valueOf(first)));
                     os.write(getISOBytes(" "));
                     os.write(getISOBytes(String.valueOf(len)));
                     os.write('\n');
-                    while (len-- > 0) {
-                        entry = i.next();
-                        entry.toPdf(os);
-                    }
+                    for (int n = first; n < first + len; ++n)
+                        xrefTable.writeEntry(n, entry, os);
                 }
             }
         }
@@ -1142,14 +1446,17 @@ public class PdfWriter extends DocWriter implements
         if (!open) {
             throw new PdfException(MessageLocalization.getComposedMessage("the.document.is.not.open"));
         }
-        PdfIndirectObject object;
+        PdfIndirectReference contentsRef;
         try {
-            object = addToBody(contents);
+            if (contents.compressionDeferred)
+                contentsRef = addToBodyCompressed(contents, null);
+            else
+                contentsRef = addToBody(contents).getIndirectReference();
         }
         catch(IOException ioe) {
             throw new ExceptionConverter(ioe);
         }
-        page.add(object.getIndirectReference());
+        page.add(contentsRef);
         // [U5]
         if (group != null) {
             page.put(PdfName.GROUP, group);
@@ -2257,6 +2564,72 @@ public class PdfWriter extends DocWriter implements
             this.compressionLevel = compressionLevel;
     }
 
+    /** The executor that compresses page contents and images ahead of the write. */
+    private ExecutorService compressionExecutor;
+
+    /** The maximum number of objects waiting to be written while the compression executor is busy. */
+    private int maxPendingCompressions = 1;
+
+    /**
+     * Sets an executor to compress the page contents and the images.
+     * The streams are compressed on the threads of the executor while the
+     * document goes on, and they are written in the order they were added,
+     * so the output doesn't depend on the timing of the executor. The executor
+     * is not shut down by the writer.
+     * @param executor the executor or <CODE>null</CODE> to compress on the calling thread
+     * @param maxPending the maximum number of objects waiting to be written; when
+     * there are more the writer waits for the compression of the first one
+     * @since 5.5.6
+     */
+    public void setCompressionExecutor(final ExecutorService executor, final int maxPending) {
+        this.compressionExecutor = executor;
+        this.maxPendingCompressions = Math.max(1, maxPending);
+    }
+
+    /**
+     * Gets the executor used to compress the page contents and the images.
+     * @return the executor or <CODE>null</CODE> if the streams are compressed on the calling thread
+     * @since 5.5.6
+     */
+    public ExecutorService getCompressionExecutor() {
+        return compressionExecutor;
+    }
+
+    /**
+     * Adds a stream marked with {@link PdfStream#deferFlateCompress(int)} to the body,
+     * compressing it on the compression executor.
+     * @param stream the stream
+     * @param ref the reference of the stream or <CODE>null</CODE> to get a new one
+     * @return the reference of the stream
+     * @throws IOException
+     * @since 5.5.6
+     */
+    PdfIndirectReference addToBodyCompressed(final PdfStream stream, PdfIndirectReference ref) throws IOException {
+        if (ref == null)
+            ref = getPdfIndirectReference();
+        Future<PdfStream> future = null;
+        if (compressionExecutor != null) {
+            try {
+                future = compressionExecutor.submit(new Callable<PdfStream>() {
+                    public PdfStream call() {
+                        stream.flateCompressDeferred();
+                        return stream;
+                    }
+                });
+            }
+            catch (RejectedExecutionException e) {
+                future = null;
+            }
+        }
+        if (future == null) {
+            stream.flateCompressDeferred();
+            addToBody(stream, ref);
+        }
+        else
+            body.add(future, ref.getNumber(), ref.getGeneration());
+        return ref;
+    }
+
 //  [F3] adding fonts
 
     /** The fonts of this document */
@@ -3224,7 +3597,7 @@ public class PdfWriter extends DocWriter implements
                     PdfName mname = images.get(maskImage.getMySerialId());
                     maskRef = getImageReference(mname);
                 }
-                PdfImage i = new PdfImage(image, "img" + images.size(), maskRef);
+                PdfImage i = new PdfImage(image, "img" + images.size(), maskRef, compressionExecutor != null);
                 if (image instanceof ImgJBIG2) {
                     byte[] globals = ((ImgJBIG2) image).getGlobalBytes();
                     if (globals != null) {
@@ -3274,7 +3647,9 @@ public class PdfWriter extends DocWriter implements
                 fixedRef = new PdfIndirectReference(0, getNewObjectNumber(r2.getReader(), r2.getNumber(), r2.getGeneration()));
             }
             try {
-                if (fixedRef == null)
+                if (pdfImage.compressionDeferred)
+                    fixedRef = addToBodyCompressed(pdfImage, fixedRef);
+                else if (fixedRef == null)
                     fixedRef = addToBody(pdfImage).getIndirectReference();
                 else
                     addToBody(pdfImage, fixedRef);
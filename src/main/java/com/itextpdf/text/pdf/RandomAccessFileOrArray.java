@@ -88,6 +88,19 @@ public class RandomAccessFileOrArray implements DataInput {
      */
     private boolean isBack = false;
 
+    /**
+     * Read-ahead window for single byte reads, or null if single byte reads go straight to the source
+     */
+    private byte[] window;
+    /**
+     * The position in the underlying byte source of the first byte in the window
+     */
+    private long windowStart;
+    /**
+     * The number of valid bytes in the window
+     */
+    private int windowLength;
+
     /**
      * @deprecated use {@link RandomAccessFileOrArray#RandomAccessFileOrArray(RandomAccessSource)} instead
      * @param filename
@@ -208,9 +221,56 @@ public class RandomAccessFileOrArray implements DataInput {
             isBack = false;
             return back & 0xff;
         }
-        
+        if (window != null) {
+            long offset = byteSourcePosition - windowStart;
+            if (offset < 0 || offset >= windowLength) {
+                if (!fillWindow()) {
+                    ++byteSourcePosition;
+                    return -1;
+                }
+                offset = 0;
+            }
+            ++byteSourcePosition;
+            return window[(int)offset] & 0xff;
+        }
         return byteSource.get(byteSourcePosition++);
     }
+
+    /**
+     * Makes {@link #read()} serve bytes from a window of up to <CODE>size</CODE> bytes
+     * that is filled with a single bulk read from the source. This pays off for
+     * sequential scanners like {@link PRTokeniser}, that would otherwise go through
+     * the whole chain of sources for every byte. The window only caches the
+     * source and never changes the file pointer semantics.
+     * @param size the window size in bytes, or 0 to read single bytes from the source
+     * @since 5.5.6
+     */
+    public void setReadAheadSize(int size) {
+        if (size <= 0) {
+            window = null;
+        }
+        else if (window == null || window.length != size) {
+            window = new byte[size];
+        }
+        windowLength = 0;
+    }
+
+    /**
+     * Fills the read-ahead window starting at the current position in the source.
+     * @return false if the position is at or beyond the end of the source
+     * @throws IOException
+     */
+    private boolean fillWindow() throws IOException {
+        windowLength = 0;
+        if (byteSourcePosition < 0)
+            return false;
+        int count = byteSource.get(byteSourcePosition, window, 0, window.length);
+        if (count <= 0)
+            return false;
+        windowStart = byteSourcePosition;
+        windowLength = count;
+        return true;
+    }
     
     public int read(byte[] b, int off, int len) throws IOException {
         if (len == 0)
@@ -296,6 +356,7 @@ public class RandomAccessFileOrArray implements DataInput {
     
     public void close() throws IOException {
         isBack = false;
+        windowLength = 0;
         
         byteSource.close();
     }
@@ -46,9 +46,12 @@ package com.itextpdf.text.pdf;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 
 import com.itextpdf.text.Document;
@@ -190,6 +193,28 @@ class TrueTypeFont extends BaseFont {
     protected HashMap<Integer, int[]> cmap31;
 
     protected HashMap<Integer, int[]> cmapExt;
+
+    /** <CODE>cmap10</CODE> compiled for lookups without boxing, or <CODE>null</CODE>. */
+    CmapTable cmapTable10;
+    /** <CODE>cmap31</CODE> compiled for lookups without boxing, or <CODE>null</CODE>. */
+    CmapTable cmapTable31;
+    /** <CODE>cmapExt</CODE> compiled for lookups without boxing, or <CODE>null</CODE>. */
+    CmapTable cmapTableExt;
+
+    /** The cmaps already read, by file. The maps are shared by all the fonts
+     * created from the same file and must not be modified.
+     */
+    private static final HashMap<String, WeakReference<Cmaps>> sharedCmaps = new HashMap<String, WeakReference<Cmaps>>();
+
+    /** The key of this font file in <CODE>sharedCmaps</CODE>, or <CODE>null</CODE>
+     * if the font was not read from a file.
+     */
+    private String cmapsKey;
+
+    /** Keeps the shared cmaps of this font reachable. It's <CODE>null</CODE> once the
+     * font has its own copy of the cmaps and the widths must be read from them.
+     */
+    private Cmaps cmaps;
     
     protected int[] glyphIdToChar;
     
@@ -342,6 +367,117 @@ class TrueTypeFont extends BaseFont {
         int sCapHeight;
     }
 
+    /**
+     * A character to glyph index map stored in primitive arrays. The Basic Multilingual
+     * Plane is a two level table of 256 pages of 256 glyph indexes; the pages without
+     * any character are not allocated. The supplementary planes are kept as sorted ranges
+     * of consecutive characters mapped to consecutive glyphs.
+     * @since 5.5.6
+     */
+    static final class CmapTable {
+        private final int[][] pages = new int[256][];
+        private final int[] rangeStart;
+        private final int[] rangeEnd;
+        private final int[] rangeGlyph;
+
+        CmapTable(Map<Integer, int[]> map) {
+            long[] supplementary = new long[16];
+            int count = 0;
+            for (Map.Entry<Integer, int[]> entry : map.entrySet()) {
+                int c = entry.getKey().intValue();
+                int glyph = entry.getValue()[0];
+                if ((c & ~0xffff) == 0) {
+                    int[] page = pages[c >> 8];
+                    if (page == null) {
+                        page = new int[256];
+                        Arrays.fill(page, -1);
+                        pages[c >> 8] = page;
+                    }
+                    page[c & 0xff] = glyph;
+                }
+                else {
+                    if (count == supplementary.length) {
+                        long[] grown = new long[count * 2];
+                        System.arraycopy(supplementary, 0, grown, 0, count);
+                        supplementary = grown;
+                    }
+                    supplementary[count++] = ((long)c << 32) | (glyph & 0xffffffffL);
+                }
+            }
+            Arrays.sort(supplementary, 0, count);
+            int[] start = new int[count];
+            int[] end = new int[count];
+            int[] glyphs = new int[count];
+            int ranges = 0;
+            for (int k = 0; k < count; ++k) {
+                int c = (int)(supplementary[k] >> 32);
+                int glyph = (int)supplementary[k];
+                if (ranges > 0 && c == end[ranges - 1] + 1 && glyph == glyphs[ranges - 1] + c - start[ranges - 1]) {
+                    end[ranges - 1] = c;
+                }
+                else {
+                    start[ranges] = c;
+                    end[ranges] = c;
+                    glyphs[ranges] = glyph;
+                    ++ranges;
+                }
+            }
+            rangeStart = new int[ranges];
+            System.arraycopy(start, 0, rangeStart, 0, ranges);
+            rangeEnd = new int[ranges];
+            System.arraycopy(end, 0, rangeEnd, 0, ranges);
+            rangeGlyph = new int[ranges];
+            System.arraycopy(glyphs, 0, rangeGlyph, 0, ranges);
+        }
+
+        /**
+         * Gets the glyph index of a character.
+         * @param c the character
+         * @return the glyph index or -1 if the character is not mapped
+         */
+        int getGlyph(int c) {
+            if ((c & ~0xffff) == 0) {
+                int[] page = pages[c >> 8];
+                return page == null ? -1 : page[c & 0xff];
+            }
+            int low = 0;
+            int high = rangeStart.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (c < rangeStart[mid])
+                    high = mid - 1;
+                else if (c > rangeEnd[mid])
+                    low = mid + 1;
+                else
+                    return rangeGlyph[mid] + c - rangeStart[mid];
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * The cmaps read from a font file, in both forms.
+     */
+    private static final class Cmaps {
+        final boolean fontSpecific;
+        final HashMap<Integer, int[]> cmap10;
+        final HashMap<Integer, int[]> cmap31;
+        final HashMap<Integer, int[]> cmapExt;
+        final CmapTable cmapTable10;
+        final CmapTable cmapTable31;
+        final CmapTable cmapTableExt;
+
+        Cmaps(boolean fontSpecific, HashMap<Integer, int[]> cmap10, HashMap<Integer, int[]> cmap31, HashMap<Integer, int[]> cmapExt) {
+            this.fontSpecific = fontSpecific;
+            this.cmap10 = cmap10;
+            this.cmap31 = cmap31;
+            this.cmapExt = cmapExt;
+            cmapTable10 = cmap10 == null ? null : new CmapTable(cmap10);
+            cmapTable31 = cmap31 == null ? null : new CmapTable(cmap31);
+            cmapTableExt = cmapExt == null ? null : new CmapTable(cmapExt);
+        }
+    }
+
     /** This constructor is present to allow extending the class.
      */
     protected TrueTypeFont() {
@@ -637,8 +773,11 @@ class TrueTypeFont extends BaseFont {
     void process(byte ttfAfm[], boolean preload) throws DocumentException, IOException {
         tables = new HashMap<String, int[]>();
 
-        if (ttfAfm == null)
+        if (ttfAfm == null) {
             rf = new RandomAccessFileOrArray(fileName, preload, Document.plainRandomAccess);
+            File file = new File(fileName);
+            cmapsKey = fileName + "\n" + ttcIndex + "\n" + file.length() + "\n" + file.lastModified();
+        }
         else
             rf = new RandomAccessFileOrArray(ttfAfm);
         
@@ -792,10 +931,70 @@ class TrueTypeFont extends BaseFont {
 
     /** Reads the several maps from the table 'cmap'. The maps of interest are 1.0 for symbolic
      *  fonts and 3.1 for all others. A symbolic font is defined as having the map 3.0.
+     *  The maps of a font file are only read once while any font created from that file is in use.
      * @throws DocumentException the font is invalid
      * @throws IOException the font file could not be read
      */
     void readCMaps() throws DocumentException, IOException {
+        Cmaps cmaps = null;
+        if (cmapsKey != null) {
+            synchronized (sharedCmaps) {
+                WeakReference<Cmaps> ref = sharedCmaps.get(cmapsKey);
+                if (ref != null)
+                    cmaps = ref.get();
+            }
+        }
+        if (cmaps == null) {
+            readCMapTables();
+            cmaps = new Cmaps(fontSpecific, cmap10, cmap31, cmapExt);
+            if (cmapsKey != null) {
+                synchronized (sharedCmaps) {
+                    for (Iterator<WeakReference<Cmaps>> it = sharedCmaps.values().iterator(); it.hasNext();) {
+                        if (it.next().get() == null)
+                            it.remove();
+                    }
+                    sharedCmaps.put(cmapsKey, new WeakReference<Cmaps>(cmaps));
+                }
+            }
+        }
+        fontSpecific = cmaps.fontSpecific;
+        cmap10 = cmaps.cmap10;
+        cmap31 = cmaps.cmap31;
+        cmapExt = cmaps.cmapExt;
+        cmapTable10 = cmaps.cmapTable10;
+        cmapTable31 = cmaps.cmapTable31;
+        cmapTableExt = cmaps.cmapTableExt;
+        this.cmaps = cmaps;
+    }
+
+    /** Gives this font its own copy of the cmaps before one of its metrics is changed.
+     * The cmaps read from a file are shared with the other fonts of that file. From then
+     * on the widths are read from the cmaps, not from the glyph widths.
+     * @since 5.5.6
+     */
+    void unshareCMaps() {
+        if (cmaps == null)
+            return;
+        cmap10 = copyCMap(cmap10);
+        cmap31 = copyCMap(cmap31);
+        cmapExt = copyCMap(cmapExt);
+        cmaps = null;
+    }
+
+    private static HashMap<Integer, int[]> copyCMap(HashMap<Integer, int[]> cmap) {
+        if (cmap == null)
+            return null;
+        HashMap<Integer, int[]> copy = new HashMap<Integer, int[]>(cmap.size() * 4 / 3 + 1);
+        for (Map.Entry<Integer, int[]> entry : cmap.entrySet())
+            copy.put(entry.getKey(), entry.getValue().clone());
+        return copy;
+    }
+
+    /** Reads the tables 'cmap' of the font file.
+     * @throws DocumentException the font is invalid
+     * @throws IOException the font file could not be read
+     */
+    private void readCMapTables() throws DocumentException, IOException {
         int table_location[];
         table_location = tables.get("cmap");
         if (table_location == null)
@@ -1023,14 +1222,12 @@ class TrueTypeFont extends BaseFont {
      */
     @Override
     public int getKerning(int char1, int char2) {
-        int metrics[] = getMetricsTT(char1);
-        if (metrics == null)
+        int c1 = getGlyphIndex(char1);
+        if (c1 < 0)
             return 0;
-        int c1 = metrics[0];
-        metrics = getMetricsTT(char2);
-        if (metrics == null)
+        int c2 = getGlyphIndex(char2);
+        if (c2 < 0)
             return 0;
-        int c2 = metrics[0];
         return kerning.get((c1 << 16) + c2);
     }
 
@@ -1042,10 +1239,16 @@ class TrueTypeFont extends BaseFont {
      */
     @Override
     int getRawWidth(int c, String name) {
-        int[] metric = getMetricsTT(c);
-        if (metric == null)
+        if (cmaps == null) {
+            int[] metric = getMetricsTT(c);
+            if (metric == null)
+                return 0;
+            return metric[1];
+        }
+        int glyph = getGlyphIndex(c);
+        if (glyph < 0)
             return 0;
-        return metric[1];
+        return getGlyphWidth(glyph);
     }
 
     /** Generates the font descriptor for this font.
@@ -1460,6 +1663,30 @@ class TrueTypeFont extends BaseFont {
         return null;
     }
 
+    /** Gets the glyph index for a character. It looks up the same map as
+     * {@link #getMetricsTT(int)} without boxing the character.
+     * @param c the character
+     * @return the glyph index or -1 if the character is not in the font
+     * @since 5.5.6
+     */
+    public int getGlyphIndex(int c) {
+        if (cmaps == null) {
+            int[] metric = getMetricsTT(c);
+            return metric == null ? -1 : metric[0];
+        }
+        if (cmapTableExt != null)
+            return cmapTableExt.getGlyph(c);
+        if (!fontSpecific && cmapTable31 != null)
+            return cmapTable31.getGlyph(c);
+        if (fontSpecific && cmapTable10 != null)
+            return cmapTable10.getGlyph(c);
+        if (cmapTable31 != null)
+            return cmapTable31.getGlyph(c);
+        if (cmapTable10 != null)
+            return cmapTable10.getGlyph(c);
+        return -1;
+    }
+
     /** Gets the postscript font name.
      * @return the postscript font name
      */
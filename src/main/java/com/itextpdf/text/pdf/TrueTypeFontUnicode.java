@@ -420,6 +420,31 @@ class TrueTypeFontUnicode extends TrueTypeFont implements Comparator<int[]>{
             return map.get(Integer.valueOf(c));
     }
 
+    /** Gets the glyph index for a character. It looks up the same map as
+     * {@link #getMetricsTT(int)} without boxing the character.
+     * @param c the character
+     * @return the glyph index or -1 if the character is not in the font
+     * @since 5.5.6
+     */
+    @Override
+    public int getGlyphIndex(int c) {
+        if (cmapTable10 == null && cmapTable31 == null && cmapTableExt == null)
+            return super.getGlyphIndex(c);
+        if (cmapTableExt != null)
+            return cmapTableExt.getGlyph(c);
+        CmapTable table = fontSpecific ? cmapTable10 : cmapTable31;
+        if (table == null)
+            return -1;
+        if (fontSpecific) {
+            if ((c & 0xffffff00) == 0 || (c & 0xffffff00) == 0xf000)
+                return table.getGlyph(c & 0xff);
+            else
+                return -1;
+        }
+        else
+            return table.getGlyph(c);
+    }
+
     /**
      * Checks if a character exists in this font.
      * @param c the character to check
@@ -440,9 +465,10 @@ class TrueTypeFontUnicode extends TrueTypeFont implements Comparator<int[]>{
      */
     @Override
     public boolean setCharAdvance(int c, int advance) {
-        int[] m = getMetricsTT(c);
-        if (m == null)
+        if (getMetricsTT(c) == null)
             return false;
+        unshareCMaps();
+        int[] m = getMetricsTT(c);
         m[1] = advance;
         return true;
     }
@@ -0,0 +1,309 @@
+/*
+ * $Id$
+ *
+ * This file is part of the iText (R) project.
+ * Copyright (c) 1998-2014 iText Group NV
+ * Authors: Bruno Lowagie, Paulo Soares, et al.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+ * OF THIRD PARTY RIGHTS
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * http://itextpdf.com/terms-of-use/
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * In accordance with Section 7(b) of the GNU Affero General Public License,
+ * a covered work must retain the producer line in every PDF that is created
+ * or manipulated using iText.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the iText software without
+ * disclosing the source code of your own applications.
+ * These activities include: offering paid services to customers as an ASP,
+ * serving PDFs on the fly in a web application, shipping iText with a closed
+ * source product.
+ *
+ * For more information, please contact iText Software Corp. at this
+ * address: sales@itextpdf.com
+ */
+package com.itextpdf.text.pdf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Keeps a bounded number of idle <CODE>Deflater</CODE> instances for each compression
+ * level, and of idle <CODE>Inflater</CODE> instances, so that the native zlib state is
+ * not created for every stream and left to the finalizer afterwards. It is used
+ * by the PDF streams, by <CODE>PdfReader</CODE> and by the image codecs.
+ * <P>
+ * A <CODE>Deflater</CODE> or <CODE>Inflater</CODE> taken from the pool must be given
+ * back exactly once and must not be used afterwards. An instance that failed in
+ * the middle of a stream should be ended instead of given back.
+ * @since 5.5.6
+ */
+public final class ZlibPool {
+
+    /** The default maximum number of idle instances kept for each kind and compression level. */
+    public static final int DEFAULT_MAX_IDLE = 16;
+
+    private static volatile int maxIdle = DEFAULT_MAX_IDLE;
+
+    private static final Idle<Deflater>[] deflaters = newDeflaterLevels();
+    private static final Idle<Inflater> inflaters = new Idle<Inflater>();
+
+    private static final AtomicLong deflatersCreated = new AtomicLong();
+    private static final AtomicLong deflatersReused = new AtomicLong();
+    private static final AtomicLong inflatersCreated = new AtomicLong();
+    private static final AtomicLong inflatersReused = new AtomicLong();
+
+    private static class Idle<T> {
+        final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<T>();
+        final AtomicInteger size = new AtomicInteger();
+
+        T poll() {
+            T t = queue.poll();
+            if (t != null)
+                size.decrementAndGet();
+            return t;
+        }
+
+        boolean offer(T t) {
+            if (size.incrementAndGet() > maxIdle) {
+                size.decrementAndGet();
+                return false;
+            }
+            queue.offer(t);
+            return true;
+        }
+    }
+
+    /**
+     * The default {@link FlateCompressor}, writing with pooled <CODE>Deflater</CODE> instances.
+     */
+    private static final FlateCompressor pooledCompressor = new FlateCompressor() {
+        public OutputStream createCompressionStream(OutputStream out, int compressionLevel) {
+            return new PooledDeflaterOutputStream(out, compressionLevel);
+        }
+    };
+
+    private ZlibPool() {
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Idle<Deflater>[] newDeflaterLevels() {
+        Idle<Deflater>[] levels = new Idle[11];
+        for (int k = 0; k < levels.length; ++k)
+            levels[k] = new Idle<Deflater>();
+        return levels;
+    }
+
+    private static Idle<Deflater> getLevel(int compressionLevel) {
+        if (compressionLevel < Deflater.DEFAULT_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)
+            return null;
+        return deflaters[compressionLevel + 1];
+    }
+
+    /**
+     * Gets a <CODE>Deflater</CODE> ready to compress a new stream.
+     * @param compressionLevel the compression level
+     * @return a <CODE>Deflater</CODE>
+     */
+    public static Deflater acquireDeflater(int compressionLevel) {
+        Idle<Deflater> level = getLevel(compressionLevel);
+        if (level != null) {
+            Deflater deflater = level.poll();
+            if (deflater != null) {
+                deflatersReused.incrementAndGet();
+                return deflater;
+            }
+        }
+        deflatersCreated.incrementAndGet();
+        return new Deflater(compressionLevel);
+    }
+
+    /**
+     * Gives back a <CODE>Deflater</CODE> obtained with {@link #acquireDeflater(int)}.
+     * It is ended if the pool is full.
+     * @param deflater the <CODE>Deflater</CODE>
+     * @param compressionLevel the compression level it was acquired with
+     */
+    public static void releaseDeflater(Deflater deflater, int compressionLevel) {
+        Idle<Deflater> level = getLevel(compressionLevel);
+        if (level != null) {
+            deflater.reset();
+            if (level.offer(deflater))
+                return;
+        }
+        deflater.end();
+    }
+
+    /**
+     * Gets an <CODE>Inflater</CODE> ready to decompress a new zlib stream.
+     * @return an <CODE>Inflater</CODE>
+     */
+    public static Inflater acquireInflater() {
+        Inflater inflater = inflaters.poll();
+        if (inflater != null) {
+            inflatersReused.incrementAndGet();
+            return inflater;
+        }
+        inflatersCreated.incrementAndGet();
+        return new Inflater();
+    }
+
+    /**
+     * Gives back an <CODE>Inflater</CODE> obtained with {@link #acquireInflater()}.
+     * It is ended if the pool is full.
+     * @param inflater the <CODE>Inflater</CODE>
+     */
+    public static void releaseInflater(Inflater inflater) {
+        inflater.reset();
+        if (!inflaters.offer(inflater))
+            inflater.end();
+    }
+
+    /**
+     * Gets the default {@link FlateCompressor}, that writes with the
+     * <CODE>Deflater</CODE> instances of this pool.
+     * @return the default compressor
+     */
+    public static FlateCompressor getPooledCompressor() {
+        return pooledCompressor;
+    }
+
+    /**
+     * Sets the maximum number of idle instances kept for each compression level
+     * and for the inflaters. Instances above the limit are ended when they are given back.
+     * @param max the maximum number of idle instances, 0 to end every instance
+     */
+    public static void setMaxIdle(int max) {
+        maxIdle = Math.max(max, 0);
+    }
+
+    /**
+     * Gets the maximum number of idle instances kept for each compression level
+     * and for the inflaters.
+     * @return the maximum number of idle instances
+     */
+    public static int getMaxIdle() {
+        return maxIdle;
+    }
+
+    /**
+     * Ends all the idle instances.
+     */
+    public static void clear() {
+        for (Idle<Deflater> level : deflaters) {
+            Deflater deflater;
+            while ((deflater = level.poll()) != null)
+                deflater.end();
+        }
+        Inflater inflater;
+        while ((inflater = inflaters.poll()) != null)
+            inflater.end();
+    }
+
+    /**
+     * Gets the number of <CODE>Deflater</CODE> instances created because the pool had none idle.
+     * @return the number of deflaters created
+     */
+    public static long getDeflatersCreated() {
+        return deflatersCreated.get();
+    }
+
+    /**
+     * Gets the number of times an idle <CODE>Deflater</CODE> was reused.
+     * @return the number of deflaters reused
+     */
+    public static long getDeflatersReused() {
+        return deflatersReused.get();
+    }
+
+    /**
+     * Gets the number of <CODE>Inflater</CODE> instances created because the pool had none idle.
+     * @return the number of inflaters created
+     */
+    public static long getInflatersCreated() {
+        return inflatersCreated.get();
+    }
+
+    /**
+     * Gets the number of times an idle <CODE>Inflater</CODE> was reused.
+     * @return the number of inflaters reused
+     */
+    public static long getInflatersReused() {
+        return inflatersReused.get();
+    }
+
+    /**
+     * Gets the number of idle <CODE>Deflater</CODE> instances, for all compression levels.
+     * @return the number of idle deflaters
+     */
+    public static int getIdleDeflaters() {
+        int n = 0;
+        for (Idle<Deflater> level : deflaters)
+            n += level.size.get();
+        return n;
+    }
+
+    /**
+     * Gets the number of idle <CODE>Inflater</CODE> instances.
+     * @return the number of idle inflaters
+     */
+    public static int getIdleInflaters() {
+        return inflaters.size.get();
+    }
+
+    /**
+     * A <CODE>DeflaterOutputStream</CODE> with a pooled <CODE>Deflater</CODE>. Closing it
+     * finishes the compressed data and gives back the <CODE>Deflater</CODE>, but doesn't
+     * close the underlying stream.
+     */
+    private static final class PooledDeflaterOutputStream extends DeflaterOutputStream {
+        private final int compressionLevel;
+        private boolean closed;
+
+        PooledDeflaterOutputStream(OutputStream out, int compressionLevel) {
+            super(out, acquireDeflater(compressionLevel), 8192);
+            this.compressionLevel = compressionLevel;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed)
+                return;
+            closed = true;
+            try {
+                finish();
+            }
+            catch (IOException e) {
+                def.end();
+                throw e;
+            }
+            releaseDeflater(def, compressionLevel);
+        }
+    }
+}
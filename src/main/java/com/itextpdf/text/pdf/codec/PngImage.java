@@ -113,6 +113,7 @@ import com.itextpdf.text.pdf.PdfNumber;
 import com.itextpdf.text.pdf.PdfObject;
 import com.itextpdf.text.pdf.PdfReader;
 import com.itextpdf.text.pdf.PdfString;
+import com.itextpdf.text.pdf.ZlibPool;
 
 /** Reads a PNG image. All types of PNG can be read.
  * <p>
@@ -643,22 +644,32 @@ public class PngImage {
         else if (genBWMask)
             smask = new byte[(width + 7) / 8 * height];
         ByteArrayInputStream bai = new ByteArrayInputStream(idat.getBuf(), 0, idat.size());
-        InputStream infStream = new InflaterInputStream(bai, new Inflater());
+        Inflater inflater = ZlibPool.acquireInflater();
+        InputStream infStream = new InflaterInputStream(bai, inflater);
         dataStream = new DataInputStream(infStream);
         
-        if (interlaceMethod != 1) {
-            decodePass(0, 0, 1, 1, width, height);
+        boolean decoded = false;
+        try {
+            if (interlaceMethod != 1) {
+                decodePass(0, 0, 1, 1, width, height);
+            }
+            else {
+                decodePass(0, 0, 8, 8, (width + 7)/8, (height + 7)/8);
+                decodePass(4, 0, 8, 8, (width + 3)/8, (height + 7)/8);
+                decodePass(0, 4, 4, 8, (width + 3)/4, (height + 3)/8);
+                decodePass(2, 0, 4, 4, (width + 1)/4, (height + 3)/4);
+                decodePass(0, 2, 2, 4, (width + 1)/2, (height + 1)/4);
+                decodePass(1, 0, 2, 2, width/2, (height + 1)/2);
+                decodePass(0, 1, 1, 2, width, height/2);
+            }
+            decoded = true;
         }
-        else {
-            decodePass(0, 0, 8, 8, (width + 7)/8, (height + 7)/8);
-            decodePass(4, 0, 8, 8, (width + 3)/8, (height + 7)/8);
-            decodePass(0, 4, 4, 8, (width + 3)/4, (height + 3)/8);
-            decodePass(2, 0, 4, 4, (width + 1)/4, (height + 3)/4);
-            decodePass(0, 2, 2, 4, (width + 1)/2, (height + 1)/4);
-            decodePass(1, 0, 2, 2, width/2, (height + 1)/2);
-            decodePass(0, 1, 1, 2, width, height/2);
+        finally {
+            if (decoded)
+                ZlibPool.releaseInflater(inflater);
+            else
+                inflater.end();
         }
-        
     }
     
     void decodePass( int xOffset, int yOffset,
@@ -46,10 +46,10 @@
 package com.itextpdf.text.pdf.codec;
 
 import com.itextpdf.text.DocWriter;
+import com.itextpdf.text.pdf.PdfStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.zip.DeflaterOutputStream;
 
 /**
  * Writes a PNG image.
@@ -93,7 +93,7 @@ public class PngWriter {
 
     public void writeData(byte[] data, final int stride) throws IOException {
         ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        DeflaterOutputStream zip = new DeflaterOutputStream(stream);
+        OutputStream zip = PdfStream.getFlateCompressor().createCompressionStream(stream, PdfStream.DEFAULT_COMPRESSION);
         int k;
         for (k = 0; k < data.length-stride; k += stride) {
             zip.write(0);
@@ -119,7 +119,7 @@ public class PngWriter {
         stream.write((byte)'C');
         stream.write(0);
         stream.write(0);
-        DeflaterOutputStream zip = new DeflaterOutputStream(stream);
+        OutputStream zip = PdfStream.getFlateCompressor().createCompressionStream(stream, PdfStream.DEFAULT_COMPRESSION);
         zip.write(data);
         zip.close();
         writeChunk(iCCP, stream.toByteArray());
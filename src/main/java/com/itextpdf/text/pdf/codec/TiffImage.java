@@ -54,13 +54,15 @@ import com.itextpdf.text.pdf.PdfArray;
 import com.itextpdf.text.pdf.PdfDictionary;
 import com.itextpdf.text.pdf.PdfName;
 import com.itextpdf.text.pdf.PdfNumber;
+import com.itextpdf.text.pdf.PdfStream;
 import com.itextpdf.text.pdf.PdfString;
 import com.itextpdf.text.pdf.RandomAccessFileOrArray;
+import com.itextpdf.text.pdf.ZlibPool;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.zip.DataFormatException;
-import java.util.zip.DeflaterOutputStream;
 import java.util.zip.Inflater;
 
 /** Reads TIFF images
@@ -420,11 +422,11 @@ public class TiffImage {
             int rowsLeft = h;
             ByteArrayOutputStream stream = null;
             ByteArrayOutputStream mstream = null;
-            DeflaterOutputStream zip = null;
-            DeflaterOutputStream mzip = null;
+            OutputStream zip = null;
+            OutputStream mzip = null;
             if (extraSamples > 0) {
                 mstream = new ByteArrayOutputStream();
-                mzip = new DeflaterOutputStream(mstream);
+                mzip = PdfStream.getFlateCompressor().createCompressionStream(mstream, PdfStream.DEFAULT_COMPRESSION);
             }
 
             CCITTG4Encoder g4 = null;
@@ -434,7 +436,7 @@ public class TiffImage {
             else {
                 stream = new ByteArrayOutputStream();
                 if (compression != TIFFConstants.COMPRESSION_OJPEG && compression != TIFFConstants.COMPRESSION_JPEG)
-                    zip = new DeflaterOutputStream(stream);
+                    zip = PdfStream.getFlateCompressor().createCompressionStream(stream, PdfStream.DEFAULT_COMPRESSION);
             }
             if (compression == TIFFConstants.COMPRESSION_OJPEG) {
                 
@@ -613,7 +615,7 @@ public class TiffImage {
         }
     }
 
-    static Image ProcessExtraSamples(DeflaterOutputStream zip, DeflaterOutputStream mzip, byte[] outBuf, int samplePerPixel, int bitsPerSample, int width, int height) throws IOException {
+    static Image ProcessExtraSamples(OutputStream zip, OutputStream mzip, byte[] outBuf, int samplePerPixel, int bitsPerSample, int width, int height) throws IOException {
         if (bitsPerSample == 8) {
             byte[] mask = new byte[width * height];
             int mptr = 0;
@@ -681,14 +683,16 @@ public class TiffImage {
     }
 
     public static void inflate(byte[] deflated, byte[] inflated) {
-        Inflater inflater = new Inflater();
+        Inflater inflater = ZlibPool.acquireInflater();
         inflater.setInput(deflated);
         try {
             inflater.inflate(inflated);
         }
         catch(DataFormatException dfe) {
+            inflater.end();
             throw new ExceptionConverter(dfe);
         }
+        ZlibPool.releaseInflater(inflater);
     }
 
     public static void applyPredictor(byte[] uncompData, int predictor, int w, int h, int samplesPerPixel) {
@@ -44,6 +44,10 @@
  */
 package com.itextpdf.text.pdf.fonts.cmaps;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import com.itextpdf.text.pdf.PdfArray;
 import com.itextpdf.text.pdf.PdfEncodings;
 import com.itextpdf.text.pdf.PdfNumber;
@@ -94,6 +98,36 @@ public abstract class AbstractCMap {
     }
 
     abstract void addChar(PdfString mark, PdfObject code);
+
+    /**
+     * Writes the name, registry, ordering and supplement in binary form.
+     */
+    void writeInfo(DataOutputStream out) throws IOException {
+        writeNullableString(out, cmapName);
+        writeNullableString(out, registry);
+        writeNullableString(out, ordering);
+        out.writeInt(supplement);
+    }
+
+    /**
+     * Reads the name, registry, ordering and supplement written by <CODE>writeInfo</CODE>.
+     */
+    void readInfo(DataInputStream in) throws IOException {
+        cmapName = readNullableString(in);
+        registry = readNullableString(in);
+        ordering = readNullableString(in);
+        supplement = in.readInt();
+    }
+
+    private static void writeNullableString(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null)
+            out.writeUTF(s);
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
     
     void addRange(PdfString from, PdfString to, PdfObject code) {
         byte[] a1 = decodeStringToByte(from);
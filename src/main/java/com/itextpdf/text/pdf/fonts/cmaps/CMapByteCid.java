@@ -48,6 +48,9 @@ import com.itextpdf.text.error_messages.MessageLocalization;
 import com.itextpdf.text.pdf.PdfNumber;
 import com.itextpdf.text.pdf.PdfObject;
 import com.itextpdf.text.pdf.PdfString;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 
 public class CMapByteCid extends AbstractCMap {
@@ -118,4 +121,25 @@ public class CMapByteCid extends AbstractCMap {
         }
         return sb.toString();
     }
+
+    void write(DataOutputStream out) throws IOException {
+        writeInfo(out);
+        out.writeInt(planes.size());
+        for (char[] plane : planes) {
+            for (char c : plane)
+                out.writeChar(c);
+        }
+    }
+
+    void read(DataInputStream in) throws IOException {
+        readInfo(in);
+        int size = in.readInt();
+        planes.clear();
+        for (int k = 0; k < size; ++k) {
+            char[] plane = new char[256];
+            for (int j = 0; j < plane.length; ++j)
+                plane[j] = in.readChar();
+            planes.add(plane);
+        }
+    }
 }
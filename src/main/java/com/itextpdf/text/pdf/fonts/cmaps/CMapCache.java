@@ -44,76 +44,247 @@
  */
 package com.itextpdf.text.pdf.fonts.cmaps;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import com.itextpdf.text.ExceptionConverter;
 
 /**
- *
+ * Caches the CMaps read from the resources. Each CMap is parsed only once,
+ * even if several threads ask for it at the same time. The cache can be
+ * saved in a compact binary form with {@link #writeCache(OutputStream)} and
+ * filled from it with {@link #readCache(InputStream)}, avoiding the parsing
+ * of the CMap resources.
  * @author psoares
  */
 public class CMapCache {
-    private static final HashMap<String,CMapUniCid> cacheUniCid = new HashMap<String,CMapUniCid>();
-    private static final HashMap<String,CMapCidUni> cacheCidUni = new HashMap<String,CMapCidUni>();
-    private static final HashMap<String,CMapCidByte> cacheCidByte = new HashMap<String,CMapCidByte>();
-    private static final HashMap<String,CMapByteCid> cacheByteCid = new HashMap<String,CMapByteCid>();
+    private static final int TYPE_UNI_CID = 0;
+    private static final int TYPE_CID_UNI = 1;
+    private static final int TYPE_CID_BYTE = 2;
+    private static final int TYPE_BYTE_CID = 3;
+
+    private static final int MAGIC = 0x434d4331; // CMC1
+
+    private static final ConcurrentHashMap<String,FutureTask<CMapUniCid>> cacheUniCid = new ConcurrentHashMap<String,FutureTask<CMapUniCid>>();
+    private static final ConcurrentHashMap<String,FutureTask<CMapCidUni>> cacheCidUni = new ConcurrentHashMap<String,FutureTask<CMapCidUni>>();
+    private static final ConcurrentHashMap<String,FutureTask<CMapCidByte>> cacheCidByte = new ConcurrentHashMap<String,FutureTask<CMapCidByte>>();
+    private static final ConcurrentHashMap<String,FutureTask<CMapByteCid>> cacheByteCid = new ConcurrentHashMap<String,FutureTask<CMapByteCid>>();
     
-    public static CMapUniCid getCachedCMapUniCid(String name) throws IOException {
-        CMapUniCid cmap = null;
-        synchronized (cacheUniCid) {
-            cmap = cacheUniCid.get(name);
-        }
-        if (cmap == null) {
-            cmap = new CMapUniCid();
-            CMapParserEx.parseCid(name, cmap, new CidResource());
-            synchronized (cacheUniCid) {
-                cacheUniCid.put(name, cmap);
+    public static CMapUniCid getCachedCMapUniCid(final String name) throws IOException {
+        return getCached(cacheUniCid, name, new Callable<CMapUniCid>() {
+            public CMapUniCid call() throws IOException {
+                CMapUniCid cmap = new CMapUniCid();
+                CMapParserEx.parseCid(name, cmap, new CidResource());
+                return cmap;
             }
-        }
-        return cmap;
+        });
     }
     
-    public static CMapCidUni getCachedCMapCidUni(String name) throws IOException {
-        CMapCidUni cmap = null;
-        synchronized (cacheCidUni) {
-            cmap = cacheCidUni.get(name);
-        }
-        if (cmap == null) {
-            cmap = new CMapCidUni();
-            CMapParserEx.parseCid(name, cmap, new CidResource());
-            synchronized (cacheCidUni) {
-                cacheCidUni.put(name, cmap);
+    public static CMapCidUni getCachedCMapCidUni(final String name) throws IOException {
+        return getCached(cacheCidUni, name, new Callable<CMapCidUni>() {
+            public CMapCidUni call() throws IOException {
+                CMapCidUni cmap = new CMapCidUni();
+                CMapParserEx.parseCid(name, cmap, new CidResource());
+                return cmap;
             }
-        }
-        return cmap;
+        });
+    }
+    
+    public static CMapCidByte getCachedCMapCidByte(final String name) throws IOException {
+        return getCached(cacheCidByte, name, new Callable<CMapCidByte>() {
+            public CMapCidByte call() throws IOException {
+                CMapCidByte cmap = new CMapCidByte();
+                CMapParserEx.parseCid(name, cmap, new CidResource());
+                return cmap;
+            }
+        });
     }
     
-    public static CMapCidByte getCachedCMapCidByte(String name) throws IOException {
-        CMapCidByte cmap = null;
-        synchronized (cacheCidByte) {
-            cmap = cacheCidByte.get(name);
+    public static CMapByteCid getCachedCMapByteCid(final String name) throws IOException {
+        return getCached(cacheByteCid, name, new Callable<CMapByteCid>() {
+            public CMapByteCid call() throws IOException {
+                CMapByteCid cmap = new CMapByteCid();
+                CMapParserEx.parseCid(name, cmap, new CidResource());
+                return cmap;
+            }
+        });
+    }
+
+    /**
+     * Writes all the CMaps already parsed to <CODE>os</CODE> in a binary form
+     * that can be read back with {@link #readCache(InputStream)}. The stream is not closed.
+     * @param os the stream to write to
+     * @throws IOException on error
+     * @since 5.5.6
+     */
+    public static void writeCache(OutputStream os) throws IOException {
+        ArrayList<String> names = new ArrayList<String>();
+        ArrayList<AbstractCMap> cmaps = new ArrayList<AbstractCMap>();
+        collectDone(cacheUniCid, names, cmaps);
+        collectDone(cacheCidUni, names, cmaps);
+        collectDone(cacheCidByte, names, cmaps);
+        collectDone(cacheByteCid, names, cmaps);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os));
+        out.writeInt(MAGIC);
+        out.writeInt(cmaps.size());
+        for (int k = 0; k < cmaps.size(); ++k) {
+            AbstractCMap cmap = cmaps.get(k);
+            if (cmap instanceof CMapUniCid) {
+                writeEntry(out, TYPE_UNI_CID, names.get(k));
+                ((CMapUniCid)cmap).write(out);
+            }
+            else if (cmap instanceof CMapCidUni) {
+                writeEntry(out, TYPE_CID_UNI, names.get(k));
+                ((CMapCidUni)cmap).write(out);
+            }
+            else if (cmap instanceof CMapCidByte) {
+                writeEntry(out, TYPE_CID_BYTE, names.get(k));
+                ((CMapCidByte)cmap).write(out);
+            }
+            else {
+                writeEntry(out, TYPE_BYTE_CID, names.get(k));
+                ((CMapByteCid)cmap).write(out);
+            }
         }
-        if (cmap == null) {
-            cmap = new CMapCidByte();
-            CMapParserEx.parseCid(name, cmap, new CidResource());
-            synchronized (cacheCidByte) {
-                cacheCidByte.put(name, cmap);
+        out.flush();
+    }
+
+    /**
+     * Fills the cache with the CMaps written by {@link #writeCache(OutputStream)}.
+     * The CMaps already in the cache are kept. The stream is not closed.
+     * @param is the stream to read from
+     * @throws IOException on error or if the data is not a cache
+     * @since 5.5.6
+     */
+    public static void readCache(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+        if (in.readInt() != MAGIC)
+            throw new IOException("Invalid CMap cache.");
+        int count = in.readInt();
+        for (int k = 0; k < count; ++k) {
+            int type = in.readUnsignedByte();
+            String name = in.readUTF();
+            switch (type) {
+                case TYPE_UNI_CID: {
+                    CMapUniCid cmap = new CMapUniCid();
+                    cmap.read(in);
+                    putDone(cacheUniCid, name, cmap);
+                    break;
+                }
+                case TYPE_CID_UNI: {
+                    CMapCidUni cmap = new CMapCidUni();
+                    cmap.read(in);
+                    putDone(cacheCidUni, name, cmap);
+                    break;
+                }
+                case TYPE_CID_BYTE: {
+                    CMapCidByte cmap = new CMapCidByte();
+                    cmap.read(in);
+                    putDone(cacheCidByte, name, cmap);
+                    break;
+                }
+                case TYPE_BYTE_CID: {
+                    CMapByteCid cmap = new CMapByteCid();
+                    cmap.read(in);
+                    putDone(cacheByteCid, name, cmap);
+                    break;
+                }
+                default:
+                    throw new IOException("Invalid CMap cache.");
             }
         }
-        return cmap;
     }
-    
-    public static CMapByteCid getCachedCMapByteCid(String name) throws IOException {
-        CMapByteCid cmap = null;
-        synchronized (cacheByteCid) {
-            cmap = cacheByteCid.get(name);
+
+    /**
+     * Removes all the CMaps from the cache.
+     * @since 5.5.6
+     */
+    public static void clear() {
+        cacheUniCid.clear();
+        cacheCidUni.clear();
+        cacheCidByte.clear();
+        cacheByteCid.clear();
+    }
+
+    private static <T> T getCached(ConcurrentHashMap<String,FutureTask<T>> cache, String name, Callable<T> parser) throws IOException {
+        FutureTask<T> task = cache.get(name);
+        if (task == null) {
+            FutureTask<T> created = new FutureTask<T>(parser);
+            task = cache.putIfAbsent(name, created);
+            if (task == null) {
+                task = created;
+                task.run();
+            }
         }
-        if (cmap == null) {
-            cmap = new CMapByteCid();
-            CMapParserEx.parseCid(name, cmap, new CidResource());
-            synchronized (cacheByteCid) {
-                cacheByteCid.put(name, cmap);
+        try {
+            return task.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExceptionConverter(e);
+        }
+        catch (ExecutionException e) {
+            // don't keep the failure, the next request will try again
+            cache.remove(name, task);
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException)cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException)cause;
+            if (cause instanceof Error)
+                throw (Error)cause;
+            throw new ExceptionConverter(e);
+        }
+    }
+
+    private static <T> void putDone(ConcurrentHashMap<String,FutureTask<T>> cache, String name, final T cmap) {
+        FutureTask<T> task = new FutureTask<T>(new Callable<T>() {
+            public T call() {
+                return cmap;
             }
+        });
+        task.run();
+        cache.putIfAbsent(name, task);
+    }
+
+    /**
+     * Gets the CMap of a task that completed without errors.
+     * @return the CMap or <CODE>null</CODE> if it's still being parsed or the parsing failed
+     */
+    private static <T> T getDone(FutureTask<T> task) {
+        if (!task.isDone())
+            return null;
+        try {
+            return task.get();
+        }
+        catch (Exception e) {
+            return null;
         }
-        return cmap;
+    }
+
+    private static <T extends AbstractCMap> void collectDone(ConcurrentHashMap<String,FutureTask<T>> cache, ArrayList<String> names, ArrayList<AbstractCMap> cmaps) {
+        for (Map.Entry<String,FutureTask<T>> entry : cache.entrySet()) {
+            T cmap = getDone(entry.getValue());
+            if (cmap != null) {
+                names.add(entry.getKey());
+                cmaps.add(cmap);
+            }
+        }
+    }
+
+    private static void writeEntry(DataOutputStream out, int type, String name) throws IOException {
+        out.writeByte(type);
+        out.writeUTF(name);
     }
 }
@@ -47,7 +47,11 @@ package com.itextpdf.text.pdf.fonts.cmaps;
 import com.itextpdf.text.pdf.PdfNumber;
 import com.itextpdf.text.pdf.PdfObject;
 import com.itextpdf.text.pdf.PdfString;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.Map;
 
 public class CMapCidByte extends AbstractCMap {
     private HashMap<Integer,byte[]> map = new HashMap<Integer,byte[]>();
@@ -68,4 +72,26 @@ public class CMapCidByte extends AbstractCMap {
         else
             return ser;
     }
+
+    void write(DataOutputStream out) throws IOException {
+        writeInfo(out);
+        out.writeInt(map.size());
+        for (Map.Entry<Integer,byte[]> entry : map.entrySet()) {
+            out.writeInt(entry.getKey().intValue());
+            byte[] ser = entry.getValue();
+            out.writeShort(ser.length);
+            out.write(ser);
+        }
+    }
+
+    void read(DataInputStream in) throws IOException {
+        readInfo(in);
+        int size = in.readInt();
+        for (int k = 0; k < size; ++k) {
+            int cid = in.readInt();
+            byte[] ser = new byte[in.readUnsignedShort()];
+            in.readFully(ser);
+            map.put(Integer.valueOf(cid), ser);
+        }
+    }
 }
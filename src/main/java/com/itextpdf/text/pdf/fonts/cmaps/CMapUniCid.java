@@ -44,6 +44,10 @@
  */
 package com.itextpdf.text.pdf.fonts.cmaps;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import com.itextpdf.text.Utilities;
 import com.itextpdf.text.pdf.IntHashtable;
 import com.itextpdf.text.pdf.PdfNumber;
@@ -73,6 +77,25 @@ public class CMapUniCid extends AbstractCMap {
     public int lookup(int character) {
         return map.get(character);
     }
+
+    void write(DataOutputStream out) throws IOException {
+        writeInfo(out);
+        int[] keys = map.getKeys();
+        out.writeInt(keys.length);
+        for (int key : keys) {
+            out.writeInt(key);
+            out.writeInt(map.get(key));
+        }
+    }
+
+    void read(DataInputStream in) throws IOException {
+        readInfo(in);
+        int size = in.readInt();
+        for (int k = 0; k < size; ++k) {
+            int key = in.readInt();
+            map.put(key, in.readInt());
+        }
+    }
     
     public CMapToUnicode exportToUnicode() {
         CMapToUnicode uni = new CMapToUnicode();
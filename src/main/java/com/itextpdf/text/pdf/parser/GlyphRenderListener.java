@@ -44,13 +44,36 @@
  */
 package com.itextpdf.text.pdf.parser;
 
+import java.util.Iterator;
 
+/**
+ * A render listener that splits each text render operation into its glyphs and
+ * passes them one at a time to a delegate listener.
+ */
 public class GlyphRenderListener implements RenderListener {
 
     private final RenderListener delegate;
 
+    /** true if the delegate receives one reused {@link TextRenderInfo} for all the glyphs of an operation */
+    private final boolean reuseGlyphInfo;
+
     public GlyphRenderListener(RenderListener delegate) {
+        this(delegate, false);
+    }
+
+    /**
+     * Creates a listener that can pass the glyphs of an operation to its delegate
+     * in one reused {@link TextRenderInfo} instead of a new one per glyph.
+     * A delegate that gets the reused instance must not keep it after
+     * {@link RenderListener#renderText(TextRenderInfo)} returns.
+     * @param delegate the listener that receives the glyphs
+     * @param reuseGlyphInfo true to reuse one {@link TextRenderInfo} for the glyphs,
+     *        see {@link TextRenderInfo#getCharacterRenderInfoIterator()}
+     * @since 5.5.6
+     */
+    public GlyphRenderListener(RenderListener delegate, boolean reuseGlyphInfo) {
         this.delegate = delegate;
+        this.reuseGlyphInfo = reuseGlyphInfo;
     }
 
     public void beginTextBlock() {
@@ -58,8 +81,14 @@ public class GlyphRenderListener implements RenderListener {
     }
 
     public void renderText(TextRenderInfo renderInfo) {
-        for (TextRenderInfo glyphInfo : renderInfo.getCharacterRenderInfos())
-            delegate.renderText(glyphInfo);
+        if (reuseGlyphInfo) {
+            for (Iterator<TextRenderInfo> glyphs = renderInfo.getCharacterRenderInfoIterator(); glyphs.hasNext(); )
+                delegate.renderText(glyphs.next());
+        }
+        else {
+            for (TextRenderInfo glyphInfo : renderInfo.getCharacterRenderInfos())
+                delegate.renderText(glyphInfo);
+        }
     }
 
     public void endTextBlock() {
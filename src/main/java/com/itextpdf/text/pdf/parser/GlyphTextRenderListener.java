@@ -53,6 +53,17 @@ public class GlyphTextRenderListener extends GlyphRenderListener implements Text
         this.delegate = delegate;
     }
 
+    /**
+     * @param delegate the strategy that receives the glyphs
+     * @param reuseGlyphInfo true to pass the glyphs of an operation in one reused {@link TextRenderInfo},
+     *        see {@link GlyphRenderListener#GlyphRenderListener(RenderListener, boolean)}
+     * @since 5.5.6
+     */
+    public GlyphTextRenderListener(TextExtractionStrategy delegate, boolean reuseGlyphInfo) {
+        super(delegate, reuseGlyphInfo);
+        this.delegate = delegate;
+    }
+
     public String getResultantText() {
         return delegate.getResultantText();
     }
@@ -46,9 +46,12 @@ package com.itextpdf.text.pdf.parser;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 
+import com.itextpdf.awt.geom.Rectangle2D;
+
 
 /**
  * <b>Development preview</b> - this class (and all of the parser classes) are still experiencing
@@ -66,6 +69,11 @@ import java.util.List;
  * <br>
  * This renderer also uses a simple strategy based on the font metrics to determine if
  * a blank space should be inserted into the output.
+ * <br>
+ * The chunks are indexed by line as they are rendered, so only the lines and the
+ * chunks of a line that were not rendered in order are sorted, and only once.
+ * The text can be asked for several times, for example for different regions of the
+ * page with a {@link RegionTextRenderFilter}, and the lines outside the region are skipped.
  *
  * @since   5.0.2
  */
@@ -74,8 +82,14 @@ public class LocationTextExtractionStrategy implements TextExtractionStrategy {
     /** set to true for debugging */
     static boolean DUMP_STATE = false;
     
-    /** a summary of all found text */
-    private final List<TextChunk> locationalResult = new ArrayList<TextChunk>();
+    /** the lines of text found so far, by orientation and perpendicular distance */
+    private final HashMap<LineKey, TextLine> lineIndex = new HashMap<LineKey, TextLine>();
+    /** the lines of text found so far, in order once <CODE>linesSorted</CODE> is true */
+    private final List<TextLine> lines = new ArrayList<TextLine>();
+    /** true if <CODE>lines</CODE> is in order */
+    private boolean linesSorted = true;
+    /** used to look for the line of a chunk without creating a key */
+    private final LineKey searchKey = new LineKey(0, 0);
 
     /**
      * Creates a new text extraction renderer.
@@ -113,25 +127,6 @@ public class LocationTextExtractionStrategy implements TextExtractionStrategy {
         return str.charAt(str.length()-1) == ' ';
     }
 
-    /**
-     * Filters the provided list with the provided filter
-     * @param textChunks a list of all TextChunks that this strategy found during processing
-     * @param filter the filter to apply.  If null, filtering will be skipped.
-     * @return the filtered list
-     * @since 5.3.3
-     */
-    private List<TextChunk> filterTextChunks(List<TextChunk> textChunks, TextChunkFilter filter){
-    	if (filter == null)
-    		return textChunks;
-    	
-    	List<TextChunk> filtered = new ArrayList<TextChunk>();
-    	for (TextChunk textChunk : textChunks) {
-			if (filter.accept(textChunk))
-				filtered.add(textChunk);
-		}
-    	return filtered;
-    }
-    
     /**
      * Determines if a space character should be inserted between a previous chunk and the current chunk.
      * This method is exposed as a callback so subclasses can fine time the algorithm for determining whether a space should be inserted or not.
@@ -174,28 +169,38 @@ public class LocationTextExtractionStrategy implements TextExtractionStrategy {
     public String getResultantText(TextChunkFilter chunkFilter){
         if (DUMP_STATE) dumpState();
         
-        List<TextChunk> filteredTextChunks = filterTextChunks(locationalResult, chunkFilter);
-    	Collections.sort(filteredTextChunks);
+        if (!linesSorted) {
+            Collections.sort(lines, LINE_ORDER);
+            linesSorted = true;
+        }
+        Rectangle2D region = chunkFilter instanceof RegionTextRenderFilter ? ((RegionTextRenderFilter)chunkFilter).getFilterRect() : null;
 
         StringBuffer sb = new StringBuffer();
         TextChunk lastChunk = null;
-        for (TextChunk chunk : filteredTextChunks) {
-
-            if (lastChunk == null){
-                sb.append(chunk.text);
-            } else {
-                if (chunk.sameLine(lastChunk)){
-                    // we only insert a blank space if the trailing character of the previous string wasn't a space, and the leading character of the current string isn't a space
-                    if (isChunkAtWordBoundary(chunk, lastChunk) && !startsWithSpace(chunk.text) && !endsWithSpace(lastChunk.text))
-                        sb.append(' ');
-                    
+        for (TextLine line : lines) {
+            if (region != null && !line.mayIntersect(region))
+                continue;
+            line.sort();
+            for (TextChunk chunk : line.chunks) {
+                if (chunkFilter != null && !chunkFilter.accept(chunk))
+                    continue;
+
+                if (lastChunk == null){
                     sb.append(chunk.text);
                 } else {
-                    sb.append('\n');
-                    sb.append(chunk.text);
+                    if (chunk.sameLine(lastChunk)){
+                        // we only insert a blank space if the trailing character of the previous string wasn't a space, and the leading character of the current string isn't a space
+                        if (isChunkAtWordBoundary(chunk, lastChunk) && !startsWithSpace(chunk.text) && !endsWithSpace(lastChunk.text))
+                            sb.append(' ');
+                        
+                        sb.append(chunk.text);
+                    } else {
+                        sb.append('\n');
+                        sb.append(chunk.text);
+                    }
                 }
+                lastChunk = chunk;
             }
-            lastChunk = chunk;
         }
 
         return sb.toString();    	
@@ -213,12 +218,12 @@ public class LocationTextExtractionStrategy implements TextExtractionStrategy {
     
     /** Used for debugging only */
     private void dumpState(){
-        for (Iterator<TextChunk> iterator = locationalResult.iterator(); iterator.hasNext(); ) {
-            TextChunk location = (TextChunk) iterator.next();
-            
-            location.printDiagnostics();
-            
-            System.out.println();
+        for (TextLine line : lines) {
+            for (TextChunk location : line.chunks) {
+                location.printDiagnostics();
+                
+                System.out.println();
+            }
         }
         
     }
@@ -234,7 +239,117 @@ public class LocationTextExtractionStrategy implements TextExtractionStrategy {
 	    	segment = segment.transformBy(riseOffsetTransform);
     	}
         TextChunk location = new TextChunk(renderInfo.getText(), segment.getStartPoint(), segment.getEndPoint(), renderInfo.getSingleSpaceWidth());
-        locationalResult.add(location);        
+        addChunk(location);
+    }
+
+    /**
+     * Adds a chunk to the line with the same orientation and perpendicular distance.
+     * @param chunk the chunk
+     */
+    private void addChunk(TextChunk chunk) {
+        searchKey.orientationMagnitude = chunk.orientationMagnitude;
+        searchKey.distPerpendicular = chunk.distPerpendicular;
+        TextLine line = lineIndex.get(searchKey);
+        if (line == null) {
+            line = new TextLine(chunk);
+            lineIndex.put(new LineKey(chunk.orientationMagnitude, chunk.distPerpendicular), line);
+            if (linesSorted && !lines.isEmpty() && LINE_ORDER.compare(lines.get(lines.size() - 1), line) > 0)
+                linesSorted = false;
+            lines.add(line);
+        }
+        line.add(chunk);
+    }
+
+    /** Orders the lines by orientation, then perpendicular distance. */
+    private static final Comparator<TextLine> LINE_ORDER = new Comparator<TextLine>() {
+        public int compare(TextLine l1, TextLine l2) {
+            int rslt = TextChunk.compareInts(l1.orientationMagnitude, l2.orientationMagnitude);
+            if (rslt != 0) return rslt;
+            return TextChunk.compareInts(l1.distPerpendicular, l2.distPerpendicular);
+        }
+    };
+
+    /**
+     * The orientation and perpendicular distance shared by the chunks of a line.
+     */
+    private static final class LineKey {
+        int orientationMagnitude;
+        int distPerpendicular;
+
+        LineKey(int orientationMagnitude, int distPerpendicular) {
+            this.orientationMagnitude = orientationMagnitude;
+            this.distPerpendicular = distPerpendicular;
+        }
+
+        @Override
+        public int hashCode() {
+            return orientationMagnitude * 31 + distPerpendicular;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof LineKey))
+                return false;
+            LineKey other = (LineKey)obj;
+            return orientationMagnitude == other.orientationMagnitude && distPerpendicular == other.distPerpendicular;
+        }
+    }
+
+    /**
+     * The chunks on the same line, with the bounds of their baselines. The chunks are
+     * kept in the order they were rendered and sorted only if they were rendered out of order.
+     */
+    private static final class TextLine {
+        final int orientationMagnitude;
+        final int distPerpendicular;
+        final ArrayList<TextChunk> chunks = new ArrayList<TextChunk>(4);
+        /** true if <CODE>chunks</CODE> is in order */
+        boolean sorted = true;
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+
+        TextLine(TextChunk first) {
+            orientationMagnitude = first.orientationMagnitude;
+            distPerpendicular = first.distPerpendicular;
+        }
+
+        void add(TextChunk chunk) {
+            if (sorted && !chunks.isEmpty() && Float.compare(chunks.get(chunks.size() - 1).distParallelStart, chunk.distParallelStart) > 0)
+                sorted = false;
+            chunks.add(chunk);
+            include(chunk.startLocation);
+            include(chunk.endLocation);
+        }
+
+        private void include(Vector point) {
+            float x = point.get(Vector.I1);
+            float y = point.get(Vector.I2);
+            if (x < minX) minX = x;
+            if (x > maxX) maxX = x;
+            if (y < minY) minY = y;
+            if (y > maxY) maxY = y;
+        }
+
+        /**
+         * Sorts the chunks by parallel distance if needed. The sort is stable, like the
+         * sort of all the chunks of the page would be.
+         */
+        void sort() {
+            if (!sorted) {
+                Collections.sort(chunks);
+                sorted = true;
+            }
+        }
+
+        /**
+         * @param region the region
+         * @return false if no chunk of the line can intersect the region
+         */
+        boolean mayIntersect(Rectangle2D region) {
+            return maxX >= region.getMinX() && minX <= region.getMaxX() && maxY >= region.getMinY() && minY <= region.getMaxY();
+        }
     }
     
 
@@ -249,8 +364,6 @@ public class LocationTextExtractionStrategy implements TextExtractionStrategy {
         private final Vector startLocation;
         /** the ending location of the chunk */
         private final Vector endLocation;
-        /** unit vector in the orientation of the chunk */
-        private final Vector orientationVector;
         /** the orientation as a scalar for quick sorting */
         private final int orientationMagnitude;
         /** perpendicular distance to the orientation unit vector (i.e. the Y position in an unrotated coordinate system)
@@ -269,21 +382,37 @@ public class LocationTextExtractionStrategy implements TextExtractionStrategy {
             this.endLocation = endLocation;
             this.charSpaceWidth = charSpaceWidth;
             
-            Vector oVector = endLocation.subtract(startLocation);
-            if (oVector.length() == 0) {
-            	oVector = new Vector(1, 0, 0);
+            // the vector math is done on floats, with the same operations as the Vector methods
+            float sx = startLocation.get(Vector.I1);
+            float sy = startLocation.get(Vector.I2);
+            float sz = startLocation.get(Vector.I3);
+            float ex = endLocation.get(Vector.I1);
+            float ey = endLocation.get(Vector.I2);
+            float ez = endLocation.get(Vector.I3);
+
+            // unit vector in the orientation of the chunk
+            float ox = ex - sx;
+            float oy = ey - sy;
+            float oz = ez - sz;
+            if ((float)Math.sqrt(ox*ox + oy*oy + oz*oz) == 0) {
+                ox = 1;
+                oy = 0;
+                oz = 0;
             }
-            orientationVector = oVector.normalize();
-            orientationMagnitude = (int)(Math.atan2(orientationVector.get(Vector.I2), orientationVector.get(Vector.I1))*1000);
+            float l = (float)Math.sqrt(ox*ox + oy*oy + oz*oz);
+            ox = ox/l;
+            oy = oy/l;
+            oz = oz/l;
+            orientationMagnitude = (int)(Math.atan2(oy, ox)*1000);
 
             // see http://mathworld.wolfram.com/Point-LineDistance2-Dimensional.html
             // the two vectors we are crossing are in the same plane, so the result will be purely
             // in the z-axis (out of plane) direction, so we just take the I3 component of the result
-            Vector origin = new Vector(0,0,1);
-            distPerpendicular = (int)(startLocation.subtract(origin)).cross(orientationVector).get(Vector.I3);
+            // (the start location minus the origin (0,0,1) crossed with the orientation vector)
+            distPerpendicular = (int)((sx - 0)*oy - (sy - 0)*ox);
 
-            distParallelStart = orientationVector.dot(startLocation);
-            distParallelEnd = orientationVector.dot(endLocation);
+            distParallelStart = ox*sx + oy*sy + oz*sz;
+            distParallelEnd = ox*ex + oy*ey + oz*ez;
         }
 
         /**
@@ -366,7 +495,7 @@ public class LocationTextExtractionStrategy implements TextExtractionStrategy {
          * @param int2
          * @return comparison of the two integers
          */
-        private static int compareInts(int int1, int int2){
+        static int compareInts(int int1, int int2){
             return int1 == int2 ? 0 : int1 < int2 ? -1 : 1;
         }
 
@@ -143,23 +143,82 @@ public class Matrix {
      * @return	the resulting matrix
      */
     public Matrix multiply(Matrix by){
-        Matrix rslt = new Matrix();
-        
-        float[] a = vals;
-        float[] b = by.vals;
-        float[] c = rslt.vals;
+        return new Matrix().setToProduct(this, by);
+    }
+
+    /**
+     * Sets this matrix to the product of two matrices, in place. The operands
+     * may be this matrix. Only used on matrices that are not shared, the
+     * matrices given to the listeners are never changed.
+     * @param a the left operand
+     * @param b the right operand
+     * @return this matrix
+     * @since 5.5.6
+     */
+    Matrix setToProduct(Matrix a, Matrix b){
+        float[] x = a.vals;
+        float[] y = b.vals;
         
-        c[I11] = a[I11]*b[I11] + a[I12]*b[I21] + a[I13]*b[I31];  
-        c[I12] = a[I11]*b[I12] + a[I12]*b[I22] + a[I13]*b[I32]; 
-        c[I13] = a[I11]*b[I13] + a[I12]*b[I23] + a[I13]*b[I33]; 
-        c[I21] = a[I21]*b[I11] + a[I22]*b[I21] + a[I23]*b[I31];  
-        c[I22] = a[I21]*b[I12] + a[I22]*b[I22] + a[I23]*b[I32]; 
-        c[I23] = a[I21]*b[I13] + a[I22]*b[I23] + a[I23]*b[I33]; 
-        c[I31] = a[I31]*b[I11] + a[I32]*b[I21] + a[I33]*b[I31];  
-        c[I32] = a[I31]*b[I12] + a[I32]*b[I22] + a[I33]*b[I32]; 
-        c[I33] = a[I31]*b[I13] + a[I32]*b[I23] + a[I33]*b[I33]; 
+        float c11 = x[I11]*y[I11] + x[I12]*y[I21] + x[I13]*y[I31];  
+        float c12 = x[I11]*y[I12] + x[I12]*y[I22] + x[I13]*y[I32]; 
+        float c13 = x[I11]*y[I13] + x[I12]*y[I23] + x[I13]*y[I33]; 
+        float c21 = x[I21]*y[I11] + x[I22]*y[I21] + x[I23]*y[I31];  
+        float c22 = x[I21]*y[I12] + x[I22]*y[I22] + x[I23]*y[I32]; 
+        float c23 = x[I21]*y[I13] + x[I22]*y[I23] + x[I23]*y[I33]; 
+        float c31 = x[I31]*y[I11] + x[I32]*y[I21] + x[I33]*y[I31];  
+        float c32 = x[I31]*y[I12] + x[I32]*y[I22] + x[I33]*y[I32]; 
+        float c33 = x[I31]*y[I13] + x[I32]*y[I23] + x[I33]*y[I33]; 
         
-        return rslt;
+        float[] c = vals;
+        c[I11] = c11;
+        c[I12] = c12;
+        c[I13] = c13;
+        c[I21] = c21;
+        c[I22] = c22;
+        c[I23] = c23;
+        c[I31] = c31;
+        c[I32] = c32;
+        c[I33] = c33;
+        return this;
+    }
+
+    /**
+     * Sets the 6 specified entries of this matrix, in place, as
+     * {@link #Matrix(float, float, float, float, float, float)} does.
+     * @return this matrix
+     * @since 5.5.6
+     */
+    Matrix set(float a, float b, float c, float d, float e, float f){
+        vals[I11] = a;
+        vals[I12] = b;
+        vals[I13] = 0;
+        vals[I21] = c;
+        vals[I22] = d;
+        vals[I23] = 0;
+        vals[I31] = e;
+        vals[I32] = f;
+        vals[I33] = 1;
+        return this;
+    }
+
+    /**
+     * Sets this matrix to a translation, in place, as {@link #Matrix(float, float)} does.
+     * @return this matrix
+     * @since 5.5.6
+     */
+    Matrix setTranslation(float tx, float ty){
+        return set(1, 0, 0, 1, tx, ty);
+    }
+
+    /**
+     * Copies the values of another matrix into this one.
+     * @param m the matrix to copy
+     * @return this matrix
+     * @since 5.5.6
+     */
+    Matrix set(Matrix m){
+        System.arraycopy(m.vals, 0, vals, 0, vals.length);
+        return this;
     }
 
     /**
@@ -74,6 +74,8 @@ public class PdfContentStreamProcessor {
     private Matrix textMatrix;
     /** Text line matrix. */
     private Matrix textLineMatrix;
+    /** Matrix reused for the translations and the operands of cm, to change the matrices in place. */
+    private final Matrix scratchMatrix = new Matrix();
     /** Listener that will be notified of render events */
     final private RenderListener renderListener;
     /** A map with all supported XObject handlers */
@@ -126,7 +128,8 @@ public class PdfContentStreamProcessor {
     }
 
     /**
-     * Gets the font pointed to by the indirect reference. The font may have been cached.
+     * Gets the font pointed to by the indirect reference. The font may have been cached,
+     * by this processor or in the document font cache of the reader.
      * @param ind the indirect reference ponting to the font
      * @return the font
      * @since 5.0.6
@@ -135,7 +138,8 @@ public class PdfContentStreamProcessor {
         Integer n = Integer.valueOf(ind.getNumber());
         CMapAwareDocumentFont font = cachedFonts.get(n);
         if (font == null) {
-            font = new CMapAwareDocumentFont(ind);
+            DocumentFontCache documentFonts = ind.getReader().getDocumentFontCache();
+            font = documentFonts == null ? new CMapAwareDocumentFont(ind) : documentFonts.getFont(ind);
             cachedFonts.put(n, font);
         }
         return font;
@@ -290,7 +294,7 @@ public class PdfContentStreamProcessor {
 
         renderListener.renderText(renderInfo);
 
-        textMatrix = new Matrix(renderInfo.getUnscaledWidth(), 0).multiply(textMatrix);
+        textMatrix.setToProduct(scratchMatrix.setTranslation(renderInfo.getUnscaledWidth(), 0), textMatrix);
     }
 
 
@@ -325,7 +329,7 @@ public class PdfContentStreamProcessor {
     private void applyTextAdjust(float tj){
         float adjustBy = -tj/1000f * gs().fontSize * gs().horizontalScaling;
 
-        textMatrix = new Matrix(adjustBy, 0).multiply(textMatrix);
+        textMatrix.setToProduct(scratchMatrix.setTranslation(adjustBy, 0), textMatrix);
     }
 
 
@@ -523,8 +527,12 @@ public class PdfContentStreamProcessor {
             float e = ((PdfNumber)operands.get(4)).floatValue();
             float f = ((PdfNumber)operands.get(5)).floatValue();
 
-            processor.textLineMatrix = new Matrix(a, b, c, d, e, f);
-            processor.textMatrix = processor.textLineMatrix;
+            if (processor.textLineMatrix == null) {
+                processor.textLineMatrix = new Matrix();
+                processor.textMatrix = new Matrix();
+            }
+            processor.textLineMatrix.set(a, b, c, d, e, f);
+            processor.textMatrix.set(processor.textLineMatrix);
         }
     }
 
@@ -556,9 +564,8 @@ public class PdfContentStreamProcessor {
             float tx = ((PdfNumber)operands.get(0)).floatValue();
             float ty = ((PdfNumber)operands.get(1)).floatValue();
 
-            Matrix translationMatrix = new Matrix(tx, ty);
-            processor.textMatrix =  translationMatrix.multiply(processor.textLineMatrix);
-            processor.textLineMatrix = processor.textMatrix;
+            processor.textMatrix.setToProduct(processor.scratchMatrix.setTranslation(tx, ty), processor.textLineMatrix);
+            processor.textLineMatrix.set(processor.textMatrix);
         }
     }
 
@@ -692,9 +699,9 @@ public class PdfContentStreamProcessor {
             float d = ((PdfNumber)operands.get(3)).floatValue();
             float e = ((PdfNumber)operands.get(4)).floatValue();
             float f = ((PdfNumber)operands.get(5)).floatValue();
-            Matrix matrix = new Matrix(a, b, c, d, e, f);
             GraphicsState gs = processor.gsStack.peek();
-            gs.ctm = matrix.multiply(gs.ctm);
+            // the ctm is shared by the saved graphics states and the render infos, so it is never changed in place
+            gs.ctm = new Matrix().setToProduct(processor.scratchMatrix.set(a, b, c, d, e, f), gs.ctm);
         }
     }
     
@@ -837,8 +844,9 @@ public class PdfContentStreamProcessor {
      */
     private static class BeginText implements ContentOperator{
         public void invoke(PdfContentStreamProcessor processor, PdfLiteral operator, ArrayList<PdfObject> operands) {
+            // the text matrices are changed in place, so they must be two instances
             processor.textMatrix = new Matrix();
-            processor.textLineMatrix = processor.textMatrix;
+            processor.textLineMatrix = new Matrix();
             processor.beginText();
         }
     }
@@ -45,7 +45,15 @@
 package com.itextpdf.text.pdf.parser;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import com.itextpdf.text.ExceptionConverter;
 import com.itextpdf.text.pdf.PdfReader;
 
 /**
@@ -89,4 +97,70 @@ public final class PdfTextExtractor {
         return getTextFromPage(reader, pageNumber, new LocationTextExtractionStrategy());
     }
 
+    /**
+     * Extracts the text from a range of pages, processing the pages on the <CODE>executor</CODE>.
+     * Each task reads its page with a duplicate of the reader created with
+     * {@link PdfReader#createConcurrentView()}, so there are at most as many duplicates as
+     * pages processed at the same time. The duplicates share the
+     * {@link PdfReader#getDocumentFontCache() document font cache} of the reader,
+     * so each font is decoded once for all the pages.
+     * The reader must not be used elsewhere until this method returns.
+     * @param reader the reader to extract text from
+     * @param firstPage the first page to extract text from
+     * @param lastPage the last page to extract text from
+     * @param strategyFactory the factory of the strategies, called once for each page
+     * @param executor the threads that process the pages
+     * @return the extracted text of each page, in page order
+     * @throws IOException if any operation fails while reading from the provided PdfReader
+     * @since 5.5.6
+     */
+    public static List<String> getTextFromPages(final PdfReader reader, final int firstPage, final int lastPage,
+            final TextExtractionStrategyFactory strategyFactory, final ExecutorService executor) throws IOException {
+        if (firstPage < 1 || lastPage > reader.getNumberOfPages() || firstPage > lastPage + 1)
+            throw new IllegalArgumentException("page range " + firstPage + "-" + lastPage);
+        final ConcurrentLinkedQueue<PdfReader> views = new ConcurrentLinkedQueue<PdfReader>();
+        ArrayList<Future<String>> pages = new ArrayList<Future<String>>(lastPage - firstPage + 1);
+        try {
+            for (int k = firstPage; k <= lastPage; ++k) {
+                final int pageNumber = k;
+                pages.add(executor.submit(new Callable<String>() {
+                    public String call() throws IOException {
+                        PdfReader view = views.poll();
+                        if (view == null)
+                            view = reader.createConcurrentView();
+                        PdfReaderContentParser parser = new PdfReaderContentParser(view);
+                        String text = parser.processContent(pageNumber, strategyFactory.createStrategy(pageNumber)).getResultantText();
+                        views.offer(view);
+                        return text;
+                    }
+                }));
+            }
+            ArrayList<String> text = new ArrayList<String>(pages.size());
+            for (Future<String> page : pages) {
+                try {
+                    text.add(page.get());
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ExceptionConverter(e);
+                }
+                catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException)
+                        throw (IOException)cause;
+                    if (cause instanceof RuntimeException)
+                        throw (RuntimeException)cause;
+                    if (cause instanceof Error)
+                        throw (Error)cause;
+                    throw new ExceptionConverter((Exception)cause);
+                }
+            }
+            return text;
+        }
+        finally {
+            for (Future<String> page : pages)
+                page.cancel(false);
+        }
+    }
+
 }
@@ -48,10 +48,12 @@ import com.itextpdf.awt.geom.Rectangle2D;
 import com.itextpdf.text.Rectangle;
 
 /**
- * A {@link RenderFilter} that only allows text within a specified rectangular region
+ * A {@link RenderFilter} that only allows text within a specified rectangular region.
+ * It can also filter the chunks of a {@link LocationTextExtractionStrategy} that already
+ * processed the page, with {@link LocationTextExtractionStrategy#getResultantText(LocationTextExtractionStrategy.TextChunkFilter)}.
  * @since 5.0.1
  */
-public class RegionTextRenderFilter extends RenderFilter {
+public class RegionTextRenderFilter extends RenderFilter implements LocationTextExtractionStrategy.TextChunkFilter {
 
     /** the region to allow text from */
     private final Rectangle2D filterRect;
@@ -87,5 +89,25 @@ public class RegionTextRenderFilter extends RenderFilter {
         return filterRect.intersectsLine(x1, y1, x2, y2);
     }
 
+    /**
+     * Allows the chunks whose baseline is within the region. Unlike with
+     * {@link #allowText(TextRenderInfo)}, the baseline of the chunk doesn't include the text rise.
+     * @param textChunk the chunk to check
+     * @return true if the chunk is within the region
+     * @since 5.5.6
+     */
+    public boolean accept(LocationTextExtractionStrategy.TextChunk textChunk) {
+        Vector startPoint = textChunk.getStartLocation();
+        Vector endPoint = textChunk.getEndLocation();
+        return filterRect.intersectsLine(startPoint.get(Vector.I1), startPoint.get(Vector.I2), endPoint.get(Vector.I1), endPoint.get(Vector.I2));
+    }
+
+    /**
+     * @return the region to allow text from
+     */
+    Rectangle2D getFilterRect() {
+        return filterRect;
+    }
+
 
 }
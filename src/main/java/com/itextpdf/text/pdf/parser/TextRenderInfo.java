@@ -47,7 +47,9 @@ package com.itextpdf.text.pdf.parser;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import com.itextpdf.text.BaseColor;
 import com.itextpdf.text.pdf.BaseFont;
@@ -64,11 +66,17 @@ import com.itextpdf.text.pdf.PdfString;
  */
 public class TextRenderInfo {
 
-    private final PdfString string;
+    private PdfString string;
     private String text = null;
     private final Matrix textToUserSpaceTransformMatrix;
     private final GraphicsState gs;
-    private Float unscaledWidth = null;
+    private float unscaledWidth = Float.NaN;
+
+    /**
+     * The cursor positioned on the glyph represented by this object, if this is the
+     * reusable glyph info of a {@link #getCharacterRenderInfoIterator()}.
+     */
+    private GlyphCursor glyph = null;
 
     /**
      * Array containing marked content info for the text.
@@ -104,19 +112,48 @@ public class TextRenderInfo {
     	this.markedContentInfos = parent.markedContentInfos;
     }
 
+    /**
+     * Used for creating the reusable sub-TextRenderInfo of a glyph iterator
+     * @param parent the parent TextRenderInfo
+     * @since 5.5.6
+     */
+    private TextRenderInfo(TextRenderInfo parent){
+        this.textToUserSpaceTransformMatrix = new Matrix();
+        this.gs = parent.gs;
+        this.markedContentInfos = parent.markedContentInfos;
+    }
+
+    /**
+     * Moves this reusable sub-TextRenderInfo to the glyph the cursor is positioned on.
+     * @param parent the parent TextRenderInfo
+     * @param cursor the cursor of the glyph iterator
+     */
+    private void setGlyph(TextRenderInfo parent, GlyphCursor cursor){
+        this.glyph = cursor;
+        this.string = null;
+        this.text = cursor.text;
+        this.unscaledWidth = cursor.width;
+        textToUserSpaceTransformMatrix.setTranslation(cursor.offset, 0);
+        textToUserSpaceTransformMatrix.setToProduct(textToUserSpaceTransformMatrix, parent.textToUserSpaceTransformMatrix);
+    }
+
     /**
      * @return the text to render
      */
     public String getText(){
         if (text == null)
-            text = decode(string);
+            text = decode(getPdfString());
         return text;
     }
 
     /**
      * @return original PDF string
      */
-    public PdfString getPdfString() { return string; }
+    public PdfString getPdfString() {
+        if (string == null && glyph != null)
+            string = glyph.getPdfString();
+        return string;
+    }
 
 	/**
 	 * Checks if the text belongs to a marked content sequence
@@ -169,8 +206,12 @@ public class TextRenderInfo {
      * @return the unscaled (i.e. in Text space) width of the text
      */
     float getUnscaledWidth(){
-        if (unscaledWidth == null)
-            unscaledWidth = Float.valueOf(getPdfStringWidth(string, false));
+        if (Float.isNaN(unscaledWidth)) {
+            float totalWidth = 0;
+            for (GlyphCursor cursor = new GlyphCursor(getPdfString()); cursor.next(); )
+                totalWidth += cursor.width;
+            unscaledWidth = totalWidth;
+        }
         return unscaledWidth;
     }
 
@@ -181,7 +222,7 @@ public class TextRenderInfo {
      * @since 5.0.2
      */
     public LineSegment getBaseline(){
-        return getUnscaledBaselineWithOffset(0 + gs.rise).transformBy(textToUserSpaceTransformMatrix);
+        return getBaselineWithOffset(0 + gs.rise);
     }
 
     public LineSegment getUnscaledBaseline() {
@@ -196,7 +237,7 @@ public class TextRenderInfo {
      */
     public LineSegment getAscentLine(){
         float ascent = gs.getFont().getFontDescriptor(BaseFont.ASCENT, gs.getFontSize());
-        return getUnscaledBaselineWithOffset(ascent + gs.rise).transformBy(textToUserSpaceTransformMatrix);
+        return getBaselineWithOffset(ascent + gs.rise);
     }
 
     /**
@@ -208,18 +249,75 @@ public class TextRenderInfo {
     public LineSegment getDescentLine(){
         // per getFontDescription() API, descent is returned as a negative number, so we apply that as a normal vertical offset
         float descent = gs.getFont().getFontDescriptor(BaseFont.DESCENT, gs.getFontSize());
-        return getUnscaledBaselineWithOffset(descent + gs.rise).transformBy(textToUserSpaceTransformMatrix);
+        return getBaselineWithOffset(descent + gs.rise);
     }
 
     private LineSegment getUnscaledBaselineWithOffset(float yOffset){
+        return new LineSegment(new Vector(0, yOffset, 1), new Vector(getCorrectedUnscaledWidth(), yOffset, 1));
+    }
+
+    /**
+     * Gets a baseline in user space. The result is the same as transforming the unscaled
+     * baseline, without creating the intermediate line segment.
+     * @param yOffset the vertical offset of the baseline, in text space
+     * @return the baseline in user space
+     */
+    private LineSegment getBaselineWithOffset(float yOffset){
+        float width = getCorrectedUnscaledWidth();
+        Matrix m = textToUserSpaceTransformMatrix;
+        return new LineSegment(transform(0, yOffset, m), transform(width, yOffset, m));
+    }
+
+    /**
+     * @return the unscaled width without the character and word spacing at the end
+     */
+    private float getCorrectedUnscaledWidth(){
     	// we need to correct the width so we don't have an extra character and word spaces at the end.  The extra character and word spaces
     	// are important for tracking relative text coordinate systems, but should not be part of the baseline
+        boolean endsWithSpace = string == null && glyph != null ? glyph.endsWithSpace() : endsWithSpace(getPdfString());
+
+    	return getUnscaledWidth() - (gs.characterSpacing +
+                (endsWithSpace ? gs.wordSpacing : 0)) * gs.horizontalScaling;
+    }
+
+    /**
+     * @param string a PDF string
+     * @return true if the unicode value of the string ends with a space
+     */
+    private static boolean endsWithSpace(PdfString string){
         String unicodeStr = string.toUnicodeString();
+        return unicodeStr.length() > 0 && unicodeStr.charAt(unicodeStr.length() - 1) == ' ';
+    }
+
+    /**
+     * Transforms the point (x, y, 1), computing the same values as {@link Vector#cross(Matrix)}.
+     */
+    private static Vector transform(float x, float y, Matrix m){
+        return new Vector(transformX(x, y, m), transformY(x, y, m), transformZ(x, y, m));
+    }
+
+    private static float transformX(float x, float y, Matrix m){
+        return x*m.get(Matrix.I11) + y*m.get(Matrix.I21) + 1*m.get(Matrix.I31);
+    }
 
-    	float correctedUnscaledWidth = getUnscaledWidth() - (gs.characterSpacing +
-                (unicodeStr.length() > 0 && unicodeStr.charAt(unicodeStr.length() - 1) == ' ' ? gs.wordSpacing : 0)) * gs.horizontalScaling;
+    private static float transformY(float x, float y, Matrix m){
+        return x*m.get(Matrix.I12) + y*m.get(Matrix.I22) + 1*m.get(Matrix.I32);
+    }
+
+    private static float transformZ(float x, float y, Matrix m){
+        return x*m.get(Matrix.I13) + y*m.get(Matrix.I23) + 1*m.get(Matrix.I33);
+    }
 
-        return new LineSegment(new Vector(0, yOffset, 1), new Vector(correctedUnscaledWidth, yOffset, 1));
+    /**
+     * Gets the length in user space of the vector (x, y) in text space, with the
+     * same arithmetic as transforming and measuring a {@link LineSegment} from the origin.
+     */
+    private float convertLengthFromTextSpaceToUserSpace(float x, float y){
+        Matrix m = textToUserSpaceTransformMatrix;
+        float dx = transformX(x, y, m) - transformX(0, 0, m);
+        float dy = transformY(x, y, m) - transformY(0, 0, m);
+        float dz = transformZ(x, y, m) - transformZ(0, 0, m);
+        return (float)Math.sqrt(dx*dx + dy*dy + dz*dz);
     }
 
 	/**
@@ -267,9 +365,7 @@ public class TextRenderInfo {
 	 * @since 5.3.3
 	 */
 	private float convertWidthFromTextSpaceToUserSpace(float width){
-        LineSegment textSpace = new LineSegment(new Vector(0, 0, 1), new Vector(width, 0, 1));
-        LineSegment userSpace = textSpace.transformBy(textToUserSpaceTransformMatrix);
-        return userSpace.getLength();
+        return convertLengthFromTextSpaceToUserSpace(width, 0);
 	}
 
 	/**
@@ -279,9 +375,7 @@ public class TextRenderInfo {
 	 * @since 5.3.3
 	 */
 	private float convertHeightFromTextSpaceToUserSpace(float height){
-        LineSegment textSpace = new LineSegment(new Vector(0, 0, 1), new Vector(0, height, 1));
-        LineSegment userSpace = textSpace.transformBy(textToUserSpaceTransformMatrix);
-        return userSpace.getLength();
+        return convertLengthFromTextSpaceToUserSpace(0, height);
 	}
 
     /**
@@ -354,58 +448,71 @@ public class TextRenderInfo {
         return totalWidth;
     }
 
-    /**
-     * Gets the width of a PDF string in text space units
-     * @param string        the string that needs measuring
-     * @return  the width of a String in text space units
-     */
-    private float getPdfStringWidth(PdfString string, boolean singleCharString){
-        if (singleCharString) {
-            float[] widthAndWordSpacing = getWidthAndWordSpacing(string, singleCharString);
-            return (widthAndWordSpacing[0] * gs.fontSize + gs.characterSpacing + widthAndWordSpacing[1]) * gs.horizontalScaling;
-        } else {
-            float totalWidth = 0;
-            for (PdfString str : splitString(string)) {
-                totalWidth += getPdfStringWidth(str, true);
-            }
-            return totalWidth;
-        }
-    }
-
     /**
      * Provides detail useful if a listener needs access to the position of each individual glyph in the text render operation
      * @return  A list of {@link TextRenderInfo} objects that represent each glyph used in the draw operation. The next effect is if there was a separate Tj opertion for each character in the rendered string
      * @since   5.3.3
      */
     public List<TextRenderInfo> getCharacterRenderInfos(){
+        PdfString string = getPdfString();
         List<TextRenderInfo> rslt = new ArrayList<TextRenderInfo>(string.length());
-        PdfString[] strings = splitString(string);
-        float totalWidth = 0;
-        for (int i = 0; i < strings.length; i++) {
-            float[] widthAndWordSpacing = getWidthAndWordSpacing(strings[i], true);
-            TextRenderInfo subInfo = new TextRenderInfo(this, strings[i], totalWidth);
+        for (GlyphCursor cursor = new GlyphCursor(string); cursor.next(); ) {
+            TextRenderInfo subInfo = new TextRenderInfo(this, cursor.getPdfString(), cursor.offset);
+            subInfo.text = cursor.text;
+            subInfo.unscaledWidth = cursor.width;
             rslt.add(subInfo);
-            totalWidth += (widthAndWordSpacing[0] * gs.fontSize + gs.characterSpacing + widthAndWordSpacing[1]) * gs.horizontalScaling;
         }
-        for (TextRenderInfo tri : rslt)
-            tri.getUnscaledWidth();
         return rslt;
     }
 
     /**
-     * Calculates width and word spacing of a single character PDF string.
-     * @param string            a character to calculate width.
-     * @param singleCharString  true if PDF string represents single character, false otherwise.
-     * @return                  array of 2 items: first item is a character width, second item is a calculated word spacing.
+     * Provides the same glyphs as {@link #getCharacterRenderInfos()}, but computes the
+     * text, position and width of each glyph only when the iterator reaches it.
+     * To avoid allocating an object per glyph, every call to {@link Iterator#next()}
+     * returns the same {@link TextRenderInfo} instance, moved to the next glyph, so a
+     * glyph info is only valid until the following call to <code>next()</code>.
+     * Listeners that need to keep the glyphs should use {@link #getCharacterRenderInfos()}.
+     * @return  an iterator over the glyphs used in the draw operation
+     * @since   5.5.6
      */
-    private float[] getWidthAndWordSpacing(PdfString string, boolean singleCharString) {
-        if (singleCharString == false)
-            throw new UnsupportedOperationException();
-        float[] result = new float[2];
-        String decoded = decode(string);
-        result[0] = gs.font.getWidth(getCharCode(decoded)) / 1000.0f;
-        result[1] = decoded.equals(" ") ? gs.wordSpacing : 0;
-        return result;
+    public Iterator<TextRenderInfo> getCharacterRenderInfoIterator(){
+        return new Iterator<TextRenderInfo>() {
+            private final GlyphCursor cursor = new GlyphCursor(getPdfString());
+            private final TextRenderInfo glyphInfo = new TextRenderInfo(TextRenderInfo.this);
+            private boolean advanced = false;
+            private boolean hasNext;
+
+            public boolean hasNext() {
+                if (!advanced) {
+                    hasNext = cursor.next();
+                    advanced = true;
+                }
+                return hasNext;
+            }
+
+            public TextRenderInfo next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                advanced = false;
+                glyphInfo.setGlyph(TextRenderInfo.this, cursor);
+                return glyphInfo;
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Calculates the width of a single glyph, including character and word spacing.
+     * @param decoded   the unicode value of the glyph
+     * @return          the width of the glyph in text space units
+     */
+    private float getGlyphWidth(String decoded) {
+        float width = gs.font.getWidth(getCharCode(decoded)) / 1000.0f;
+        float wordSpacing = decoded.equals(" ") ? gs.wordSpacing : 0;
+        return (width * gs.fontSize + gs.characterSpacing + wordSpacing) * gs.horizontalScaling;
     }
 
     /**
@@ -426,6 +533,24 @@ public class TextRenderInfo {
      * @return char code.
      */
     private int getCharCode(String string) {
+        int value = 0;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c >= '\ud800' && c <= '\udfff')
+                return getCharCodeFromUtf16(string);
+            value = (value << 16) + c;
+        }
+        return value;
+    }
+
+    /**
+     * Converts a single character string to char code through its UTF-16BE bytes.
+     * This is the slow path of {@link #getCharCode(String)}, needed for surrogates.
+     *
+     * @param string single character string to convert to.
+     * @return char code.
+     */
+    private int getCharCodeFromUtf16(String string) {
         try {
             byte[] b = string.getBytes("UTF-16BE");
             int value = 0;
@@ -462,4 +587,87 @@ public class TextRenderInfo {
         return strings.toArray(new PdfString[strings.size()]);
     }
 
+    /**
+     * Walks the glyphs of the PDF string the same way {@link #splitString(PdfString)}
+     * splits it, computing the text, offset and width of each glyph as it's reached.
+     * A string without an encoding maps its characters one to one to its bytes, so
+     * its glyphs are decoded in place instead of being copied to new PDF strings.
+     */
+    private class GlyphCursor {
+        /** the PDF string whose glyphs are walked */
+        private final PdfString string;
+        /** the bytes of the string, if the glyphs are decoded in place */
+        private final byte[] bytes;
+        /** the split string, if the string has an encoding */
+        private final PdfString[] pieces;
+        /** the index of the current glyph in the bytes or the pieces */
+        private int index = 0;
+        /** the number of bytes of the current glyph */
+        private int length = 0;
+        /** the unicode value of the current glyph */
+        String text;
+        /** the unscaled horizontal offset of the current glyph */
+        float offset;
+        /** the unscaled width of the current glyph */
+        float width = 0;
+
+        GlyphCursor(PdfString string) {
+            this.string = string;
+            String encoding = string.getEncoding();
+            if (encoding == null || encoding.length() == 0) {
+                bytes = string.getBytes();
+                pieces = null;
+            } else {
+                bytes = null;
+                pieces = splitString(string);
+            }
+        }
+
+        /**
+         * Moves to the next glyph.
+         * @return false if there are no more glyphs
+         */
+        boolean next() {
+            offset += width;
+            if (bytes != null) {
+                index += length;
+                if (index >= bytes.length)
+                    return false;
+                length = 1;
+                text = gs.font.decode(bytes, index, 1);
+                if (text.length() == 0 && index < bytes.length - 1) {
+                    length = 2;
+                    text = gs.font.decode(bytes, index, 2);
+                }
+            } else {
+                index += length;
+                if (index >= pieces.length)
+                    return false;
+                length = 1;
+                text = decode(pieces[index]);
+            }
+            width = getGlyphWidth(text);
+            return true;
+        }
+
+        /**
+         * @return the PDF string of the current glyph
+         */
+        PdfString getPdfString() {
+            if (bytes == null)
+                return pieces[index];
+            return new PdfString(string.toString().substring(index, index + length), string.getEncoding());
+        }
+
+        /**
+         * @return true if the unicode value of the PDF string of the current glyph ends with a space
+         */
+        boolean endsWithSpace() {
+            if (bytes == null)
+                return TextRenderInfo.endsWithSpace(pieces[index]);
+            // a glyph of at most two bytes is read as PDFDocEncoding, where only 32 maps to a space
+            return bytes[index + length - 1] == ' ';
+        }
+    }
+
 }
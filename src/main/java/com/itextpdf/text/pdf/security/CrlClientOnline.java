@@ -44,6 +44,7 @@
  */
 package com.itextpdf.text.pdf.security;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -51,10 +52,13 @@ import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
 import java.security.cert.CertificateParsingException;
+import java.security.cert.X509CRL;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 import com.itextpdf.text.error_messages.MessageLocalization;
@@ -74,6 +78,9 @@ public class CrlClientOnline implements CrlClient {
     /** The URLs of the CRLs. */
     protected List<URL> urls = new ArrayList<URL>();
 
+    /** The cache of the downloaded CRLs or <CODE>null</CODE>. */
+    private RevocationCache cache;
+
     /**
      * Creates a CrlClientOnline instance that will try to find
      * a single CRL by walking through the certificate chain.
@@ -139,6 +146,25 @@ public class CrlClientOnline implements CrlClient {
         LOGGER.info("Added CRL url: " + url);
     }
     
+    /**
+     * Sets the cache of the downloaded CRLs. A CRL is downloaded again only
+     * after its next update.
+     * @param cache the cache or <CODE>null</CODE> to always download the CRLs
+     * @since 5.5.6
+     */
+    public void setRevocationCache(RevocationCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Gets the cache of the downloaded CRLs.
+     * @return the cache or <CODE>null</CODE> if there's none
+     * @since 5.5.6
+     */
+    public RevocationCache getRevocationCache() {
+        return cache;
+    }
+
     /**
      * Fetches the CRL bytes from an URL.
      * If no url is passed as parameter, the url will be obtained from the certificate.
@@ -166,8 +192,19 @@ public class CrlClientOnline implements CrlClient {
         	}
         }
         ArrayList<byte[]> ar = new ArrayList<byte[]>();
+        RevocationCache cache = this.cache;
         for (URL urlt : urllist) {
         	try {
+        		String key = null;
+        		if (cache != null) {
+        			key = "CRL " + checkCert.getIssuerX500Principal().getName() + " " + urlt;
+        			byte[] cached = cache.get(key);
+        			if (cached != null) {
+        				ar.add(cached);
+        				LOGGER.info("Added cached CRL for: " + urlt);
+        				continue;
+        			}
+        		}
         		LOGGER.info("Checking CRL: " + urlt);
         		HttpURLConnection con = (HttpURLConnection)urlt.openConnection();
         		if (con.getResponseCode() / 100 != 2) {
@@ -184,8 +221,11 @@ public class CrlClientOnline implements CrlClient {
         			bout.write(buf, 0, n);
         		}
         		inp.close();
-        		ar.add(bout.toByteArray());
+        		byte[] crl = bout.toByteArray();
+        		ar.add(crl);
         		LOGGER.info("Added CRL found at: " + urlt);
+        		if (cache != null)
+        			cache.put(key, crl, getNextUpdate(crl));
         	}
         	catch (Exception e) {
         		LOGGER.info("Skipped CRL: " + e.getMessage() + " for " + urlt);
@@ -193,4 +233,20 @@ public class CrlClientOnline implements CrlClient {
         }
         return ar;
     }
+
+    /**
+     * Gets the next update of a CRL.
+     * @param crl the encoded CRL
+     * @return the next update or <CODE>null</CODE> if it can't be read
+     */
+    private static Date getNextUpdate(byte[] crl) {
+        try {
+            CertificateFactory cf = CertificateFactory.getInstance("X.509");
+            return ((X509CRL)cf.generateCRL(new ByteArrayInputStream(crl))).getNextUpdate();
+        }
+        catch (Exception e) {
+            LOGGER.info("CRL not cached: " + e.getMessage());
+            return null;
+        }
+    }
 }
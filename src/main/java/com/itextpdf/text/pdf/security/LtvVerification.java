@@ -163,7 +163,9 @@ public class LtvVerification {
     }
     
     /**
-     * Add verification for a particular signature
+     * Add verification for a particular signature. When many signatures share
+     * the same CA, give the clients a {@link RevocationCache} so that each CRL and
+     * OCSP response is fetched once.
      * @param signatureName the signature to validate (it may be a timestamp)
      * @param ocsp the interface to get the OCSP
      * @param crl the interface to get the CRL
@@ -390,32 +392,18 @@ public class LtvVerification {
         writer.addDeveloperExtension(PdfDeveloperExtension.ESIC_1_7_EXTENSIONLEVEL5);
     	PdfDictionary catalog = reader.getCatalog();
         stp.markUsed(catalog);
+        HashMap<EncodedData, PdfIndirectReference> written = new HashMap<EncodedData, PdfIndirectReference>();
         for (PdfName vkey : validated.keySet()) {
             PdfArray ocsp = new PdfArray();
             PdfArray crl = new PdfArray();
             PdfArray cert = new PdfArray();
             PdfDictionary vri = new PdfDictionary();
-            for (byte[] b : validated.get(vkey).crls) {
-                PdfStream ps = new PdfStream(b);
-                ps.flateCompress();
-                PdfIndirectReference iref = writer.addToBody(ps, false).getIndirectReference();
-                crl.add(iref);
-                crls.add(iref);
-            }
-            for (byte[] b : validated.get(vkey).ocsps) {
-                PdfStream ps = new PdfStream(b);
-                ps.flateCompress();
-                PdfIndirectReference iref = writer.addToBody(ps, false).getIndirectReference();
-                ocsp.add(iref);
-                ocsps.add(iref);
-            }
-            for (byte[] b : validated.get(vkey).certs) {
-                PdfStream ps = new PdfStream(b);
-                ps.flateCompress();
-                PdfIndirectReference iref = writer.addToBody(ps, false).getIndirectReference();
-                cert.add(iref);
-                certs.add(iref);
-            }
+            for (byte[] b : validated.get(vkey).crls)
+                crl.add(addEncoded(b, written, crls));
+            for (byte[] b : validated.get(vkey).ocsps)
+                ocsp.add(addEncoded(b, written, ocsps));
+            for (byte[] b : validated.get(vkey).certs)
+                cert.add(addEncoded(b, written, certs));
             if (ocsp.size() > 0)
                 vri.put(PdfName.OCSP, writer.addToBody(ocsp, false).getIndirectReference());
             if (crl.size() > 0)
@@ -434,6 +422,48 @@ public class LtvVerification {
         catalog.put(PdfName.DSS, writer.addToBody(dss, false).getIndirectReference());
     }
     
+    /**
+     * Adds a CRL, OCSP response or certificate as a stream, unless the same bytes
+     * were already added for another signature.
+     * @param b the encoded data
+     * @param written the streams already added
+     * @param all the DSS array where a new stream is listed
+     * @return the reference to the stream
+     */
+    private PdfIndirectReference addEncoded(byte[] b, HashMap<EncodedData, PdfIndirectReference> written, PdfArray all) throws IOException {
+        EncodedData key = new EncodedData(b);
+        PdfIndirectReference iref = written.get(key);
+        if (iref == null) {
+            PdfStream ps = new PdfStream(b);
+            ps.flateCompress();
+            iref = writer.addToBody(ps, false).getIndirectReference();
+            written.put(key, iref);
+            all.add(iref);
+        }
+        return iref;
+    }
+
+    /** Encoded data compared by content. */
+    private static class EncodedData {
+        private final byte[] data;
+        private final int hash;
+
+        EncodedData(byte[] data) {
+            this.data = data;
+            hash = Arrays.hashCode(data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof EncodedData && hash == ((EncodedData)obj).hash && Arrays.equals(data, ((EncodedData)obj).data);
+        }
+    }
+
     private static class ValidationData {
         public List<byte[]> crls = new ArrayList<byte[]>();
         public List<byte[]> ocsps = new ArrayList<byte[]>();
@@ -45,6 +45,7 @@
 package com.itextpdf.text.pdf.security;
 
 import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.ExceptionConverter;
 import com.itextpdf.text.io.RASInputStream;
 import com.itextpdf.text.io.RandomAccessSource;
 import com.itextpdf.text.io.RandomAccessSourceFactory;
@@ -74,6 +75,11 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Class that signs your PDF.
@@ -107,10 +113,96 @@ public class MakeSignature {
      */
     public static void signDetached(PdfSignatureAppearance sap, ExternalDigest externalDigest, ExternalSignature externalSignature, Certificate[] chain, Collection<CrlClient> crlList, OcspClient ocspClient,
             TSAClient tsaClient, int estimatedSize, CryptoStandard sigtype) throws IOException, DocumentException, GeneralSecurityException {
+        Collection<byte[]> crlBytes = processCrl(chain, crlList);
+        estimatedSize = estimateSize(estimatedSize, crlBytes, ocspClient, tsaClient);
+        PendingSignature pending = prepareDetached(sap, externalDigest, externalSignature.getHashAlgorithm(), chain, crlBytes, ocspClient, estimatedSize, sigtype);
+        byte[] extSignature = externalSignature.sign(pending.authenticatedAttributes);
+        completeDetached(pending, extSignature, externalSignature.getEncryptionAlgorithm(), crlBytes, tsaClient, estimatedSize, sigtype);
+    }
+
+    /**
+     * Signs several documents using the detached mode, CMS or CAdES equivalent, with a single
+     * call to the signing device. The documents are pre-closed and hashed on the <CODE>executor</CODE>,
+     * then all the authenticated attributes are signed with one call to
+     * {@link ExternalBatchSignature#signBatch(byte[][])} and finally the signatures are
+     * inserted in the documents, again on the <CODE>executor</CODE>.
+     * All the documents are signed with the same certificate chain and options. If any step fails
+     * the documents are left unfinished and the exception of the first document that failed is thrown.
+     * @param saps the PdfSignatureAppearance of each document
+     * @param externalDigest an implementation that provides the digest
+     * @param externalSignature the interface providing the actual signing
+     * @param chain the certificate chain
+     * @param crlList the CRL list
+     * @param ocspClient the OCSP client
+     * @param tsaClient the Timestamp client
+     * @param estimatedSize the reserved size for each signature. It will be estimated if 0
+     * @param sigtype Either Signature.CMS or Signature.CADES
+     * @param executor the threads that prepare and close the documents or <CODE>null</CODE> to
+     * do everything in the calling thread
+     * @throws DocumentException
+     * @throws IOException
+     * @throws GeneralSecurityException
+     * @since 5.5.6
+     */
+    public static void signDetached(List<PdfSignatureAppearance> saps, final ExternalDigest externalDigest, ExternalBatchSignature externalSignature, final Certificate[] chain, Collection<CrlClient> crlList, final OcspClient ocspClient,
+            final TSAClient tsaClient, int estimatedSize, final CryptoStandard sigtype, ExecutorService executor) throws IOException, DocumentException, GeneralSecurityException {
+        if (saps.isEmpty())
+            return;
+        final Collection<byte[]> crlBytes = processCrl(chain, crlList);
+        final int size = estimateSize(estimatedSize, crlBytes, ocspClient, tsaClient);
+        final String hashAlgorithm = externalSignature.getHashAlgorithm();
+        ArrayList<Callable<PendingSignature>> prepare = new ArrayList<Callable<PendingSignature>>(saps.size());
+        for (final PdfSignatureAppearance sap : saps) {
+            prepare.add(new Callable<PendingSignature>() {
+                public PendingSignature call() throws Exception {
+                    return prepareDetached(sap, externalDigest, hashAlgorithm, chain, crlBytes, ocspClient, size, sigtype);
+                }
+            });
+        }
+        List<PendingSignature> pending = invokeAll(prepare, executor);
+        byte[][] attributes = new byte[pending.size()][];
+        for (int k = 0; k < attributes.length; ++k)
+            attributes[k] = pending.get(k).authenticatedAttributes;
+        final byte[][] extSignatures = externalSignature.signBatch(attributes);
+        if (extSignatures == null || extSignatures.length != attributes.length)
+            throw new GeneralSecurityException("Expected " + attributes.length + " signatures from the batch");
+        final String encryptionAlgorithm = externalSignature.getEncryptionAlgorithm();
+        ArrayList<Callable<Object>> complete = new ArrayList<Callable<Object>>(pending.size());
+        for (int k = 0; k < attributes.length; ++k) {
+            final PendingSignature p = pending.get(k);
+            final byte[] extSignature = extSignatures[k];
+            complete.add(new Callable<Object>() {
+                public Object call() throws Exception {
+                    completeDetached(p, extSignature, encryptionAlgorithm, crlBytes, tsaClient, size, sigtype);
+                    return null;
+                }
+            });
+        }
+        invokeAll(complete, executor);
+    }
+
+    /**
+     * A document that was pre-closed and hashed and waits for its signature.
+     */
+    private static class PendingSignature {
+        PdfSignatureAppearance sap;
+        PdfPKCS7 sgn;
+        byte[] hash;
+        Calendar cal;
+        byte[] ocsp;
+        /** The bytes to be signed by the ExternalSignature. */
+        byte[] authenticatedAttributes;
+    }
+
+    private static Collection<byte[]> processCrl(Certificate[] chain, Collection<CrlClient> crlList) {
         Collection<byte[]> crlBytes = null;
         int i = 0;
         while (crlBytes == null && i < chain.length)
         	crlBytes = processCrl(chain[i++], crlList);
+        return crlBytes;
+    }
+
+    private static int estimateSize(int estimatedSize, Collection<byte[]> crlBytes, OcspClient ocspClient, TSAClient tsaClient) {
     	if (estimatedSize == 0) {
             estimatedSize = 8192;
             if (crlBytes != null) {
@@ -123,6 +215,11 @@ public class MakeSignature {
             if (tsaClient != null)
                 estimatedSize += 4192;
         }
+        return estimatedSize;
+    }
+
+    private static PendingSignature prepareDetached(PdfSignatureAppearance sap, ExternalDigest externalDigest, String hashAlgorithm, Certificate[] chain, Collection<byte[]> crlBytes,
+            OcspClient ocspClient, int estimatedSize, CryptoStandard sigtype) throws IOException, DocumentException, GeneralSecurityException {
         sap.setCertificate(chain[0]);
         if (sigtype == CryptoStandard.CADES) {
         	sap.addDeveloperExtension(PdfDeveloperExtension.ESIC_1_7_EXTENSIONLEVEL2);
@@ -139,20 +236,25 @@ public class MakeSignature {
         exc.put(PdfName.CONTENTS, new Integer(estimatedSize * 2 + 2));
         sap.preClose(exc);
 
-        String hashAlgorithm = externalSignature.getHashAlgorithm();
-        PdfPKCS7 sgn = new PdfPKCS7(null, chain, hashAlgorithm, null, externalDigest, false);
+        PendingSignature pending = new PendingSignature();
+        pending.sap = sap;
+        pending.sgn = new PdfPKCS7(null, chain, hashAlgorithm, null, externalDigest, false);
         InputStream data = sap.getRangeStream();
-        byte hash[] = DigestAlgorithms.digest(data, externalDigest.getMessageDigest(hashAlgorithm));
-        Calendar cal = Calendar.getInstance();
-        byte[] ocsp = null;
+        pending.hash = DigestAlgorithms.digest(data, externalDigest.getMessageDigest(hashAlgorithm));
+        pending.cal = Calendar.getInstance();
         if (chain.length >= 2 && ocspClient != null) {
-            ocsp = ocspClient.getEncoded((X509Certificate) chain[0], (X509Certificate) chain[1], null);
+            pending.ocsp = ocspClient.getEncoded((X509Certificate) chain[0], (X509Certificate) chain[1], null);
         }
-        byte[] sh = sgn.getAuthenticatedAttributeBytes(hash, cal, ocsp, crlBytes, sigtype);
-        byte[] extSignature = externalSignature.sign(sh);
-        sgn.setExternalDigest(extSignature, null, externalSignature.getEncryptionAlgorithm());
+        pending.authenticatedAttributes = pending.sgn.getAuthenticatedAttributeBytes(pending.hash, pending.cal, pending.ocsp, crlBytes, sigtype);
+        return pending;
+    }
+
+    private static void completeDetached(PendingSignature pending, byte[] extSignature, String encryptionAlgorithm, Collection<byte[]> crlBytes,
+            TSAClient tsaClient, int estimatedSize, CryptoStandard sigtype) throws IOException, DocumentException, GeneralSecurityException {
+        PdfPKCS7 sgn = pending.sgn;
+        sgn.setExternalDigest(extSignature, null, encryptionAlgorithm);
 
-        byte[] encodedSig = sgn.getEncodedPKCS7(hash, cal, tsaClient, ocsp, crlBytes, sigtype);
+        byte[] encodedSig = sgn.getEncodedPKCS7(pending.hash, pending.cal, tsaClient, pending.ocsp, crlBytes, sigtype);
 
         if (estimatedSize < encodedSig.length)
             throw new IOException("Not enough space");
@@ -162,7 +264,62 @@ public class MakeSignature {
 
         PdfDictionary dic2 = new PdfDictionary();
         dic2.put(PdfName.CONTENTS, new PdfString(paddedSig).setHexWriting(true));
-        sap.close(dic2);
+        pending.sap.close(dic2);
+    }
+
+    /**
+     * Runs the tasks on the executor, or in the calling thread if there is no executor,
+     * and returns their results in order.
+     */
+    private static <T> List<T> invokeAll(List<Callable<T>> tasks, ExecutorService executor) throws IOException, DocumentException, GeneralSecurityException {
+        ArrayList<T> results = new ArrayList<T>(tasks.size());
+        if (executor == null) {
+            for (Callable<T> task : tasks) {
+                try {
+                    results.add(task.call());
+                }
+                catch (Exception e) {
+                    rethrow(e);
+                }
+            }
+            return results;
+        }
+        ArrayList<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+        try {
+            for (Callable<T> task : tasks)
+                futures.add(executor.submit(task));
+            for (Future<T> future : futures) {
+                try {
+                    results.add(future.get());
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ExceptionConverter(e);
+                }
+                catch (ExecutionException e) {
+                    rethrow(e.getCause());
+                }
+            }
+            return results;
+        }
+        finally {
+            for (Future<T> future : futures)
+                future.cancel(false);
+        }
+    }
+
+    private static void rethrow(Throwable t) throws IOException, DocumentException, GeneralSecurityException {
+        if (t instanceof IOException)
+            throw (IOException)t;
+        if (t instanceof DocumentException)
+            throw (DocumentException)t;
+        if (t instanceof GeneralSecurityException)
+            throw (GeneralSecurityException)t;
+        if (t instanceof RuntimeException)
+            throw (RuntimeException)t;
+        if (t instanceof Error)
+            throw (Error)t;
+        throw new ExceptionConverter((Exception)t);
     }
     
     /**
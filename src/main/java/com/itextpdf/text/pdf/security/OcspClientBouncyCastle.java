@@ -90,6 +90,28 @@ public class OcspClientBouncyCastle implements OcspClient {
 	/** The Logger instance */
     private static final Logger LOGGER = LoggerFactory.getLogger(OcspClientBouncyCastle.class);
 
+    /** The cache of the OCSP responses or <CODE>null</CODE>. */
+    private RevocationCache cache;
+
+    /**
+     * Sets the cache of the OCSP responses. A response is kept in the cache
+     * until its next update and only responses with a good status are cached.
+     * @param cache the cache or <CODE>null</CODE> to always request a response
+     * @since 5.5.6
+     */
+    public void setRevocationCache(RevocationCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Gets the cache of the OCSP responses.
+     * @return the cache or <CODE>null</CODE> if there's none
+     * @since 5.5.6
+     */
+    public RevocationCache getRevocationCache() {
+        return cache;
+    }
+
     /**
      * Generates an OCSP request using BouncyCastle.
      * @param issuerCert	certificate of the issues
@@ -174,6 +196,14 @@ public class OcspClientBouncyCastle implements OcspClient {
 	 */
     public byte[] getEncoded(X509Certificate checkCert, X509Certificate rootCert, String url) {
         try {
+            RevocationCache cache = this.cache;
+            String key = null;
+            if (cache != null && checkCert != null) {
+                key = "OCSP " + checkCert.getIssuerX500Principal().getName() + " " + checkCert.getSerialNumber().toString(16);
+                byte[] cached = cache.get(key);
+                if (cached != null)
+                    return cached;
+            }
             BasicOCSPResp basicResponse = getBasicOCSPResp(checkCert, rootCert, url);
             if (basicResponse != null) {
                 SingleResp[] responses = basicResponse.getResponses();
@@ -181,7 +211,10 @@ public class OcspClientBouncyCastle implements OcspClient {
                     SingleResp resp = responses[0];
                     Object status = resp.getCertStatus();
                     if (status == CertificateStatus.GOOD) {
-                        return basicResponse.getEncoded();
+                        byte[] encoded = basicResponse.getEncoded();
+                        if (key != null)
+                            cache.put(key, encoded, resp.getNextUpdate());
+                        return encoded;
                     }
                     else if (status instanceof org.bouncycastle.ocsp.RevokedStatus) {
                         throw new IOException(MessageLocalization.getComposedMessage("ocsp.status.is.revoked"));
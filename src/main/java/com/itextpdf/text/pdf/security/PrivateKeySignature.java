@@ -53,7 +53,7 @@ import java.security.Signature;
  * when you have a PrivateKey object.
  * @author Paulo Soares
  */
-public class PrivateKeySignature implements ExternalSignature {
+public class PrivateKeySignature implements ExternalBatchSignature {
 	
 	/** The private key object. */
     private PrivateKey pk;
@@ -106,14 +106,37 @@ public class PrivateKeySignature implements ExternalSignature {
      * @throws GeneralSecurityException
      */
     public byte[] sign(byte[] b) throws GeneralSecurityException {
-        String signMode = hashAlgorithm + "with" + encryptionAlgorithm;
-        Signature sig;
-        if (provider == null)
-            sig = Signature.getInstance(signMode);
-        else
-            sig = Signature.getInstance(signMode, provider);
+        Signature sig = createSignature();
         sig.initSign(pk);
         sig.update(b);
         return sig.sign();
     }
+
+    /**
+     * Signs several messages using the encryption algorithm in combination with
+     * the digest algorithm.
+     * @param messages	the messages you want to be hashed and signed
+     * @return	the signed message digests, in the same order as the messages
+     * @throws GeneralSecurityException
+     * @see com.itextpdf.text.pdf.security.ExternalBatchSignature#signBatch(byte[][])
+     * @since 5.5.6
+     */
+    public byte[][] signBatch(byte[][] messages) throws GeneralSecurityException {
+        Signature sig = createSignature();
+        byte[][] signed = new byte[messages.length][];
+        for (int k = 0; k < messages.length; ++k) {
+            sig.initSign(pk);
+            sig.update(messages[k]);
+            signed[k] = sig.sign();
+        }
+        return signed;
+    }
+
+    private Signature createSignature() throws GeneralSecurityException {
+        String signMode = hashAlgorithm + "with" + encryptionAlgorithm;
+        if (provider == null)
+            return Signature.getInstance(signMode);
+        else
+            return Signature.getInstance(signMode, provider);
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * $Id$
+ *
+ * This file is part of the iText (R) project.
+ * Copyright (c) 1998-2014 iText Group NV
+ * Authors: Bruno Lowagie, Paulo Soares, et al.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+ * OF THIRD PARTY RIGHTS
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * http://itextpdf.com/terms-of-use/
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * In accordance with Section 7(b) of the GNU Affero General Public License,
+ * a covered work must retain the producer line in every PDF that is created
+ * or manipulated using iText.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the iText software without
+ * disclosing the source code of your own applications.
+ * These activities include: offering paid services to customers as an ASP,
+ * serving PDFs on the fly in a web application, shipping iText with a closed
+ * source product.
+ *
+ * For more information, please contact iText Software Corp. at this
+ * address: sales@itextpdf.com
+ */
+package com.itextpdf.text.pdf.security;
+
+import java.util.Date;
+
+/**
+ * Interface for a cache of revocation data, CRLs and OCSP responses, that can be
+ * shared by {@link CrlClientOnline} and {@link OcspClientBouncyCastle} so that the
+ * same data isn't downloaded again while it is still valid, for instance when
+ * {@link LtvVerification} adds the verification of many signatures issued by the same CA.
+ * Implementations must be thread-safe and must not share the arrays they store with
+ * their callers, since the clients hand them out to be embedded in the documents.
+ * @see RevocationDataCache
+ * @since 5.5.6
+ */
+public interface RevocationCache {
+
+    /**
+     * Gets the revocation data stored for a key.
+     * @param key the key built by the client, from the issuer and the serial number or the distribution point
+     * @return the encoded CRL or OCSP response, or <CODE>null</CODE> if there's none or if it is no longer valid
+     */
+    public byte[] get(String key);
+
+    /**
+     * Stores the revocation data for a key.
+     * @param key the key built by the client, from the issuer and the serial number or the distribution point
+     * @param encoded the encoded CRL or OCSP response
+     * @param nextUpdate the time when newer data will be available, or <CODE>null</CODE> if unknown
+     */
+    public void put(String key, byte[] encoded, Date nextUpdate);
+}
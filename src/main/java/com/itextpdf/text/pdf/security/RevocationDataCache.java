@@ -0,0 +1,295 @@
+/*
+ * $Id$
+ *
+ * This file is part of the iText (R) project.
+ * Copyright (c) 1998-2014 iText Group NV
+ * Authors: Bruno Lowagie, Paulo Soares, et al.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+ * OF THIRD PARTY RIGHTS
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * http://itextpdf.com/terms-of-use/
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * In accordance with Section 7(b) of the GNU Affero General Public License,
+ * a covered work must retain the producer line in every PDF that is created
+ * or manipulated using iText.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the iText software without
+ * disclosing the source code of your own applications.
+ * These activities include: offering paid services to customers as an ASP,
+ * serving PDFs on the fly in a web application, shipping iText with a closed
+ * source product.
+ *
+ * For more information, please contact iText Software Corp. at this
+ * address: sales@itextpdf.com
+ */
+package com.itextpdf.text.pdf.security;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.itextpdf.text.ExceptionConverter;
+import com.itextpdf.text.log.Logger;
+import com.itextpdf.text.log.LoggerFactory;
+
+/**
+ * A thread-safe {@link RevocationCache} that keeps the revocation data in memory until
+ * its next update and, optionally, in a directory so that it survives the application.
+ * It keeps its own copy of the data and every call to <CODE>get</CODE> returns a new copy.
+ * <p>
+ * A typical use, where the same cache serves all the documents:
+ * <pre>
+ * RevocationDataCache cache = new RevocationDataCache(new File("/var/cache/revocation"));
+ * CrlClientOnline crlClient = new CrlClientOnline();
+ * crlClient.setRevocationCache(cache);
+ * OcspClientBouncyCastle ocspClient = new OcspClientBouncyCastle();
+ * ocspClient.setRevocationCache(cache);
+ * </pre>
+ * @since 5.5.6
+ */
+public class RevocationDataCache implements RevocationCache {
+
+	/** The Logger instance. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(RevocationDataCache.class);
+
+    /** The cached data with the time it expires. */
+    private static class Entry {
+        final byte[] encoded;
+        final long expires;
+
+        Entry(byte[] encoded, long expires) {
+            this.encoded = encoded;
+            this.expires = expires;
+        }
+    }
+
+    /** The data in memory. */
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    /** The directory where the data is persisted or <CODE>null</CODE>. */
+    private final File directory;
+    /** How long the data without next update is kept, in milliseconds. */
+    private volatile long maxAge;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a cache that keeps the data in memory only.
+     */
+    public RevocationDataCache() {
+        this(null);
+    }
+
+    /**
+     * Creates a cache that keeps the data in memory and in a directory.
+     * @param directory the directory where the data is persisted or <CODE>null</CODE>
+     * to keep it in memory only. It will be created if it doesn't exist
+     */
+    public RevocationDataCache(File directory) {
+        if (directory != null)
+            directory.mkdirs();
+        this.directory = directory;
+    }
+
+    /**
+     * Sets how long the data that has no next update is kept. The default is 0,
+     * meaning that such data isn't cached.
+     * @param maxAge the time in milliseconds
+     */
+    public void setMaxAge(long maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Gets how long the data that has no next update is kept.
+     * @return the time in milliseconds
+     */
+    public long getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Gets the number of requests that were served from the cache.
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of requests that weren't found in the cache or were no longer valid.
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Removes all the data, from memory and from the directory.
+     */
+    public void clear() {
+        entries.clear();
+        if (directory == null)
+            return;
+        File[] files = directory.listFiles();
+        if (files == null)
+            return;
+        for (File file : files) {
+            if (file.getName().endsWith(SUFFIX))
+                file.delete();
+        }
+    }
+
+    /**
+     * @see com.itextpdf.text.pdf.security.RevocationCache#get(java.lang.String)
+     */
+    public byte[] get(String key) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry == null && directory != null) {
+            entry = load(key);
+            if (entry != null)
+                entries.putIfAbsent(key, entry);
+        }
+        if (entry != null && entry.expires <= now) {
+            entries.remove(key, entry);
+            if (directory != null)
+                getFile(key).delete();
+            entry = null;
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.encoded.clone();
+    }
+
+    /**
+     * @see com.itextpdf.text.pdf.security.RevocationCache#put(java.lang.String, byte[], java.util.Date)
+     */
+    public void put(String key, byte[] encoded, Date nextUpdate) {
+        long expires;
+        if (nextUpdate != null)
+            expires = nextUpdate.getTime();
+        else if (maxAge > 0)
+            expires = System.currentTimeMillis() + maxAge;
+        else
+            return;
+        if (expires <= System.currentTimeMillis())
+            return;
+        Entry entry = new Entry(encoded.clone(), expires);
+        entries.put(key, entry);
+        if (directory != null)
+            store(key, entry);
+    }
+
+    /** The extension of the files in the directory. */
+    private static final String SUFFIX = ".rev";
+
+    /**
+     * Gets the file for a key, named after the SHA-1 of the key.
+     */
+    private File getFile(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(key.getBytes("UTF-8"));
+            StringBuilder name = new StringBuilder(hash.length * 2 + SUFFIX.length());
+            for (byte b : hash) {
+                name.append(Character.forDigit((b >> 4) & 0xf, 16));
+                name.append(Character.forDigit(b & 0xf, 16));
+            }
+            return new File(directory, name.append(SUFFIX).toString());
+        }
+        catch (Exception e) {
+            throw new ExceptionConverter(e);
+        }
+    }
+
+    private Entry load(String key) {
+        File file = getFile(key);
+        if (!file.isFile())
+            return null;
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new FileInputStream(file));
+            long expires = in.readLong();
+            byte[] encoded = new byte[in.readInt()];
+            in.readFully(encoded);
+            return new Entry(encoded, expires);
+        }
+        catch (IOException e) {
+            LOGGER.info("Skipped cached revocation data: " + e.getMessage() + " for " + file);
+            return null;
+        }
+        finally {
+            try {
+                if (in != null)
+                    in.close();
+            }
+            catch (IOException e) {
+            }
+        }
+    }
+
+    /**
+     * Writes the data to a temporary file that is then renamed, so that other
+     * threads or applications never read a partial file.
+     */
+    private void store(String key, Entry entry) {
+        File file = getFile(key);
+        File temp = null;
+        DataOutputStream out = null;
+        try {
+            temp = File.createTempFile("rev", null, directory);
+            out = new DataOutputStream(new FileOutputStream(temp));
+            out.writeLong(entry.expires);
+            out.writeInt(entry.encoded.length);
+            out.write(entry.encoded);
+            out.close();
+            out = null;
+            file.delete();
+            if (!temp.renameTo(file))
+                throw new IOException("Can't rename " + temp + " to " + file);
+            temp = null;
+        }
+        catch (IOException e) {
+            LOGGER.info("Revocation data not persisted: " + e.getMessage());
+        }
+        finally {
+            try {
+                if (out != null)
+                    out.close();
+            }
+            catch (IOException e) {
+            }
+            if (temp != null)
+                temp.delete();
+        }
+    }
+}
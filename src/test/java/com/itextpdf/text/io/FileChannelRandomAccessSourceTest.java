@@ -3,6 +3,7 @@ package com.itextpdf.text.io;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.nio.channels.FileChannel;
 import java.util.Random;
 
@@ -102,4 +103,20 @@ public class FileChannelRandomAccessSourceTest {
 			s.close();
 		}
 	}
+
+	@Test
+	public void testCloseLeavesChannelOpen() throws Exception{
+		RandomAccessSource s = new RandomAccessSourceFactory().createBestSource(channel, false);
+		Assert.assertEquals(data[10], (byte)s.get(10));
+		s.close();
+		Assert.assertTrue(channel.isOpen());
+		try{
+			s.get(10);
+			Assert.fail("the source should be unmapped");
+		} catch (IOException e){
+		}
+		s = new RandomAccessSourceFactory().createBestSource(channel, true);
+		s.close();
+		Assert.assertFalse(channel.isOpen());
+	}
 }
@@ -121,4 +121,16 @@ public class PagedChannelRandomAccessSourceTest {
 			s.close();
 		}
 	}
+
+	@Test
+	public void testCloseLeavesChannelOpen() throws Exception{
+		PagedChannelRandomAccessSource s = new PagedChannelRandomAccessSource(channel, data.length/10, 7, false);
+		Assert.assertEquals(data[data.length - 1], (byte)s.get(data.length - 1));
+		s.close();
+		Assert.assertTrue(channel.isOpen());
+		// the pages are mapped again on demand
+		Assert.assertEquals(data[0], (byte)s.get(0));
+		s.close();
+		Assert.assertTrue(channel.isOpen());
+	}
 }
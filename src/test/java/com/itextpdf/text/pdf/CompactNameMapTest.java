@@ -0,0 +1,215 @@
+package com.itextpdf.text.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.itextpdf.text.DocumentException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactNameMapTest {
+
+    private static PdfName key(int i) {
+        return new PdfName("Key" + i);
+    }
+
+    @Test
+    public void putGetRemoveTest() {
+        CompactNameMap map = new CompactNameMap();
+        HashMap<PdfName, PdfObject> expected = new HashMap<PdfName, PdfObject>();
+        for (int i = 0; i < 100; ++i) {
+            PdfNumber value = new PdfNumber(i);
+            Assert.assertNull(map.put(key(i), value));
+            expected.put(key(i), value);
+            Assert.assertEquals(expected, map);
+        }
+        Assert.assertSame(expected.get(key(3)), map.put(key(3), new PdfNumber(-3)));
+        Assert.assertEquals(-3, ((PdfNumber)map.get(key(3))).intValue());
+        for (int i = 0; i < 100; i += 3) {
+            Assert.assertNotNull(map.remove(key(i)));
+            expected.remove(key(i));
+        }
+        Assert.assertNull(map.remove(key(0)));
+        Assert.assertNull(map.get(null));
+        Assert.assertFalse(map.containsKey(key(100)));
+        Assert.assertEquals(expected.keySet(), map.keySet());
+        for (int i = 0; i < 100; ++i)
+            Assert.assertEquals(expected.containsKey(key(i)), map.containsKey(key(i)));
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.get(key(1)));
+    }
+
+    @Test
+    public void insertionOrderTest() {
+        for (int count : new int[]{CompactNameMap.LINEAR_LIMIT, 50}) {
+            CompactNameMap map = new CompactNameMap();
+            for (int i = count; i > 0; --i)
+                map.put(key(i), PdfNull.PDFNULL);
+            int i = count;
+            for (PdfName name : map.keySet())
+                Assert.assertEquals(key(i--), name);
+        }
+    }
+
+    @Test
+    public void iteratorRemoveTest() {
+        for (int count : new int[]{CompactNameMap.LINEAR_LIMIT, 50}) {
+            CompactNameMap map = new CompactNameMap();
+            for (int i = 0; i < count; ++i)
+                map.put(key(i), new PdfNumber(i));
+            int seen = 0;
+            for (Iterator<Map.Entry<PdfName, PdfObject>> it = map.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<PdfName, PdfObject> e = it.next();
+                ++seen;
+                int value = ((PdfNumber)e.getValue()).intValue();
+                if (value % 2 == 0)
+                    it.remove();
+                else
+                    e.setValue(new PdfNumber(-value));
+            }
+            Assert.assertEquals(count, seen);
+            Assert.assertEquals(count / 2, map.size());
+            for (int i = 0; i < count; ++i) {
+                PdfNumber n = (PdfNumber)map.get(key(i));
+                if (i % 2 == 0)
+                    Assert.assertNull(n);
+                else
+                    Assert.assertEquals(-i, n.intValue());
+            }
+        }
+    }
+
+    @Test
+    public void viewsTest() {
+        CompactNameMap map = new CompactNameMap();
+        for (int i = 0; i < 20; ++i)
+            map.put(key(i), new PdfNumber(i));
+        Assert.assertTrue(map.containsValue(map.get(key(7))));
+        Assert.assertTrue(map.keySet().remove(key(7)));
+        Assert.assertFalse(map.containsKey(key(7)));
+        Assert.assertEquals(19, map.values().size());
+        int sum = 0;
+        for (PdfObject value : map.values())
+            sum += ((PdfNumber)value).intValue();
+        Assert.assertEquals(190 - 7, sum);
+        HashMap<PdfName, PdfObject> copy = new HashMap<PdfName, PdfObject>();
+        copy.putAll(map);
+        Assert.assertEquals(copy, map);
+        Assert.assertEquals(copy.hashCode(), map.hashCode());
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertEquals(19, copy.size());
+    }
+
+    @Test
+    public void dictionaryTest() throws IOException {
+        PdfDictionary dic = new PdfDictionary(PdfName.PAGE);
+        dic.put(PdfName.MEDIABOX, new PdfRectangle(612, 792));
+        dic.put(PdfName.ROTATE, new PdfNumber(90));
+        dic.put(PdfName.ROTATE, null);
+        Assert.assertEquals(2, dic.size());
+        Assert.assertTrue(dic.isPage());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dic.toPdf(null, out);
+        HashMap<PdfName, PdfObject> expected = new HashMap<PdfName, PdfObject>();
+        expected.put(PdfName.TYPE, PdfName.PAGE);
+        expected.put(PdfName.MEDIABOX, new PdfRectangle(612, 792));
+        Assert.assertEquals(toPdf(expected), new String(out.toByteArray()));
+    }
+
+    @Test
+    public void dictionaryOrderTest() throws IOException {
+        PdfDictionary dic = new PdfDictionary();
+        HashMap<PdfName, PdfObject> expected = new HashMap<PdfName, PdfObject>();
+        for (int i = 40; i > 0; --i) {
+            dic.put(key(i), new PdfNumber(i));
+            expected.put(key(i), new PdfNumber(i));
+        }
+        for (int i = 40; i > 0; i -= 7) {
+            dic.remove(key(i));
+            expected.remove(key(i));
+        }
+        dic.put(key(40), new PdfNumber(40));
+        expected.put(key(40), new PdfNumber(40));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dic.toPdf(null, out);
+        Assert.assertEquals(toPdf(expected), new String(out.toByteArray()));
+    }
+
+    @Test
+    public void compactDictionaryOrderTest() throws IOException {
+        PdfDictionary dic = new PdfDictionary();
+        dic.useCompactMap();
+        Assert.assertNull(dic.hashMap);
+        LinkedHashMap<PdfName, PdfObject> expected = new LinkedHashMap<PdfName, PdfObject>();
+        for (int i = 40; i > 0; --i) {
+            dic.put(key(i), new PdfNumber(i));
+            expected.put(key(i), new PdfNumber(i));
+        }
+        for (int i = 40; i > 0; i -= 7) {
+            dic.remove(key(i));
+            expected.remove(key(i));
+        }
+        dic.put(key(40), new PdfNumber(40));
+        expected.put(key(40), new PdfNumber(40));
+        Assert.assertEquals(new ArrayList<PdfName>(expected.keySet()), new ArrayList<PdfName>(dic.getKeys()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dic.toPdf(null, out);
+        Assert.assertEquals(toPdf(expected), new String(out.toByteArray()));
+    }
+
+    @Test
+    public void compactReaderTest() throws IOException, DocumentException {
+        String file = "./src/test/resources/com/itextpdf/text/pdf/AcroFieldsTest/acroform.pdf";
+        PdfReader expected = new PdfReader(file);
+        PdfReader reader;
+        PdfReader.compactDictionaries = true;
+        try {
+            reader = new PdfReader(file);
+        }
+        finally {
+            PdfReader.compactDictionaries = false;
+        }
+        Assert.assertEquals(expected.getXrefSize(), reader.getXrefSize());
+        int dictionaries = 0;
+        for (int i = 1; i < reader.getXrefSize(); ++i) {
+            PdfObject obj = reader.getPdfObject(i);
+            if (obj == null || !obj.isDictionary() && !obj.isStream())
+                continue;
+            ++dictionaries;
+            PdfDictionary dic = (PdfDictionary)obj;
+            Assert.assertNull(dic.hashMap);
+            Assert.assertEquals(((PdfDictionary)expected.getPdfObject(i)).getKeys(), dic.getKeys());
+        }
+        Assert.assertTrue(dictionaries > 0);
+        Assert.assertEquals(expected.getAcroFields().getFields().keySet(), reader.getAcroFields().getFields().keySet());
+        Assert.assertEquals(expected.getAcroForm().size(), reader.getAcroForm().size());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfStamper stamper = new PdfStamper(reader, out);
+        stamper.getAcroFields().setField("FirstName", "compact");
+        stamper.close();
+        Assert.assertEquals("compact", new PdfReader(out.toByteArray()).getAcroFields().getField("FirstName"));
+    }
+
+    private static String toPdf(Map<PdfName, PdfObject> map) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('<');
+        out.write('<');
+        for (Map.Entry<PdfName, PdfObject> e : map.entrySet()) {
+            e.getKey().toPdf(null, out);
+            if (e.getValue().isNumber())
+                out.write(' ');
+            e.getValue().toPdf(null, out);
+        }
+        out.write('>');
+        out.write('>');
+        return new String(out.toByteArray());
+    }
+}
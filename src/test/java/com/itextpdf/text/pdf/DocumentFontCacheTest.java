@@ -0,0 +1,107 @@
+/*
+ * $Id$
+ *
+ * This file is part of the iText (R) project.
+ * Copyright (c) 1998-2014 iText Group NV
+ * Authors: Bruno Lowagie, Paulo Soares, et al.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+ * OF THIRD PARTY RIGHTS
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * http://itextpdf.com/terms-of-use/
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * In accordance with Section 7(b) of the GNU Affero General Public License,
+ * a covered work must retain the producer line in every PDF that is created
+ * or manipulated using iText.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the iText software without
+ * disclosing the source code of your own applications.
+ * These activities include: offering paid services to customers as an ASP,
+ * serving PDFs on the fly in a web application, shipping iText with a closed
+ * source product.
+ *
+ * For more information, please contact iText Software Corp. at this
+ * address: sales@itextpdf.com
+ */
+package com.itextpdf.text.pdf;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+
+public class DocumentFontCacheTest {
+
+    @Test
+    public void decodeOnceTest() throws Exception {
+        PdfReader reader = new PdfReader(createPdf(20));
+        DocumentFontCache cache = reader.getDocumentFontCache();
+        Assert.assertSame(cache, reader.getDocumentFontCache());
+        for (int k = 1; k <= 20; ++k)
+            PdfTextExtractor.getTextFromPage(reader, k);
+        Assert.assertEquals(3, cache.size());
+        Assert.assertEquals(3, cache.getMisses());
+        Assert.assertEquals(20 * 3 - 3, cache.getHits());
+        Assert.assertEquals(0, cache.getEvictions());
+        Assert.assertSame(cache, reader.createConcurrentView().getDocumentFontCache());
+        reader.close();
+    }
+
+    @Test
+    public void boundedTest() throws Exception {
+        byte[] pdf = createPdf(5);
+        PdfReader reader = new PdfReader(pdf);
+        DocumentFontCache cache = new DocumentFontCache(1);
+        reader.setDocumentFontCache(cache);
+        PdfReader uncached = new PdfReader(pdf);
+        uncached.setDocumentFontCache(null);
+        for (int k = 1; k <= 5; ++k)
+            Assert.assertEquals(PdfTextExtractor.getTextFromPage(uncached, k), PdfTextExtractor.getTextFromPage(reader, k));
+        Assert.assertEquals(1, cache.size());
+        Assert.assertTrue(cache.getEvictions() > 0);
+        Assert.assertNull(uncached.getDocumentFontCache());
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        reader.close();
+        uncached.close();
+    }
+
+    private static byte[] createPdf(int pages) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document();
+        PdfWriter.getInstance(document, baos);
+        document.open();
+        Font[] fonts = {new Font(Font.FontFamily.HELVETICA), new Font(Font.FontFamily.TIMES_ROMAN), new Font(Font.FontFamily.COURIER)};
+        for (int k = 1; k <= pages; ++k) {
+            for (Font font : fonts)
+                document.add(new Paragraph("Page " + k, font));
+            document.newPage();
+        }
+        document.close();
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * $Id:  $
+ *
+ * This file is part of the iText (R) project.
+ * Copyright (c) 1998-2014 iText Group NV
+ * Authors: Bruno Lowagie, Paulo Soares, et al.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+ * OF THIRD PARTY RIGHTS
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * http://itextpdf.com/terms-of-use/
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * In accordance with Section 7(b) of the GNU Affero General Public License,
+ * a covered work must retain the producer line in every PDF that is created
+ * or manipulated using iText.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the iText software without
+ * disclosing the source code of your own applications.
+ * These activities include: offering paid services to customers as an ASP,
+ * serving PDFs on the fly in a web application, shipping iText with a closed
+ * source product.
+ *
+ * For more information, please contact iText Software Corp. at this
+ * address: sales@itextpdf.com
+ */
+
+package com.itextpdf.text.pdf;
+
+import com.itextpdf.testutils.TestResourceUtils;
+import com.itextpdf.text.pdf.codec.LZWCompressor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+
+public class FilterHandlersTest {
+
+    @Test
+    public void testFlateWithPredictor() throws Exception {
+        int columns = 30;
+        ByteArrayOutputStream rows = new ByteArrayOutputStream();
+        Random random = new Random(7);
+        for (int row = 0; row < 40; ++row) {
+            rows.write(row % 5);
+            for (int k = 0; k < columns; ++k)
+                rows.write(random.nextInt(8));
+        }
+        PdfDictionary dic = new PdfDictionary();
+        dic.put(PdfName.FILTER, PdfName.FLATEDECODE);
+        PdfDictionary parms = new PdfDictionary();
+        parms.put(PdfName.PREDICTOR, new PdfNumber(12));
+        parms.put(PdfName.COLUMNS, new PdfNumber(columns));
+        dic.put(PdfName.DECODEPARMS, parms);
+        assertSameDecoding(deflate(rows.toByteArray()), dic);
+    }
+
+    @Test
+    public void testTiffPredictor() throws Exception {
+        PdfDictionary dic = new PdfDictionary();
+        dic.put(PdfName.FILTER, PdfName.FLATEDECODE);
+        PdfDictionary parms = new PdfDictionary();
+        parms.put(PdfName.PREDICTOR, new PdfNumber(2));
+        parms.put(PdfName.COLUMNS, new PdfNumber(10));
+        parms.put(PdfName.COLORS, new PdfNumber(3));
+        dic.put(PdfName.DECODEPARMS, parms);
+        byte[] data = new byte[3 * 10 * 7 + 11];
+        new Random(3).nextBytes(data);
+        assertSameDecoding(deflate(data), dic);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTiffPredictorWithoutColumns() throws Exception {
+        PdfDictionary dic = new PdfDictionary();
+        dic.put(PdfName.FILTER, PdfName.FLATEDECODE);
+        PdfDictionary parms = new PdfDictionary();
+        parms.put(PdfName.PREDICTOR, new PdfNumber(2));
+        parms.put(PdfName.COLUMNS, new PdfNumber(0));
+        dic.put(PdfName.DECODEPARMS, parms);
+        readAll(PdfReader.decodeInputStream(new ByteArrayInputStream(deflate(new byte[100])), dic, FilterHandlers.getDefaultStreamFilterHandlers()));
+    }
+
+    @Test
+    public void testCorruptedFlate() throws Exception {
+        byte[] data = new byte[20000];
+        Random random = new Random(13);
+        for (int k = 0; k < data.length; ++k)
+            data[k] = (byte)('a' + random.nextInt(4));
+        byte[] encoded = deflate(data);
+        encoded[encoded.length / 2] ^= 0x55;
+        PdfDictionary dic = new PdfDictionary();
+        dic.put(PdfName.FILTER, PdfName.FLATEDECODE);
+        byte[] expected = PdfReader.decodeBytes(encoded, dic);
+        Assert.assertTrue(expected.length < data.length);
+        // the stream ends at the error, without the output of the read that found it
+        InputStream in = PdfReader.decodeInputStream(new ByteArrayInputStream(encoded), dic, FilterHandlers.getDefaultStreamFilterHandlers());
+        byte[] decoded = readAll(in);
+        Assert.assertTrue(decoded.length > 0);
+        Assert.assertTrue(decoded.length <= expected.length);
+        for (int k = 0; k < decoded.length; ++k)
+            Assert.assertEquals(expected[k], decoded[k]);
+    }
+
+    @Test
+    public void testAsciiFilterChain() throws Exception {
+        byte[] data = new byte[5000];
+        new Random(11).nextBytes(data);
+        byte[] hex = toHex(deflate(data));
+        PdfDictionary dic = new PdfDictionary();
+        PdfArray filters = new PdfArray();
+        filters.add(PdfName.ASCIIHEXDECODE);
+        filters.add(PdfName.FLATEDECODE);
+        dic.put(PdfName.FILTER, filters);
+        byte[] decoded = assertSameDecoding(hex, dic);
+        Assert.assertArrayEquals(data, decoded);
+
+        dic.put(PdfName.FILTER, PdfName.ASCII85DECODE);
+        assertSameDecoding("9jqo^BlbD-BleB1DJ+*+F(f,q/0JhKF<GL>Cj@.4Gp$d7F!,L7@<6@)/0JDEF<G%<+EV:2F!,O<DJ+*.@<*K0@<6L(Df-\\0Ec5e;DffZ(EZee.Bl.9pF\"AGXBPCsi+DGm>@3BB/F*&OCAfu2/AKYi(DIb:@FD,*)+C]U=@3BN#EcYf8ATD3s@q?d$AftVqCh[NqF<G:8+EV:.+Cf>-FD5W8ARlolDIal(DId<j@<?3r@:F%a+D58'ATD4$Bl@l3De:,-DJs`8ARoFb/0JMK@qB4^F!,R<AKZ&-DfTqBG%G>uD.RTpAKYo'+CT/5+Cei#DII?(E,9)oF*2M7/c~>".getBytes("ISO-8859-1"), dic);
+    }
+
+    @Test
+    public void testLzw() throws Exception {
+        byte[] data = new byte[20000];
+        Random random = new Random(5);
+        for (int k = 0; k < data.length; ++k)
+            data[k] = (byte)('a' + random.nextInt(4));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LZWCompressor lzw = new LZWCompressor(out, 8, true);
+        lzw.compress(data, 0, data.length);
+        lzw.flush();
+        PdfDictionary dic = new PdfDictionary();
+        dic.put(PdfName.FILTER, PdfName.LZWDECODE);
+        Assert.assertArrayEquals(data, assertSameDecoding(out.toByteArray(), dic));
+    }
+
+    @Test
+    public void testRunLength() throws Exception {
+        byte[] encoded = {2, 'a', 'b', 'c', (byte)254, 'x', 0, 'y', (byte)128, 'z'};
+        PdfDictionary dic = new PdfDictionary();
+        dic.put(PdfName.FILTER, PdfName.RUNLENGTHDECODE);
+        Assert.assertArrayEquals("abcxxxy".getBytes("ISO-8859-1"), assertSameDecoding(encoded, dic));
+    }
+
+    @Test
+    public void testStreamsOfDocument() throws Exception {
+        File testFile = TestResourceUtils.getResourceAsTempFile(PdfReaderTest.class, "readCompressedPdfTest1.pdf");
+        PdfReader reader = new PdfReader(testFile.getAbsolutePath());
+        int flateStreams = 0;
+        for (int k = 1; k < reader.getXrefSize(); ++k) {
+            PdfObject obj = reader.getPdfObject(k);
+            if (obj == null || !obj.isStream() || !PdfName.FLATEDECODE.equals(((PRStream)obj).get(PdfName.FILTER)))
+                continue;
+            ++flateStreams;
+            PRStream stream = (PRStream)obj;
+            Assert.assertArrayEquals(PdfReader.getStreamBytes(stream), readAll(PdfReader.getStreamInputStream(stream)));
+        }
+        Assert.assertTrue(flateStreams > 0);
+        reader.close();
+    }
+
+    private static byte[] assertSameDecoding(byte[] encoded, PdfDictionary dic) throws IOException {
+        byte[] expected = PdfReader.decodeBytes(encoded, dic);
+        InputStream in = PdfReader.decodeInputStream(new ByteArrayInputStream(encoded), dic, FilterHandlers.getDefaultStreamFilterHandlers());
+        Assert.assertArrayEquals(expected, readAll(in));
+        return expected;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[333];
+        int n;
+        while ((n = in.read(buf)) >= 0)
+            out.write(buf, 0, n);
+        in.close();
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DeflaterOutputStream zip = new DeflaterOutputStream(out);
+        zip.write(data);
+        zip.close();
+        return out.toByteArray();
+    }
+
+    private static byte[] toHex(byte[] data) {
+        ByteBuffer buf = new ByteBuffer();
+        for (int k = 0; k < data.length; ++k) {
+            buf.appendHex(data[k]);
+            if (k % 40 == 39)
+                buf.append('\n');
+        }
+        buf.append('>');
+        return buf.toByteArray();
+    }
+}
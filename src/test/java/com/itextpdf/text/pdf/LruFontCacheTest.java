@@ -0,0 +1,173 @@
+/*
+ * $Id:  $
+ *
+ * This file is part of the iText (R) project.
+ * Copyright (c) 1998-2014 iText Group NV
+ * Authors: Bruno Lowagie, Paulo Soares, et al.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+ * OF THIRD PARTY RIGHTS
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * http://itextpdf.com/terms-of-use/
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * In accordance with Section 7(b) of the GNU Affero General Public License,
+ * a covered work must retain the producer line in every PDF that is created
+ * or manipulated using iText.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the iText software without
+ * disclosing the source code of your own applications.
+ * These activities include: offering paid services to customers as an ASP,
+ * serving PDFs on the fly in a web application, shipping iText with a closed
+ * source product.
+ *
+ * For more information, please contact iText Software Corp. at this
+ * address: sales@itextpdf.com
+ */
+
+package com.itextpdf.text.pdf;
+
+import com.itextpdf.text.DocumentException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LruFontCacheTest {
+
+    @Test
+    public void testSingleLoadPerKey() throws Exception {
+        final LruFontCache cache = new LruFontCache();
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<BaseFont>> futures = new ArrayList<Future<BaseFont>>();
+            for (int k = 0; k < 8; ++k) {
+                futures.add(executor.submit(new Callable<BaseFont>() {
+                    public BaseFont call() throws Exception {
+                        start.await();
+                        return cache.get("Helvetica", new FontCache.FontLoader() {
+                            public BaseFont load() throws DocumentException, IOException {
+                                loads.incrementAndGet();
+                                try {
+                                    Thread.sleep(50);
+                                }
+                                catch (InterruptedException e) {
+                                    throw new IOException(e.getMessage());
+                                }
+                                return BaseFont.createFont(BaseFont.HELVETICA, BaseFont.WINANSI, false, false, null, null, false, false);
+                            }
+                        });
+                    }
+                }));
+            }
+            start.countDown();
+            BaseFont font = futures.get(0).get();
+            for (Future<BaseFont> f : futures)
+                Assert.assertSame(font, f.get());
+            Assert.assertEquals(1, loads.get());
+            Assert.assertEquals(1, cache.getMisses());
+            Assert.assertEquals(7, cache.getHits());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        LruFontCache cache = new LruFontCache(2);
+        BaseFont helvetica = load(cache, BaseFont.HELVETICA);
+        load(cache, BaseFont.COURIER);
+        Assert.assertSame(helvetica, cache.get(BaseFont.HELVETICA));
+        load(cache, BaseFont.TIMES_ROMAN);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(1, cache.getEvictions());
+        long hits = cache.getHits();
+        Map<String, BaseFont> fonts = cache.getFonts();
+        Assert.assertEquals(2, fonts.size());
+        Assert.assertSame(helvetica, fonts.get(BaseFont.HELVETICA));
+        Assert.assertTrue(fonts.containsKey(BaseFont.TIMES_ROMAN));
+        Assert.assertEquals(hits, cache.getHits());
+        Assert.assertNull(cache.get(BaseFont.COURIER));
+        Assert.assertSame(helvetica, cache.get(BaseFont.HELVETICA));
+    }
+
+    @Test
+    public void testUnrecognizedFontIsNotCached() throws Exception {
+        LruFontCache cache = new LruFontCache();
+        Assert.assertNull(cache.get("unknown", new FontCache.FontLoader() {
+            public BaseFont load() {
+                return null;
+            }
+        }));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedFontCacheMap() throws Exception {
+        FontCache previous = BaseFont.getFontCache();
+        LruFontCache cache = new LruFontCache();
+        BaseFont.setFontCache(cache);
+        try {
+            BaseFont helvetica = BaseFont.createFont(BaseFont.HELVETICA, BaseFont.WINANSI, false);
+            String key = BaseFont.HELVETICA + "\n" + BaseFont.WINANSI + "\n" + false;
+            Assert.assertSame(helvetica, BaseFont.fontCache.get(key));
+            BaseFont courier = BaseFont.createFont(BaseFont.COURIER, BaseFont.WINANSI, false, false, null, null);
+            Assert.assertSame(helvetica, BaseFont.fontCache.put(key, courier));
+            Assert.assertSame(courier, BaseFont.createFont(BaseFont.HELVETICA, BaseFont.WINANSI, false));
+            Assert.assertEquals(Collections.singleton(key), BaseFont.fontCache.keySet());
+            Assert.assertSame(courier, BaseFont.fontCache.values().iterator().next());
+            Map.Entry<String, BaseFont> entry = BaseFont.fontCache.entrySet().iterator().next();
+            Assert.assertEquals(key, entry.getKey());
+            Assert.assertEquals(cache.getFonts(), BaseFont.fontCache);
+            Assert.assertSame(courier, BaseFont.fontCache.remove(key));
+            Assert.assertEquals(0, cache.size());
+            Assert.assertTrue(BaseFont.fontCache.isEmpty());
+            cache.put(key, helvetica);
+            Assert.assertEquals(1, BaseFont.fontCache.size());
+            Assert.assertTrue(BaseFont.fontCache.containsValue(helvetica));
+        }
+        finally {
+            BaseFont.setFontCache(previous);
+        }
+    }
+
+    private static BaseFont load(LruFontCache cache, final String name) throws Exception {
+        return cache.get(name, new FontCache.FontLoader() {
+            public BaseFont load() throws DocumentException, IOException {
+                return BaseFont.createFont(name, BaseFont.WINANSI, false, false, null, null, false, false);
+            }
+        });
+    }
+}
@@ -77,4 +77,96 @@ public class PRTokeniserTest {
 		
 	}
 
+	@Test
+	public void testNumberValues() throws Exception {
+		PRTokeniser tok = new PRTokeniser(new RandomAccessFileOrArray("12 --234 +5 -7 1.5 12345678901 007 end".getBytes()));
+		tok.nextValidToken();
+		Assert.assertEquals(12, tok.intValue());
+		Assert.assertEquals("12", tok.getStringValue());
+		tok.nextValidToken();
+		Assert.assertEquals(234, tok.intValue());
+		tok.nextValidToken();
+		Assert.assertEquals(5, tok.intValue());
+		tok.nextValidToken();
+		Assert.assertEquals(-7, tok.intValue());
+		Assert.assertEquals("-7", tok.getStringValue());
+		tok.nextValidToken();
+		Assert.assertEquals("1.5", tok.getStringValue());
+		try {
+			tok.intValue();
+			Assert.fail("1.5 is not an integer");
+		}
+		catch (NumberFormatException expected) {
+		}
+		tok.nextValidToken();
+		Assert.assertEquals(12345678901L, tok.longValue());
+		tok.nextValidToken();
+		Assert.assertEquals(7, tok.intValue());
+		Assert.assertEquals("007", tok.getStringValue());
+	}
+
+	@Test
+	public void testReferenceLookahead() throws Exception {
+		PRTokeniser tok = new PRTokeniser(new RandomAccessFileOrArray("[1 2 3 12 0 R 4 5 obj]".getBytes()));
+		tok.nextValidToken();
+		Assert.assertEquals(TokenType.START_ARRAY, tok.getTokenType());
+		for (int i = 1; i <= 3; ++i) {
+			tok.nextValidToken();
+			Assert.assertEquals(TokenType.NUMBER, tok.getTokenType());
+			Assert.assertEquals(String.valueOf(i), tok.getStringValue());
+			Assert.assertEquals(i, tok.intValue());
+		}
+		tok.nextValidToken();
+		Assert.assertEquals(TokenType.REF, tok.getTokenType());
+		Assert.assertEquals(12, tok.getReference());
+		Assert.assertEquals(0, tok.getGeneration());
+		tok.nextValidToken();
+		Assert.assertEquals("4", tok.getStringValue());
+		tok.nextValidToken();
+		Assert.assertEquals(5, tok.intValue());
+		tok.nextValidToken();
+		Assert.assertTrue(tok.isStringValue("obj"));
+		Assert.assertFalse(tok.isStringValue("ob"));
+		tok.nextValidToken();
+		Assert.assertEquals(TokenType.END_ARRAY, tok.getTokenType());
+	}
+
+	@Test
+	public void testByteValues() throws Exception {
+		PRTokeniser tok = new PRTokeniser(new RandomAccessFileOrArray("/A#20B (a\\(b\\)\\101) <E9 41>".getBytes()));
+		tok.nextToken();
+		Assert.assertEquals("A B", tok.getStringValue());
+		tok.nextToken();
+		Assert.assertEquals("a(b)A", tok.getStringValue());
+		tok.nextToken();
+		Assert.assertEquals(2, tok.getByteValueLength());
+		Assert.assertEquals((byte)0xe9, tok.getByteValue()[0]);
+		Assert.assertEquals("\u00e9A", tok.getStringValue());
+		Assert.assertTrue(tok.isHexString());
+	}
+
+	@Test
+	public void testReadAheadWindow() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 3000; ++i)
+			sb.append(i).append(" 0 R /N").append(i).append(' ');
+		RandomAccessFileOrArray file = new RandomAccessFileOrArray(sb.toString().getBytes());
+		PRTokeniser tok = new PRTokeniser(file);
+		for (int i = 0; i < 3000; ++i) {
+			tok.nextValidToken();
+			Assert.assertEquals(TokenType.REF, tok.getTokenType());
+			Assert.assertEquals(i, tok.getReference());
+			tok.nextValidToken();
+			Assert.assertEquals("N" + i, tok.getStringValue());
+		}
+		tok.nextValidToken();
+		Assert.assertEquals(TokenType.ENDOFFILE, tok.getTokenType());
+		file.seek(2);
+		Assert.assertEquals('0', file.read());
+		file.pushBack((byte)'x');
+		Assert.assertEquals(2, file.getFilePointer());
+		Assert.assertEquals('x', file.read());
+		Assert.assertEquals(' ', file.read());
+	}
+
 }
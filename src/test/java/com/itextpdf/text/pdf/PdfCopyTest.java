@@ -50,6 +50,9 @@ import com.itextpdf.testutils.TestResourceUtils;
 import com.itextpdf.text.Document;
 import com.itextpdf.text.DocumentException;
 import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.io.RandomAccessSource;
 import junit.framework.Assert;
 import org.junit.After;
 import org.junit.Before;
@@ -58,6 +61,12 @@ import org.junit.Test;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author kevin
@@ -351,6 +360,259 @@ public class PdfCopyTest {
         }
     }
 
+    @Test
+    public void testSmartCopyReusesStreamsAcrossReaders() throws Exception {
+        byte[] source = createImagePdf();
+
+        Document document = new Document();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfSmartCopy copy = new PdfSmartCopy(document, out);
+        document.open();
+        for (int k = 0; k < 3; ++k) {
+            PdfReader reader = new PdfReader(source);
+            copy.addPage(copy.getImportedPage(reader, 1));
+            copy.freeReader(reader);
+            reader.close();
+        }
+        long misses = copy.getStreamCacheMisses();
+        Assert.assertTrue(copy.getStreamCacheHits() >= 2);
+        Assert.assertEquals(misses, copy.getStreamCacheSize());
+        document.close();
+
+        PdfReader result = new PdfReader(out.toByteArray());
+        Assert.assertEquals(3, result.getNumberOfPages());
+        PdfIndirectReference im1 = getFirstXObject(result, 1);
+        for (int page = 2; page <= 3; ++page)
+            Assert.assertEquals(im1.getNumber(), getFirstXObject(result, page).getNumber());
+        result.close();
+    }
+
+    @Test
+    public void testSmartCopyStreamCacheCapacity() throws Exception {
+        byte[] source = createImagePdf();
+
+        Document document = new Document();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfSmartCopy copy = new PdfSmartCopy(document, out);
+        copy.setStreamCacheCapacity(1);
+        document.open();
+        for (int k = 0; k < 2; ++k) {
+            PdfReader reader = new PdfReader(source);
+            copy.addPage(copy.getImportedPage(reader, 1));
+            reader.close();
+        }
+        Assert.assertEquals(1, copy.getStreamCacheSize());
+        document.close();
+
+        PdfReader result = new PdfReader(out.toByteArray());
+        Assert.assertEquals(2, result.getNumberOfPages());
+        result.close();
+    }
+
+    @Test
+    public void testAddDocumentsInParallel() throws Exception {
+        String[] files = {
+                "./src/test/resources/com/itextpdf/text/pdf/PdfCopyTest/hello.pdf",
+                "./src/test/resources/com/itextpdf/text/pdf/PdfCopyTest/hello_memory.pdf",
+                "./src/test/resources/com/itextpdf/text/pdf/PdfCopyTest/subscribe.pdf"
+        };
+
+        Document document = new Document();
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+        PdfCopy copy = new PdfCopy(document, sequential);
+        document.open();
+        for (String f : files)
+            copy.addDocument(new PdfReader(f));
+        document.close();
+
+        ArrayList<PdfReader> readers = new ArrayList<PdfReader>();
+        for (String f : files)
+            readers.add(new PdfReader(f));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        document = new Document();
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        copy = new PdfCopy(document, parallel);
+        document.open();
+        try {
+            copy.addDocuments(readers, executor, 2);
+        }
+        finally {
+            executor.shutdown();
+        }
+        document.close();
+
+        PdfReader expected = new PdfReader(sequential.toByteArray());
+        PdfReader actual = new PdfReader(parallel.toByteArray());
+        Assert.assertEquals(expected.getNumberOfPages(), actual.getNumberOfPages());
+        Assert.assertEquals(expected.getXrefSize(), actual.getXrefSize());
+        for (int page = 1; page <= expected.getNumberOfPages(); ++page)
+            Assert.assertTrue(Arrays.equals(expected.getPageContent(page), actual.getPageContent(page)));
+        expected.close();
+        actual.close();
+        for (PdfReader reader : readers) {
+            for (int k = 1; k < reader.getXrefSize(); ++k) {
+                PdfObject obj = reader.getPdfObjectRelease(k);
+                if (obj != null && obj.isStream())
+                    Assert.assertTrue(((PRStream)obj).getOffset() >= 0);
+            }
+        }
+    }
+
+    @Test
+    public void testSmartCopyAddDocumentsUsesPreloadedStreams() throws Exception {
+        byte[] source = createImagePdf();
+        // counts the reads from the source files once their streams were preloaded
+        final AtomicInteger reads = new AtomicInteger();
+        ArrayList<PdfReader> readers = new ArrayList<PdfReader>();
+        for (int k = 0; k < 3; ++k) {
+            readers.add(new PdfReader(source) {
+                private volatile boolean preloaded;
+
+                @Override
+                Map<PRStream, byte[]> readStreamBytesRaw() throws IOException {
+                    Map<PRStream, byte[]> raw = super.readStreamBytesRaw();
+                    preloaded = true;
+                    return raw;
+                }
+
+                @Override
+                public RandomAccessFileOrArray getSafeFile() {
+                    if (!preloaded)
+                        return super.getSafeFile();
+                    final RandomAccessSource source = super.getSafeFile().createSourceView();
+                    return new RandomAccessFileOrArray(new RandomAccessSource() {
+                        public int get(long position) throws IOException {
+                            reads.incrementAndGet();
+                            return source.get(position);
+                        }
+
+                        public int get(long position, byte[] bytes, int off, int len) throws IOException {
+                            reads.incrementAndGet();
+                            return source.get(position, bytes, off, len);
+                        }
+
+                        public long length() {
+                            return source.length();
+                        }
+
+                        public void close() throws IOException {
+                            source.close();
+                        }
+                    });
+                }
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Document document = new Document();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfSmartCopy copy = new PdfSmartCopy(document, out);
+        document.open();
+        try {
+            copy.addDocuments(readers, executor, 2);
+        }
+        finally {
+            executor.shutdown();
+        }
+        document.close();
+        Assert.assertEquals(0, reads.get());
+
+        PdfReader result = new PdfReader(out.toByteArray());
+        Assert.assertEquals(3, result.getNumberOfPages());
+        PdfIndirectReference im1 = getFirstXObject(result, 1);
+        for (int page = 2; page <= 3; ++page)
+            Assert.assertEquals(im1.getNumber(), getFirstXObject(result, page).getNumber());
+        result.close();
+    }
+
+    @Test
+    public void testAddDocumentsWaitsForTasksOnFailure() throws Exception {
+        // counts the preloads still using their reader
+        final AtomicInteger running = new AtomicInteger();
+        ArrayList<PdfReader> readers = new ArrayList<PdfReader>();
+        for (int k = 0; k < 3; ++k) {
+            // the following readers are still being preloaded when the first one fails
+            final long delay = k == 0 ? 0 : 500;
+            readers.add(new PdfReader("./src/test/resources/com/itextpdf/text/pdf/PdfCopyTest/hello.pdf") {
+                @Override
+                Map<PRStream, byte[]> readStreamBytesRaw() throws IOException {
+                    running.incrementAndGet();
+                    try {
+                        Thread.sleep(delay);
+                        return super.readStreamBytesRaw();
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                    finally {
+                        running.decrementAndGet();
+                    }
+                }
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        // the document is never opened, so the first addDocument fails
+        Document document = new Document();
+        PdfCopy copy = new PdfCopy(document, new ByteArrayOutputStream());
+        try {
+            copy.addDocuments(readers, executor, 2);
+            Assert.fail("DocumentException expected");
+        }
+        catch (DocumentException e) {
+            Assert.assertEquals(0, running.get());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSmartCopyCyclicPopups() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document();
+        PdfWriter writer = PdfWriter.getInstance(document, baos);
+        document.open();
+        document.add(new Paragraph("Popups"));
+        for (int k = 0; k < 2; ++k) {
+            // the annotations differ, their popups only differ by their /Parent
+            PdfAnnotation annot = PdfAnnotation.createText(writer, new Rectangle(100, 700 - 100 * k, 120, 720 - 100 * k), "Note", "Note " + k, false, null);
+            PdfAnnotation popup = PdfAnnotation.createPopup(writer, new Rectangle(200, 500, 400, 600), null, false);
+            annot.setPopup(popup);
+            writer.addAnnotation(annot);
+            writer.addAnnotation(popup);
+        }
+        document.close();
+
+        document = new Document();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfSmartCopy copy = new PdfSmartCopy(document, out);
+        document.open();
+        PdfReader reader = new PdfReader(baos.toByteArray());
+        copy.addPage(copy.getImportedPage(reader, 1));
+        reader.close();
+        document.close();
+
+        PdfReader result = new PdfReader(out.toByteArray());
+        PdfArray annots = result.getPageN(1).getAsArray(PdfName.ANNOTS);
+        int notes = 0;
+        for (int k = 0; k < annots.size(); ++k) {
+            PdfIndirectReference ref = annots.getAsIndirectObject(k);
+            PdfDictionary annot = annots.getAsDict(k);
+            if (!PdfName.TEXT.equals(annot.getAsName(PdfName.SUBTYPE)))
+                continue;
+            ++notes;
+            PdfIndirectReference parent = annot.getAsDict(PdfName.POPUP).getAsIndirectObject(PdfName.PARENT);
+            Assert.assertEquals(ref.getNumber(), parent.getNumber());
+        }
+        Assert.assertEquals(2, notes);
+        result.close();
+    }
+
+    private static PdfIndirectReference getFirstXObject(PdfReader reader, int page) {
+        PdfDictionary xObject = reader.getPageN(page).getAsDict(PdfName.RESOURCES).getAsDict(PdfName.XOBJECT);
+        return xObject.getAsIndirectObject(xObject.getKeys().iterator().next());
+    }
+
     private static byte[] createImagePdf() throws Exception {
 
         final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
@@ -0,0 +1,89 @@
+package com.itextpdf.text.pdf;
+
+import java.io.IOException;
+
+/**
+ * Measures the heap retained by <CODE>PdfReader</CODE>s in full mode with the
+ * dictionaries kept in <CODE>HashMap</CODE>s, the default, and in
+ * <CODE>CompactNameMap</CODE>s with {@link PdfReader#compactDictionaries}.
+ * <P>
+ * It's not a unit test; run it with the test classpath, optionally with the paths of
+ * the documents to measure:
+ * <PRE>
+ * java -XX:+UseSerialGC -cp target/classes:target/test-classes:... com.itextpdf.text.pdf.PdfDictionaryFootprint [file.pdf ...]
+ * </PRE>
+ * Each figure is the average of {@link #READERS} readers of the same document held
+ * at once, measured after a full garbage collection, once all the documents were
+ * read a first time.
+ */
+public class PdfDictionaryFootprint {
+
+    /** The number of readers held at once for each document. */
+    public static final int READERS = 20;
+
+    /** The documents measured when no path is given. */
+    public static final String[] CORPUS = {
+        "./src/test/resources/com/itextpdf/text/pdf/TaggedPdfCopyTest/pdf/source11.pdf",
+        "./src/test/resources/com/itextpdf/text/pdf/PdfReaderTest/readCompressedPdfTest1.pdf",
+        "./src/test/resources/com/itextpdf/text/pdf/parser/PdfContentStreamProcessorTest/yaxiststar.pdf",
+        "./src/test/resources/com/itextpdf/text/pdf/parser/MultiFilteredRenderListenerTest/test.pdf",
+        "./src/test/resources/com/itextpdf/text/pdf/parser/TextRenderInfoTest/japanese_text.pdf"
+    };
+
+    public static void main(String[] args) throws IOException {
+        String[] files = args.length == 0 ? CORPUS : args;
+        long totalHashMap = 0;
+        long totalCompact = 0;
+        // load the classes and static caches the readers use before measuring
+        for (String file : files)
+            measure(file);
+        System.out.println("document: HashMap KB -> CompactNameMap KB");
+        for (String file : files) {
+            long[] footprint = measure(file);
+            totalHashMap += footprint[0];
+            totalCompact += footprint[1];
+            System.out.println(file + ": " + footprint[0] / 1024 + " KB -> " + footprint[1] / 1024 + " KB");
+        }
+        System.out.println("total: " + totalHashMap / 1024 + " KB -> " + totalCompact / 1024 + " KB");
+    }
+
+    /**
+     * Measures the heap retained by a reader of a document.
+     * @return the bytes retained with <CODE>HashMap</CODE>s and with <CODE>CompactNameMap</CODE>s
+     */
+    private static long[] measure(String file) throws IOException {
+        long hashMap = measure(file, false);
+        long compact = measure(file, true);
+        return new long[] {hashMap, compact};
+    }
+
+    /**
+     * Measures the heap retained by a reader of a document read with or without
+     * compact dictionaries.
+     */
+    private static long measure(String file, boolean compactDictionaries) throws IOException {
+        long base = usedMemory();
+        PdfReader[] readers = new PdfReader[READERS];
+        PdfReader.compactDictionaries = compactDictionaries;
+        try {
+            for (int k = 0; k < READERS; ++k)
+                readers[k] = new PdfReader(file);
+        }
+        finally {
+            PdfReader.compactDictionaries = false;
+        }
+        long used = (usedMemory() - base) / READERS;
+        for (PdfReader reader : readers)
+            reader.close();
+        return used;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int k = 0; k < 4; ++k) {
+            System.gc();
+            System.runFinalization();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,39 @@
+package com.itextpdf.text.pdf;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PdfNameTest {
+
+    @Test
+    public void internTest() {
+        Assert.assertSame(PdfName.TYPE, PdfName.intern("Type"));
+        Assert.assertSame(PdfName.MEDIABOX, PdfName.intern("MediaBox".getBytes(), 0, 8));
+
+        PdfName name = PdfName.intern("Non Standard#1");
+        Assert.assertSame(name, PdfName.intern("xNon Standard#1x".getBytes(), 1, 14));
+        Assert.assertEquals("/Non#20Standard#231", name.toString());
+        Assert.assertEquals(new PdfName("Non Standard#1"), name);
+        Assert.assertEquals(name, new PdfName("Non Standard#1"));
+        Assert.assertEquals(name.hashCode(), new PdfName("Non Standard#1").hashCode());
+        Assert.assertFalse(name.equals(PdfName.TYPE));
+        Assert.assertFalse(name.equals(PdfName.intern("Non Standard#2")));
+    }
+
+    @Test
+    public void parsedNamesAreCanonicalTest() throws Exception {
+        byte[] content = "<</Type /Custom /Custom [/Custom /F#231]>>".getBytes();
+        PdfContentParser parser = new PdfContentParser(new PRTokeniser(new RandomAccessFileOrArray(content)));
+        PdfDictionary dic = (PdfDictionary)parser.readPRObject();
+        PdfName custom = dic.getAsName(PdfName.TYPE);
+        Assert.assertEquals(new PdfName("Custom"), custom);
+        Assert.assertSame(PdfName.intern("Custom"), custom);
+        PdfArray array = dic.getAsArray(custom);
+        Assert.assertSame(custom, array.getAsName(0));
+        Assert.assertSame(PdfName.intern("F#1"), array.getAsName(1));
+        boolean staticKey = false;
+        for (PdfName key : dic.getKeys())
+            staticKey |= key == PdfName.TYPE;
+        Assert.assertTrue(staticKey);
+    }
+}
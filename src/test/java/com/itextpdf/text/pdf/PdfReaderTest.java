@@ -48,13 +48,18 @@ package com.itextpdf.text.pdf;
 import com.itextpdf.testutils.TestResourceUtils;
 import com.itextpdf.text.Document;
 import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.io.RandomAccessSource;
+import com.itextpdf.text.io.RandomAccessSourceFactory;
 import org.junit.*;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.zip.DeflaterOutputStream;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -127,4 +132,87 @@ public class PdfReaderTest {
         rdr.close();
     }
 
+    @Test
+    public void streamBytesInflatedFromFileTest() throws IOException {
+        File testFile = TestResourceUtils.getResourceAsTempFile(this, "readCompressedPdfTest1.pdf");
+        PdfReader rdr = new PdfReader(testFile.getAbsolutePath());
+        RandomAccessFileOrArray file = rdr.getSafeFile();
+        int flateStreams = 0;
+        for (int k = 1; k < rdr.getXrefSize(); ++k) {
+            PdfObject obj = rdr.getPdfObject(k);
+            if (obj == null || !obj.isStream())
+                continue;
+            PRStream stream = (PRStream)obj;
+            if (!PdfName.FLATEDECODE.equals(stream.get(PdfName.FILTER)))
+                continue;
+            ++flateStreams;
+            byte[] expected = PdfReader.decodeBytes(PdfReader.getStreamBytesRaw(stream, file), stream);
+            assertArrayEquals(expected, PdfReader.getStreamBytes(stream, file));
+        }
+        assertTrue(flateStreams > 0);
+        rdr.close();
+    }
+
+    @Test
+    public void flateDecodeHugeExpectedLengthTest() throws IOException {
+        byte[] data = new byte[100000];
+        for (int k = 0; k < data.length; ++k)
+            data[k] = (byte)(k % 251);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DeflaterOutputStream zip = new DeflaterOutputStream(baos);
+        zip.write(data);
+        zip.close();
+        RandomAccessSource source = new RandomAccessSourceFactory().createSource(baos.toByteArray());
+        assertArrayEquals(data, PdfReader.FlateDecode(source, Integer.MAX_VALUE));
+        assertArrayEquals(data, PdfReader.FlateDecode(source, 10));
+    }
+
+    @Test
+    public void partialCacheSizeTest() throws IOException {
+        File testFile = TestResourceUtils.getResourceAsTempFile(this, "readCompressedPdfTest1.pdf");
+        String filename = testFile.getAbsolutePath();
+        PdfReader full = new PdfReader(filename);
+        PdfReader rdr = new PdfReader(new RandomAccessFileOrArray(filename), null);
+        rdr.setPartialCacheSize(5);
+        assertEquals(5, rdr.getPartialCacheSize());
+        for (int pass = 0; pass < 2; ++pass) {
+            for (int i = 1; i <= rdr.getNumberOfPages(); i++) {
+                assertArrayEquals(full.getPageContent(i), rdr.getPageContent(i));
+                int loaded = (int)Math.round(rdr.dumpPerc() * rdr.getXrefSize() / 100);
+                assertTrue(loaded <= 5 + rdr.getNumberOfPages());
+            }
+        }
+        rdr.close();
+        full.close();
+    }
+
+    @Test
+    public void partialObjectStreamTest() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document();
+        PdfWriter writer = PdfWriter.getInstance(document, baos);
+        writer.setFullCompression();
+        document.open();
+        for (int i = 1; i <= 20; ++i) {
+            document.add(new Paragraph("Page " + i));
+            document.newPage();
+        }
+        document.close();
+        byte[] pdf = baos.toByteArray();
+
+        PdfReader full = new PdfReader(pdf);
+        for (int cacheSize = 0; cacheSize <= 2; ++cacheSize) {
+            PdfReader rdr = new PdfReader(new RandomAccessFileOrArray(pdf), null);
+            rdr.setObjStmCacheSize(cacheSize);
+            assertEquals(cacheSize, rdr.getObjStmCacheSize());
+            assertEquals(full.getNumberOfPages(), rdr.getNumberOfPages());
+            for (int i = 1; i <= rdr.getNumberOfPages(); i++) {
+                assertEquals(full.getPageN(i).getKeys(), rdr.getPageN(i).getKeys());
+                assertArrayEquals(full.getPageContent(i), rdr.getPageContent(i));
+            }
+            rdr.close();
+        }
+        full.close();
+    }
+
 }
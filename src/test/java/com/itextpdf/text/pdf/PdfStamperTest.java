@@ -0,0 +1,144 @@
+/*
+ * $Id$
+ *
+ * This file is part of the iText (R) project.
+ * Copyright (c) 1998-2014 iText Group NV
+ * Authors: Bruno Lowagie, Paulo Soares, et al.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+ * OF THIRD PARTY RIGHTS
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * http://itextpdf.com/terms-of-use/
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * In accordance with Section 7(b) of the GNU Affero General Public License,
+ * a covered work must retain the producer line in every PDF that is created
+ * or manipulated using iText.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the iText software without
+ * disclosing the source code of your own applications.
+ * These activities include: offering paid services to customers as an ASP,
+ * serving PDFs on the fly in a web application, shipping iText with a closed
+ * source product.
+ *
+ * For more information, please contact iText Software Corp. at this
+ * address: sales@itextpdf.com
+ */
+package com.itextpdf.text.pdf;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.io.RandomAccessSourceFactory;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+
+public class PdfStamperTest {
+
+    private static byte[] createPdf(boolean fullCompression) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document();
+        PdfWriter writer = PdfWriter.getInstance(document, baos);
+        if (fullCompression)
+            writer.setFullCompression();
+        document.open();
+        for (int k = 1; k <= 3; ++k) {
+            document.add(new Paragraph("Page " + k));
+            document.newPage();
+        }
+        document.close();
+        return baos.toByteArray();
+    }
+
+    private static byte[] stamp(PdfReader reader, boolean fullCompression) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfStamper stamper = new PdfStamper(reader, baos);
+        if (fullCompression)
+            stamper.setFullCompression();
+        PdfContentByte cb = stamper.getOverContent(1);
+        cb.beginText();
+        cb.setFontAndSize(BaseFont.createFont(), 10);
+        cb.showTextAligned(Element.ALIGN_LEFT, "Footer", 20, 20, 0);
+        cb.endText();
+        stamper.close();
+        return baos.toByteArray();
+    }
+
+    private static PdfReader openPartial(byte[] pdf) throws Exception {
+        return new PdfReader(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(pdf)), null);
+    }
+
+    private static void checkStamped(byte[] source, boolean fullCompression) throws Exception {
+        byte[] stamped = stamp(openPartial(source), fullCompression);
+        PdfReader original = new PdfReader(source);
+        PdfReader reader = new PdfReader(stamped);
+        Assert.assertEquals(3, reader.getNumberOfPages());
+        Assert.assertEquals("Page 1\nFooter", PdfTextExtractor.getTextFromPage(reader, 1));
+        for (int k = 2; k <= 3; ++k) {
+            Assert.assertEquals("Page " + k, PdfTextExtractor.getTextFromPage(reader, k));
+            // the untouched pages keep their object numbers and their content
+            PRIndirectReference ref = (PRIndirectReference)original.getPageN(k).get(PdfName.CONTENTS);
+            Assert.assertEquals(ref.getNumber(), ((PRIndirectReference)reader.getPageN(k).get(PdfName.CONTENTS)).getNumber());
+            Assert.assertArrayEquals(original.getPageContent(k), reader.getPageContent(k));
+        }
+    }
+
+    @Test
+    public void testPartialStampCopiesObjects() throws Exception {
+        byte[] source = createPdf(false);
+        checkStamped(source, false);
+        checkStamped(source, true);
+        // the objects that are never read are copied byte for byte
+        PdfReader original = new PdfReader(source);
+        int content = ((PRIndirectReference)original.getPageN(2).get(PdfName.CONTENTS)).getNumber();
+        PdfLiteral raw = openPartial(source).getRawObject(content, original.getXrefSize());
+        Assert.assertNotNull(raw);
+        Assert.assertEquals(PdfObject.STREAM, raw.type());
+        String text = new String(raw.getBytes(), "ISO-8859-1");
+        Assert.assertTrue(text.startsWith("<<"));
+        Assert.assertTrue(text.endsWith("endstream"));
+    }
+
+    @Test
+    public void testPartialStampObjectStreams() throws Exception {
+        byte[] source = createPdf(true);
+        checkStamped(source, false);
+        checkStamped(source, true);
+    }
+
+    @Test
+    public void testRawObjectReferences() throws Exception {
+        byte[] source = createPdf(false);
+        PdfReader original = new PdfReader(source);
+        int page = original.getPageOrigRef(2).getNumber();
+        PdfReader reader = openPartial(source);
+        Assert.assertNotNull(reader.getRawObject(page, original.getXrefSize()));
+        // an object that refers to numbers the writer doesn't keep must be rewritten
+        Assert.assertNull(reader.getRawObject(page, 2));
+        // objects held in memory may have been changed
+        reader.getPageN(2);
+        Assert.assertNull(reader.getRawObject(page, original.getXrefSize()));
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * $Id:  $
+ *
+ * This file is part of the iText (R) project.
+ * Copyright (c) 1998-2014 iText Group NV
+ * Authors: Bruno Lowagie, Paulo Soares, et al.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+ * OF THIRD PARTY RIGHTS
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * http://itextpdf.com/terms-of-use/
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * In accordance with Section 7(b) of the GNU Affero General Public License,
+ * a covered work must retain the producer line in every PDF that is created
+ * or manipulated using iText.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the iText software without
+ * disclosing the source code of your own applications.
+ * These activities include: offering paid services to customers as an ASP,
+ * serving PDFs on the fly in a web application, shipping iText with a closed
+ * source product.
+ *
+ * For more information, please contact iText Software Corp. at this
+ * address: sales@itextpdf.com
+ */
+
+package com.itextpdf.text.pdf;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Image;
+import com.itextpdf.text.Paragraph;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class PdfWriterTest {
+
+    @Test
+    public void testCompressionExecutor() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (boolean fullCompression : new boolean[] {false, true}) {
+                PdfReader serial = new PdfReader(createPdf(null, fullCompression));
+                PdfReader parallel = new PdfReader(createPdf(executor, fullCompression));
+                Assert.assertEquals(serial.getNumberOfPages(), parallel.getNumberOfPages());
+                Assert.assertEquals(serial.getXrefSize(), parallel.getXrefSize());
+                for (int page = 1; page <= serial.getNumberOfPages(); ++page) {
+                    Assert.assertArrayEquals(serial.getPageContent(page), parallel.getPageContent(page));
+                    PRStream image = getImage(parallel, page);
+                    Assert.assertEquals(PdfName.FLATEDECODE, image.get(PdfName.FILTER));
+                    Assert.assertArrayEquals(PdfReader.getStreamBytes(getImage(serial, page)), PdfReader.getStreamBytes(image));
+                }
+                serial.close();
+                parallel.close();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCrossReferenceTable() throws Exception {
+        PdfWriter.PdfBody.CrossReferenceTable xrefs = new PdfWriter.PdfBody.CrossReferenceTable();
+        xrefs.set(0, 0, 0, PdfWriter.GENERATION_MAX);
+        for (int k = 1; k < 3000; ++k)
+            xrefs.set(k, 1, k * 100L, 0);
+        xrefs.set(5000, 2, 7, 3);
+        xrefs.set(12, 1, 42, 0);
+        xrefs.remove(1500);
+        Assert.assertEquals(5000, xrefs.last());
+        Assert.assertEquals(3000, xrefs.size());
+        Assert.assertArrayEquals(new int[] {0, 1500, 1501, 1499, 5000, 1}, xrefs.getSections());
+        Assert.assertEquals(42, xrefs.getOffset(12));
+        Assert.assertEquals(2, xrefs.getType(5000));
+        xrefs.remove(5000);
+        Assert.assertEquals(2999, xrefs.last());
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buf = new byte[20];
+        xrefs.writeEntry(0, buf, baos);
+        xrefs.writeEntry(12, buf, baos);
+        Assert.assertEquals("0000000000 65535 f \n0000000042 00000 n \n", new String(baos.toByteArray(), "ISO-8859-1"));
+        ByteBuffer stream = new ByteBuffer();
+        xrefs.writeEntry(2000, 3, stream);
+        Assert.assertArrayEquals(new byte[] {1, 0x03, 0x0d, 0x40, 0, 0}, stream.toByteArray());
+    }
+
+    @Test
+    public void testXrefsSnapshot() throws Exception {
+        Document document = new Document();
+        PdfWriter writer = PdfWriter.getInstance(document, new ByteArrayOutputStream());
+        document.open();
+        document.add(new Paragraph("Hello"));
+        PdfWriter.PdfBody.CrossReferenceTable table = writer.body.xrefTable;
+        TreeSet<PdfWriter.PdfBody.PdfCrossReference> xrefs = writer.body.getXrefs();
+        Assert.assertEquals(table.size(), xrefs.size());
+        Assert.assertEquals(table.last(), xrefs.last().getRefnum());
+        for (PdfWriter.PdfBody.PdfCrossReference xref : xrefs) {
+            Assert.assertTrue(table.contains(xref.getRefnum()));
+            Assert.assertEquals(table.getOffset(xref.getRefnum()), xref.getOffset());
+            Assert.assertEquals(table.getGeneration(xref.getRefnum()), xref.getGeneration());
+        }
+        Assert.assertEquals(PdfWriter.GENERATION_MAX, xrefs.first().getGeneration());
+        int size = table.size();
+        xrefs.tailSet(new PdfWriter.PdfBody.PdfCrossReference(1, 0)).clear();
+        Assert.assertEquals(1, xrefs.size());
+        Assert.assertEquals(size, table.size());
+        document.close();
+    }
+
+    private static byte[] createPdf(ExecutorService executor, boolean fullCompression) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document();
+        PdfWriter writer = PdfWriter.getInstance(document, baos);
+        if (fullCompression)
+            writer.setFullCompression();
+        writer.setCompressionExecutor(executor, 2);
+        document.open();
+        for (int page = 0; page < 8; ++page) {
+            if (page > 0)
+                document.newPage();
+            byte[] data = new byte[64 * 64 * 3];
+            for (int k = 0; k < data.length; ++k)
+                data[k] = (byte)(k * (page + 1) / 7);
+            document.add(Image.getInstance(64, 64, 3, 8, data));
+            for (int k = 0; k < 20; ++k)
+                document.add(new Paragraph("Page " + page + ", line " + k));
+        }
+        document.close();
+        return baos.toByteArray();
+    }
+
+    private static PRStream getImage(PdfReader reader, int page) {
+        PdfDictionary xobjects = reader.getPageN(page).getAsDict(PdfName.RESOURCES).getAsDict(PdfName.XOBJECT);
+        PdfName name = xobjects.getKeys().iterator().next();
+        return (PRStream)PdfReader.getPdfObject(xobjects.get(name));
+    }
+}
@@ -0,0 +1,68 @@
+package com.itextpdf.text.pdf;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TrueTypeFontTest {
+
+    private static final String FONT = "./src/test/resources/com/itextpdf/text/pdf/MultithreadedTtfTest/FreeSans.ttf";
+
+    @Test
+    public void cmapTableTest() {
+        HashMap<Integer, int[]> map = new HashMap<Integer, int[]>();
+        map.put(0x41, new int[]{36, 0});
+        map.put(0x4e00, new int[]{1000, 0});
+        for (int c = 0x1d400; c < 0x1d410; ++c)
+            map.put(c, new int[]{2000 + c - 0x1d400, 0});
+        map.put(0x1d410, new int[]{5, 0});
+        map.put(0x20000, new int[]{7, 0});
+        TrueTypeFont.CmapTable table = new TrueTypeFont.CmapTable(map);
+        for (Map.Entry<Integer, int[]> entry : map.entrySet())
+            Assert.assertEquals(entry.getValue()[0], table.getGlyph(entry.getKey()));
+        Assert.assertEquals(-1, table.getGlyph(0x42));
+        Assert.assertEquals(-1, table.getGlyph(0x4e01));
+        Assert.assertEquals(-1, table.getGlyph(0x1d3ff));
+        Assert.assertEquals(-1, table.getGlyph(0x1d411));
+        Assert.assertEquals(-1, table.getGlyph(0x10ffff));
+        Assert.assertEquals(-1, table.getGlyph(-1));
+    }
+
+    @Test
+    public void sharedCmapsTest() throws Exception {
+        TrueTypeFontUnicode unicode = (TrueTypeFontUnicode)BaseFont.createFont(FONT, BaseFont.IDENTITY_H, BaseFont.EMBEDDED, false, null, null);
+        TrueTypeFont winansi = (TrueTypeFont)BaseFont.createFont(FONT, BaseFont.WINANSI, BaseFont.EMBEDDED, false, null, null);
+        Assert.assertNotSame(unicode, winansi);
+        Assert.assertSame(unicode.cmap31, winansi.cmap31);
+        Assert.assertSame(unicode.cmapTable31, winansi.cmapTable31);
+        Assert.assertTrue(unicode.cmap31.size() > 0);
+        for (Map.Entry<Integer, int[]> entry : unicode.cmap31.entrySet()) {
+            int c = entry.getKey();
+            Assert.assertEquals(entry.getValue()[0], unicode.getGlyphIndex(c));
+            Assert.assertEquals(entry.getValue()[1], unicode.getWidth(c));
+        }
+        Assert.assertEquals(-1, unicode.getGlyphIndex(0x10ffff));
+        Assert.assertEquals(0, unicode.getWidth(0x10ffff));
+        Assert.assertEquals(unicode.getMetricsTT('A')[1], winansi.getWidth('A'));
+    }
+
+    @Test
+    public void setCharAdvanceTest() throws Exception {
+        TrueTypeFontUnicode first = (TrueTypeFontUnicode)BaseFont.createFont(FONT, BaseFont.IDENTITY_H, BaseFont.EMBEDDED, false, null, null);
+        TrueTypeFontUnicode second = (TrueTypeFontUnicode)BaseFont.createFont(FONT, BaseFont.IDENTITY_H, BaseFont.EMBEDDED, false, null, null);
+        Assert.assertSame(first.cmap31, second.cmap31);
+        int width = second.getWidth('A');
+        Assert.assertTrue(first.setCharAdvance('A', 123));
+        Assert.assertTrue(second.setCharAdvance('B', 456));
+        Assert.assertEquals(123, first.getWidth('A'));
+        Assert.assertEquals(123, first.getMetricsTT('A')[1]);
+        Assert.assertEquals(width, second.getWidth('A'));
+        Assert.assertEquals(width, second.getMetricsTT('A')[1]);
+        Assert.assertEquals(456, second.getWidth('B'));
+        Assert.assertEquals(second.getGlyphWidth(second.getGlyphIndex('B')), first.getWidth('B'));
+        TrueTypeFontUnicode third = (TrueTypeFontUnicode)BaseFont.createFont(FONT, BaseFont.IDENTITY_H, BaseFont.EMBEDDED, false, null, null);
+        Assert.assertEquals(width, third.getWidth('A'));
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * $Id$
+ *
+ * This file is part of the iText (R) project.
+ * Copyright (c) 1998-2014 iText Group NV
+ * Authors: Bruno Lowagie, Paulo Soares, et al.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+ * OF THIRD PARTY RIGHTS
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * http://itextpdf.com/terms-of-use/
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * In accordance with Section 7(b) of the GNU Affero General Public License,
+ * a covered work must retain the producer line in every PDF that is created
+ * or manipulated using iText.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the iText software without
+ * disclosing the source code of your own applications.
+ * These activities include: offering paid services to customers as an ASP,
+ * serving PDFs on the fly in a web application, shipping iText with a closed
+ * source product.
+ *
+ * For more information, please contact iText Software Corp. at this
+ * address: sales@itextpdf.com
+ */
+package com.itextpdf.text.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ZlibPoolTest {
+
+    @After
+    public void tearDown() {
+        PdfStream.setFlateCompressor(null);
+        ZlibPool.setMaxIdle(ZlibPool.DEFAULT_MAX_IDLE);
+    }
+
+    @Test
+    public void reuseTest() {
+        ZlibPool.clear();
+        Inflater inflater = ZlibPool.acquireInflater();
+        ZlibPool.releaseInflater(inflater);
+        Assert.assertEquals(1, ZlibPool.getIdleInflaters());
+        long reused = ZlibPool.getInflatersReused();
+        Assert.assertSame(inflater, ZlibPool.acquireInflater());
+        Assert.assertEquals(reused + 1, ZlibPool.getInflatersReused());
+        ZlibPool.releaseInflater(inflater);
+
+        Deflater deflater = ZlibPool.acquireDeflater(Deflater.BEST_COMPRESSION);
+        ZlibPool.releaseDeflater(deflater, Deflater.BEST_COMPRESSION);
+        Assert.assertNotSame(deflater, ZlibPool.acquireDeflater(Deflater.BEST_SPEED));
+        Assert.assertSame(deflater, ZlibPool.acquireDeflater(Deflater.BEST_COMPRESSION));
+        ZlibPool.clear();
+        Assert.assertEquals(0, ZlibPool.getIdleDeflaters());
+        Assert.assertEquals(0, ZlibPool.getIdleInflaters());
+    }
+
+    @Test
+    public void maxIdleTest() {
+        ZlibPool.clear();
+        ZlibPool.setMaxIdle(1);
+        Inflater first = ZlibPool.acquireInflater();
+        Inflater second = ZlibPool.acquireInflater();
+        ZlibPool.releaseInflater(first);
+        ZlibPool.releaseInflater(second);
+        Assert.assertEquals(1, ZlibPool.getIdleInflaters());
+        ZlibPool.clear();
+    }
+
+    @Test
+    public void roundTripTest() throws IOException {
+        byte[] data = sample();
+        long created = ZlibPool.getDeflatersCreated();
+        for (int k = 0; k < 3; ++k) {
+            byte[] compressed = compress(data, PdfStream.BEST_COMPRESSION);
+            Assert.assertArrayEquals(data, PdfReader.FlateDecode(compressed));
+        }
+        Assert.assertTrue(ZlibPool.getDeflatersCreated() - created <= 1);
+    }
+
+    @Test
+    public void customCompressorTest() throws IOException {
+        final int[] calls = new int[1];
+        PdfStream.setFlateCompressor(new FlateCompressor() {
+            public OutputStream createCompressionStream(OutputStream out, int compressionLevel) {
+                ++calls[0];
+                return new DeflaterOutputStream(out, new Deflater(compressionLevel));
+            }
+        });
+        byte[] data = sample();
+        byte[] compressed = compress(data, PdfStream.DEFAULT_COMPRESSION);
+        Assert.assertEquals(1, calls[0]);
+        Assert.assertArrayEquals(data, PdfReader.FlateDecode(compressed));
+        PdfStream.setFlateCompressor(null);
+        Assert.assertSame(ZlibPool.getPooledCompressor(), PdfStream.getFlateCompressor());
+    }
+
+    private static byte[] compress(byte[] data, int compressionLevel) {
+        PdfStream stream = new PdfStream(data);
+        stream.flateCompress(compressionLevel);
+        return stream.streamBytes.toByteArray();
+    }
+
+    private static byte[] sample() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int k = 0; k < 2000; ++k)
+            out.write(k % 37);
+        return out.toByteArray();
+    }
+}
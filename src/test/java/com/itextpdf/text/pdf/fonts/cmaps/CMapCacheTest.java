@@ -0,0 +1,144 @@
+/*
+ * $Id$
+ *
+ * This file is part of the iText (R) project.
+ * Copyright (c) 1998-2014 iText Group NV
+ * Authors: Bruno Lowagie, Paulo Soares, et al.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+ * OF THIRD PARTY RIGHTS
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * http://itextpdf.com/terms-of-use/
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * In accordance with Section 7(b) of the GNU Affero General Public License,
+ * a covered work must retain the producer line in every PDF that is created
+ * or manipulated using iText.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the iText software without
+ * disclosing the source code of your own applications.
+ * These activities include: offering paid services to customers as an ASP,
+ * serving PDFs on the fly in a web application, shipping iText with a closed
+ * source product.
+ *
+ * For more information, please contact iText Software Corp. at this
+ * address: sales@itextpdf.com
+ */
+
+package com.itextpdf.text.pdf.fonts.cmaps;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CMapCacheTest {
+
+    private static final String CMAP = "/CIDInit /ProcSet findresource begin\n"
+            + "12 dict begin\n"
+            + "begincmap\n"
+            + "/Registry (Adobe) def\n"
+            + "/Ordering (Test) def\n"
+            + "/Supplement 2 def\n"
+            + "/CMapName /Test-H def\n"
+            + "1 begincidrange\n"
+            + "<0041> <0043> 10\n"
+            + "endcidrange\n"
+            + "1 begincidchar\n"
+            + "<0101> 20\n"
+            + "endcidchar\n"
+            + "endcmap\n";
+
+    @After
+    public void tearDown() {
+        CMapCache.clear();
+    }
+
+    @Test
+    public void testUniCidRoundTrip() throws Exception {
+        CMapUniCid cmap = new CMapUniCid();
+        CMapParserEx.parseCid("", cmap, new CidLocationFromByte(CMAP.getBytes("ISO-8859-1")));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        cmap.write(new DataOutputStream(baos));
+        CMapUniCid read = new CMapUniCid();
+        read.read(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        Assert.assertEquals("/Test-H", read.getName());
+        Assert.assertEquals("Adobe", read.getRegistry());
+        Assert.assertEquals("Test", read.getOrdering());
+        Assert.assertEquals(2, read.getSupplement());
+        Assert.assertEquals(10, read.lookup('A'));
+        Assert.assertEquals(12, read.lookup('C'));
+        Assert.assertEquals(20, read.lookup(0x101));
+    }
+
+    @Test
+    public void testByteCidRoundTrip() throws Exception {
+        CMapByteCid cmap = new CMapByteCid();
+        CMapParserEx.parseCid("", cmap, new CidLocationFromByte(CMAP.getBytes("ISO-8859-1")));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        cmap.write(new DataOutputStream(baos));
+        CMapByteCid read = new CMapByteCid();
+        read.read(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        byte[] seq = {0, 0x42, 1, 1};
+        Assert.assertEquals("\u000b\u0014", read.decodeSequence(new CMapSequence(seq, 0, seq.length)));
+    }
+
+    @Test
+    public void testCidByteRoundTrip() throws Exception {
+        CMapCidByte cmap = new CMapCidByte();
+        CMapParserEx.parseCid("", cmap, new CidLocationFromByte(CMAP.getBytes("ISO-8859-1")));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        cmap.write(new DataOutputStream(baos));
+        CMapCidByte read = new CMapCidByte();
+        read.read(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        Assert.assertArrayEquals(new byte[]{0, 0x43}, read.lookup(12));
+        Assert.assertArrayEquals(new byte[]{1, 1}, read.lookup(20));
+        Assert.assertEquals(0, read.lookup(30).length);
+    }
+
+    @Test
+    public void testPrewarmedCache() throws Exception {
+        CMapUniCid cmap = new CMapUniCid();
+        CMapParserEx.parseCid("", cmap, new CidLocationFromByte(CMAP.getBytes("ISO-8859-1")));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        out.writeInt(0x434d4331);
+        out.writeInt(1);
+        out.writeByte(0);
+        out.writeUTF("Test-H");
+        cmap.write(out);
+        CMapCache.readCache(new ByteArrayInputStream(baos.toByteArray()));
+        // there's no Test-H resource, the CMap can only come from the cache
+        CMapUniCid cached = CMapCache.getCachedCMapUniCid("Test-H");
+        Assert.assertSame(cached, CMapCache.getCachedCMapUniCid("Test-H"));
+        Assert.assertEquals(11, cached.lookup('B'));
+
+        baos = new ByteArrayOutputStream();
+        CMapCache.writeCache(baos);
+        CMapCache.clear();
+        CMapCache.readCache(new ByteArrayInputStream(baos.toByteArray()));
+        Assert.assertEquals(20, CMapCache.getCachedCMapUniCid("Test-H").lookup(0x101));
+    }
+}
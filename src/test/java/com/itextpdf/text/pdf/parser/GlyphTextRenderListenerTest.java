@@ -6,6 +6,9 @@ import junit.framework.Assert;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 
 
 public class GlyphTextRenderListenerTest{
@@ -49,4 +52,94 @@ public class GlyphTextRenderListenerTest{
         Assert.assertEquals("Your", region1Listener.getResultantText());
         Assert.assertEquals("dju", region2Listener.getResultantText());
     }
+
+    @Test
+    public void testRetainingDelegate() throws IOException {
+        final PdfReader pdfReader = TestResourceUtils.getResourceAsPdfReader(this, "test.pdf");
+        PdfReaderContentParser parser = new PdfReaderContentParser(pdfReader);
+
+        RetainingRenderListener retained = new RetainingRenderListener();
+        parser.processContent(1, new GlyphRenderListener(retained));
+        RetainingRenderListener reused = new RetainingRenderListener();
+        parser.processContent(1, new GlyphRenderListener(reused, true));
+
+        Assert.assertFalse(retained.infos.isEmpty());
+        Assert.assertEquals(retained.texts, reused.texts);
+        for (int k = 0; k < retained.infos.size(); ++k) {
+            TextRenderInfo info = retained.infos.get(k);
+            // the glyphs kept by the delegate still describe the glyph they were received for
+            Assert.assertEquals(retained.texts.get(k), info.getText());
+            Assert.assertEquals(retained.baselines.get(k), info.getBaseline().getStartPoint());
+            if (k > 0)
+                Assert.assertNotSame(retained.infos.get(k - 1), info);
+        }
+    }
+
+    @Test
+    public void testNestedDelegate() throws IOException {
+        final PdfReader pdfReader = TestResourceUtils.getResourceAsPdfReader(this, "test.pdf");
+        PdfReaderContentParser parser = new PdfReaderContentParser(pdfReader);
+
+        NestedRenderListener nested = new NestedRenderListener();
+        parser.processContent(1, new GlyphRenderListener(nested, true));
+        Assert.assertTrue(nested.glyphs > 0);
+
+        String reused = parser.processContent(1, new GlyphTextRenderListener(new LocationTextExtractionStrategy(), true)).getResultantText();
+        String allocated = parser.processContent(1, new GlyphTextRenderListener(new LocationTextExtractionStrategy())).getResultantText();
+        Assert.assertEquals(allocated, reused);
+    }
+
+    private static class RetainingRenderListener implements RenderListener {
+        final List<TextRenderInfo> infos = new ArrayList<TextRenderInfo>();
+        final List<String> texts = new ArrayList<String>();
+        final List<Vector> baselines = new ArrayList<Vector>();
+
+        public void beginTextBlock() {
+        }
+
+        public void renderText(TextRenderInfo renderInfo) {
+            infos.add(renderInfo);
+            texts.add(renderInfo.getText());
+            baselines.add(renderInfo.getBaseline().getStartPoint());
+        }
+
+        public void endTextBlock() {
+        }
+
+        public void renderImage(ImageRenderInfo renderInfo) {
+        }
+    }
+
+    private static class NestedRenderListener implements RenderListener {
+        int glyphs;
+
+        public void beginTextBlock() {
+        }
+
+        public void renderText(TextRenderInfo renderInfo) {
+            ++glyphs;
+            String text = renderInfo.getText();
+            Vector start = renderInfo.getBaseline().getStartPoint();
+            List<TextRenderInfo> subs = renderInfo.getCharacterRenderInfos();
+            Assert.assertEquals(1, subs.size());
+            Assert.assertEquals(text, subs.get(0).getText());
+            Assert.assertEquals(start, subs.get(0).getBaseline().getStartPoint());
+            Iterator<TextRenderInfo> it = renderInfo.getCharacterRenderInfoIterator();
+            Assert.assertTrue(it.hasNext());
+            TextRenderInfo sub = it.next();
+            Assert.assertEquals(text, sub.getText());
+            Assert.assertEquals(start, sub.getBaseline().getStartPoint());
+            Assert.assertFalse(it.hasNext());
+            Assert.assertNotNull(renderInfo.getPdfString());
+            // the glyph itself is unchanged by the nested walks
+            Assert.assertEquals(text, renderInfo.getText());
+            Assert.assertEquals(start, renderInfo.getBaseline().getStartPoint());
+        }
+
+        public void endTextBlock() {
+        }
+
+        public void renderImage(ImageRenderInfo renderInfo) {
+        }
+    }
 }
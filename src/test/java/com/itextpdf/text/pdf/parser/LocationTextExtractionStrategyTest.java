@@ -190,6 +190,52 @@ public class LocationTextExtractionStrategyTest extends SimpleTextExtractionStra
 
 	}
     
+    @Test
+    public void testOutOfOrderCells() throws Exception {
+        byte[] content = createPdfWithCells(new int[]{2, 0, 1}, new int[]{1, 2, 0});
+        PdfReader r = new PdfReader(content);
+        String text = PdfTextExtractor.getTextFromPage(r, 1, createRenderListenerForTest());
+        Assert.assertEquals("r0c0 r0c1 r0c2\nr1c0 r1c1 r1c2\nr2c0 r2c1 r2c2", text);
+    }
+
+    @Test
+    public void testRegionQueries() throws Exception {
+        byte[] content = createPdfWithCells(new int[]{2, 0, 1}, new int[]{1, 2, 0});
+        PdfReader r = new PdfReader(content);
+        LocationTextExtractionStrategy strategy = new PdfReaderContentParser(r).processContent(1, new LocationTextExtractionStrategy());
+        for (int row = 0; row < 3; ++row) {
+            for (int col = 0; col < 3; ++col) {
+                RegionTextRenderFilter region = new RegionTextRenderFilter(new Rectangle(45 + col * 100, 695 - row * 20, 135 + col * 100, 715 - row * 20));
+                TextExtractionStrategy filtered = new FilteredTextRenderListener(new LocationTextExtractionStrategy(), region);
+                String expected = PdfTextExtractor.getTextFromPage(r, 1, filtered);
+                Assert.assertEquals("r" + row + "c" + col, expected);
+                Assert.assertEquals(expected, strategy.getResultantText(region));
+            }
+        }
+        Assert.assertEquals("r0c0 r0c1 r0c2\nr1c0 r1c1 r1c2\nr2c0 r2c1 r2c2", strategy.getResultantText());
+    }
+
+    private byte[] createPdfWithCells(int[] rowOrder, int[] colOrder) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document doc = new Document();
+        PdfWriter writer = PdfWriter.getInstance(doc, baos);
+        writer.setCompressionLevel(0);
+        doc.open();
+
+        PdfContentByte canvas = writer.getDirectContent();
+        canvas.beginText();
+        canvas.setFontAndSize(BaseFont.createFont(), 12);
+        for (int col : colOrder) {
+            for (int row : rowOrder)
+                canvas.showTextAligned(PdfContentByte.ALIGN_LEFT, "r" + row + "c" + col, 50 + col * 100, 700 - row * 20, 0);
+        }
+        canvas.endText();
+
+        doc.close();
+
+        return baos.toByteArray();
+    }
+
     private byte[] createPdfWithNegativeCharSpacing(String str1, float charSpacing, String str2) throws Exception {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         Document doc = new Document();
@@ -74,6 +74,26 @@ public class MatrixTest {
         Assert.assertEquals(shouldBe, rslt);
     }
     
+    @Test
+    public void testInPlace() throws Exception{
+        Matrix m1 = new Matrix(2, 3, 4, 5, 6, 7);
+        Matrix m2 = new Matrix(8, 9, 10, 11, 12, 13);
+        Matrix shouldBe = m1.multiply(m2);
+
+        Matrix left = new Matrix().set(m1);
+        Assert.assertEquals(m1, left);
+        Assert.assertSame(left, left.setToProduct(left, m2));
+        Assert.assertEquals(shouldBe, left);
+
+        Matrix right = new Matrix().set(8, 9, 10, 11, 12, 13);
+        right.setToProduct(m1, right);
+        Assert.assertEquals(shouldBe, right);
+
+        Matrix translation = new Matrix(2, 3, 4, 5, 6, 7);
+        Assert.assertEquals(new Matrix(5, -1), translation.setTranslation(5, -1));
+        Assert.assertEquals(new Matrix(5, -1).multiply(m1), new Matrix().set(m1).setToProduct(translation, m1));
+    }
+
     @Test
     public void testDeterminant(){
         Matrix m = new Matrix(2, 3, 4, 5, 6, 7);
@@ -0,0 +1,134 @@
+/*
+ * $Id$
+ *
+ * This file is part of the iText (R) project.
+ * Copyright (c) 1998-2014 iText Group NV
+ * Authors: Bruno Lowagie, Paulo Soares, et al.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License version 3
+ * as published by the Free Software Foundation with the addition of the
+ * following permission added to Section 15 as permitted in Section 7(a):
+ * FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+ * ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+ * OF THIRD PARTY RIGHTS
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, see http://www.gnu.org/licenses or write to
+ * the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+ * Boston, MA, 02110-1301 USA, or download the license from the following URL:
+ * http://itextpdf.com/terms-of-use/
+ *
+ * The interactive user interfaces in modified source and object code versions
+ * of this program must display Appropriate Legal Notices, as required under
+ * Section 5 of the GNU Affero General Public License.
+ *
+ * In accordance with Section 7(b) of the GNU Affero General Public License,
+ * a covered work must retain the producer line in every PDF that is created
+ * or manipulated using iText.
+ *
+ * You can be released from the requirements of the license by purchasing
+ * a commercial license. Buying such a license is mandatory as soon as you
+ * develop commercial activities involving the iText software without
+ * disclosing the source code of your own applications.
+ * These activities include: offering paid services to customers as an ASP,
+ * serving PDFs on the fly in a web application, shipping iText with a closed
+ * source product.
+ *
+ * For more information, please contact iText Software Corp. at this
+ * address: sales@itextpdf.com
+ */
+package com.itextpdf.text.pdf.parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
+import com.itextpdf.text.pdf.RandomAccessFileOrArray;
+
+public class PdfTextExtractorTest {
+
+    private static final TextExtractionStrategyFactory LOCATION = new TextExtractionStrategyFactory() {
+        public TextExtractionStrategy createStrategy(int pageNumber) {
+            return new LocationTextExtractionStrategy();
+        }
+    };
+
+    @Test
+    public void parallelTextTest() throws Exception {
+        byte[] pdf = createPdf(40);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            PdfReader reader = new PdfReader(pdf);
+            List<String> text = PdfTextExtractor.getTextFromPages(reader, 1, 40, LOCATION, executor);
+            assertSameText(new PdfReader(pdf), 1, text);
+
+            reader = new PdfReader(new RandomAccessFileOrArray(pdf), null);
+            text = PdfTextExtractor.getTextFromPages(reader, 11, 30, LOCATION, executor);
+            assertSameText(new PdfReader(pdf), 11, text);
+
+            File file = File.createTempFile("parallel", ".pdf");
+            try {
+                FileOutputStream out = new FileOutputStream(file);
+                out.write(pdf);
+                out.close();
+                reader = new PdfReader(new RandomAccessFileOrArray(file.getPath(), false, true), null);
+                text = PdfTextExtractor.getTextFromPages(reader, 1, 40, LOCATION, executor);
+                reader.close();
+                assertSameText(new PdfReader(pdf), 1, text);
+            }
+            finally {
+                file.delete();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pageRangeTest() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            PdfTextExtractor.getTextFromPages(new PdfReader(createPdf(2)), 1, 3, LOCATION, executor);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertSameText(PdfReader reader, int firstPage, List<String> text) throws Exception {
+        for (int k = 0; k < text.size(); ++k)
+            Assert.assertEquals(PdfTextExtractor.getTextFromPage(reader, firstPage + k), text.get(k));
+    }
+
+    private static byte[] createPdf(int pages) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document();
+        PdfWriter.getInstance(document, baos);
+        document.open();
+        Font[] fonts = {new Font(Font.FontFamily.HELVETICA), new Font(Font.FontFamily.TIMES_ROMAN), new Font(Font.FontFamily.COURIER)};
+        for (int k = 1; k <= pages; ++k) {
+            for (int line = 0; line < 20; ++line)
+                document.add(new Paragraph("Page " + k + " line " + line, fonts[(k + line) % fonts.length]));
+            document.newPage();
+        }
+        document.close();
+        return baos.toByteArray();
+    }
+}
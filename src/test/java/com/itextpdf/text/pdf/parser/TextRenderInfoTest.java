@@ -2,6 +2,7 @@ package com.itextpdf.text.pdf.parser;
 
 import com.itextpdf.testutils.TestResourceUtils;
 import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
 import java.util.List;
 
 import org.junit.Assert;
@@ -54,6 +55,18 @@ public class TextRenderInfoTest {
             Assert.assertEquals(result, origText);
         }
 
+        @Test
+        public void testCharacterRenderInfoIterator() throws Exception {
+            byte[] bytes = createSimplePdf(PageSize.LETTER.rotate().rotate(), "AB CD", "E F");
+            PdfReader r = new PdfReader(bytes);
+            PdfReaderContentParser parser = new PdfReaderContentParser(r);
+            parser.processContent(1, new CharacterIteratorRenderListener());
+            parser.processContent(2, new CharacterIteratorRenderListener());
+
+            PdfReader p = TestResourceUtils.getResourceAsPdfReader(this, "japanese_text.pdf");
+            new PdfReaderContentParser(p).processContent(1, new CharacterIteratorRenderListener());
+        }
+
 	private static class CharacterPositionRenderListener implements TextExtractionStrategy{
 
 		public void beginTextBlock() {
@@ -89,6 +102,38 @@ public class TextRenderInfoTest {
 		
 	}
 	
+	private static class CharacterIteratorRenderListener implements RenderListener{
+
+		public void beginTextBlock() {
+		}
+
+		public void renderText(TextRenderInfo renderInfo) {
+			List<TextRenderInfo> subs = renderInfo.getCharacterRenderInfos();
+			Iterator<TextRenderInfo> glyphs = renderInfo.getCharacterRenderInfoIterator();
+			TextRenderInfo glyphInfo = null;
+			for (TextRenderInfo charInfo : subs) {
+				Assert.assertTrue(glyphs.hasNext());
+				TextRenderInfo next = glyphs.next();
+				if (glyphInfo != null)
+					Assert.assertSame(glyphInfo, next);
+				glyphInfo = next;
+				Assert.assertEquals(charInfo.getText(), glyphInfo.getText());
+				Assert.assertEquals(charInfo.getPdfString().toString(), glyphInfo.getPdfString().toString());
+				Assert.assertEquals(charInfo.getBaseline().getStartPoint(), glyphInfo.getBaseline().getStartPoint());
+				Assert.assertEquals(charInfo.getBaseline().getEndPoint(), glyphInfo.getBaseline().getEndPoint());
+				Assert.assertEquals(charInfo.getAscentLine().getEndPoint(), glyphInfo.getAscentLine().getEndPoint());
+			}
+			Assert.assertFalse(glyphs.hasNext());
+		}
+
+		public void endTextBlock() {
+		}
+
+		public void renderImage(ImageRenderInfo renderInfo) {
+		}
+
+	}
+
 	private byte[] createSimplePdf(Rectangle pageSize, final String... text) throws Exception{
         final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
 
@@ -0,0 +1,156 @@
+package com.itextpdf.text.signature;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.AcroFields;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfSignatureAppearance;
+import com.itextpdf.text.pdf.PdfStamper;
+import com.itextpdf.text.pdf.PdfWriter;
+import com.itextpdf.text.pdf.security.BouncyCastleDigest;
+import com.itextpdf.text.pdf.security.DigestAlgorithms;
+import com.itextpdf.text.pdf.security.ExternalBatchSignature;
+import com.itextpdf.text.pdf.security.MakeSignature;
+import com.itextpdf.text.pdf.security.PdfPKCS7;
+import com.itextpdf.text.pdf.security.PrivateKeySignature;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class BatchSignatureTest {
+
+    public static final String KEYSTORE = "./src/test/resources/com/itextpdf/text/signature/ds-ks/ks";
+    public static final char[] PASSWORD = "password".toCharArray();
+
+    private PrivateKey pk;
+    private Certificate[] chain;
+
+    @Before
+    public void setUp() throws Exception {
+        BouncyCastleProvider provider = new BouncyCastleProvider();
+        Security.addProvider(provider);
+        KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
+        ks.load(new FileInputStream(KEYSTORE), PASSWORD);
+        String alias = ks.aliases().nextElement();
+        pk = (PrivateKey) ks.getKey(alias, PASSWORD);
+        chain = ks.getCertificateChain(alias);
+    }
+
+    @Test
+    public void signBatchTest() throws Exception {
+        signAndVerify(null);
+    }
+
+    @Test
+    public void signBatchExecutorTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            signAndVerify(executor);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = GeneralSecurityException.class)
+    public void signBatchWrongCountTest() throws Exception {
+        ExternalBatchSignature truncating = new CountingSignature(new PrivateKeySignature(pk, DigestAlgorithms.SHA256, "BC")) {
+            @Override
+            public byte[][] signBatch(byte[][] messages) throws GeneralSecurityException {
+                byte[][] signed = super.signBatch(messages);
+                byte[][] truncated = new byte[signed.length - 1][];
+                System.arraycopy(signed, 0, truncated, 0, truncated.length);
+                return truncated;
+            }
+        };
+        ArrayList<PdfSignatureAppearance> saps = new ArrayList<PdfSignatureAppearance>();
+        for (int k = 0; k < 2; ++k)
+            saps.add(createAppearance(createPdf(k), new ByteArrayOutputStream(), k));
+        MakeSignature.signDetached(saps, new BouncyCastleDigest(), truncating, chain, null, null, null, 0, MakeSignature.CryptoStandard.CMS, null);
+    }
+
+    private void signAndVerify(ExecutorService executor) throws Exception {
+        int documents = 6;
+        ArrayList<PdfSignatureAppearance> saps = new ArrayList<PdfSignatureAppearance>();
+        ArrayList<ByteArrayOutputStream> outs = new ArrayList<ByteArrayOutputStream>();
+        for (int k = 0; k < documents; ++k) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            outs.add(out);
+            saps.add(createAppearance(createPdf(k), out, k));
+        }
+        CountingSignature signature = new CountingSignature(new PrivateKeySignature(pk, DigestAlgorithms.SHA256, "BC"));
+        MakeSignature.signDetached(saps, new BouncyCastleDigest(), signature, chain, null, null, null, 0, MakeSignature.CryptoStandard.CMS, executor);
+        Assert.assertEquals(1, signature.batches);
+        Assert.assertEquals(0, signature.singles);
+        for (int k = 0; k < documents; ++k) {
+            PdfReader reader = new PdfReader(outs.get(k).toByteArray());
+            AcroFields af = reader.getAcroFields();
+            Map<String, PdfPKCS7> pks = af.verifySignatures();
+            Assert.assertEquals(1, pks.size());
+            PdfPKCS7 pkcs7 = pks.values().iterator().next();
+            Assert.assertTrue(pkcs7.verify());
+            Assert.assertEquals("Document " + k, pkcs7.getReason());
+            Assert.assertTrue(af.signatureCoversWholeDocument(af.getSignatureNames().get(0)));
+            reader.close();
+        }
+    }
+
+    private PdfSignatureAppearance createAppearance(byte[] pdf, ByteArrayOutputStream out, int k) throws Exception {
+        PdfStamper stamper = PdfStamper.createSignature(new PdfReader(pdf), out, '\0');
+        PdfSignatureAppearance appearance = stamper.getSignatureAppearance();
+        appearance.setReason("Document " + k);
+        return appearance;
+    }
+
+    private byte[] createPdf(int k) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document();
+        PdfWriter.getInstance(document, baos);
+        document.open();
+        for (int p = 0; p <= k; ++p)
+            document.add(new Paragraph("Document " + k + ", paragraph " + p));
+        document.close();
+        return baos.toByteArray();
+    }
+
+    private static class CountingSignature implements ExternalBatchSignature {
+        private final ExternalBatchSignature signature;
+        int singles;
+        int batches;
+
+        CountingSignature(ExternalBatchSignature signature) {
+            this.signature = signature;
+        }
+
+        public String getHashAlgorithm() {
+            return signature.getHashAlgorithm();
+        }
+
+        public String getEncryptionAlgorithm() {
+            return signature.getEncryptionAlgorithm();
+        }
+
+        public byte[] sign(byte[] message) throws GeneralSecurityException {
+            ++singles;
+            return signature.sign(message);
+        }
+
+        public byte[][] signBatch(byte[][] messages) throws GeneralSecurityException {
+            ++batches;
+            return signature.signBatch(messages);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.itextpdf.text.signature;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.AcroFields;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfSignatureAppearance;
+import com.itextpdf.text.pdf.PdfStamper;
+import com.itextpdf.text.pdf.PdfWriter;
+import com.itextpdf.text.pdf.security.BouncyCastleDigest;
+import com.itextpdf.text.pdf.security.DigestAlgorithms;
+import com.itextpdf.text.pdf.security.MakeSignature;
+import com.itextpdf.text.pdf.security.PdfPKCS7;
+import com.itextpdf.text.pdf.security.PrivateKeySignature;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.util.Map;
+
+public class ChannelSignatureTest {
+
+    public static final String KEYSTORE = "./src/test/resources/com/itextpdf/text/signature/ds-ks/ks";
+    public static final char[] PASSWORD = "password".toCharArray();
+    public static final String DestDir = "./target/com/itextpdf/test/signature/channel/";
+
+    private PrivateKey pk;
+    private Certificate[] chain;
+
+    @Before
+    public void setUp() throws Exception {
+        new File(DestDir).mkdirs();
+        BouncyCastleProvider provider = new BouncyCastleProvider();
+        Security.addProvider(provider);
+        KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
+        ks.load(new FileInputStream(KEYSTORE), PASSWORD);
+        String alias = ks.aliases().nextElement();
+        pk = (PrivateKey) ks.getKey(alias, PASSWORD);
+        chain = ks.getCertificateChain(alias);
+    }
+
+    @Test
+    public void signChannelTest() throws Exception {
+        File file = new File(DestDir, "channel_signed.pdf");
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            // existing content longer than the signed document must not survive
+            raf.write(new byte[1 << 20]);
+            FileChannel channel = raf.getChannel();
+            sign(new PdfReader(createPdf()), channel, false);
+            Assert.assertTrue(channel.isOpen());
+            Assert.assertTrue(channel.size() < (1 << 20));
+        }
+        finally {
+            raf.close();
+        }
+        verify(file, 1);
+    }
+
+    @Test
+    public void signChannelAppendTest() throws Exception {
+        File first = new File(DestDir, "channel_signed_first.pdf");
+        RandomAccessFile raf = new RandomAccessFile(first, "rw");
+        try {
+            sign(new PdfReader(createPdf()), raf.getChannel(), false);
+        }
+        finally {
+            raf.close();
+        }
+        File second = new File(DestDir, "channel_signed_second.pdf");
+        raf = new RandomAccessFile(second, "rw");
+        try {
+            sign(new PdfReader(first.getPath()), raf.getChannel(), true);
+        }
+        finally {
+            raf.close();
+        }
+        verify(second, 2);
+    }
+
+    private void sign(PdfReader reader, FileChannel channel, boolean append) throws Exception {
+        PdfStamper stamper = PdfStamper.createSignature(reader, channel, '\0', append);
+        PdfSignatureAppearance appearance = stamper.getSignatureAppearance();
+        appearance.setReason("In place");
+        MakeSignature.signDetached(appearance, new BouncyCastleDigest(),
+                new PrivateKeySignature(pk, DigestAlgorithms.SHA256, "BC"), chain, null, null, null, 0, MakeSignature.CryptoStandard.CMS);
+    }
+
+    private void verify(File file, int signatures) throws Exception {
+        PdfReader reader = new PdfReader(file.getPath());
+        AcroFields af = reader.getAcroFields();
+        Map<String, PdfPKCS7> pks = af.verifySignatures();
+        Assert.assertEquals(signatures, pks.size());
+        for (PdfPKCS7 pkcs7 : pks.values()) {
+            Assert.assertTrue(pkcs7.verify());
+            Assert.assertEquals("In place", pkcs7.getReason());
+        }
+        Assert.assertTrue(af.signatureCoversWholeDocument(af.getSignatureNames().get(signatures - 1)));
+        reader.close();
+    }
+
+    private byte[] createPdf() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document();
+        PdfWriter.getInstance(document, baos);
+        document.open();
+        for (int k = 0; k < 100; ++k)
+            document.add(new Paragraph("Paragraph " + k));
+        document.close();
+        return baos.toByteArray();
+    }
+}
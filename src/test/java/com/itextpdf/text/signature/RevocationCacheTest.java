@@ -0,0 +1,274 @@
+package com.itextpdf.text.signature;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.io.StreamUtil;
+import com.itextpdf.text.pdf.AcroFields;
+import com.itextpdf.text.pdf.PdfDictionary;
+import com.itextpdf.text.pdf.PdfName;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfSignatureAppearance;
+import com.itextpdf.text.pdf.PdfStamper;
+import com.itextpdf.text.pdf.PdfWriter;
+import com.itextpdf.text.pdf.security.BouncyCastleDigest;
+import com.itextpdf.text.pdf.security.CrlClientOnline;
+import com.itextpdf.text.pdf.security.DigestAlgorithms;
+import com.itextpdf.text.pdf.security.LtvVerification;
+import com.itextpdf.text.pdf.security.MakeSignature;
+import com.itextpdf.text.pdf.security.OcspClientBouncyCastle;
+import com.itextpdf.text.pdf.security.PrivateKeySignature;
+import com.itextpdf.text.pdf.security.RevocationDataCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CRLHolder;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.OCSPReq;
+import org.bouncycastle.cert.ocsp.OCSPResp;
+import org.bouncycastle.cert.ocsp.OCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RevocationCacheTest {
+
+    public static final String KEYSTORE = "./src/test/resources/com/itextpdf/text/signature/ds-ks/ks";
+    public static final char[] PASSWORD = "password".toCharArray();
+    public static final String DestDir = "./target/com/itextpdf/test/signature/revocation/";
+
+    private PrivateKey pk;
+    private Certificate[] chain;
+    private X509Certificate cert;
+    private HttpServer server;
+    private String url;
+    private final AtomicInteger crlRequests = new AtomicInteger();
+    private final AtomicInteger ocspRequests = new AtomicInteger();
+    private volatile long validity = 3600000;
+
+    @Before
+    public void setUp() throws Exception {
+        BouncyCastleProvider provider = new BouncyCastleProvider();
+        Security.addProvider(provider);
+        KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
+        ks.load(new FileInputStream(KEYSTORE), PASSWORD);
+        String alias = ks.aliases().nextElement();
+        pk = (PrivateKey) ks.getKey(alias, PASSWORD);
+        chain = ks.getCertificateChain(alias);
+        cert = (X509Certificate) chain[0];
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/crl", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                crlRequests.incrementAndGet();
+                try {
+                    respond(exchange, "application/pkix-crl", createCrl());
+                }
+                catch (Exception e) {
+                    exchange.sendResponseHeaders(500, -1);
+                }
+            }
+        });
+        server.createContext("/ocsp", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                ocspRequests.incrementAndGet();
+                try {
+                    OCSPReq request = new OCSPReq(StreamUtil.inputStreamToArray(exchange.getRequestBody()));
+                    respond(exchange, "application/ocsp-response", createOcspResponse(request));
+                }
+                catch (Exception e) {
+                    exchange.sendResponseHeaders(500, -1);
+                }
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void crlCacheTest() throws Exception {
+        RevocationDataCache cache = new RevocationDataCache();
+        CrlClientOnline client = new CrlClientOnline(url + "/crl");
+        client.setRevocationCache(cache);
+        Collection<byte[]> first = client.getEncoded(cert, null);
+        Collection<byte[]> second = client.getEncoded(cert, null);
+        Assert.assertEquals(1, first.size());
+        Assert.assertArrayEquals(first.iterator().next(), second.iterator().next());
+        Assert.assertEquals(1, crlRequests.get());
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void crlCopiedTest() throws Exception {
+        RevocationDataCache cache = new RevocationDataCache();
+        CrlClientOnline client = new CrlClientOnline(url + "/crl");
+        client.setRevocationCache(cache);
+        byte[] first = client.getEncoded(cert, null).iterator().next();
+        byte[] original = first.clone();
+        first[0] ^= 1;
+        byte[] second = client.getEncoded(cert, null).iterator().next();
+        Assert.assertArrayEquals(original, second);
+        second[0] ^= 1;
+        Assert.assertArrayEquals(original, client.getEncoded(cert, null).iterator().next());
+        Assert.assertEquals(1, crlRequests.get());
+    }
+
+    @Test
+    public void crlExpiredTest() throws Exception {
+        validity = -1000;
+        RevocationDataCache cache = new RevocationDataCache();
+        CrlClientOnline client = new CrlClientOnline(url + "/crl");
+        client.setRevocationCache(cache);
+        client.getEncoded(cert, null);
+        client.getEncoded(cert, null);
+        Assert.assertEquals(2, crlRequests.get());
+        Assert.assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void crlPersistedTest() throws Exception {
+        File dir = new File(DestDir, "persisted");
+        RevocationDataCache cache = new RevocationDataCache(dir);
+        cache.clear();
+        CrlClientOnline client = new CrlClientOnline(url + "/crl");
+        client.setRevocationCache(cache);
+        byte[] crl = client.getEncoded(cert, null).iterator().next();
+        RevocationDataCache other = new RevocationDataCache(dir);
+        client = new CrlClientOnline(url + "/crl");
+        client.setRevocationCache(other);
+        Assert.assertArrayEquals(crl, client.getEncoded(cert, null).iterator().next());
+        Assert.assertEquals(1, crlRequests.get());
+        Assert.assertEquals(1, other.getHits());
+        cache.clear();
+    }
+
+    @Test
+    public void ocspCacheTest() throws Exception {
+        RevocationDataCache cache = new RevocationDataCache();
+        OcspClientBouncyCastle client = new OcspClientBouncyCastle();
+        client.setRevocationCache(cache);
+        byte[] first = client.getEncoded(cert, cert, url + "/ocsp");
+        Assert.assertNotNull(first);
+        Assert.assertArrayEquals(first, client.getEncoded(cert, cert, url + "/ocsp"));
+        Assert.assertEquals(1, ocspRequests.get());
+        Assert.assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void ocspCopiedTest() throws Exception {
+        RevocationDataCache cache = new RevocationDataCache();
+        OcspClientBouncyCastle client = new OcspClientBouncyCastle();
+        client.setRevocationCache(cache);
+        byte[] first = client.getEncoded(cert, cert, url + "/ocsp");
+        byte[] original = first.clone();
+        first[0] ^= 1;
+        byte[] second = client.getEncoded(cert, cert, url + "/ocsp");
+        Assert.assertArrayEquals(original, second);
+        second[0] ^= 1;
+        Assert.assertArrayEquals(original, client.getEncoded(cert, cert, url + "/ocsp"));
+        Assert.assertEquals(1, ocspRequests.get());
+    }
+
+    @Test
+    public void ltvVerificationTest() throws Exception {
+        byte[] pdf = createPdf();
+        for (int k = 0; k < 3; ++k)
+            pdf = sign(pdf);
+        PdfReader reader = new PdfReader(pdf);
+        ArrayList<String> names = reader.getAcroFields().getSignatureNames();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfStamper stamper = new PdfStamper(reader, baos, '\0', true);
+        LtvVerification ltv = stamper.getLtvVerification();
+        CrlClientOnline crlClient = new CrlClientOnline(url + "/crl");
+        RevocationDataCache cache = new RevocationDataCache();
+        crlClient.setRevocationCache(cache);
+        for (String name : names)
+            Assert.assertTrue(ltv.addVerification(name, null, crlClient, LtvVerification.CertificateOption.SIGNING_CERTIFICATE,
+                    LtvVerification.Level.CRL, LtvVerification.CertificateInclusion.NO));
+        stamper.close();
+        Assert.assertEquals(1, crlRequests.get());
+        Assert.assertEquals(2, cache.getHits());
+        reader = new PdfReader(baos.toByteArray());
+        PdfDictionary dss = reader.getCatalog().getAsDict(PdfName.DSS);
+        Assert.assertEquals(1, dss.getAsArray(PdfName.CRLS).size());
+        Assert.assertEquals(3, dss.getAsDict(PdfName.VRI).size());
+        reader.close();
+    }
+
+    private byte[] createCrl() throws Exception {
+        Date now = new Date();
+        X509v2CRLBuilder builder = new X509v2CRLBuilder(X500Name.getInstance(cert.getIssuerX500Principal().getEncoded()), new Date(now.getTime() - 3600000));
+        builder.setNextUpdate(new Date(now.getTime() + validity));
+        ContentSigner signer = new JcaContentSignerBuilder("SHA256withRSA").setProvider("BC").build(pk);
+        X509CRLHolder crl = builder.build(signer);
+        return crl.getEncoded();
+    }
+
+    private byte[] createOcspResponse(OCSPReq request) throws Exception {
+        X509CertificateHolder holder = new X509CertificateHolder(cert.getEncoded());
+        BasicOCSPRespBuilder builder = new BasicOCSPRespBuilder(new RespID(holder.getSubject()));
+        Date now = new Date();
+        builder.addResponse(request.getRequestList()[0].getCertID(), CertificateStatus.GOOD, now, new Date(now.getTime() + validity), null);
+        ContentSigner signer = new JcaContentSignerBuilder("SHA256withRSA").setProvider("BC").build(pk);
+        BasicOCSPResp basic = builder.build(signer, new X509CertificateHolder[]{holder}, now);
+        OCSPResp response = new OCSPRespBuilder().build(OCSPRespBuilder.SUCCESSFUL, basic);
+        return response.getEncoded();
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(body);
+        out.close();
+    }
+
+    private byte[] sign(byte[] pdf) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfStamper stamper = PdfStamper.createSignature(new PdfReader(pdf), baos, '\0', null, true);
+        PdfSignatureAppearance appearance = stamper.getSignatureAppearance();
+        MakeSignature.signDetached(appearance, new BouncyCastleDigest(),
+                new PrivateKeySignature(pk, DigestAlgorithms.SHA256, "BC"), chain, null, null, null, 0, MakeSignature.CryptoStandard.CMS);
+        return baos.toByteArray();
+    }
+
+    private byte[] createPdf() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document();
+        PdfWriter.getInstance(document, baos);
+        document.open();
+        document.add(new Paragraph("Revocation"));
+        document.close();
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,126 @@
+package com.itextpdf.text.signature;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.AcroFields;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfSignatureAppearance;
+import com.itextpdf.text.pdf.PdfStamper;
+import com.itextpdf.text.pdf.PdfWriter;
+import com.itextpdf.text.pdf.security.BouncyCastleDigest;
+import com.itextpdf.text.pdf.security.DigestAlgorithms;
+import com.itextpdf.text.pdf.security.MakeSignature;
+import com.itextpdf.text.pdf.security.PdfPKCS7;
+import com.itextpdf.text.pdf.security.PrivateKeySignature;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+
+public class VerifySignaturesTest {
+
+    public static final String KEYSTORE = "./src/test/resources/com/itextpdf/text/signature/ds-ks/ks";
+    public static final char[] PASSWORD = "password".toCharArray();
+
+    private PrivateKey pk;
+    private Certificate[] chain;
+
+    @Before
+    public void setUp() throws Exception {
+        BouncyCastleProvider provider = new BouncyCastleProvider();
+        Security.addProvider(provider);
+        KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
+        ks.load(new FileInputStream(KEYSTORE), PASSWORD);
+        String alias = ks.aliases().nextElement();
+        pk = (PrivateKey) ks.getKey(alias, PASSWORD);
+        chain = ks.getCertificateChain(alias);
+    }
+
+    @Test
+    public void verifySignaturesTest() throws Exception {
+        byte[] pdf = createSignedPdf(3);
+        PdfReader reader = new PdfReader(pdf);
+        AcroFields af = reader.getAcroFields();
+        ArrayList<String> names = af.getSignatureNames();
+        Assert.assertEquals(3, names.size());
+        Map<String, PdfPKCS7> pks = af.verifySignatures();
+        Assert.assertEquals(names, new ArrayList<String>(pks.keySet()));
+        for (String name : names) {
+            PdfPKCS7 batch = pks.get(name);
+            PdfPKCS7 single = af.verifySignature(name);
+            Assert.assertTrue(name, batch.verify());
+            Assert.assertTrue(name, single.verify());
+            Assert.assertEquals(single.getReason(), batch.getReason());
+            Assert.assertEquals(single.getSignDate(), batch.getSignDate());
+        }
+        reader.close();
+    }
+
+    @Test
+    public void verifySignaturesModifiedTest() throws Exception {
+        byte[] pdf = createSignedPdf(2);
+        // change a byte of the first revision, before any signature
+        pdf[20] ^= 1;
+        PdfReader reader = new PdfReader(pdf);
+        AcroFields af = reader.getAcroFields();
+        Map<String, PdfPKCS7> pks = af.verifySignatures();
+        Assert.assertEquals(2, pks.size());
+        for (Map.Entry<String, PdfPKCS7> entry : pks.entrySet()) {
+            Assert.assertFalse(entry.getKey(), entry.getValue().verify());
+            Assert.assertFalse(entry.getKey(), af.verifySignature(entry.getKey()).verify());
+        }
+        reader.close();
+    }
+
+    @Test
+    public void verifySignaturesSubsetTest() throws Exception {
+        byte[] pdf = createSignedPdf(3);
+        PdfReader reader = new PdfReader(pdf);
+        AcroFields af = reader.getAcroFields();
+        ArrayList<String> names = af.getSignatureNames();
+        ArrayList<String> subset = new ArrayList<String>();
+        subset.add(names.get(2));
+        subset.add("NotASignature");
+        subset.add(names.get(0));
+        Map<String, PdfPKCS7> pks = af.verifySignatures(subset, null);
+        Iterator<String> it = pks.keySet().iterator();
+        Assert.assertEquals(names.get(2), it.next());
+        Assert.assertEquals(names.get(0), it.next());
+        Assert.assertFalse(it.hasNext());
+        for (PdfPKCS7 pkcs7 : pks.values())
+            Assert.assertTrue(pkcs7.verify());
+        reader.close();
+    }
+
+    private byte[] createSignedPdf(int signatures) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document();
+        PdfWriter.getInstance(document, baos);
+        document.open();
+        for (int k = 0; k < 50; ++k)
+            document.add(new Paragraph("Signed paragraph " + k));
+        document.close();
+        byte[] pdf = baos.toByteArray();
+        for (int k = 0; k < signatures; ++k) {
+            PdfReader reader = new PdfReader(pdf);
+            baos = new ByteArrayOutputStream();
+            PdfStamper stamper = PdfStamper.createSignature(reader, baos, '\0', null, true);
+            PdfSignatureAppearance appearance = stamper.getSignatureAppearance();
+            appearance.setReason("Revision " + k);
+            MakeSignature.signDetached(appearance, new BouncyCastleDigest(),
+                    new PrivateKeySignature(pk, DigestAlgorithms.SHA256, "BC"), chain, null, null, null, 0, MakeSignature.CryptoStandard.CMS);
+            pdf = baos.toByteArray();
+        }
+        return pdf;
+    }
+}